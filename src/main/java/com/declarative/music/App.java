@@ -1,26 +1,38 @@
 package com.declarative.music;
 
+import com.declarative.music.interpreter.CompiledExecutor;
 import com.declarative.music.interpreter.Executor;
+import com.declarative.music.interpreter.ContextManager;
+import com.declarative.music.interpreter.Interpreter;
+import com.declarative.music.interpreter.bytecode.BytecodeBackend;
 import com.declarative.music.lexer.LexerImpl;
+import com.declarative.music.lexer.LexerStreamReader;
+import com.declarative.music.parser.ParallelParser;
 import com.declarative.music.parser.Parser;
+import com.declarative.music.parser.PipelinedLexer;
+import com.declarative.music.parser.exception.ParsingException;
+import com.declarative.music.parser.production.Program;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.cli.*;
 
-import java.io.FileReader;
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.file.Path;
 import java.util.Optional;
 
 
 @Slf4j
 public class App {
     public static void main(final String[] args) throws Exception {
-        final var filename = getFilename(args).orElseThrow();
+        final var cmd = parseArguments(args).orElseThrow();
+        final var filename = Optional.ofNullable(cmd.getOptionValue("f")).orElseThrow();
         log.debug("Interpreting file: {}", filename);
-        final var lexer = new LexerImpl(new FileReader(filename));
-        final var parser = new Parser(lexer);
+        final var source = LexerStreamReader.load(Path.of(filename));
         try {
-            final var program = parser.parserProgram();
+            final var program = parse(source, cmd);
             log.info("Program parsed");
-            var interpreter = new Executor();
+            Interpreter interpreter = cmd.hasOption("c") ? new CompiledExecutor()
+                    : new Executor(new ContextManager(), cmd.hasOption("j") ? new BytecodeBackend() : null);
             program.accept(interpreter);
             log.info("Program finished");
         } catch (Exception e) {
@@ -29,12 +41,29 @@ public class App {
 
     }
 
-    private static Optional<String> getFilename(final String[] args) {
+    private static Program parse(final CharBuffer source, final CommandLine cmd) throws IOException, ParsingException {
+        if (cmd.hasOption("m")) {
+            return new ParallelParser(source).parserProgram();
+        }
+        final var lexer = new LexerImpl(source);
+        if (!cmd.hasOption("p")) {
+            return new Parser(lexer).parserProgram();
+        }
+        try (var pipelinedLexer = new PipelinedLexer(lexer)) {
+            return new Parser(pipelinedLexer).parserProgram();
+        }
+    }
+
+    private static Optional<CommandLine> parseArguments(final String[] args) {
         final var options = new Options();
         options.addOption(new Option("f", true, "filename"));
+        options.addOption(new Option("c", false, "execute program compiled to closures"));
+        options.addOption(new Option("j", false,
+                "compile lambdas and loops to JVM bytecode, the only mode reading Int and Double arrays without allocation"));
+        options.addOption(new Option("p", false, "lex on a separate thread while parsing"));
+        options.addOption(new Option("m", false, "lex and parse top-level statements in parallel"));
         try {
-            final CommandLine cmd = new DefaultParser().parse(options, args);
-            return Optional.of(cmd.getOptionValue("f"));
+            return Optional.of(new DefaultParser().parse(options, args));
         } catch (final ParseException e) {
             log.error("Error when parsing arguments", e);
         }
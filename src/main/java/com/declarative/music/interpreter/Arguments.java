@@ -0,0 +1,103 @@
+package com.declarative.music.interpreter;
+
+import com.declarative.music.interpreter.values.Variant;
+import com.declarative.music.interpreter.values.music.MusicTree;
+import com.declarative.music.interpreter.values.template.IndexTree;
+import com.declarative.music.parser.production.Parameter;
+import com.declarative.music.parser.production.type.InferenceType;
+import com.declarative.music.parser.production.type.SimpleType;
+import com.declarative.music.parser.production.type.Type;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.function.Function;
+
+
+/**
+ * Binding of call arguments to parameters shared by {@link Executor} and {@link ClosureCompiler}, so both engines
+ * validate arguments and report wrong ones alike.
+ */
+public final class Arguments {
+    private Arguments() {
+    }
+
+    /**
+     * @param evaluate computes value of an argument, arguments are evaluated in order
+     * @param proven   arguments were proven by {@link Specializer} to match parameter types, so they are not validated
+     */
+    static <A> LinkedHashMap<String, Variant<?>> bind(final List<Parameter> parameters, final List<A> args,
+                                                      final Function<? super A, Variant<?>> evaluate,
+                                                      final boolean proven) {
+        if (parameters.size() != args.size()) {
+            throw new RuntimeException("INTERPRETATION ERROR wrong number of arguments expected %s got %s"
+                    .formatted(parameters.size(), args.size()));
+        }
+        var arguments = new LinkedHashMap<String, Variant<?>>();
+        for (int i = 0; i < args.size(); i++) {
+            var parameter = parameters.get(i);
+            if (proven) {
+                arguments.put(parameter.name(), evaluate.apply(args.get(i)));
+                continue;
+            }
+            var parameterType = typeClass(parameter.type());
+            var value = evaluate.apply(args.get(i));
+            validateType(parameterType, value, "argument");
+            arguments.put(parameter.name(), value);
+        }
+        return arguments;
+    }
+
+    /**
+     * Binds the value passed through a pipe to the first parameter and the call arguments to the rest of them.
+     *
+     * @param proven arguments were proven by {@link Specializer} to match parameter types, so they are not validated
+     */
+    static <A> LinkedHashMap<String, Variant<?>> bindInline(final Variant<?> piped, final List<Parameter> parameters,
+                                                            final List<A> args,
+                                                            final Function<? super A, Variant<?>> evaluate,
+                                                            final boolean proven) {
+        var arguments = new LinkedHashMap<String, Variant<?>>();
+        if (!proven) {
+            validateType(typeClass(parameters.getFirst().type()), piped, "argument");
+        }
+        arguments.put(parameters.getFirst().name(), piped);
+
+        if (parameters.size() - 1 != args.size()) {
+            throw new RuntimeException("INTERPRETATION ERROR wrong number of arguments expected %s got %s"
+                    .formatted(parameters.size(), args.size() + 1));
+        }
+        arguments.putAll(bind(parameters.subList(1, parameters.size()), args, evaluate, proven));
+        return arguments;
+    }
+
+    static void validateType(final Class<?> referenceType, final Variant<?> value, final String place) {
+        if (referenceType == InferenceType.class) {
+            return;
+        }
+        if (referenceType != value.valueType()) {
+            throw new RuntimeException("INTERPRETATION ERROR wrong %s type expected %s got %s"
+                    .formatted(place, referenceType.getSimpleName(), value.valueType().getSimpleName()));
+        }
+    }
+
+    /**
+     * @return class of values of the type, {@link InferenceType} when any value is accepted
+     */
+    static Class<?> typeClass(final Type type) {
+        if (type instanceof InferenceType) {
+            return InferenceType.class;
+        }
+        if (!(type instanceof SimpleType simpleType)) {
+            throw new IllegalStateException("Value is not of type: " + Class.class.getName());
+        }
+        return switch (simpleType.type()) {
+            case Int -> Integer.class;
+            case Double -> Double.class;
+            case String -> String.class;
+            case Void -> InferenceType.class;
+            case Template -> IndexTree.class;
+            case Phrase -> MusicTree.class;
+            case null, default -> throw new UnsupportedOperationException("Unknown type");
+        };
+    }
+}
@@ -0,0 +1,278 @@
+package com.declarative.music.interpreter;
+
+import com.declarative.music.interpreter.tree.SimpleNode;
+import com.declarative.music.interpreter.tree.modifier.NoteModifier;
+import com.declarative.music.interpreter.values.DoubleArray;
+import com.declarative.music.interpreter.values.IntArray;
+import com.declarative.music.interpreter.values.Variant;
+import com.declarative.music.interpreter.values.music.MusicTree;
+import com.declarative.music.interpreter.values.music.Note;
+import com.declarative.music.interpreter.values.music.Song;
+import com.declarative.music.midi.MidiFileReader;
+import com.declarative.music.midi.MidiRenderer;
+import com.declarative.music.midi.WavRenderer;
+import com.declarative.music.parser.production.Parameter;
+import com.declarative.music.parser.production.Parameters;
+import com.declarative.music.parser.production.type.InferenceType;
+import com.declarative.music.parser.production.type.SimpleType;
+import com.declarative.music.parser.production.type.Types;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+
+
+/**
+ * Functions available in every program, shared by all execution engines.
+ */
+public final class Builtins {
+    record BuiltInFunction(Parameters parameters, Function<Map<String, Variant<?>>, Variant<?>> code) {
+    }
+
+    static final Map<String, BuiltInFunction> FUNCTIONS = Map.ofEntries(
+            Map.entry("print", new BuiltInFunction(new Parameters(List.of(
+                    new Parameter(new InferenceType(null), "value")
+            )), (arguments) -> {
+                System.out.println(arguments.get("value").value().toString());
+                return null;
+            })),
+            Map.entry("at", new BuiltInFunction(new Parameters(List.of(
+                    new Parameter(new InferenceType(null), "array"),
+                    new Parameter(new SimpleType(Types.Int, null), "index")
+            )), (arguments) -> {
+                var index = arguments.get("index").castTo(Integer.class);
+                var iterable = arguments.get("array").castTo(List.class);
+                return (Variant<?>) iterable.get(index);
+            })),
+            Map.entry("rand", new BuiltInFunction(new Parameters(List.of(
+            )), (arguments) -> {
+                return new Variant<>(new Random().nextInt(4000000), Integer.class);
+            })),
+            Map.entry("panic", new BuiltInFunction(new Parameters(List.of(
+                    new Parameter(new SimpleType(Types.String, null), "msg")
+            )), (arguments) -> {
+                var msg = arguments.get("msg").castTo(String.class);
+                throw new RuntimeException("Error: " + msg);
+            })),
+            Map.entry("head", new BuiltInFunction(new Parameters(List.of(
+                    new Parameter(new InferenceType(null), "array")
+            )), (arguments) -> {
+                var iterable = arguments.get("array").castTo(List.class);
+                return (Variant<?>) iterable.getFirst();
+            })),
+            Map.entry("len", new BuiltInFunction(new Parameters(List.of(
+                    new Parameter(new InferenceType(null), "array")
+            )), (arguments) -> {
+                var iterable = arguments.get("array").castTo(List.class);
+                return new Variant<>(iterable.size(), Integer.class);
+            })),
+            Map.entry("mel", new BuiltInFunction(new Parameters(List.of(
+                    new Parameter(new InferenceType(null), "array")
+            )), (arguments) -> {
+                List<?> iterable = arguments.get("array").castTo(List.class);
+                var sequence = new MusicTree();
+                for (var item : iterable) {
+                    sequence.appendToSequence(((Variant<?>) item).castTo(MusicTree.class));
+                }
+                return new Variant<>(sequence, MusicTree.class);
+            })),
+            Map.entry("harm", new BuiltInFunction(new Parameters(List.of(
+                    new Parameter(new InferenceType(null), "array")
+            )), (arguments) -> {
+                List<?> iterable = arguments.get("array").castTo(List.class);
+                var sequence = new MusicTree();
+                for (var item : iterable) {
+                    sequence.appendToGroup(((Variant<?>) item).castTo(MusicTree.class));
+                }
+                return new Variant<>(sequence, MusicTree.class);
+            })),
+            Map.entry("song", new BuiltInFunction(new Parameters(List.of(
+                    new Parameter(new InferenceType(null), "tree"),
+                    new Parameter(new SimpleType(Types.Int, null), "bpm"),
+                    new Parameter(new SimpleType(Types.String, null), "instrument")
+            )), (arguments) -> {
+                var tree = arguments.get("tree").castTo(MusicTree.class);
+                var bpm = arguments.get("bpm").castTo(Integer.class);
+                var instrument = arguments.get("instrument").castTo(String.class);
+                return new Variant<>(new Song(tree, bpm, instrument), Song.class);
+            })),
+            Map.entry("transpose", new BuiltInFunction(new Parameters(List.of(
+                    new Parameter(new InferenceType(null), "tree"),
+                    new Parameter(new SimpleType(Types.Int, null), "value")
+            )), (arguments) -> {
+                var tree = arguments.get("tree").castTo(MusicTree.class);
+                var index = arguments.get("value").castTo(Integer.class);
+                var transposedNode = tree.map((node) -> {
+                    var currentNote = node.getValue();
+                    var pitch = currentNote.getPitch() == null ? ((NoteModifier) node.modifier()).getPitch() : currentNote.getPitch();
+                    var duration = currentNote.getDuration() == null ? ((NoteModifier) node.modifier()).getRythm() : currentNote.getDuration();
+                    var octave = currentNote.getOctave() == null ? ((NoteModifier) node.modifier()).getOctave() : currentNote.getOctave();
+                    var note = Note.of(
+                            pitch,
+                            octave + index,
+                            duration
+                    );
+                    var newNode = new SimpleNode<>(note);
+                    newNode.setModifier(node.modifier());
+                    return newNode;
+                });
+                return new Variant<>(new MusicTree(transposedNode), MusicTree.class);
+            })),
+            Map.entry("export", new BuiltInFunction(new Parameters(List.of(
+                    new Parameter(new InferenceType(null), "song"),
+                    new Parameter(new SimpleType(Types.String, null), "fileName")
+            )), (arguments) -> {
+                var song = arguments.get("song");
+                var fileName = arguments.get("fileName").castTo(String.class);
+                try {
+                    if (song.value() instanceof List<?>) {
+                        MidiRenderer.renderAndSaveMidi(songs(song), fileName);
+                    } else {
+                        var track = song.castTo(Song.class);
+                        MidiRenderer.renderAndSaveMidi(track.getSong(), fileName, track.getBPM(), track.getInstrument());
+                    }
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+                return null;
+            })),
+            Map.entry("open", new BuiltInFunction(new Parameters(List.of(
+                    new Parameter(new SimpleType(Types.String, null), "fileName"),
+                    new Parameter(new SimpleType(Types.Int, null), "track")
+            )), (arguments) -> {
+                var fileName = arguments.get("fileName").castTo(String.class);
+                var track = arguments.get("track").castTo(Integer.class);
+                try (var reader = new MidiFileReader(Path.of(fileName))) {
+                    return new Variant<>(reader.readTrack(track), MusicTree.class);
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            })),
+            Map.entry("exportWav", new BuiltInFunction(new Parameters(List.of(
+                    new Parameter(new InferenceType(null), "song"),
+                    new Parameter(new SimpleType(Types.String, null), "fileName")
+            )), (arguments) -> {
+                var fileName = arguments.get("fileName").castTo(String.class);
+                try {
+                    WavRenderer.renderAndSaveWav(songs(arguments.get("song")), fileName);
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+                return null;
+            })),
+            Map.entry("sum", numericFunction("sum", ints -> new Variant<>(ints.sum(), Integer.class),
+                    doubles -> new Variant<>(doubles.sum(), Double.class))),
+            Map.entry("min", numericFunction("min", ints -> new Variant<>(ints.min(), Integer.class),
+                    doubles -> new Variant<>(doubles.min(), Double.class))),
+            Map.entry("max", numericFunction("max", ints -> new Variant<>(ints.max(), Integer.class),
+                    doubles -> new Variant<>(doubles.max(), Double.class))),
+            Map.entry("argmin", numericFunction("argmin", ints -> new Variant<>(ints.argmin(), Integer.class),
+                    doubles -> new Variant<>(doubles.argmin(), Integer.class))),
+            Map.entry("argmax", numericFunction("argmax", ints -> new Variant<>(ints.argmax(), Integer.class),
+                    doubles -> new Variant<>(doubles.argmax(), Integer.class))),
+            Map.entry("sort", numericFunction("sort", ints -> new Variant<>(ints.sorted(), List.class),
+                    doubles -> new Variant<>(doubles.sorted(), List.class)))
+    );
+
+    private Builtins() {
+    }
+
+    /**
+     * Function of one array of Int or Double values, computed on its primitive copy when the array is not primitive.
+     */
+    private static BuiltInFunction numericFunction(final String name, final Function<IntArray, Variant<?>> ints,
+                                                   final Function<DoubleArray, Variant<?>> doubles) {
+        return new BuiltInFunction(new Parameters(List.of(
+                new Parameter(new InferenceType(null), "array")
+        )), (arguments) -> switch (numeric(name, arguments.get("array"))) {
+            case IntArray array -> ints.apply(array);
+            case DoubleArray array -> doubles.apply(array);
+            default -> throw new IllegalStateException("Unknown numeric array");
+        });
+    }
+
+    private static List<Variant<?>> numeric(final String name, final Variant<?> argument) {
+        List<?> array = argument.castTo(List.class);
+        if (array instanceof IntArray ints) {
+            return ints;
+        }
+        if (array instanceof DoubleArray doubles) {
+            return doubles;
+        }
+        var first = array.isEmpty() ? null : ((Variant<?>) array.getFirst()).value();
+        if (first == null || first instanceof Integer) {
+            var ints = new IntArray(array.size());
+            array.forEach(element -> ints.addInt(((Variant<?>) element).castTo(Integer.class)));
+            return ints;
+        }
+        if (first instanceof Double) {
+            var doubles = new DoubleArray(array.size());
+            array.forEach(element -> doubles.addDouble(((Variant<?>) element).castTo(Double.class)));
+            return doubles;
+        }
+        throw new IllegalArgumentException("INTERPRETATION ERROR %s expects array of Int or Double values".formatted(name));
+    }
+
+    /**
+     * @return songs of an array or the single song
+     */
+    private static List<Song> songs(final Variant<?> value) {
+        if (value.value() instanceof List<?> songs) {
+            return songs.stream()
+                    .map(song -> ((Variant<?>) song).castTo(Song.class))
+                    .toList();
+        }
+        return List.of(value.castTo(Song.class));
+    }
+
+    /**
+     * Calls builtin from compiled code with plain values, arguments have to be already validated.
+     *
+     * @return plain value returned by the function or null
+     */
+    public static Object call(final String name, final Object[] arguments) {
+        var function = FUNCTIONS.get(name);
+        var parameters = function.parameters().parameters();
+        var values = new LinkedHashMap<String, Variant<?>>();
+        for (int i = 0; i < arguments.length; i++) {
+            var parameter = parameters.get(i);
+            if (arguments[i] == null) {
+                throw new IllegalStateException("INTERPRETATION ERROR %s argument %s has no value"
+                        .formatted(name, parameter.name()));
+            }
+            values.put(parameter.name(), variant(declaredType(parameter), arguments[i]));
+        }
+        var result = function.code().apply(values);
+        return result == null ? null : result.value();
+    }
+
+    /**
+     * @return class of values of the parameter, {@link Object} when its type is inferred
+     */
+    private static Class<?> declaredType(final Parameter parameter) {
+        if (!(parameter.type() instanceof SimpleType simpleType)) {
+            return Object.class;
+        }
+        return switch (simpleType.type()) {
+            case Int -> Integer.class;
+            case Double -> Double.class;
+            case String -> String.class;
+            case null, default -> Object.class;
+        };
+    }
+
+    private static <T> Variant<T> variant(final Class<T> type, final Object value) {
+        return new Variant<>(type.cast(value), type);
+    }
+
+    public static Map<String, Parameters> parameters() {
+        var parameters = new HashMap<String, Parameters>();
+        FUNCTIONS.forEach((name, function) -> parameters.put(name, function.parameters()));
+        return parameters;
+    }
+}
@@ -0,0 +1,7 @@
+package com.declarative.music.interpreter;
+
+/**
+ * Free variable of a lambda together with the slot it is read from when the closure is created.
+ */
+public record Capture(String name, Slot source) {
+}
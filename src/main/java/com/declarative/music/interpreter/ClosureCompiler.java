@@ -0,0 +1,613 @@
+package com.declarative.music.interpreter;
+
+import com.declarative.music.interpreter.values.ArrayBuilder;
+import com.declarative.music.interpreter.values.LambdaClousure;
+import com.declarative.music.interpreter.values.OperationRegistry;
+import com.declarative.music.interpreter.values.Variant;
+import com.declarative.music.parser.production.*;
+import com.declarative.music.parser.production.assign.*;
+import com.declarative.music.parser.production.expression.CastExpresion;
+import com.declarative.music.parser.production.expression.Expression;
+import com.declarative.music.parser.production.expression.VariableReference;
+import com.declarative.music.parser.production.expression.arithmetic.*;
+import com.declarative.music.parser.production.expression.array.ArrayExpression;
+import com.declarative.music.parser.production.expression.array.ListComprehension;
+import com.declarative.music.parser.production.expression.array.RangeExpression;
+import com.declarative.music.parser.production.expression.lambda.FunctionCall;
+import com.declarative.music.parser.production.expression.lambda.LambdaCall;
+import com.declarative.music.parser.production.expression.lambda.LambdaExpression;
+import com.declarative.music.parser.production.expression.modifier.ModifierExpression;
+import com.declarative.music.parser.production.expression.music.ConvolutionExpression;
+import com.declarative.music.parser.production.expression.music.NoteExpression;
+import com.declarative.music.parser.production.expression.music.ParallerExpression;
+import com.declarative.music.parser.production.expression.music.SequenceExpression;
+import com.declarative.music.parser.production.expression.pipe.InlineFuncCall;
+import com.declarative.music.parser.production.expression.pipe.PipeExpression;
+import com.declarative.music.parser.production.expression.relation.*;
+import com.declarative.music.parser.production.literal.BoolLiteral;
+import com.declarative.music.parser.production.literal.FloatLiteral;
+import com.declarative.music.parser.production.literal.IntLiteral;
+import com.declarative.music.parser.production.literal.StringLiter;
+import com.declarative.music.parser.production.type.*;
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+
+/**
+ * Compiles the AST once into a tree of {@link Evaluation} closures that return values directly instead of passing
+ * them through a visitor field. Semantics follow {@link Executor}, compiled closures share its {@link ContextManager},
+ * {@link Builtins} and {@link Operations}.
+ */
+public class ClosureCompiler implements Visitor {
+    @Getter
+    private final ContextManager manager;
+    private final Map<Interpretable, Slot> slots;
+    private final Map<LambdaExpression, List<Capture>> captures;
+    private final Set<Interpretable> provenCalls;
+    private final OperatorCaches caches;
+    private final Map<LambdaExpression, Evaluation> functions = new IdentityHashMap<>();
+    private boolean returned = false;
+    private Evaluation compiled;
+
+    /**
+     * @param slots       variables resolved by {@link ScopeResolver}, the rest is looked up by name
+     * @param captures    free variables of lambdas resolved by {@link ScopeResolver}
+     * @param provenCalls builtin calls which arguments were proven by {@link Specializer}
+     * @param caches      inline caches of binary operators created by {@link Specializer}
+     */
+    public ClosureCompiler(final ContextManager manager, final Map<Interpretable, Slot> slots,
+                           final Map<LambdaExpression, List<Capture>> captures, final Set<Interpretable> provenCalls,
+                           final OperatorCaches caches) {
+        this.manager = manager;
+        this.slots = slots;
+        this.captures = captures;
+        this.provenCalls = provenCalls;
+        this.caches = caches;
+    }
+
+    public ClosureCompiler(final ContextManager manager) {
+        this(manager, Map.of(), Map.of(), Set.of(), new OperatorCaches());
+    }
+
+    public Evaluation compile(final Interpretable node) {
+        node.accept(this);
+        var result = compiled;
+        compiled = null;
+        return result;
+    }
+
+    private Evaluation[] compileAll(final List<? extends Interpretable> nodes) {
+        var result = new Evaluation[nodes.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = compile(nodes.get(i));
+        }
+        return result;
+    }
+
+    private Evaluation function(final LambdaExpression expression) {
+        var body = functions.get(expression);
+        if (body == null) {
+            body = compile(expression.instructions());
+            functions.put(expression, body);
+        }
+        return body;
+    }
+
+    @FunctionalInterface
+    private interface PipedEvaluation {
+        Variant<?> evaluate(Variant<?> piped);
+    }
+
+    //region Runtime
+    private com.declarative.music.interpreter.values.VariableReference<?> lookup(final Slot slot, final String name) {
+        if (slot != null) {
+            var reference = manager.get(slot, name);
+            if (reference != null && reference.getValue() != null) {
+                return reference;
+            }
+        }
+        return manager.get(name).orElseThrow();
+    }
+
+    private void assign(final Slot slot, final String name, final Variant<?> value) {
+        if (slot == null) {
+            manager.upsert(name, value);
+            return;
+        }
+        manager.upsert(slot, name, value);
+    }
+
+    private Variant<?> call(final LambdaClousure clousure, final List<Evaluation> args) {
+        var parameters = clousure.expression().parameters().parameters();
+        return invoke(clousure, Arguments.bind(parameters, args, Evaluation::evaluate, false));
+    }
+
+    private Variant<?> invoke(final LambdaClousure clousure, final Map<String, Variant<?>> arguments) {
+        var body = function(clousure.expression());
+        manager.enterNewFrame(clousure);
+        manager.startNewScope();
+        arguments.forEach(manager::insert);
+        var result = body.evaluate();
+        manager.leaveNewScope();
+        manager.leaveFrame();
+        returned = false;
+        return result;
+    }
+    //endregion
+
+    //region Statement
+    @Override
+    public void visit(final Program program) {
+        var statements = compileAll(program.statements());
+        compiled = () -> {
+            Variant<?> result = null;
+            for (var statement : statements) {
+                result = statement.evaluate();
+            }
+            return result;
+        };
+    }
+
+    @Override
+    public void visit(final Block block) {
+        var statements = compileAll(block.statements());
+        compiled = () -> {
+            manager.startNewScope();
+            Variant<?> result = null;
+            for (var statement : statements) {
+                if (returned) {
+                    break;
+                }
+                result = statement.evaluate();
+            }
+            manager.leaveNewScope();
+            return result;
+        };
+    }
+
+    @Override
+    public void visit(final Declaration declaration) {
+        var name = declaration.name();
+        if (declaration.value() == null) {
+            compiled = () -> {
+                manager.insert(name, null);
+                return null;
+            };
+            return;
+        }
+        var value = compile(declaration.value());
+        compiled = () -> {
+            manager.insert(name, value.evaluate());
+            return null;
+        };
+    }
+
+    @Override
+    public void visit(final IfStatement ifStatement) {
+        if (ifStatement.condition() == null) {
+            ifStatement.instructions().accept(this);
+            return;
+        }
+        var condition = compile(ifStatement.condition());
+        var instructions = compile(ifStatement.instructions());
+        var otherwise = ifStatement.otherwise() == null ? null : compile(ifStatement.otherwise());
+        compiled = () -> {
+            if (condition.evaluate().castTo(Boolean.class)) {
+                return instructions.evaluate();
+            }
+            return otherwise == null ? null : otherwise.evaluate();
+        };
+    }
+
+    @Override
+    public void visit(final ForStatement forStatement) {
+        var iterable = compile(forStatement.iterable());
+        var instructions = compile(forStatement.instructions());
+        var name = forStatement.declaration().name();
+        compiled = () -> {
+            Variant<?> result = null;
+            for (var item : iterable.evaluate().castTo(List.class)) {
+                manager.startNewScope();
+                manager.insert(name, (Variant<?>) item);
+                result = instructions.evaluate();
+                manager.leaveNewScope();
+                if (returned) {
+                    break;
+                }
+            }
+            return result;
+        };
+    }
+
+    @Override
+    public void visit(final ReturnStatement returnStatement) {
+        var value = compile(returnStatement.value());
+        compiled = () -> {
+            var result = value.evaluate();
+            returned = true;
+            return result;
+        };
+    }
+
+    @Override
+    public void visit(final AssigmentStatement assigmentStatement) {
+        var slot = slots.get(assigmentStatement);
+        var name = assigmentStatement.identifier();
+        var value = compile(assigmentStatement.value());
+        compiled = () -> {
+            if (slot == null && !manager.contains(name)) {
+                throw new RuntimeException("INTERPRETATION ERROR");
+            }
+            assign(slot, name, value.evaluate());
+            return null;
+        };
+    }
+
+    @Override
+    public void visit(final DivAssignStatement divAssignStatement) {
+        compileAssign(divAssignStatement, Operations.DIV);
+    }
+
+    @Override
+    public void visit(final MinusAssignStatement minusAssignStatement) {
+        compileAssign(minusAssignStatement, Operations.MINUS);
+    }
+
+    @Override
+    public void visit(final ModuloAssignStatement moduloAssignStatement) {
+        compileAssign(moduloAssignStatement, Operations.MODULO);
+    }
+
+    @Override
+    public void visit(final MulAssignStatement mulAssignStatement) {
+        compileAssign(mulAssignStatement, Operations.MUL);
+    }
+
+    @Override
+    public void visit(final ParalerAssignStatement paralerAssignStatement) {
+        compileAssign(paralerAssignStatement, Operations.PARALLER);
+    }
+
+    @Override
+    public void visit(final PlusAssignStatement plusAssignStatement) {
+        compileAssign(plusAssignStatement, Operations.ADD);
+    }
+
+    @Override
+    public void visit(final PowAssignStatement powAssignStatement) {
+        compileAssign(powAssignStatement, Operations.POW);
+    }
+
+    @Override
+    public void visit(final SequenceAssignStatement sequenceAssignStatement) {
+        compileAssign(sequenceAssignStatement, Operations.SEQUENCE);
+    }
+
+    private void compileAssign(final AssignStmt assignStmt, final OperationRegistry operation) {
+        var slot = slots.get(assignStmt);
+        var name = assignStmt.identifier();
+        var value = compile(assignStmt.value());
+        compiled = () -> {
+            if (slot == null && !manager.contains(name)) {
+                throw new RuntimeException("INTERPRETATION ERROR");
+            }
+            var left = new Variant<>(lookup(slot, name), com.declarative.music.interpreter.values.VariableReference.class);
+            assign(slot, name, operation.apply(left, value.evaluate()));
+            return null;
+        };
+    }
+    //endregion
+
+    //region Expression
+    @Override
+    public void visit(final LambdaExpression lambdaExpression) {
+        function(lambdaExpression);
+        var freeVariables = captures.get(lambdaExpression);
+        compiled = () -> {
+            var clousure = freeVariables == null
+                    ? manager.captureAll(lambdaExpression)
+                    : manager.capture(lambdaExpression, freeVariables);
+            return new Variant<>(clousure, LambdaClousure.class);
+        };
+    }
+
+    @Override
+    public void visit(final VariableReference variableReference) {
+        var slot = slots.get(variableReference);
+        var name = variableReference.name();
+        compiled = () -> new Variant<>(lookup(slot, name), com.declarative.music.interpreter.values.VariableReference.class);
+    }
+
+    @Override
+    public void visit(final FunctionCall functionCall) {
+        var args = Arrays.asList(compileAll(functionCall.arguments()));
+        var builtin = Builtins.FUNCTIONS.get(functionCall.name());
+        if (builtin != null) {
+            var parameters = builtin.parameters().parameters();
+            var proven = provenCalls.contains(functionCall);
+            compiled = () -> builtin.code().apply(Arguments.bind(parameters, args, Evaluation::evaluate, proven));
+            return;
+        }
+        var slot = slots.get(functionCall);
+        var name = functionCall.name();
+        compiled = () -> call((LambdaClousure) lookup(slot, name).getValue(), args);
+    }
+
+    @Override
+    public void visit(final LambdaCall lambdaCall) {
+        var callee = compile(lambdaCall.call());
+        var args = Arrays.asList(compileAll(lambdaCall.arguments()));
+        compiled = () -> call(callee.evaluate().castTo(LambdaClousure.class), args);
+    }
+
+    @Override
+    public void visit(final InlineFuncCall inlineFuncCall) {
+        var call = compileInline(inlineFuncCall);
+        compiled = () -> call.evaluate(null);
+    }
+
+    @Override
+    public void visit(final PipeExpression pipeExpression) {
+        var left = compile(pipeExpression.left());
+        var right = compileInline(pipeExpression.right());
+        compiled = () -> right.evaluate(left.evaluate());
+    }
+
+    private PipedEvaluation compileInline(final InlineFuncCall inlineFuncCall) {
+        var args = Arrays.asList(compileAll(inlineFuncCall.arguments()));
+        var builtin = Builtins.FUNCTIONS.get(inlineFuncCall.name());
+        if (builtin != null) {
+            var parameters = builtin.parameters().parameters();
+            var proven = provenCalls.contains(inlineFuncCall);
+            return piped -> builtin.code().apply(Arguments.bindInline(piped, parameters, args, Evaluation::evaluate, proven));
+        }
+        var slot = slots.get(inlineFuncCall);
+        var name = inlineFuncCall.name();
+        return piped -> {
+            var lambda = (LambdaClousure) lookup(slot, name).getValue();
+            var parameters = lambda.expression().parameters().parameters();
+            return invoke(lambda, Arguments.bindInline(piped, parameters, args, Evaluation::evaluate, false));
+        };
+    }
+
+    @Override
+    public void visit(final ArrayExpression arrayExpression) {
+        var items = compileAll(arrayExpression.items());
+        compiled = () -> {
+            var elements = new ArrayBuilder(items.length);
+            for (var item : items) {
+                elements.add(item.evaluate());
+            }
+            return new Variant<>(elements.build(), List.class);
+        };
+    }
+
+    @Override
+    public void visit(final ListComprehension listComprehension) {
+        var iterable = compile(listComprehension.iterable());
+        var mapper = compile(listComprehension.mapper());
+        var name = listComprehension.tempName().name();
+        compiled = () -> {
+            var items = iterable.evaluate().castTo(List.class);
+            var results = new ArrayBuilder(items.size());
+            for (var item : items) {
+                manager.startNewScope();
+                manager.insert(name, (Variant<?>) item);
+                results.add(mapper.evaluate());
+                manager.leaveNewScope();
+            }
+            return new Variant<>(results.build(), List.class);
+        };
+    }
+
+    @Override
+    public void visit(final RangeExpression rangeExpression) {
+        var start = compile(rangeExpression.start());
+        var end = compile(rangeExpression.end());
+        compiled = () -> Operations.range(start.evaluate(), end.evaluate());
+    }
+
+    @Override
+    public void visit(final ModifierExpression modifierExpression) {
+        var modified = compile(modifierExpression.modified());
+        var items = modifierExpression.modifier().modifiers();
+        var names = items.stream().map(item -> item.name()).toArray(String[]::new);
+        var values = compileAll(items.stream().map(item -> item.expression()).toList());
+        compiled = () -> {
+            var value = modified.evaluate();
+            var results = new HashMap<String, Variant<?>>();
+            for (int i = 0; i < names.length; i++) {
+                results.put(names[i], values[i].evaluate());
+            }
+            return Operations.modify(value, results);
+        };
+    }
+
+    @Override
+    public void visit(final ConvolutionExpression convolutionExpression) {
+        var left = compile(convolutionExpression.left());
+        var right = compile(convolutionExpression.right());
+        compiled = () -> Operations.convolve(left.evaluate(), right.evaluate());
+    }
+
+    @Override
+    public void visit(final NoteExpression noteExpression) {
+        var octave = noteExpression.octave() == null ? null : compile(noteExpression.octave());
+        var pitch = noteExpression.pitch();
+        var duration = noteExpression.duration();
+        compiled = () -> Operations.note(pitch, octave == null ? null : octave.evaluate(), duration);
+    }
+
+    @Override
+    public void visit(final CastExpresion castExpresion) {
+        var value = compile(castExpresion.value());
+        var type = castExpresion.type();
+        compiled = () -> {
+            var result = value.evaluate();
+            return Operations.cast(result, Arguments.typeClass(type));
+        };
+    }
+
+    @Override
+    public void visit(final MinusUnaryExpression minusUnaryExpression) {
+        var value = compile(minusUnaryExpression.value());
+        compiled = () -> Operations.minus(value.evaluate());
+    }
+
+    @Override
+    public void visit(final PlusUnaryExpression plusUnaryExpression) {
+        var value = compile(plusUnaryExpression.value());
+        compiled = () -> Operations.plus(value.evaluate());
+    }
+
+    @Override
+    public void visit(final NegateExpression negateExpression) {
+        var value = compile(negateExpression.expression());
+        compiled = () -> Operations.negate(value.evaluate());
+    }
+
+    private void compileBinary(final OperationRegistry operation, final Expression node, final Expression leftExpression,
+                               final Expression rightExpression) {
+        var left = compile(leftExpression);
+        var right = compile(rightExpression);
+        var cache = caches.get(node);
+        compiled = () -> operation.apply(cache, left.evaluate(), right.evaluate());
+    }
+
+    @Override
+    public void visit(final SequenceExpression sequenceExpression) {
+        compileBinary(Operations.SEQUENCE, sequenceExpression, sequenceExpression.left(), sequenceExpression.right());
+    }
+
+    @Override
+    public void visit(final ParallerExpression parallerExpression) {
+        compileBinary(Operations.PARALLER, parallerExpression, parallerExpression.left(), parallerExpression.right());
+    }
+
+    @Override
+    public void visit(final AddExpression addExpression) {
+        compileBinary(Operations.ADD, addExpression, addExpression.left(), addExpression.right());
+    }
+
+    @Override
+    public void visit(final MulExpression mulExpression) {
+        compileBinary(Operations.MUL, mulExpression, mulExpression.left(), mulExpression.right());
+    }
+
+    @Override
+    public void visit(final DivExpression divExpression) {
+        compileBinary(Operations.DIV, divExpression, divExpression.left(), divExpression.right());
+    }
+
+    @Override
+    public void visit(final MinusExpression minusExpression) {
+        compileBinary(Operations.MINUS, minusExpression, minusExpression.left(), minusExpression.right());
+    }
+
+    @Override
+    public void visit(final ModuloExpression moduloExpression) {
+        compileBinary(Operations.MODULO, moduloExpression, moduloExpression.left(), moduloExpression.right());
+    }
+
+    @Override
+    public void visit(final PowExpression powExpression) {
+        compileBinary(Operations.POW, powExpression, powExpression.left(), powExpression.right());
+    }
+
+    @Override
+    public void visit(final AndExpression andExpression) {
+        compileBinary(Operations.AND, andExpression, andExpression.left(), andExpression.right());
+    }
+
+    @Override
+    public void visit(final OrExpression orExpression) {
+        compileBinary(Operations.OR, orExpression, orExpression.left(), orExpression.right());
+    }
+
+    @Override
+    public void visit(final EqExpression eqExpression) {
+        compileBinary(Operations.EQ, eqExpression, eqExpression.left(), eqExpression.right());
+    }
+
+    @Override
+    public void visit(final NotEqExpression notEqExpression) {
+        compileBinary(Operations.NOT_EQ, notEqExpression, notEqExpression.left(), notEqExpression.right());
+    }
+
+    @Override
+    public void visit(final GreaterEqExpression greaterEqExpression) {
+        compileBinary(Operations.GREATER_EQ, greaterEqExpression, greaterEqExpression.left(), greaterEqExpression.right());
+    }
+
+    @Override
+    public void visit(final GreaterExpression greaterExpression) {
+        compileBinary(Operations.GREATER, greaterExpression, greaterExpression.left(), greaterExpression.right());
+    }
+
+    @Override
+    public void visit(final LessEqExpression lessEqExpression) {
+        compileBinary(Operations.LESS_EQ, lessEqExpression, lessEqExpression.left(), lessEqExpression.right());
+    }
+
+    @Override
+    public void visit(final LessExpression lessExpression) {
+        compileBinary(Operations.LESS, lessExpression, lessExpression.left(), lessExpression.right());
+    }
+    //endregion
+
+    //region Literal
+    @Override
+    public void visit(final IntLiteral intLiteral) {
+        var value = new Variant<>(intLiteral.value(), Integer.class);
+        compiled = () -> value;
+    }
+
+    @Override
+    public void visit(final FloatLiteral floatLiteral) {
+        var value = new Variant<>(floatLiteral.value(), Double.class);
+        compiled = () -> value;
+    }
+
+    @Override
+    public void visit(final BoolLiteral boolLiteral) {
+        var value = new Variant<>(boolLiteral.value(), Boolean.class);
+        compiled = () -> value;
+    }
+
+    @Override
+    public void visit(final StringLiter stringLiter) {
+        var value = new Variant<>(stringLiter.value(), String.class);
+        compiled = () -> value;
+    }
+    //endregion
+
+    //region Type
+    @Override
+    public void visit(final SimpleType simpleType) {
+        compiled = () -> new Variant<>(Arguments.typeClass(simpleType), Class.class);
+    }
+
+    @Override
+    public void visit(final LambdaType lambdaType) {
+        var value = new Variant<>(lambdaType, LambdaType.class);
+        compiled = () -> value;
+    }
+
+    @Override
+    public void visit(final InferenceType inferenceType) {
+        var value = new Variant<>(InferenceType.class, Class.class);
+        compiled = () -> value;
+    }
+
+    @Override
+    public void visit(final ArrayType arrayType) {
+        compiled = () -> null;
+    }
+    //endregion
+}
@@ -0,0 +1,368 @@
+package com.declarative.music.interpreter;
+
+import com.declarative.music.interpreter.values.Variant;
+import com.declarative.music.parser.production.AssigmentStatement;
+import com.declarative.music.parser.production.Block;
+import com.declarative.music.parser.production.Declaration;
+import com.declarative.music.parser.production.ForStatement;
+import com.declarative.music.parser.production.IfStatement;
+import com.declarative.music.parser.production.Program;
+import com.declarative.music.parser.production.ReturnStatement;
+import com.declarative.music.parser.production.assign.DivAssignStatement;
+import com.declarative.music.parser.production.assign.MinusAssignStatement;
+import com.declarative.music.parser.production.assign.ModuloAssignStatement;
+import com.declarative.music.parser.production.assign.MulAssignStatement;
+import com.declarative.music.parser.production.assign.ParalerAssignStatement;
+import com.declarative.music.parser.production.assign.PlusAssignStatement;
+import com.declarative.music.parser.production.assign.PowAssignStatement;
+import com.declarative.music.parser.production.assign.SequenceAssignStatement;
+import com.declarative.music.parser.production.expression.CastExpresion;
+import com.declarative.music.parser.production.expression.VariableReference;
+import com.declarative.music.parser.production.expression.arithmetic.AddExpression;
+import com.declarative.music.parser.production.expression.arithmetic.DivExpression;
+import com.declarative.music.parser.production.expression.arithmetic.MinusExpression;
+import com.declarative.music.parser.production.expression.arithmetic.MinusUnaryExpression;
+import com.declarative.music.parser.production.expression.arithmetic.ModuloExpression;
+import com.declarative.music.parser.production.expression.arithmetic.MulExpression;
+import com.declarative.music.parser.production.expression.arithmetic.PlusUnaryExpression;
+import com.declarative.music.parser.production.expression.arithmetic.PowExpression;
+import com.declarative.music.parser.production.expression.array.ArrayExpression;
+import com.declarative.music.parser.production.expression.array.ListComprehension;
+import com.declarative.music.parser.production.expression.array.RangeExpression;
+import com.declarative.music.parser.production.expression.lambda.FunctionCall;
+import com.declarative.music.parser.production.expression.lambda.LambdaCall;
+import com.declarative.music.parser.production.expression.lambda.LambdaExpression;
+import com.declarative.music.parser.production.expression.modifier.ModifierExpression;
+import com.declarative.music.parser.production.expression.music.ConvolutionExpression;
+import com.declarative.music.parser.production.expression.music.NoteExpression;
+import com.declarative.music.parser.production.expression.music.ParallerExpression;
+import com.declarative.music.parser.production.expression.music.SequenceExpression;
+import com.declarative.music.parser.production.expression.pipe.InlineFuncCall;
+import com.declarative.music.parser.production.expression.pipe.PipeExpression;
+import com.declarative.music.parser.production.expression.relation.AndExpression;
+import com.declarative.music.parser.production.expression.relation.EqExpression;
+import com.declarative.music.parser.production.expression.relation.GreaterEqExpression;
+import com.declarative.music.parser.production.expression.relation.GreaterExpression;
+import com.declarative.music.parser.production.expression.relation.LessEqExpression;
+import com.declarative.music.parser.production.expression.relation.LessExpression;
+import com.declarative.music.parser.production.expression.relation.NegateExpression;
+import com.declarative.music.parser.production.expression.relation.NotEqExpression;
+import com.declarative.music.parser.production.expression.relation.OrExpression;
+import com.declarative.music.parser.production.literal.BoolLiteral;
+import com.declarative.music.parser.production.literal.FloatLiteral;
+import com.declarative.music.parser.production.literal.IntLiteral;
+import com.declarative.music.parser.production.literal.StringLiter;
+import com.declarative.music.parser.production.type.ArrayType;
+import com.declarative.music.parser.production.type.InferenceType;
+import com.declarative.music.parser.production.type.LambdaType;
+import com.declarative.music.parser.production.type.SimpleType;
+import lombok.Getter;
+
+
+/**
+ * {@link Interpreter} that runs programs compiled by {@link ClosureCompiler}. Visiting a node compiles it and runs the
+ * result at once. A {@link Program} has to pass the static passes run by {@link Executor} first, then its statements
+ * are compiled and run one by one, so statements before a failing one take effect as in {@link Executor}.
+ */
+public class CompiledExecutor implements Interpreter {
+    @Getter
+    private final ContextManager manager;
+    @Getter
+    private Variant<?> currentValue;
+    private ClosureCompiler compiler;
+
+    public CompiledExecutor(final ContextManager manager) {
+        this.manager = manager;
+        compiler = new ClosureCompiler(manager);
+    }
+
+    public CompiledExecutor() {
+        this(new ContextManager());
+    }
+
+    private void execute(final Interpretable node) {
+        currentValue = compiler.compile(node).evaluate();
+    }
+
+    @Override
+    public void visit(final Program program) {
+        program.accept(new TypeChecker(new ContextManager(manager.getGlobalFrame().copy())));
+        var specializer = new Specializer(Builtins.parameters());
+        program.accept(specializer);
+        var resolver = new ScopeResolver(manager.getGlobalFrame());
+        program.accept(resolver);
+        compiler = new ClosureCompiler(manager, resolver.getSlots(), resolver.getCaptures(), specializer.getProvenCalls(),
+                specializer.getCaches());
+        program.statements().forEach(this::execute);
+    }
+
+    @Override
+    public void visit(final AddExpression addExpression) {
+        execute(addExpression);
+    }
+
+    @Override
+    public void visit(final LambdaExpression lambdaExpression) {
+        execute(lambdaExpression);
+    }
+
+    @Override
+    public void visit(final AssigmentStatement assigmentStatement) {
+        execute(assigmentStatement);
+    }
+
+    @Override
+    public void visit(final Block block) {
+        execute(block);
+    }
+
+    @Override
+    public void visit(final Declaration declaration) {
+        execute(declaration);
+    }
+
+    @Override
+    public void visit(final IfStatement ifStatement) {
+        execute(ifStatement);
+    }
+
+    @Override
+    public void visit(final MinusUnaryExpression minusUnaryExpression) {
+        execute(minusUnaryExpression);
+    }
+
+    @Override
+    public void visit(final MulExpression mulExpression) {
+        execute(mulExpression);
+    }
+
+    @Override
+    public void visit(final PlusUnaryExpression plusUnaryExpression) {
+        execute(plusUnaryExpression);
+    }
+
+    @Override
+    public void visit(final ArrayExpression arrayExpression) {
+        execute(arrayExpression);
+    }
+
+    @Override
+    public void visit(final ListComprehension listComprehension) {
+        execute(listComprehension);
+    }
+
+    @Override
+    public void visit(final RangeExpression rangeExpression) {
+        execute(rangeExpression);
+    }
+
+    @Override
+    public void visit(final FunctionCall functionCall) {
+        execute(functionCall);
+    }
+
+    @Override
+    public void visit(final ModifierExpression modifierExpression) {
+        execute(modifierExpression);
+    }
+
+    @Override
+    public void visit(final ConvolutionExpression convolutionExpression) {
+        execute(convolutionExpression);
+    }
+
+    @Override
+    public void visit(final NoteExpression noteExpression) {
+        execute(noteExpression);
+    }
+
+    @Override
+    public void visit(final InlineFuncCall inlineFuncCall) {
+        execute(inlineFuncCall);
+    }
+
+    @Override
+    public void visit(final PipeExpression pipeExpression) {
+        execute(pipeExpression);
+    }
+
+    @Override
+    public void visit(final AndExpression andExpression) {
+        execute(andExpression);
+    }
+
+    @Override
+    public void visit(final EqExpression eqExpression) {
+        execute(eqExpression);
+    }
+
+    @Override
+    public void visit(final OrExpression orExpression) {
+        execute(orExpression);
+    }
+
+    @Override
+    public void visit(final CastExpresion castExpresion) {
+        execute(castExpresion);
+    }
+
+    @Override
+    public void visit(final VariableReference variableReference) {
+        execute(variableReference);
+    }
+
+    @Override
+    public void visit(final IntLiteral intLiteral) {
+        execute(intLiteral);
+    }
+
+    @Override
+    public void visit(final SequenceExpression sequenceExpression) {
+        execute(sequenceExpression);
+    }
+
+    @Override
+    public void visit(final ParallerExpression parallerExpression) {
+        execute(parallerExpression);
+    }
+
+    @Override
+    public void visit(final FloatLiteral floatLiteral) {
+        execute(floatLiteral);
+    }
+
+    @Override
+    public void visit(final DivAssignStatement divAssignStatement) {
+        execute(divAssignStatement);
+    }
+
+    @Override
+    public void visit(final MinusAssignStatement minusAssignStatement) {
+        execute(minusAssignStatement);
+    }
+
+    @Override
+    public void visit(final ModuloAssignStatement moduloAssignStatement) {
+        execute(moduloAssignStatement);
+    }
+
+    @Override
+    public void visit(final MulAssignStatement mulAssignStatement) {
+        execute(mulAssignStatement);
+    }
+
+    @Override
+    public void visit(final ParalerAssignStatement paralerAssignStatement) {
+        execute(paralerAssignStatement);
+    }
+
+    @Override
+    public void visit(final PlusAssignStatement plusAssignStatement) {
+        execute(plusAssignStatement);
+    }
+
+    @Override
+    public void visit(final PowAssignStatement powAssignStatement) {
+        execute(powAssignStatement);
+    }
+
+    @Override
+    public void visit(final SequenceAssignStatement sequenceAssignStatement) {
+        execute(sequenceAssignStatement);
+    }
+
+    @Override
+    public void visit(final DivExpression divExpression) {
+        execute(divExpression);
+    }
+
+    @Override
+    public void visit(final MinusExpression minusExpression) {
+        execute(minusExpression);
+    }
+
+    @Override
+    public void visit(final ModuloExpression moduloExpression) {
+        execute(moduloExpression);
+    }
+
+    @Override
+    public void visit(final PowExpression powExpression) {
+        execute(powExpression);
+    }
+
+    @Override
+    public void visit(final LambdaCall lambdaCall) {
+        execute(lambdaCall);
+    }
+
+    @Override
+    public void visit(final GreaterEqExpression greaterEqExpression) {
+        execute(greaterEqExpression);
+    }
+
+    @Override
+    public void visit(final GreaterExpression greaterExpression) {
+        execute(greaterExpression);
+    }
+
+    @Override
+    public void visit(final LessEqExpression lessEqExpression) {
+        execute(lessEqExpression);
+    }
+
+    @Override
+    public void visit(final LessExpression lessExpression) {
+        execute(lessExpression);
+    }
+
+    @Override
+    public void visit(final NegateExpression negateExpression) {
+        execute(negateExpression);
+    }
+
+    @Override
+    public void visit(final NotEqExpression notEqExpression) {
+        execute(notEqExpression);
+    }
+
+    @Override
+    public void visit(final BoolLiteral boolLiteral) {
+        execute(boolLiteral);
+    }
+
+    @Override
+    public void visit(final StringLiter stringLiter) {
+        execute(stringLiter);
+    }
+
+    @Override
+    public void visit(final ForStatement forStatement) {
+        execute(forStatement);
+    }
+
+    @Override
+    public void visit(final ReturnStatement returnStatement) {
+        execute(returnStatement);
+    }
+
+    @Override
+    public void visit(final SimpleType simpleType) {
+        execute(simpleType);
+    }
+
+    @Override
+    public void visit(final LambdaType lambdaType) {
+        execute(lambdaType);
+    }
+
+    @Override
+    public void visit(final InferenceType inferenceType) {
+        execute(inferenceType);
+    }
+
+    @Override
+    public void visit(final ArrayType arrayType) {
+        execute(arrayType);
+    }
+}
@@ -1,9 +1,12 @@
 package com.declarative.music.interpreter;
 
+import com.declarative.music.interpreter.values.LambdaClousure;
 import com.declarative.music.interpreter.values.VariableReference;
 import com.declarative.music.interpreter.values.Variant;
+import com.declarative.music.parser.production.expression.lambda.LambdaExpression;
 import lombok.Getter;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.Stack;
 
@@ -22,23 +25,38 @@ public class ContextManager {
     }
 
     public void upsert(String name, Variant<?> value) {
-        var frame = frames.empty() ? globalFrame : frames.peek();
-        frame.getValue(name).filter(ref -> ref.getValue() != null).ifPresentOrElse(ref -> {
-            if (ref.getValue().getClass() != value.valueType()) {
-                throw new RuntimeException("INTERPRETATION ERROR required %s provided %s"
-                        .formatted(ref.getValue().getClass().getSimpleName(), value.valueType().getSimpleName()));
-            }
-            ref.setValue(value.value());
-        }, () -> frame.saveValue(name, new VariableReference<>(value.value())));
+        var frame = currentFrame();
+        frame.getDeclared(name).ifPresentOrElse(ref -> assign(ref, value),
+                () -> frame.saveValue(name, new VariableReference<>(value.value())));
+    }
+
+    public void upsert(Slot slot, String name, Variant<?> value) {
+        var ref = get(slot, name);
+        if (ref == null) {
+            upsert(name, value);
+            return;
+        }
+        assign(ref, value);
+    }
+
+    private static void assign(VariableReference<?> ref, Variant<?> value) {
+        if (ref.getValue() != null && ref.getValue().getClass() != value.valueType()) {
+            throw new RuntimeException("INTERPRETATION ERROR required %s provided %s"
+                    .formatted(ref.getValue().getClass().getSimpleName(), value.valueType().getSimpleName()));
+        }
+        // the check above guarantees the value is of the class the variable holds
+        @SuppressWarnings("unchecked")
+        var variable = (VariableReference<Object>) ref;
+        variable.setValue(value.value());
     }
 
     void insert(String name, Variant<?> value) {
-        var frame = frames.empty() ? globalFrame : frames.peek();
+        var frame = currentFrame();
         if (frame.scopeContains(name)) {
             throw new IllegalArgumentException("Variable named: %s is already present in frame!".formatted(name));
         }
         if (value == null) {
-            frame.saveValue(name, null);
+            frame.saveValue(name, new VariableReference<>(null));
             return;
         }
         if (value.type() == VariableReference.class) {
@@ -48,6 +66,16 @@ public class ContextManager {
         frame.saveValue(name, new VariableReference<>(value.value()));
     }
 
+    /**
+     * Returns the variable stored under resolved slot or null when the slot does not hold variable with given name.
+     */
+    public VariableReference<?> get(Slot slot, String name) {
+        if (slot.depth() == Slot.CAPTURE) {
+            return currentFrame().capture(slot.index(), name);
+        }
+        return currentFrame().get(slot.index(), name);
+    }
+
     public Optional<VariableReference> get(String name) {
         if (frames.empty()) {
             return globalFrame.getValue(name);
@@ -59,6 +87,38 @@ public class ContextManager {
 
     }
 
+    /**
+     * Creates closure over the given free variables of the current frame.
+     */
+    public LambdaClousure capture(LambdaExpression expression, List<Capture> captures) {
+        var names = new String[captures.size()];
+        var values = new VariableReference<?>[captures.size()];
+        for (int i = 0; i < names.length; i++) {
+            var capture = captures.get(i);
+            names[i] = capture.name();
+            values[i] = Optional.<VariableReference<?>>ofNullable(get(capture.source(), capture.name()))
+                    .or(() -> currentFrame().getDeclared(capture.name()))
+                    .orElse(null);
+        }
+        return new LambdaClousure(expression, names, values);
+    }
+
+    /**
+     * Creates closure over every variable visible in the current frame, used when free variables are not known.
+     */
+    public LambdaClousure captureAll(LambdaExpression expression) {
+        var frame = currentFrame();
+        return new LambdaClousure(expression, frame.visibleNames(), frame.visibleValues());
+    }
+
+    public void enterNewFrame(LambdaClousure clousure) {
+        frames.push(new Frame(clousure.captureNames(), clousure.captures()));
+    }
+
+    private Frame currentFrame() {
+        return frames.empty() ? globalFrame : frames.peek();
+    }
+
     public void enterNewFrame() {
         frames.push(new Frame());
     }
@@ -0,0 +1,13 @@
+package com.declarative.music.interpreter;
+
+import com.declarative.music.interpreter.values.Variant;
+
+
+/**
+ * Part of a program compiled by {@link ClosureCompiler}. Expressions evaluate to their value, statements to the value
+ * of the last evaluated expression which becomes result of a function without return statement.
+ */
+@FunctionalInterface
+public interface Evaluation {
+    Variant<?> evaluate();
+}
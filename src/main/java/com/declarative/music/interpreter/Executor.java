@@ -1,14 +1,11 @@
 package com.declarative.music.interpreter;
 
-import com.declarative.music.interpreter.tree.Node;
-import com.declarative.music.interpreter.tree.SimpleNode;
-import com.declarative.music.interpreter.tree.modifier.NoteModifier;
+import com.declarative.music.interpreter.bytecode.BytecodeBackend;
+import com.declarative.music.interpreter.bytecode.CompiledUnit;
+import com.declarative.music.interpreter.values.ArrayBuilder;
 import com.declarative.music.interpreter.values.LambdaClousure;
 import com.declarative.music.interpreter.values.OperationRegistry;
 import com.declarative.music.interpreter.values.Variant;
-import com.declarative.music.interpreter.values.music.*;
-import com.declarative.music.interpreter.values.template.IndexTree;
-import com.declarative.music.midi.MidiRenderer;
 import com.declarative.music.parser.production.*;
 import com.declarative.music.parser.production.assign.*;
 import com.declarative.music.parser.production.expression.CastExpresion;
@@ -36,27 +33,35 @@ import com.declarative.music.parser.production.literal.StringLiter;
 import com.declarative.music.parser.production.type.*;
 import lombok.Getter;
 
-import javax.sound.midi.InvalidMidiDataException;
-import java.io.IOException;
 import java.util.*;
-import java.util.function.Consumer;
-import java.util.stream.IntStream;
-import java.util.stream.Stream;
 
 
-public class Executor implements Visitor {
+public class Executor implements Interpreter {
     @Getter
     private final ContextManager manager;
     @Getter
     private Variant<?> currentValue;
     private boolean returned = false;
+    private Map<Interpretable, Slot> slots = Map.of();
+    private Map<LambdaExpression, List<Capture>> captures = Map.of();
+    private Set<Interpretable> provenCalls = Set.of();
+    private OperatorCaches caches = new OperatorCaches();
+    private final BytecodeBackend backend;
 
     public Executor(final ContextManager manager) {
+        this(manager, null);
+    }
+
+    /**
+     * @param backend compiles lambdas and loops to bytecode, null when everything is interpreted
+     */
+    public Executor(final ContextManager manager, final BytecodeBackend backend) {
         this.manager = manager;
+        this.backend = backend;
     }
 
     public Executor() {
-        manager = new ContextManager();
+        this(new ContextManager());
     }
 
     private Variant<?> moveCurrentValue() {
@@ -65,200 +70,19 @@ public class Executor implements Visitor {
         return value;
     }
 
-    private final static Map<String, OperationRegistry> REGISTRY = Map.ofEntries(
-            Map.entry(AddExpression.class.getSimpleName(), new OperationRegistry()
-                    .register(Integer.class, Integer.class, Integer::sum, Integer.class)
-                    .register(Double.class, Double.class, Double::sum, Double.class)
-                    .register(String.class, String.class, String::concat, String.class)),
-            Map.entry(MinusExpression.class.getSimpleName(), new OperationRegistry()
-                    .register(Integer.class, Integer.class, (a, b) -> a - b, Integer.class)
-                    .register(Double.class, Double.class, (a, b) -> a - b, Double.class)),
-            Map.entry(DivExpression.class.getSimpleName(), new OperationRegistry()
-                    .register(Integer.class, Integer.class, (a, b) -> a / b, Integer.class)
-                    .register(Double.class, Double.class, (a, b) -> a / b, Double.class)),
-            Map.entry(MulExpression.class.getSimpleName(), new OperationRegistry()
-                    .register(Integer.class, Integer.class, (a, b) -> a * b, Integer.class)
-                    .register(Double.class, Double.class, (a, b) -> a * b, Double.class)
-                    .register(String.class, Integer.class, String::repeat, String.class)),
-            Map.entry(ModuloExpression.class.getSimpleName(), new OperationRegistry()
-                    .register(Integer.class, Integer.class, (a, b) -> a % b, Integer.class)
-                    .register(Double.class, Double.class, (a, b) -> a % b, Double.class)),
-            Map.entry(PowExpression.class.getSimpleName(), new OperationRegistry()
-                    .register(Integer.class, Integer.class, (a, b) -> (int) Math.pow(a, b), Integer.class)
-                    .register(Double.class, Double.class, Math::pow, Double.class)),
-            Map.entry(EqExpression.class.getSimpleName(), new OperationRegistry()
-                    .register(Integer.class, Integer.class, Integer::equals, Boolean.class)
-                    .register(Double.class, Double.class, Double::equals, Boolean.class)
-                    .register(Boolean.class, Boolean.class, Boolean::equals, Boolean.class)
-                    .register(String.class, String.class, String::equals, Boolean.class)),
-            Map.entry(GreaterExpression.class.getSimpleName(), new OperationRegistry()
-                    .register(Integer.class, Integer.class, (a, b) -> a > b, Boolean.class)
-                    .register(Double.class, Double.class, (a, b) -> a > b, Boolean.class)
-                    .register(String.class, String.class, (a, b) -> a.length() > b.length(), Boolean.class)),
-            Map.entry(GreaterEqExpression.class.getSimpleName(), new OperationRegistry()
-                    .register(Integer.class, Integer.class, (a, b) -> a >= b, Boolean.class)
-                    .register(Double.class, Double.class, (a, b) -> a >= b, Boolean.class)
-                    .register(String.class, String.class, (a, b) -> a.length() >= b.length(), Boolean.class)),
-            Map.entry(LessExpression.class.getSimpleName(), new OperationRegistry()
-                    .register(Integer.class, Integer.class, (a, b) -> a < b, Boolean.class)
-                    .register(Double.class, Double.class, (a, b) -> a < b, Boolean.class)
-                    .register(String.class, String.class, (a, b) -> a.length() < b.length(), Boolean.class)),
-            Map.entry(LessEqExpression.class.getSimpleName(), new OperationRegistry()
-                    .register(Integer.class, Integer.class, (a, b) -> a <= b, Boolean.class)
-                    .register(Double.class, Double.class, (a, b) -> a <= b, Boolean.class)
-                    .register(String.class, String.class, (a, b) -> a.length() <= b.length(), Boolean.class)),
-            Map.entry(NotEqExpression.class.getSimpleName(), new OperationRegistry()
-                    .register(Integer.class, Integer.class, (a, b) -> !a.equals(b), Boolean.class)
-                    .register(Double.class, Double.class, (a, b) -> !a.equals(b), Boolean.class)
-                    .register(Boolean.class, Boolean.class, (a, b) -> !a.equals(b), Boolean.class)
-                    .register(String.class, String.class, (a, b) -> !a.equals(b), Boolean.class)),
-            Map.entry(AndExpression.class.getSimpleName(), new OperationRegistry()
-                    .register(Boolean.class, Boolean.class, (a, b) -> a && b, Boolean.class)),
-            Map.entry(SequenceExpression.class.getSimpleName(), new OperationRegistry()
-                    .register(Note.class, Note.class, (a, b) -> new MusicTree().appendToSequence(a).appendToSequence(b), MusicTree.class)
-                    .register(MusicTree.class, Note.class, (a, b) -> new MusicTree().appendToSequence(a.copy()).appendToSequence(b), MusicTree.class)
-                    .register(Note.class, MusicTree.class, (a, b) -> new MusicTree().appendToSequence(a).appendToSequence(b.copy()), MusicTree.class)
-                    .register(MusicTree.class, MusicTree.class, (a, b) -> new MusicTree().appendToSequence(a.copy()).appendToSequence(b.copy()), MusicTree.class)
-
-                    .register(Integer.class, Integer.class, (a, b) -> new IndexTree().appendToSequence(a).appendToSequence(b), IndexTree.class)
-                    .register(IndexTree.class, Integer.class, (a, b) -> new IndexTree().appendToSequence(a.copy()).appendToSequence(b), IndexTree.class)
-                    .register(Integer.class, IndexTree.class, (a, b) -> new IndexTree().appendToSequence(a).appendToSequence(b.copy()), IndexTree.class)
-                    .register(IndexTree.class, IndexTree.class, (a, b) -> new IndexTree().appendToSequence(a.copy()).appendToSequence(b.copy()), IndexTree.class)
-            ),
-            Map.entry(ParallerExpression.class.getSimpleName(), new OperationRegistry()
-                    .register(Note.class, Note.class, (a, b) -> new MusicTree().appendToGroup(a).appendToGroup(b), MusicTree.class)
-                    .register(MusicTree.class, Note.class, (a, b) -> new MusicTree().appendToGroup(a.copy()).appendToGroup(b), MusicTree.class)
-                    .register(Note.class, MusicTree.class, (a, b) -> new MusicTree().appendToGroup(a).appendToGroup(b.copy()), MusicTree.class)
-                    .register(MusicTree.class, MusicTree.class, (a, b) -> new MusicTree().appendToGroup(a.copy()).appendToGroup(b.copy()), MusicTree.class)
-
-                    .register(Integer.class, Integer.class, (a, b) -> new IndexTree().appendToGroup(a).appendToGroup(b), IndexTree.class)
-                    .register(IndexTree.class, Integer.class, (a, b) -> new IndexTree().appendToGroup(a.copy()).appendToGroup(b), IndexTree.class)
-                    .register(Integer.class, IndexTree.class, (a, b) -> new IndexTree().appendToGroup(a).appendToGroup(b.copy()), IndexTree.class)
-                    .register(IndexTree.class, IndexTree.class, (a, b) -> new IndexTree().appendToGroup(a.copy()).appendToGroup(b.copy()), IndexTree.class)
-            ),
-            Map.entry(OrExpression.class.getSimpleName(), new OperationRegistry()
-                    .register(Boolean.class, Boolean.class, (a, b) -> a || b, Boolean.class)));
-
-    record BuiltInFunction(Parameters parameters, Consumer<Map<String, Variant<?>>> code) {
-    }
-
-    private final Map<String, BuiltInFunction> builtinFunctions = Map.ofEntries(
-            Map.entry("print", new BuiltInFunction(new Parameters(List.of(
-                    new Parameter(new InferenceType(null), "value")
-            )), (arguments) -> {
-                System.out.println(arguments.get("value").value().toString());
-            })),
-            Map.entry("at", new BuiltInFunction(new Parameters(List.of(
-                    new Parameter(new InferenceType(null), "array"),
-                    new Parameter(new SimpleType(Types.Int, null), "index")
-            )), (arguments) -> {
-                var index = arguments.get("index").castTo(Integer.class);
-                var iterable = arguments.get("array").castTo(List.class);
-                currentValue = (Variant<?>) iterable.get(index);
-            })),
-            Map.entry("rand", new BuiltInFunction(new Parameters(List.of(
-            )), (arguments) -> {
-                currentValue = new Variant<>(new Random().nextInt(4000000), Integer.class);
-            })),
-            Map.entry("panic", new BuiltInFunction(new Parameters(List.of(
-                    new Parameter(new SimpleType(Types.String, null), "msg")
-            )), (arguments) -> {
-                var msg = arguments.get("msg").castTo(String.class);
-                throw new RuntimeException("Error: " + msg);
-            })),
-            Map.entry("head", new BuiltInFunction(new Parameters(List.of(
-                    new Parameter(new InferenceType(null), "array")
-            )), (arguments) -> {
-                var iterable = arguments.get("array").castTo(List.class);
-                currentValue = (Variant<?>) iterable.getFirst();
-            })),
-            Map.entry("len", new BuiltInFunction(new Parameters(List.of(
-                    new Parameter(new InferenceType(null), "array")
-            )), (arguments) -> {
-                var iterable = arguments.get("array").castTo(List.class);
-                currentValue = new Variant<>(iterable.size(), Integer.class);
-            })),
-            Map.entry("mel", new BuiltInFunction(new Parameters(List.of(
-                    new Parameter(new InferenceType(null), "array")
-            )), (arguments) -> {
-                var iterable = arguments.get("array").castTo(List.class);
-                var sequence = new MusicTree();
-                for (var item : iterable) {
-                    var node = (Variant<MusicTree>) item;
-                    sequence.appendToSequence(node.value());
-                }
-                currentValue = new Variant<>(sequence, MusicTree.class);
-            })),
-            Map.entry("harm", new BuiltInFunction(new Parameters(List.of(
-                    new Parameter(new InferenceType(null), "array")
-            )), (arguments) -> {
-                var iterable = arguments.get("array").castTo(List.class);
-                var sequence = new MusicTree();
-                for (var item : iterable) {
-                    var node = (Variant<MusicTree>) item;
-                    sequence.appendToGroup(node.value());
-                }
-                currentValue = new Variant<>(sequence, MusicTree.class);
-            })),
-            Map.entry("song", new BuiltInFunction(new Parameters(List.of(
-                    new Parameter(new InferenceType(null), "tree"),
-                    new Parameter(new SimpleType(Types.Int, null), "bpm"),
-                    new Parameter(new SimpleType(Types.String, null), "instrument")
-            )), (arguments) -> {
-                var tree = arguments.get("tree").castTo(MusicTree.class);
-                var bpm = arguments.get("bpm").castTo(Integer.class);
-                var instrument = arguments.get("instrument").castTo(String.class);
-                currentValue = new Variant<>(new Song(tree, bpm, instrument), Song.class);
-            })),
-            Map.entry("transpose", new BuiltInFunction(new Parameters(List.of(
-                    new Parameter(new InferenceType(null), "tree"),
-                    new Parameter(new SimpleType(Types.Int, null), "value")
-            )), (arguments) -> {
-                var tree = arguments.get("tree").castTo(MusicTree.class);
-                var index = arguments.get("value").castTo(Integer.class);
-                var transposedNode = tree.map((node) -> {
-                    var currentNote = node.getValue();
-                    var pitch = currentNote.getPitch() == null ? ((NoteModifier) node.modifier()).getPitch() : currentNote.getPitch();
-                    var duration = currentNote.getDuration() == null ? ((NoteModifier) node.modifier()).getRythm() : currentNote.getDuration();
-                    var octave = currentNote.getOctave() == null ? ((NoteModifier) node.modifier()).getOctave() : currentNote.getOctave();
-                    var note = new Note(
-                            pitch,
-                            octave + index,
-                            duration
-                    );
-                    var newNode = new SimpleNode<>(note);
-                    newNode.setModifier(node.modifier());
-                    return newNode;
-                });
-                currentValue = new Variant<>(new MusicTree(transposedNode), MusicTree.class);
-            })),
-            Map.entry("export", new BuiltInFunction(new Parameters(List.of(
-                    new Parameter(new InferenceType(null), "song"),
-                    new Parameter(new SimpleType(Types.String, null), "fileName")
-            )), (arguments) -> {
-                var song = arguments.get("song").castTo(Song.class);
-                var fileName = arguments.get("fileName").castTo(String.class);
-                try {
-                    MidiRenderer.renderAndSaveMidi(song.getSong(), fileName, song.getBPM(), song.getInstrument());
-                } catch (InvalidMidiDataException | IOException e) {
-                    throw new RuntimeException(e);
-                }
-                currentValue = null;
-            }))
-    );
-
     @Override
     public void visit(final AddExpression addExpression) {
         addExpression.left().accept(this);
         var left = moveCurrentValue();
         addExpression.right().accept(this);
-        currentValue = REGISTRY.get(addExpression.getClass().getSimpleName()).apply(addExpression.getClass().getSimpleName(), left, currentValue);
+        currentValue = Operations.ADD.apply(caches.get(addExpression), left, currentValue);
     }
 
     @Override
     public void visit(final LambdaExpression lambdaExpression) {
-        var frame = manager.getFrames().empty() ? manager.getGlobalFrame().copy() : manager.getFrames().peek().copy();
-        currentValue = new Variant<>(new LambdaClousure(lambdaExpression, frame), LambdaClousure.class);
+        var freeVariables = captures.get(lambdaExpression);
+        var clousure = freeVariables == null ? manager.captureAll(lambdaExpression) : manager.capture(lambdaExpression, freeVariables);
+        currentValue = new Variant<>(clousure, LambdaClousure.class);
     }
 
 
@@ -268,6 +92,14 @@ public class Executor implements Visitor {
     @Override
     public void visit(final Program program) {
         program.accept(new TypeChecker(new ContextManager(manager.getGlobalFrame().copy())));
+        var specializer = new Specializer(Builtins.parameters());
+        program.accept(specializer);
+        provenCalls = specializer.getProvenCalls();
+        caches = specializer.getCaches();
+        var resolver = new ScopeResolver(manager.getGlobalFrame());
+        program.accept(resolver);
+        slots = resolver.getSlots();
+        captures = resolver.getCaptures();
         program.statements().forEach(stmt -> stmt.accept(this));
     }
     //endregion
@@ -288,118 +120,96 @@ public class Executor implements Visitor {
     //region Assigment
     @Override
     public void visit(final AssigmentStatement assigmentStatement) {
-        if (!manager.contains(assigmentStatement.identifier())) {
+        var slot = slots.get(assigmentStatement);
+        if (slot == null && !manager.contains(assigmentStatement.identifier())) {
             throw new RuntimeException("INTERPRETATION ERROR");
         }
 
         assigmentStatement.value().accept(this);
-        consumeCurrentValue(() -> manager.upsert(assigmentStatement.identifier(), currentValue));
+        consumeCurrentValue(() -> assign(slot, assigmentStatement.identifier(), currentValue));
 
     }
 
     @Override
     public void visit(final PlusAssignStatement plusAssignStatement) {
-        var varName = plusAssignStatement.identifier();
-        if (!manager.contains(varName)) {
-            throw new RuntimeException("INTERPRETATION ERROR");
-        }
-
-        new AddExpression(new VariableReference(varName, plusAssignStatement.position()), plusAssignStatement.value())
-                .accept(this);
-        consumeCurrentValue(() -> manager.upsert(varName, currentValue));
+        applyAssign(plusAssignStatement, Operations.ADD);
     }
 
-
     @Override
     public void visit(final DivAssignStatement divAssignStatement) {
-        var varName = divAssignStatement.identifier();
-        if (!manager.contains(varName)) {
-            throw new RuntimeException("INTERPRETATION ERROR");
-        }
-
-        new DivExpression(new VariableReference(varName, divAssignStatement.position()), divAssignStatement.value())
-                .accept(this);
-        consumeCurrentValue(() -> manager.upsert(varName, currentValue));
+        applyAssign(divAssignStatement, Operations.DIV);
     }
 
     @Override
     public void visit(final MinusAssignStatement minusAssignStatement) {
-        var varName = minusAssignStatement.identifier();
-        if (!manager.contains(varName)) {
-            throw new RuntimeException("INTERPRETATION ERROR");
-        }
-
-        new MinusExpression(new VariableReference(varName, minusAssignStatement.position()), minusAssignStatement.value())
-                .accept(this);
-        consumeCurrentValue(() -> manager.upsert(varName, currentValue));
-
+        applyAssign(minusAssignStatement, Operations.MINUS);
     }
 
     @Override
     public void visit(final ModuloAssignStatement moduloAssignStatement) {
-        var varName = moduloAssignStatement.identifier();
-        if (!manager.contains(varName)) {
-            throw new RuntimeException("INTERPRETATION ERROR");
-        }
-
-        new ModuloExpression(new VariableReference(varName, moduloAssignStatement.position()), moduloAssignStatement.value())
-                .accept(this);
-        consumeCurrentValue(() -> manager.upsert(varName, currentValue));
+        applyAssign(moduloAssignStatement, Operations.MODULO);
     }
 
     @Override
     public void visit(final MulAssignStatement mulAssignStatement) {
-        var varName = mulAssignStatement.identifier();
-        if (!manager.contains(varName)) {
-            throw new RuntimeException("INTERPRETATION ERROR");
-        }
-
-        new MulExpression(new VariableReference(varName, mulAssignStatement.position()), mulAssignStatement.value())
-                .accept(this);
-        consumeCurrentValue(() -> manager.upsert(varName, currentValue));
+        applyAssign(mulAssignStatement, Operations.MUL);
     }
 
     @Override
     public void visit(final ParalerAssignStatement paralerAssignStatement) {
-        var varName = paralerAssignStatement.identifier();
-        if (!manager.contains(varName)) {
-            throw new RuntimeException("INTERPRETATION ERROR");
-        }
-
-        new ParallerExpression(new VariableReference(varName, paralerAssignStatement.position()), paralerAssignStatement.value())
-                .accept(this);
-        consumeCurrentValue(() -> manager.upsert(varName, currentValue));
+        applyAssign(paralerAssignStatement, Operations.PARALLER);
     }
 
-
     @Override
     public void visit(final PowAssignStatement powAssignStatement) {
-        var varName = powAssignStatement.identifier();
-        if (!manager.contains(varName)) {
-            throw new RuntimeException("INTERPRETATION ERROR");
-        }
-
-        new PowExpression(new VariableReference(varName, powAssignStatement.position()), powAssignStatement.value())
-                .accept(this);
-        consumeCurrentValue(() -> manager.upsert(varName, currentValue));
+        applyAssign(powAssignStatement, Operations.POW);
     }
 
     @Override
     public void visit(final SequenceAssignStatement sequenceAssignStatement) {
-        var varName = sequenceAssignStatement.identifier();
-        if (!manager.contains(varName)) {
+        applyAssign(sequenceAssignStatement, Operations.SEQUENCE);
+    }
+
+    private void applyAssign(final AssignStmt assignStmt, final OperationRegistry operation) {
+        var varName = assignStmt.identifier();
+        var slot = slots.get(assignStmt);
+        if (slot == null && !manager.contains(varName)) {
             throw new RuntimeException("INTERPRETATION ERROR");
         }
 
-        new SequenceExpression(new VariableReference(varName, sequenceAssignStatement.position()), sequenceAssignStatement.value())
-                .accept(this);
-        consumeCurrentValue(() -> manager.upsert(varName, currentValue));
+        var left = new Variant<>(lookup(assignStmt, varName), com.declarative.music.interpreter.values.VariableReference.class);
+        assignStmt.value().accept(this);
+        currentValue = operation.apply(left, currentValue);
+        consumeCurrentValue(() -> assign(slot, varName, currentValue));
+    }
+
+    private void assign(final Slot slot, final String name, final Variant<?> value) {
+        if (slot == null) {
+            manager.upsert(name, value);
+            return;
+        }
+        manager.upsert(slot, name, value);
+    }
+
+    private com.declarative.music.interpreter.values.VariableReference<?> lookup(final Interpretable node, final String name) {
+        var slot = slots.get(node);
+        if (slot != null) {
+            var reference = manager.get(slot, name);
+            if (reference != null && reference.getValue() != null) {
+                return reference;
+            }
+        }
+        return manager.get(name).orElseThrow();
     }
     //endregion
 
     //region If
     @Override
     public void visit(final IfStatement ifStatement) {
+        if (ifStatement.condition() == null) {
+            ifStatement.instructions().accept(this);
+            return;
+        }
         ifStatement.condition().accept(this);
         var value = moveCurrentValue();
         if (value.castTo(Boolean.class)) {
@@ -427,6 +237,10 @@ public class Executor implements Visitor {
     //region For
     @Override
     public void visit(final ForStatement forStatement) {
+        if (backend != null && runCompiled(backend.compile(forStatement, this::variable), new Variant<?>[0])) {
+            currentValue = null;
+            return;
+        }
         forStatement.iterable().accept(this);
         var iterable = currentValue.castTo(List.class);
         currentValue = null;
@@ -471,24 +285,13 @@ public class Executor implements Visitor {
     @Override
     public void visit(final MinusUnaryExpression minusUnaryExpression) {
         minusUnaryExpression.value().accept(this);
-        currentValue = switch (currentValue.valueType().getSimpleName()) {
-            case "Integer" -> new Variant<>(-currentValue.castTo(Integer.class), Integer.class);
-            case "Double" -> new Variant<>(-currentValue.castTo(Double.class), Double.class);
-            default ->
-                    throw new IllegalStateException("INTERPRETATION ERROR cannot negate %s type".formatted(currentValue.type().getSimpleName()));
-        };
+        currentValue = Operations.minus(currentValue);
     }
 
     @Override
     public void visit(final PlusUnaryExpression plusUnaryExpression) {
         plusUnaryExpression.value().accept(this);
-        currentValue = switch (currentValue.valueType().getSimpleName()) {
-            case "Integer" -> new Variant<>(currentValue.castTo(Integer.class), Integer.class);
-            case "Double" -> new Variant<>(currentValue.castTo(Double.class), Double.class);
-            default ->
-                    throw new IllegalStateException("INTERPRETATION ERROR cannot plus %s type".formatted(currentValue.type().getSimpleName()));
-        };
-
+        currentValue = Operations.plus(currentValue);
     }
     //endregion
 
@@ -498,7 +301,7 @@ public class Executor implements Visitor {
         mulExpression.left().accept(this);
         var left = moveCurrentValue();
         mulExpression.right().accept(this);
-        currentValue = REGISTRY.get(mulExpression.getClass().getSimpleName()).apply(mulExpression.getClass().getSimpleName(), left, currentValue);
+        currentValue = Operations.MUL.apply(caches.get(mulExpression), left, currentValue);
 
     }
 
@@ -507,7 +310,7 @@ public class Executor implements Visitor {
         divExpression.left().accept(this);
         var left = moveCurrentValue();
         divExpression.right().accept(this);
-        currentValue = REGISTRY.get(divExpression.getClass().getSimpleName()).apply(divExpression.getClass().getSimpleName(), left, currentValue);
+        currentValue = Operations.DIV.apply(caches.get(divExpression), left, currentValue);
 
     }
 
@@ -516,7 +319,7 @@ public class Executor implements Visitor {
         minusExpression.left().accept(this);
         var left = moveCurrentValue();
         minusExpression.right().accept(this);
-        currentValue = REGISTRY.get(minusExpression.getClass().getSimpleName()).apply(minusExpression.getClass().getSimpleName(), left, currentValue);
+        currentValue = Operations.MINUS.apply(caches.get(minusExpression), left, currentValue);
     }
 
     @Override
@@ -524,8 +327,7 @@ public class Executor implements Visitor {
         moduloExpression.left().accept(this);
         var left = moveCurrentValue();
         moduloExpression.right().accept(this);
-        currentValue =
-                REGISTRY.get(moduloExpression.getClass().getSimpleName()).apply(moduloExpression.getClass().getSimpleName(), left, currentValue);
+        currentValue = Operations.MODULO.apply(caches.get(moduloExpression), left, currentValue);
 
     }
 
@@ -534,7 +336,7 @@ public class Executor implements Visitor {
         powExpression.left().accept(this);
         var left = moveCurrentValue();
         powExpression.right().accept(this);
-        currentValue = REGISTRY.get(powExpression.getClass().getSimpleName()).apply(powExpression.getClass().getSimpleName(), left, currentValue);
+        currentValue = Operations.POW.apply(caches.get(powExpression), left, currentValue);
 
     }
     //endregion
@@ -545,7 +347,7 @@ public class Executor implements Visitor {
         andExpression.left().accept(this);
         var left = moveCurrentValue();
         andExpression.right().accept(this);
-        currentValue = REGISTRY.get(andExpression.getClass().getSimpleName()).apply(andExpression.getClass().getSimpleName(), left, currentValue);
+        currentValue = Operations.AND.apply(caches.get(andExpression), left, currentValue);
 
     }
 
@@ -555,7 +357,7 @@ public class Executor implements Visitor {
         eqExpression.left().accept(this);
         var left = moveCurrentValue();
         eqExpression.right().accept(this);
-        currentValue = REGISTRY.get(eqExpression.getClass().getSimpleName()).apply(eqExpression.getClass().getSimpleName(), left, currentValue);
+        currentValue = Operations.EQ.apply(caches.get(eqExpression), left, currentValue);
     }
 
     @Override
@@ -563,7 +365,7 @@ public class Executor implements Visitor {
         orExpression.left().accept(this);
         var left = moveCurrentValue();
         orExpression.right().accept(this);
-        currentValue = REGISTRY.get(orExpression.getClass().getSimpleName()).apply(orExpression.getClass().getSimpleName(), left, currentValue);
+        currentValue = Operations.OR.apply(caches.get(orExpression), left, currentValue);
 
     }
 
@@ -572,8 +374,7 @@ public class Executor implements Visitor {
         greaterEqExpression.left().accept(this);
         var left = moveCurrentValue();
         greaterEqExpression.right().accept(this);
-        currentValue =
-                REGISTRY.get(greaterEqExpression.getClass().getSimpleName()).apply(greaterEqExpression.getClass().getSimpleName(), left, currentValue);
+        currentValue = Operations.GREATER_EQ.apply(caches.get(greaterEqExpression), left, currentValue);
     }
 
     @Override
@@ -581,7 +382,7 @@ public class Executor implements Visitor {
         greaterExpression.left().accept(this);
         var left = moveCurrentValue();
         greaterExpression.right().accept(this);
-        currentValue = REGISTRY.get(greaterExpression.getClass().getSimpleName()).apply("gr", left, currentValue);
+        currentValue = Operations.GREATER.apply(caches.get(greaterExpression), left, currentValue);
     }
 
     @Override
@@ -589,8 +390,7 @@ public class Executor implements Visitor {
         lessEqExpression.left().accept(this);
         var left = moveCurrentValue();
         lessEqExpression.right().accept(this);
-        currentValue =
-                REGISTRY.get(lessEqExpression.getClass().getSimpleName()).apply(lessEqExpression.getClass().getSimpleName(), left, currentValue);
+        currentValue = Operations.LESS_EQ.apply(caches.get(lessEqExpression), left, currentValue);
 
     }
 
@@ -599,15 +399,14 @@ public class Executor implements Visitor {
         lessExpression.left().accept(this);
         var left = moveCurrentValue();
         lessExpression.right().accept(this);
-        currentValue = REGISTRY.get(lessExpression.getClass().getSimpleName()).apply(lessExpression.getClass().getSimpleName(), left, currentValue);
+        currentValue = Operations.LESS.apply(caches.get(lessExpression), left, currentValue);
 
     }
 
     @Override
     public void visit(final NegateExpression negateExpression) {
         negateExpression.expression().accept(this);
-        currentValue = new Variant<>(!currentValue.castTo(Boolean.class), Boolean.class);
-
+        currentValue = Operations.negate(currentValue);
     }
 
     @Override
@@ -615,7 +414,7 @@ public class Executor implements Visitor {
         notEqExpression.left().accept(this);
         var left = moveCurrentValue();
         notEqExpression.right().accept(this);
-        currentValue = REGISTRY.get(notEqExpression.getClass().getSimpleName()).apply(notEqExpression.getClass().getSimpleName(), left, currentValue);
+        currentValue = Operations.NOT_EQ.apply(caches.get(notEqExpression), left, currentValue);
 
     }
     //endregion
@@ -623,21 +422,21 @@ public class Executor implements Visitor {
     //region Iterable
     @Override
     public void visit(final ArrayExpression arrayExpression) {
-        var elements = new LinkedList<>();
+        var elements = new ArrayBuilder(arrayExpression.items().size());
         arrayExpression.items().forEach(item -> {
             item.accept(this);
             elements.add(currentValue);
             currentValue = null;
         });
-        currentValue = new Variant<>(elements, List.class);
+        currentValue = new Variant<>(elements.build(), List.class);
 
     }
 
     @Override
     public void visit(final ListComprehension listComprehension) {
         listComprehension.iterable().accept(this);
-        var results = new LinkedList<>();
         var iterable = currentValue.castTo(List.class);
+        var results = new ArrayBuilder(iterable.size());
         for (var i : iterable) {
             manager.startNewScope();
             manager.insert(listComprehension.tempName().name(), (Variant<?>) i);
@@ -645,19 +444,16 @@ public class Executor implements Visitor {
             results.add(currentValue);
             manager.leaveNewScope();
         }
-        currentValue = new Variant<>(results, List.class);
+        currentValue = new Variant<>(results.build(), List.class);
 
     }
 
     @Override
     public void visit(final RangeExpression rangeExpression) {
         rangeExpression.start().accept(this);
-        var start = currentValue;
+        var start = moveCurrentValue();
         rangeExpression.end().accept(this);
-        var ints = IntStream.range(start.castTo(Integer.class), currentValue.castTo(Integer.class)).boxed()
-                .map(value -> new Variant<>(value, Integer.class))
-                .toList();
-        currentValue = new Variant<>(ints, List.class);
+        currentValue = Operations.range(start, currentValue);
     }
     //endregion
 
@@ -672,13 +468,14 @@ public class Executor implements Visitor {
     //region Call
     @Override
     public void visit(final FunctionCall functionCall) {
-        Optional.ofNullable(builtinFunctions.get(functionCall.name())).ifPresentOrElse(
+        Optional.ofNullable(Builtins.FUNCTIONS.get(functionCall.name())).ifPresentOrElse(
                 func -> {
-                    var arguments = getArguments(func.parameters(), functionCall.arguments());
-                    func.code().accept(arguments);
+                    var arguments = Arguments.bind(func.parameters().parameters(), functionCall.arguments(), this::evaluate,
+                            provenCalls.contains(functionCall));
+                    currentValue = func.code().apply(arguments);
                 },
                 () -> {
-                    var lambda = manager.get(functionCall.name()).orElseThrow();
+                    var lambda = lookup(functionCall, functionCall.name());
                     executeCall(functionCall.arguments(), (LambdaClousure) lambda.getValue());
                 }
         );
@@ -694,84 +491,75 @@ public class Executor implements Visitor {
 
     @Override
     public void visit(final InlineFuncCall inlineFuncCall) {
-        if (builtinFunctions.containsKey(inlineFuncCall.name())) {
-            var func = builtinFunctions.get(inlineFuncCall.name());
-            var arguments = getInlineArguments(moveCurrentValue(), func.parameters.parameters(), inlineFuncCall.arguments());
-            func.code.accept(arguments);
+        if (Builtins.FUNCTIONS.containsKey(inlineFuncCall.name())) {
+            var func = Builtins.FUNCTIONS.get(inlineFuncCall.name());
+            var arguments = Arguments.bindInline(moveCurrentValue(), func.parameters().parameters(), inlineFuncCall.arguments(),
+                    this::evaluate, provenCalls.contains(inlineFuncCall));
+            currentValue = func.code().apply(arguments);
             return;
         }
-        var lambda = (LambdaClousure) manager.get(inlineFuncCall.name()).orElseThrow().getValue();
-        var stmts = lambda.expression();
-        var params = stmts.parameters().parameters();
-        var callArguments = inlineFuncCall.arguments();
-        var arguments = getInlineArguments(moveCurrentValue(), params, callArguments);
-        manager.enterNewFrame();
-        arguments.forEach(manager::insert);
-        stmts.instructions().accept(this);
-        manager.leaveFrame();
-        returned = false;
+        var lambda = (LambdaClousure) lookup(inlineFuncCall, inlineFuncCall.name()).getValue();
+        var params = lambda.expression().parameters().parameters();
+        var arguments = Arguments.bindInline(moveCurrentValue(), params, inlineFuncCall.arguments(), this::evaluate, false);
+        invoke(lambda, arguments);
     }
 
-    private void validateType(Class<?> referenceType, Variant<?> valueVariant, String place) {
-        if (referenceType == InferenceType.class) {
-            return;
-        }
-        if (referenceType != valueVariant.valueType()) {
-            throw new RuntimeException("INTERPRETATION ERROR wrong %s type expected %s got %s"
-                    .formatted(place, referenceType.getSimpleName(), valueVariant.valueType().getSimpleName()));
-        }
+    private Variant<?> evaluate(final Expression expression) {
+        expression.accept(this);
+        return moveCurrentValue();
     }
 
-    private HashMap<String, Variant<?>> getInlineArguments(Variant<?> precalculatedValue, final List<Parameter> params, final List<Expression> callArguments) {
-        var arguments = new HashMap<String, Variant<?>>();
-        params.getFirst().type().accept(this);
-
-        validateType(currentValue.castTo(Class.class), precalculatedValue, "argument");
-        arguments.put(params.getFirst().name(), precalculatedValue);
-
-        if (params.size() - 1 != callArguments.size()) {
-            throw new RuntimeException("INTERPRETATION ERROR wrong number of arguments expected %s got %s"
-                    .formatted(params.size(), callArguments.size() + 1));
-        }
-
-        arguments.putAll(getArguments(new Parameters(params.stream().skip(1).toList()), callArguments));
-        return arguments;
-    }
-
-    private HashMap<String, Variant<?>> getArguments(final Parameters parameters, final List<Expression> args) {
-        if (parameters.parameters().size() != args.size()) {
-            throw new RuntimeException("INTERPRETATION ERROR wrong number of arguments expected %s got %s"
-                    .formatted(parameters.parameters().size(), args.size()));
-        }
-        var arguments = new HashMap<String, Variant<?>>();
-        zip(parameters.parameters(), args)
-                .forEach(entry -> {
-                    entry.getKey().type().accept(this);
-                    var paramType = moveCurrentValue().castTo(Class.class);
-                    entry.getValue().accept(this);
-
-                    validateType(paramType, currentValue, "argument");
-
-                    arguments.put(entry.getKey().name(), currentValue);
-                    currentValue = null;
-                });
-        return arguments;
+    private void executeCall(final List<Expression> args, final LambdaClousure clousure) {
+        final var arguments = Arguments.bind(clousure.expression().parameters().parameters(), args, this::evaluate, false);
+        invoke(clousure, arguments);
+        var returnedValue = moveCurrentValue();
+        clousure.expression().returnType().accept(this);
+//        validateType(moveCurrentValue().castTo(Class.class), returnedValue, "return");
+        currentValue = returnedValue;
     }
 
-    private void executeCall(final List<Expression> args, final LambdaClousure clousure) {
-        var stmts = clousure.expression();
-        final var arguments = getArguments(stmts.parameters(), args);
-        manager.enterNewFrame(clousure.frame().copy());
+    private void invoke(final LambdaClousure clousure, final Map<String, Variant<?>> arguments) {
+        manager.enterNewFrame(clousure);
         manager.startNewScope();
-        arguments.forEach(manager::insert);
-        stmts.instructions().accept(this);
+        if (backend == null || !runCompiled(backend.compile(clousure.expression(), this::variable),
+                arguments.values().toArray(Variant<?>[]::new))) {
+            arguments.forEach(manager::insert);
+            clousure.expression().instructions().accept(this);
+        }
         manager.leaveNewScope();
         manager.leaveFrame();
         returned = false;
-        var returnedValue = moveCurrentValue();
-        clousure.expression().returnType().accept(this);
-//        validateType(moveCurrentValue().castTo(Class.class), returnedValue, "return");
-        currentValue = returnedValue;
+    }
+
+    /**
+     * Finds variables for compiled code by name, null when there is none.
+     */
+    private com.declarative.music.interpreter.values.VariableReference<?> variable(final String name) {
+        return manager.get(name).orElse(null);
+    }
+
+    /**
+     * Runs compiled code when variables it uses still hold values of the types it was compiled for.
+     *
+     * @return false when the code has to be interpreted
+     */
+    private boolean runCompiled(final Optional<CompiledUnit> unit, final Variant<?>[] arguments) {
+        if (unit.isEmpty()) {
+            return false;
+        }
+        var cells = unit.get().bind(this::variable);
+        if (cells == null) {
+            return false;
+        }
+        var result = unit.get().code().run(arguments, cells);
+        currentValue = switch (result) {
+            case null -> null;
+            case Variant<?> variant -> variant;
+            case com.declarative.music.interpreter.values.VariableReference<?> reference ->
+                    new Variant<>(reference, com.declarative.music.interpreter.values.VariableReference.class);
+            default -> new Variant<>(result, (Class<Object>) result.getClass());
+        };
+        return true;
     }
     //endregion
 
@@ -779,32 +567,13 @@ public class Executor implements Visitor {
     @Override
     public void visit(final ModifierExpression modifierExpression) {
         modifierExpression.modified().accept(this);
-        var variant = currentValue;
-        var notes = variant.castTo(List.class);
-
-        currentValue = null;
+        var modified = moveCurrentValue();
         var results = new HashMap<String, Variant<?>>();
         for (var item : modifierExpression.modifier().modifiers()) {
             item.expression().accept(this);
-            results.put(item.name(), currentValue);
-            currentValue = null;
+            results.put(item.name(), moveCurrentValue());
         }
-        var updateValues = ((List<Variant<?>>) notes).stream()
-                .map(val -> {
-                    if (val.valueType() == Note.class) {
-                        return new Variant<>(new MusicTree(new SimpleNode<>((Note) val.value())), MusicTree.class);
-                    }
-                    return val;
-                })
-                .map(val -> val.castTo(MusicTree.class))
-                .peek(note -> note.setModifier(NoteModifier.builder()
-                        .withRythm(Optional.ofNullable(results.get("dur")).map(v -> v.castTo(Note.class).getDuration()).orElse(null))
-                        .withOctave(Optional.ofNullable(results.get("oct")).map(v -> v.castTo(Integer.class)).orElse(4))
-                        .build()))
-                .map(val -> new Variant<>(val, MusicTree.class))
-                .toList();
-        currentValue = new Variant<>(updateValues, List.class);
-
+        currentValue = Operations.modify(modified, results);
     }
     //endregion
 
@@ -814,24 +583,9 @@ public class Executor implements Visitor {
     @Override
     public void visit(final ConvolutionExpression convolutionExpression) {
         convolutionExpression.left().accept(this);
-        var left = currentValue.castTo(IndexTree.class);
-        currentValue = null;
+        var left = moveCurrentValue();
         convolutionExpression.right().accept(this);
-        var musicIterable = currentValue.castTo(List.class);
-        var transformed = left.map((indexNode) -> {
-            var element = (Variant<Node>) musicIterable.get(indexNode.getValue());
-            if (element.value() instanceof Note noteElement) {
-                return new SimpleNode<>(noteElement);
-
-            }
-            var note = element.castTo(MusicTree.class).getRoot().getModified();
-            var oldNode = (SimpleNode<Note>) note;
-            var node = new SimpleNode<>(oldNode.getValue());
-            node.setModifier(oldNode.modifier());
-            return node;
-        });
-        currentValue = new Variant<>(new MusicTree(transformed), MusicTree.class);
-
+        currentValue = Operations.convolve(left, currentValue);
     }
 
     @Override
@@ -839,47 +593,20 @@ public class Executor implements Visitor {
         castExpresion.value().accept(this);
         var value = moveCurrentValue();
         castExpresion.type().accept(this);
-        var key = value.valueType().getSimpleName() + "," + currentValue.castTo(Class.class).getSimpleName();
-        currentValue = switch (key) {
-            case "Integer,Double" -> new Variant<>(Double.valueOf(value.castTo(Integer.class)), Double.class);
-            case "Integer,IndexTree" ->
-                    new Variant<>(new IndexTree(new SimpleNode<>(value.castTo(Integer.class))), IndexTree.class);
-            case "Note,MusicTree" ->
-                    new Variant<>(new MusicTree(new SimpleNode<>(value.castTo(Note.class))), MusicTree.class);
-            case "Integer,Integer", "Double,Double", "String,String" -> value;
-            case "Double,Integer" -> new Variant<>(value.castTo(Double.class).intValue(), Integer.class);
-            case "String,Integer" -> new Variant<>(Integer.valueOf(value.castTo(String.class)), Integer.class);
-            case "String,Double" -> new Variant<>(Double.valueOf(value.castTo(String.class)), Double.class);
-            case "Integer,String" -> new Variant<>(value.castTo(Integer.class).toString(), String.class);
-            case "Double,String" -> new Variant<>(value.castTo(Double.class).toString(), String.class);
-            default -> throw new IllegalStateException("INTERPRETATION ERROR Cannot cast %s to %s".
-                    formatted(value.valueType().getSimpleName(), currentValue.castTo(Class.class).getSimpleName()));
-        };
+        currentValue = Operations.cast(value, currentValue.castTo(Class.class));
     }
 
     @Override
     public void visit(final VariableReference variableReference) {
         currentValue =
-                new Variant<>(manager.get(variableReference.name()).orElseThrow(), com.declarative.music.interpreter.values.VariableReference.class);
+                new Variant<>(lookup(variableReference, variableReference.name()), com.declarative.music.interpreter.values.VariableReference.class);
     }
 
 
     @Override
     public void visit(final NoteExpression noteExpression) {
-        var noteBuilder = Note.builder();
-        Optional.ofNullable(noteExpression.pitch()).ifPresent(val -> {
-            if (val.contains("#")) {
-                noteBuilder.pitch(Pitch.valueOf(val.replace("#", "_SHARP")));
-                return;
-            }
-            noteBuilder.pitch(Pitch.valueOf(val));
-        });
         Optional.ofNullable(noteExpression.octave()).ifPresent(expr -> expr.accept(this));
-        Optional.ofNullable(currentValue).ifPresent(val -> noteBuilder.octave(val.castTo(Integer.class)));
-        currentValue = null;
-        Optional.ofNullable(noteExpression.duration()).ifPresent(val -> noteBuilder.duration(Rythm.valueOf(noteExpression.duration())));
-        currentValue = new Variant<>(noteBuilder.build(), Note.class);
-
+        currentValue = Operations.note(noteExpression.pitch(), moveCurrentValue(), noteExpression.duration());
     }
 
     @Override
@@ -887,8 +614,7 @@ public class Executor implements Visitor {
         sequenceExpression.left().accept(this);
         var left = moveCurrentValue();
         sequenceExpression.right().accept(this);
-        currentValue = REGISTRY.get(sequenceExpression.getClass().getSimpleName())
-                .apply(sequenceExpression.getClass().getSimpleName(), left, currentValue);
+        currentValue = Operations.SEQUENCE.apply(caches.get(sequenceExpression), left, currentValue);
     }
 
     @Override
@@ -896,8 +622,7 @@ public class Executor implements Visitor {
         parallerExpression.left().accept(this);
         var left = moveCurrentValue();
         parallerExpression.right().accept(this);
-        currentValue = REGISTRY.get(parallerExpression.getClass().getSimpleName())
-                .apply(parallerExpression.getClass().getSimpleName(), left, currentValue);
+        currentValue = Operations.PARALLER.apply(caches.get(parallerExpression), left, currentValue);
     }
 
 
@@ -909,16 +634,7 @@ public class Executor implements Visitor {
 
     @Override
     public void visit(final SimpleType simpleType) {
-        var valueType = switch (simpleType.type()) {
-            case Int -> Integer.class;
-            case Double -> Double.class;
-            case String -> String.class;
-            case Void -> InferenceType.class;
-            case Template -> IndexTree.class;
-            case Phrase -> MusicTree.class;
-            case null, default -> throw new UnsupportedOperationException("Unknown type");
-        };
-        currentValue = new Variant<>(valueType, Class.class);
+        currentValue = new Variant<>(Arguments.typeClass(simpleType), Class.class);
     }
 
     @Override
@@ -940,13 +656,4 @@ public class Executor implements Visitor {
         conumptionFunction.run();
         currentValue = null;
     }
-
-    private static <T, U> Stream<AbstractMap.SimpleEntry<T, U>> zip(List<T> list1, List<U> list2) {
-        if (list1.size() != list2.size()) {
-            throw new IllegalArgumentException("Lists must be of equal size");
-        }
-
-        return IntStream.range(0, list1.size())
-                .mapToObj(i -> new AbstractMap.SimpleEntry<>(list1.get(i), list2.get(i)));
-    }
 }
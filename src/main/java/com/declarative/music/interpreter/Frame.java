@@ -1,50 +1,147 @@
 package com.declarative.music.interpreter;
 
-import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
 import com.declarative.music.interpreter.values.VariableReference;
 
-import lombok.RequiredArgsConstructor;
 
-
-@RequiredArgsConstructor
+/**
+ * Variables of a single call frame stored as a flat array of slots. Scopes are ranges of that array, so leaving a
+ * scope only moves the top of the stack back. Slot numbers are stable for the lifetime of a declaration which lets
+ * {@link ScopeResolver} compute them before execution. Frames of lambda calls additionally see the variables captured
+ * by the closure, those are shared with the closure and never copied.
+ */
 public class Frame
 {
-    private final List<Map<String, VariableReference>> scopes;
+    private static final int INITIAL_CAPACITY = 8;
+    private static final String[] NO_NAMES = new String[0];
+    private static final VariableReference<?>[] NO_VALUES = new VariableReference<?>[0];
+
+    private String[] names;
+    private VariableReference<?>[] values;
+    private int size;
+    private int[] scopeStarts;
+    private int scopes;
+    private final String[] captureNames;
+    private final VariableReference<?>[] captures;
 
-    public Frame(final Map<String, VariableReference> variables)
+    public Frame(final Map<String, ? extends VariableReference<?>> variables)
     {
-        scopes = new LinkedList<>();
-        scopes.addFirst(new HashMap<>(variables));
+        this();
+        variables.forEach(this::append);
     }
 
     public Frame()
     {
-        this.scopes = new LinkedList<>();
-        enterScope();
+        this(NO_NAMES, NO_VALUES);
+    }
+
+    public Frame(final String[] captureNames, final VariableReference<?>[] captures)
+    {
+        this.captureNames = captureNames;
+        this.captures = captures;
+        names = new String[INITIAL_CAPACITY];
+        values = new VariableReference<?>[INITIAL_CAPACITY];
+        scopeStarts = new int[INITIAL_CAPACITY];
+        scopes = 1;
+    }
+
+    private Frame(final Frame other)
+    {
+        names = Arrays.copyOf(other.names, other.names.length);
+        values = Arrays.copyOf(other.values, other.values.length);
+        size = other.size;
+        scopeStarts = Arrays.copyOf(other.scopeStarts, other.scopeStarts.length);
+        scopes = other.scopes;
+        captureNames = other.captureNames;
+        captures = other.captures;
     }
 
     public Optional<VariableReference> getValue(String name)
     {
-        return scopes.stream()
-            .filter(scope -> scope.containsKey(name))
-            .filter(scope -> scope.get(name) != null)
-            .map(scope -> scope.get(name))
-            .findFirst();
+        for (int slot = size - 1; slot >= 0; slot--)
+        {
+            if (values[slot] != null && values[slot].getValue() != null && name.equals(names[slot]))
+            {
+                return Optional.of(values[slot]);
+            }
+        }
+        for (int slot = captures.length - 1; slot >= 0; slot--)
+        {
+            if (captures[slot] != null && captures[slot].getValue() != null && name.equals(captureNames[slot]))
+            {
+                return Optional.of(captures[slot]);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Same as {@link #getValue(String)} but also returns variables that were declared without a value yet.
+     */
+    public Optional<VariableReference<?>> getDeclared(String name)
+    {
+        for (int slot = size - 1; slot >= 0; slot--)
+        {
+            if (values[slot] != null && name.equals(names[slot]))
+            {
+                return Optional.of(values[slot]);
+            }
+        }
+        for (int slot = captures.length - 1; slot >= 0; slot--)
+        {
+            if (captures[slot] != null && name.equals(captureNames[slot]))
+            {
+                return Optional.of(captures[slot]);
+            }
+        }
+        return Optional.empty();
+    }
+
+    public VariableReference<?> get(int slot, String name)
+    {
+        return slot < size && name.equals(names[slot]) ? values[slot] : null;
+    }
+
+    public VariableReference<?> capture(int slot, String name)
+    {
+        return slot < captures.length && name.equals(captureNames[slot]) ? captures[slot] : null;
+    }
+
+    public List<String> names()
+    {
+        return Arrays.asList(Arrays.copyOf(names, size));
+    }
+
+    /**
+     * Names of everything visible in this frame, captured variables first.
+     */
+    public String[] visibleNames()
+    {
+        var visible = Arrays.copyOf(captureNames, captureNames.length + size);
+        System.arraycopy(names, 0, visible, captureNames.length, size);
+        return visible;
+    }
+
+    /**
+     * Variables matching {@link #visibleNames()}.
+     */
+    public VariableReference<?>[] visibleValues()
+    {
+        var visible = Arrays.copyOf(captures, captures.length + size);
+        System.arraycopy(values, 0, visible, captures.length, size);
+        return visible;
     }
 
     public Frame copy()
     {
-        var newScope = new LinkedList<Map<String, VariableReference>>();
-        scopes.forEach(scope -> newScope.add(new HashMap<>(scope)));
-        return new Frame(newScope);
+        return new Frame(this);
     }
 
-    public void saveValue(String name, VariableReference value)
+    public void saveValue(String name, VariableReference<?> value)
     {
         getValue(name).ifPresent(val -> {
             if (val.getClass() != value.getClass())
@@ -53,32 +150,81 @@ public class Frame
                     .formatted(val.getClass().getSimpleName(), value.getClass().getSimpleName()));
             }
         });
-        scopes.getFirst().put(name, value);
+        var slot = scopeSlot(name);
+        if (slot >= 0)
+        {
+            values[slot] = value;
+            return;
+        }
+        append(name, value);
     }
 
     public void enterScope()
     {
-        scopes.addFirst(new HashMap<>());
+        if (scopes == scopeStarts.length)
+        {
+            scopeStarts = Arrays.copyOf(scopeStarts, scopes * 2);
+        }
+        scopeStarts[scopes++] = size;
     }
 
     public void leaveScope()
     {
-        if (scopes.isEmpty())
+        if (scopes == 0)
         {
             throw new IllegalStateException("You are trying to leave scope that was not started");
         }
-        scopes.removeFirst();
+        var start = scopeStarts[--scopes];
+        Arrays.fill(names, start, size, null);
+        Arrays.fill(values, start, size, null);
+        size = start;
     }
 
     public boolean contains(String name)
     {
-        return scopes.stream()
-            .anyMatch(scope -> scope.containsKey(name));
+        for (int slot = size - 1; slot >= 0; slot--)
+        {
+            if (name.equals(names[slot]))
+            {
+                return true;
+            }
+        }
+        for (String captureName : captureNames)
+        {
+            if (name.equals(captureName))
+            {
+                return true;
+            }
+        }
+        return false;
     }
 
     public boolean scopeContains(String name)
     {
-        return scopes.getFirst().containsKey(name);
+        return scopeSlot(name) >= 0;
+    }
+
+    private int scopeSlot(String name)
+    {
+        for (int slot = size - 1; slot >= scopeStarts[scopes - 1]; slot--)
+        {
+            if (name.equals(names[slot]))
+            {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private void append(String name, VariableReference<?> value)
+    {
+        if (size == names.length)
+        {
+            names = Arrays.copyOf(names, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        names[size] = name;
+        values[size++] = value;
     }
 
 }
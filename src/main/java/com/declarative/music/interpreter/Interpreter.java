@@ -0,0 +1,14 @@
+package com.declarative.music.interpreter;
+
+import com.declarative.music.interpreter.values.Variant;
+
+
+/**
+ * Execution engine of the language. Visiting a node executes it, value of the last executed expression is available
+ * through {@link #getCurrentValue()}.
+ */
+public interface Interpreter extends Visitor {
+    ContextManager getManager();
+
+    Variant<?> getCurrentValue();
+}
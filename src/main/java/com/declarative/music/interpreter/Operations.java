@@ -0,0 +1,212 @@
+package com.declarative.music.interpreter;
+
+import com.declarative.music.interpreter.tree.SimpleNode;
+import com.declarative.music.interpreter.tree.modifier.NoteModifier;
+import com.declarative.music.interpreter.values.ArrayValue;
+import com.declarative.music.interpreter.values.IntRange;
+import com.declarative.music.interpreter.values.OperationRegistry;
+import com.declarative.music.interpreter.values.Variant;
+import com.declarative.music.interpreter.values.music.MusicTree;
+import com.declarative.music.interpreter.values.music.Note;
+import com.declarative.music.interpreter.values.music.Pitch;
+import com.declarative.music.interpreter.values.music.Rythm;
+import com.declarative.music.interpreter.values.template.IndexTree;
+import com.declarative.music.parser.production.expression.arithmetic.*;
+import com.declarative.music.parser.production.expression.music.ParallerExpression;
+import com.declarative.music.parser.production.expression.music.SequenceExpression;
+import com.declarative.music.parser.production.expression.relation.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+
+/**
+ * Runtime implementations of operators shared by {@link Executor}, {@link ClosureCompiler} and {@link Specializer}.
+ */
+public final class Operations {
+    public static final OperationRegistry ADD = new OperationRegistry(AddExpression.class.getSimpleName())
+            .register(Integer.class, Integer.class, Integer::sum, Integer.class)
+            .register(Double.class, Double.class, Double::sum, Double.class)
+            .register(String.class, String.class, String::concat, String.class);
+
+    public static final OperationRegistry MINUS = new OperationRegistry(MinusExpression.class.getSimpleName())
+            .register(Integer.class, Integer.class, (a, b) -> a - b, Integer.class)
+            .register(Double.class, Double.class, (a, b) -> a - b, Double.class);
+
+    public static final OperationRegistry DIV = new OperationRegistry(DivExpression.class.getSimpleName())
+            .register(Integer.class, Integer.class, (a, b) -> a / b, Integer.class)
+            .register(Double.class, Double.class, (a, b) -> a / b, Double.class);
+
+    public static final OperationRegistry MUL = new OperationRegistry(MulExpression.class.getSimpleName())
+            .register(Integer.class, Integer.class, (a, b) -> a * b, Integer.class)
+            .register(Double.class, Double.class, (a, b) -> a * b, Double.class)
+            .register(String.class, Integer.class, String::repeat, String.class);
+
+    public static final OperationRegistry MODULO = new OperationRegistry(ModuloExpression.class.getSimpleName())
+            .register(Integer.class, Integer.class, (a, b) -> a % b, Integer.class)
+            .register(Double.class, Double.class, (a, b) -> a % b, Double.class);
+
+    public static final OperationRegistry POW = new OperationRegistry(PowExpression.class.getSimpleName())
+            .register(Integer.class, Integer.class, (a, b) -> (int) Math.pow(a, b), Integer.class)
+            .register(Double.class, Double.class, Math::pow, Double.class);
+
+    public static final OperationRegistry EQ = new OperationRegistry(EqExpression.class.getSimpleName())
+            .register(Integer.class, Integer.class, Integer::equals, Boolean.class)
+            .register(Double.class, Double.class, Double::equals, Boolean.class)
+            .register(Boolean.class, Boolean.class, Boolean::equals, Boolean.class)
+            .register(String.class, String.class, String::equals, Boolean.class);
+
+    public static final OperationRegistry GREATER = new OperationRegistry(GreaterExpression.class.getSimpleName())
+            .register(Integer.class, Integer.class, (a, b) -> a > b, Boolean.class)
+            .register(Double.class, Double.class, (a, b) -> a > b, Boolean.class)
+            .register(String.class, String.class, (a, b) -> a.length() > b.length(), Boolean.class);
+
+    public static final OperationRegistry GREATER_EQ = new OperationRegistry(GreaterEqExpression.class.getSimpleName())
+            .register(Integer.class, Integer.class, (a, b) -> a >= b, Boolean.class)
+            .register(Double.class, Double.class, (a, b) -> a >= b, Boolean.class)
+            .register(String.class, String.class, (a, b) -> a.length() >= b.length(), Boolean.class);
+
+    public static final OperationRegistry LESS = new OperationRegistry(LessExpression.class.getSimpleName())
+            .register(Integer.class, Integer.class, (a, b) -> a < b, Boolean.class)
+            .register(Double.class, Double.class, (a, b) -> a < b, Boolean.class)
+            .register(String.class, String.class, (a, b) -> a.length() < b.length(), Boolean.class);
+
+    public static final OperationRegistry LESS_EQ = new OperationRegistry(LessEqExpression.class.getSimpleName())
+            .register(Integer.class, Integer.class, (a, b) -> a <= b, Boolean.class)
+            .register(Double.class, Double.class, (a, b) -> a <= b, Boolean.class)
+            .register(String.class, String.class, (a, b) -> a.length() <= b.length(), Boolean.class);
+
+    public static final OperationRegistry NOT_EQ = new OperationRegistry(NotEqExpression.class.getSimpleName())
+            .register(Integer.class, Integer.class, (a, b) -> !a.equals(b), Boolean.class)
+            .register(Double.class, Double.class, (a, b) -> !a.equals(b), Boolean.class)
+            .register(Boolean.class, Boolean.class, (a, b) -> !a.equals(b), Boolean.class)
+            .register(String.class, String.class, (a, b) -> !a.equals(b), Boolean.class);
+
+    public static final OperationRegistry AND = new OperationRegistry(AndExpression.class.getSimpleName())
+            .register(Boolean.class, Boolean.class, (a, b) -> a && b, Boolean.class);
+
+    public static final OperationRegistry SEQUENCE = new OperationRegistry(SequenceExpression.class.getSimpleName())
+            .register(Note.class, Note.class, (a, b) -> new MusicTree().appendToSequence(a).appendToSequence(b), MusicTree.class)
+            .register(MusicTree.class, Note.class, (a, b) -> new MusicTree().appendToSequence(a).appendToSequence(b), MusicTree.class)
+            .register(Note.class, MusicTree.class, (a, b) -> new MusicTree().appendToSequence(a).appendToSequence(b), MusicTree.class)
+            .register(MusicTree.class, MusicTree.class, (a, b) -> new MusicTree().appendToSequence(a).appendToSequence(b), MusicTree.class)
+
+            .register(Integer.class, Integer.class, (a, b) -> new IndexTree().appendToSequence(a).appendToSequence(b), IndexTree.class)
+            .register(IndexTree.class, Integer.class, (a, b) -> new IndexTree().appendToSequence(a).appendToSequence(b), IndexTree.class)
+            .register(Integer.class, IndexTree.class, (a, b) -> new IndexTree().appendToSequence(a).appendToSequence(b), IndexTree.class)
+            .register(IndexTree.class, IndexTree.class, (a, b) -> new IndexTree().appendToSequence(a).appendToSequence(b), IndexTree.class);
+
+    public static final OperationRegistry PARALLER = new OperationRegistry(ParallerExpression.class.getSimpleName())
+            .register(Note.class, Note.class, (a, b) -> new MusicTree().appendToGroup(a).appendToGroup(b), MusicTree.class)
+            .register(MusicTree.class, Note.class, (a, b) -> new MusicTree().appendToGroup(a).appendToGroup(b), MusicTree.class)
+            .register(Note.class, MusicTree.class, (a, b) -> new MusicTree().appendToGroup(a).appendToGroup(b), MusicTree.class)
+            .register(MusicTree.class, MusicTree.class, (a, b) -> new MusicTree().appendToGroup(a).appendToGroup(b), MusicTree.class)
+
+            .register(Integer.class, Integer.class, (a, b) -> new IndexTree().appendToGroup(a).appendToGroup(b), IndexTree.class)
+            .register(IndexTree.class, Integer.class, (a, b) -> new IndexTree().appendToGroup(a).appendToGroup(b), IndexTree.class)
+            .register(Integer.class, IndexTree.class, (a, b) -> new IndexTree().appendToGroup(a).appendToGroup(b), IndexTree.class)
+            .register(IndexTree.class, IndexTree.class, (a, b) -> new IndexTree().appendToGroup(a).appendToGroup(b), IndexTree.class);
+
+    public static final OperationRegistry OR = new OperationRegistry(OrExpression.class.getSimpleName())
+            .register(Boolean.class, Boolean.class, (a, b) -> a || b, Boolean.class);
+
+    private Operations() {
+    }
+
+    public static Variant<?> minus(final Variant<?> value) {
+        return switch (value.valueType().getSimpleName()) {
+            case "Integer" -> new Variant<>(-value.castTo(Integer.class), Integer.class);
+            case "Double" -> new Variant<>(-value.castTo(Double.class), Double.class);
+            default ->
+                    throw new IllegalStateException("INTERPRETATION ERROR cannot negate %s type".formatted(value.type().getSimpleName()));
+        };
+    }
+
+    public static Variant<?> plus(final Variant<?> value) {
+        return switch (value.valueType().getSimpleName()) {
+            case "Integer" -> new Variant<>(value.castTo(Integer.class), Integer.class);
+            case "Double" -> new Variant<>(value.castTo(Double.class), Double.class);
+            default ->
+                    throw new IllegalStateException("INTERPRETATION ERROR cannot plus %s type".formatted(value.type().getSimpleName()));
+        };
+    }
+
+    public static Variant<?> negate(final Variant<?> value) {
+        return new Variant<>(!value.castTo(Boolean.class), Boolean.class);
+    }
+
+    public static Variant<?> cast(final Variant<?> value, final Class<?> targetType) {
+        var key = value.valueType().getSimpleName() + "," + targetType.getSimpleName();
+        return switch (key) {
+            case "Integer,Double" -> new Variant<>(Double.valueOf(value.castTo(Integer.class)), Double.class);
+            case "Integer,IndexTree" ->
+                    new Variant<>(new IndexTree(new SimpleNode<>(value.castTo(Integer.class))), IndexTree.class);
+            case "Note,MusicTree" ->
+                    new Variant<>(new MusicTree(new SimpleNode<>(value.castTo(Note.class))), MusicTree.class);
+            case "Integer,Integer", "Double,Double", "String,String" -> value;
+            case "Double,Integer" -> new Variant<>(value.castTo(Double.class).intValue(), Integer.class);
+            case "String,Integer" -> new Variant<>(Integer.valueOf(value.castTo(String.class)), Integer.class);
+            case "String,Double" -> new Variant<>(Double.valueOf(value.castTo(String.class)), Double.class);
+            case "Integer,String" -> new Variant<>(value.castTo(Integer.class).toString(), String.class);
+            case "Double,String" -> new Variant<>(value.castTo(Double.class).toString(), String.class);
+            default -> throw new IllegalStateException("INTERPRETATION ERROR Cannot cast %s to %s".
+                    formatted(value.valueType().getSimpleName(), targetType.getSimpleName()));
+        };
+    }
+
+    public static Variant<?> note(final String pitch, final Variant<?> octave, final String duration) {
+        var notePitch = Optional.ofNullable(pitch)
+                .map(val -> Pitch.valueOf(val.replace("#", "_SHARP")))
+                .orElse(null);
+        var noteOctave = Optional.ofNullable(octave).map(val -> val.castTo(Integer.class)).orElse(null);
+        var noteDuration = Optional.ofNullable(duration).map(Rythm::valueOf).orElse(null);
+        return new Variant<>(Note.of(notePitch, noteOctave, noteDuration), Note.class);
+    }
+
+    public static Variant<?> range(final Variant<?> start, final Variant<?> end) {
+        return new Variant<>(new IntRange(start.castTo(Integer.class), end.castTo(Integer.class)), List.class);
+    }
+
+    /**
+     * @param modifiers values of modifier items by their names
+     */
+    public static Variant<?> modify(final Variant<?> modified, final Map<String, Variant<?>> modifiers) {
+        var notes = modified.castTo(List.class);
+        var updateValues = ((List<Variant<?>>) notes).stream()
+                .map(val -> {
+                    if (val.valueType() == Note.class) {
+                        return new Variant<>(new MusicTree(new SimpleNode<>((Note) val.value())), MusicTree.class);
+                    }
+                    return val;
+                })
+                .map(val -> val.castTo(MusicTree.class))
+                .peek(note -> note.setModifier(NoteModifier.builder()
+                        .withRythm(Optional.ofNullable(modifiers.get("dur")).map(v -> v.castTo(Note.class).getDuration()).orElse(null))
+                        .withOctave(Optional.ofNullable(modifiers.get("oct")).map(v -> v.castTo(Integer.class)).orElse(4))
+                        .build()))
+                .<Variant<?>>map(val -> new Variant<>(val, MusicTree.class))
+                .collect(Collectors.toCollection(() -> new ArrayValue(notes.size())));
+        return new Variant<>(updateValues, List.class);
+    }
+
+    public static Variant<?> convolve(final Variant<?> template, final Variant<?> music) {
+        var left = template.castTo(IndexTree.class);
+        var musicIterable = music.castTo(List.class);
+        var transformed = left.map((indexNode) -> {
+            var element = (Variant<?>) musicIterable.get(indexNode.getValue());
+            if (element.value() instanceof Note noteElement) {
+                return new SimpleNode<>(noteElement);
+
+            }
+            var note = element.castTo(MusicTree.class).getRoot().getModified();
+            var oldNode = (SimpleNode<Note>) note;
+            var node = new SimpleNode<>(oldNode.getValue());
+            node.setModifier(oldNode.modifier());
+            return node;
+        });
+        return new Variant<>(new MusicTree(transformed), MusicTree.class);
+    }
+}
+
@@ -0,0 +1,67 @@
+package com.declarative.music.interpreter;
+
+import com.declarative.music.interpreter.values.InlineCache;
+import com.declarative.music.parser.production.expression.Expression;
+
+
+/**
+ * Inline caches of binary operator nodes by node identity. {@link Specializer} creates one for every operator of the
+ * program before execution, so the interpreters find it with a single probe of a flat open addressing table, without
+ * boxing, lambdas or allocation. Records of equal operators are different nodes and may see different operand types.
+ */
+public final class OperatorCaches {
+    private static final int INITIAL_CAPACITY = 64;
+    private Expression[] nodes = new Expression[INITIAL_CAPACITY];
+    private InlineCache[] caches = new InlineCache[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * @return cache of the node, created when the node was not seen before execution
+     */
+    public InlineCache get(final Expression node) {
+        var mask = nodes.length - 1;
+        var index = System.identityHashCode(node) & mask;
+        while (nodes[index] != null) {
+            if (nodes[index] == node) {
+                return caches[index];
+            }
+            index = (index + 1) & mask;
+        }
+        return insert(index, node);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private InlineCache insert(final int index, final Expression node) {
+        if (2 * (size + 1) > nodes.length) {
+            grow();
+            return get(node);
+        }
+        var cache = new InlineCache();
+        nodes[index] = node;
+        caches[index] = cache;
+        size++;
+        return cache;
+    }
+
+    private void grow() {
+        var oldNodes = nodes;
+        var oldCaches = caches;
+        nodes = new Expression[oldNodes.length * 2];
+        caches = new InlineCache[oldNodes.length * 2];
+        var mask = nodes.length - 1;
+        for (int i = 0; i < oldNodes.length; i++) {
+            if (oldNodes[i] == null) {
+                continue;
+            }
+            var index = System.identityHashCode(oldNodes[i]) & mask;
+            while (nodes[index] != null) {
+                index = (index + 1) & mask;
+            }
+            nodes[index] = oldNodes[i];
+            caches[index] = oldCaches[i];
+        }
+    }
+}
@@ -0,0 +1,455 @@
+package com.declarative.music.interpreter;
+
+import com.declarative.music.parser.production.*;
+import com.declarative.music.parser.production.assign.*;
+import com.declarative.music.parser.production.expression.CastExpresion;
+import com.declarative.music.parser.production.expression.Expression;
+import com.declarative.music.parser.production.expression.VariableReference;
+import com.declarative.music.parser.production.expression.arithmetic.*;
+import com.declarative.music.parser.production.expression.array.ArrayExpression;
+import com.declarative.music.parser.production.expression.array.ListComprehension;
+import com.declarative.music.parser.production.expression.array.RangeExpression;
+import com.declarative.music.parser.production.expression.lambda.FunctionCall;
+import com.declarative.music.parser.production.expression.lambda.LambdaCall;
+import com.declarative.music.parser.production.expression.lambda.LambdaExpression;
+import com.declarative.music.parser.production.expression.modifier.ModifierExpression;
+import com.declarative.music.parser.production.expression.music.ConvolutionExpression;
+import com.declarative.music.parser.production.expression.music.NoteExpression;
+import com.declarative.music.parser.production.expression.music.ParallerExpression;
+import com.declarative.music.parser.production.expression.music.SequenceExpression;
+import com.declarative.music.parser.production.expression.pipe.InlineFuncCall;
+import com.declarative.music.parser.production.expression.pipe.PipeExpression;
+import com.declarative.music.parser.production.expression.relation.*;
+import com.declarative.music.parser.production.literal.BoolLiteral;
+import com.declarative.music.parser.production.literal.FloatLiteral;
+import com.declarative.music.parser.production.literal.IntLiteral;
+import com.declarative.music.parser.production.literal.StringLiter;
+import com.declarative.music.parser.production.type.ArrayType;
+import com.declarative.music.parser.production.type.InferenceType;
+import com.declarative.music.parser.production.type.LambdaType;
+import com.declarative.music.parser.production.type.SimpleType;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Static pass run before {@link Executor} that assigns every variable access a {@link Slot}. It mirrors the frame
+ * layout produced at runtime: blocks, loops and comprehensions open scopes, lambdas start an empty frame with their
+ * parameters. Variables of enclosing frames used inside a lambda become its {@link Capture captures}, nested lambdas
+ * capture through every lambda in between. Names that can not be resolved statically (e.g. globals declared after the
+ * lambda using them) are left out and looked up by name.
+ */
+public class ScopeResolver implements Visitor {
+    @Getter
+    private final Map<Interpretable, Slot> slots = new IdentityHashMap<>();
+    @Getter
+    private final Map<LambdaExpression, List<Capture>> captures = new IdentityHashMap<>();
+    private Layout current;
+
+    public ScopeResolver(final Frame globalFrame) {
+        current = new Layout(null, globalFrame.names());
+    }
+
+    public ScopeResolver() {
+        current = new Layout(null, List.of());
+    }
+
+    private void resolve(final Interpretable node, final String name) {
+        var slot = current.resolve(name);
+        if (slot != null) {
+            slots.put(node, slot);
+        }
+    }
+
+    private void resolveAssigment(final Interpretable node, final String identifier, final Expression value) {
+        value.accept(this);
+        resolve(node, identifier);
+    }
+
+    private void resolveAssigment(final AssignStmt assignStmt) {
+        resolveAssigment(assignStmt, assignStmt.identifier(), assignStmt.value());
+    }
+
+    //region Statement
+    @Override
+    public void visit(final Program program) {
+        program.statements().forEach(stmt -> stmt.accept(this));
+    }
+
+    @Override
+    public void visit(final Block block) {
+        current.enterScope();
+        block.statements().forEach(stmt -> stmt.accept(this));
+        current.leaveScope();
+    }
+
+    @Override
+    public void visit(final Declaration declaration) {
+        if (declaration.value() != null) {
+            declaration.value().accept(this);
+        }
+        current.declare(declaration.name());
+    }
+
+    @Override
+    public void visit(final IfStatement ifStatement) {
+        if (ifStatement.condition() != null) {
+            ifStatement.condition().accept(this);
+        }
+        ifStatement.instructions().accept(this);
+        if (ifStatement.otherwise() != null) {
+            ifStatement.otherwise().accept(this);
+        }
+    }
+
+    @Override
+    public void visit(final ForStatement forStatement) {
+        forStatement.iterable().accept(this);
+        current.enterScope();
+        current.declare(forStatement.declaration().name());
+        forStatement.instructions().accept(this);
+        current.leaveScope();
+    }
+
+    @Override
+    public void visit(final ReturnStatement returnStatement) {
+        if (returnStatement.value() != null) {
+            returnStatement.value().accept(this);
+        }
+    }
+
+    @Override
+    public void visit(final AssigmentStatement assigmentStatement) {
+        resolveAssigment(assigmentStatement, assigmentStatement.identifier(), assigmentStatement.value());
+    }
+
+    @Override
+    public void visit(final DivAssignStatement divAssignStatement) {
+        resolveAssigment(divAssignStatement);
+    }
+
+    @Override
+    public void visit(final MinusAssignStatement minusAssignStatement) {
+        resolveAssigment(minusAssignStatement);
+    }
+
+    @Override
+    public void visit(final ModuloAssignStatement moduloAssignStatement) {
+        resolveAssigment(moduloAssignStatement);
+    }
+
+    @Override
+    public void visit(final MulAssignStatement mulAssignStatement) {
+        resolveAssigment(mulAssignStatement);
+    }
+
+    @Override
+    public void visit(final ParalerAssignStatement paralerAssignStatement) {
+        resolveAssigment(paralerAssignStatement);
+    }
+
+    @Override
+    public void visit(final PlusAssignStatement plusAssignStatement) {
+        resolveAssigment(plusAssignStatement);
+    }
+
+    @Override
+    public void visit(final PowAssignStatement powAssignStatement) {
+        resolveAssigment(powAssignStatement);
+    }
+
+    @Override
+    public void visit(final SequenceAssignStatement sequenceAssignStatement) {
+        resolveAssigment(sequenceAssignStatement);
+    }
+    //endregion
+
+    //region Expression
+    @Override
+    public void visit(final LambdaExpression lambdaExpression) {
+        var frame = new Layout(current, List.of());
+        captures.put(lambdaExpression, frame.captures);
+        current = frame;
+        frame.enterScope();
+        lambdaExpression.parameters().parameters().forEach(parameter -> frame.declare(parameter.name()));
+        lambdaExpression.instructions().accept(this);
+        current = frame.enclosing;
+    }
+
+    @Override
+    public void visit(final VariableReference variableReference) {
+        resolve(variableReference, variableReference.name());
+    }
+
+    @Override
+    public void visit(final FunctionCall functionCall) {
+        functionCall.arguments().forEach(arg -> arg.accept(this));
+        resolve(functionCall, functionCall.name());
+    }
+
+    @Override
+    public void visit(final InlineFuncCall inlineFuncCall) {
+        inlineFuncCall.arguments().forEach(arg -> arg.accept(this));
+        resolve(inlineFuncCall, inlineFuncCall.name());
+    }
+
+    @Override
+    public void visit(final LambdaCall lambdaCall) {
+        lambdaCall.call().accept(this);
+        lambdaCall.arguments().forEach(arg -> arg.accept(this));
+    }
+
+    @Override
+    public void visit(final PipeExpression pipeExpression) {
+        pipeExpression.left().accept(this);
+        pipeExpression.right().accept(this);
+    }
+
+    @Override
+    public void visit(final ArrayExpression arrayExpression) {
+        arrayExpression.items().forEach(item -> item.accept(this));
+    }
+
+    @Override
+    public void visit(final ListComprehension listComprehension) {
+        listComprehension.iterable().accept(this);
+        current.enterScope();
+        current.declare(listComprehension.tempName().name());
+        listComprehension.mapper().accept(this);
+        current.leaveScope();
+    }
+
+    @Override
+    public void visit(final RangeExpression rangeExpression) {
+        rangeExpression.start().accept(this);
+        rangeExpression.end().accept(this);
+    }
+
+    @Override
+    public void visit(final ModifierExpression modifierExpression) {
+        modifierExpression.modified().accept(this);
+        modifierExpression.modifier().modifiers().forEach(item -> item.expression().accept(this));
+    }
+
+    @Override
+    public void visit(final ConvolutionExpression convolutionExpression) {
+        convolutionExpression.left().accept(this);
+        convolutionExpression.right().accept(this);
+    }
+
+    @Override
+    public void visit(final NoteExpression noteExpression) {
+        if (noteExpression.octave() != null) {
+            noteExpression.octave().accept(this);
+        }
+    }
+
+    @Override
+    public void visit(final CastExpresion castExpresion) {
+        castExpresion.value().accept(this);
+    }
+
+    @Override
+    public void visit(final SequenceExpression sequenceExpression) {
+        sequenceExpression.left().accept(this);
+        sequenceExpression.right().accept(this);
+    }
+
+    @Override
+    public void visit(final ParallerExpression parallerExpression) {
+        parallerExpression.left().accept(this);
+        parallerExpression.right().accept(this);
+    }
+
+    @Override
+    public void visit(final AddExpression addExpression) {
+        addExpression.left().accept(this);
+        addExpression.right().accept(this);
+    }
+
+    @Override
+    public void visit(final MulExpression mulExpression) {
+        mulExpression.left().accept(this);
+        mulExpression.right().accept(this);
+    }
+
+    @Override
+    public void visit(final DivExpression divExpression) {
+        divExpression.left().accept(this);
+        divExpression.right().accept(this);
+    }
+
+    @Override
+    public void visit(final MinusExpression minusExpression) {
+        minusExpression.left().accept(this);
+        minusExpression.right().accept(this);
+    }
+
+    @Override
+    public void visit(final ModuloExpression moduloExpression) {
+        moduloExpression.left().accept(this);
+        moduloExpression.right().accept(this);
+    }
+
+    @Override
+    public void visit(final PowExpression powExpression) {
+        powExpression.left().accept(this);
+        powExpression.right().accept(this);
+    }
+
+    @Override
+    public void visit(final MinusUnaryExpression minusUnaryExpression) {
+        minusUnaryExpression.value().accept(this);
+    }
+
+    @Override
+    public void visit(final PlusUnaryExpression plusUnaryExpression) {
+        plusUnaryExpression.value().accept(this);
+    }
+
+    @Override
+    public void visit(final AndExpression andExpression) {
+        andExpression.left().accept(this);
+        andExpression.right().accept(this);
+    }
+
+    @Override
+    public void visit(final OrExpression orExpression) {
+        orExpression.left().accept(this);
+        orExpression.right().accept(this);
+    }
+
+    @Override
+    public void visit(final EqExpression eqExpression) {
+        eqExpression.left().accept(this);
+        eqExpression.right().accept(this);
+    }
+
+    @Override
+    public void visit(final NotEqExpression notEqExpression) {
+        notEqExpression.left().accept(this);
+        notEqExpression.right().accept(this);
+    }
+
+    @Override
+    public void visit(final GreaterEqExpression greaterEqExpression) {
+        greaterEqExpression.left().accept(this);
+        greaterEqExpression.right().accept(this);
+    }
+
+    @Override
+    public void visit(final GreaterExpression greaterExpression) {
+        greaterExpression.left().accept(this);
+        greaterExpression.right().accept(this);
+    }
+
+    @Override
+    public void visit(final LessEqExpression lessEqExpression) {
+        lessEqExpression.left().accept(this);
+        lessEqExpression.right().accept(this);
+    }
+
+    @Override
+    public void visit(final LessExpression lessExpression) {
+        lessExpression.left().accept(this);
+        lessExpression.right().accept(this);
+    }
+
+    @Override
+    public void visit(final NegateExpression negateExpression) {
+        negateExpression.expression().accept(this);
+    }
+    //endregion
+
+    //region Literal
+    @Override
+    public void visit(final IntLiteral intLiteral) {
+    }
+
+    @Override
+    public void visit(final FloatLiteral floatLiteral) {
+    }
+
+    @Override
+    public void visit(final BoolLiteral boolLiteral) {
+    }
+
+    @Override
+    public void visit(final StringLiter stringLiter) {
+    }
+    //endregion
+
+    //region Type
+    @Override
+    public void visit(final SimpleType simpleType) {
+    }
+
+    @Override
+    public void visit(final LambdaType lambdaType) {
+    }
+
+    @Override
+    public void visit(final InferenceType inferenceType) {
+    }
+
+    @Override
+    public void visit(final ArrayType arrayType) {
+    }
+    //endregion
+
+    /**
+     * Compile time image of a {@link Frame}: only names, scope boundaries and captured variables.
+     */
+    private static final class Layout {
+        private final Layout enclosing;
+        private final List<String> names;
+        private final LinkedList<Integer> scopeStarts = new LinkedList<>();
+        private final List<Capture> captures = new ArrayList<>();
+
+        private Layout(final Layout enclosing, final List<String> names) {
+            this.enclosing = enclosing;
+            this.names = new ArrayList<>(names);
+        }
+
+        private Slot resolve(final String name) {
+            var index = names.lastIndexOf(name);
+            if (index >= 0) {
+                return new Slot(Slot.LOCAL, index);
+            }
+            for (int i = 0; i < captures.size(); i++) {
+                if (captures.get(i).name().equals(name)) {
+                    return new Slot(Slot.CAPTURE, i);
+                }
+            }
+            if (enclosing == null) {
+                return null;
+            }
+            var source = enclosing.resolve(name);
+            if (source == null) {
+                return null;
+            }
+            captures.add(new Capture(name, source));
+            return new Slot(Slot.CAPTURE, captures.size() - 1);
+        }
+
+        private void declare(final String name) {
+            var scopeStart = scopeStarts.isEmpty() ? 0 : scopeStarts.peek();
+            if (names.subList(scopeStart, names.size()).contains(name)) {
+                return;
+            }
+            names.add(name);
+        }
+
+        private void enterScope() {
+            scopeStarts.push(names.size());
+        }
+
+        private void leaveScope() {
+            names.subList(scopeStarts.pop(), names.size()).clear();
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.declarative.music.interpreter;
+
+/**
+ * Position of a variable resolved before execution.
+ *
+ * @param depth {@link #LOCAL} for variables declared in the executing frame, {@link #CAPTURE} for variables captured
+ *              by the executing closure
+ * @param index index of the variable inside the frame or the capture array
+ */
+public record Slot(int depth, int index) {
+    public static final int LOCAL = 0;
+    public static final int CAPTURE = 1;
+}
@@ -0,0 +1,507 @@
+package com.declarative.music.interpreter;
+
+import com.declarative.music.interpreter.values.LambdaClousure;
+import com.declarative.music.interpreter.values.OperationRegistry;
+import com.declarative.music.interpreter.values.music.MusicTree;
+import com.declarative.music.interpreter.values.music.Note;
+import com.declarative.music.interpreter.values.template.IndexTree;
+import com.declarative.music.parser.production.*;
+import com.declarative.music.parser.production.assign.*;
+import com.declarative.music.parser.production.expression.CastExpresion;
+import com.declarative.music.parser.production.expression.Expression;
+import com.declarative.music.parser.production.expression.VariableReference;
+import com.declarative.music.parser.production.expression.arithmetic.*;
+import com.declarative.music.parser.production.expression.array.ArrayExpression;
+import com.declarative.music.parser.production.expression.array.ListComprehension;
+import com.declarative.music.parser.production.expression.array.RangeExpression;
+import com.declarative.music.parser.production.expression.lambda.FunctionCall;
+import com.declarative.music.parser.production.expression.lambda.LambdaCall;
+import com.declarative.music.parser.production.expression.lambda.LambdaExpression;
+import com.declarative.music.parser.production.expression.modifier.ModifierExpression;
+import com.declarative.music.parser.production.expression.music.ConvolutionExpression;
+import com.declarative.music.parser.production.expression.music.NoteExpression;
+import com.declarative.music.parser.production.expression.music.ParallerExpression;
+import com.declarative.music.parser.production.expression.music.SequenceExpression;
+import com.declarative.music.parser.production.expression.pipe.InlineFuncCall;
+import com.declarative.music.parser.production.expression.pipe.PipeExpression;
+import com.declarative.music.parser.production.expression.relation.*;
+import com.declarative.music.parser.production.literal.BoolLiteral;
+import com.declarative.music.parser.production.literal.FloatLiteral;
+import com.declarative.music.parser.production.literal.IntLiteral;
+import com.declarative.music.parser.production.literal.StringLiter;
+import com.declarative.music.parser.production.type.*;
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+
+/**
+ * Pass run after {@link TypeChecker} succeeded that infers runtime classes of expressions wherever they are proven:
+ * literals, casts, variables initialized with such values (assignments can not change class of a variable), typed
+ * lambda parameters (validated on every call) and loop variables over ranges. Binary operators whose operand classes
+ * are proven get {@link OperationRegistry#specialize specialized}, calls of builtins whose arguments are proven skip
+ * runtime argument validation.
+ */
+public class Specializer implements Visitor {
+    private final Map<String, Parameters> builtins;
+    @Getter
+    private final Set<Interpretable> provenCalls = Collections.newSetFromMap(new IdentityHashMap<>());
+    /**
+     * Caches of all binary operators, the ones with proven operand types are bound to their implementation.
+     */
+    @Getter
+    private final OperatorCaches caches = new OperatorCaches();
+    private Environment current = new Environment(null);
+    private Class<?> currentType;
+    private Class<?> pipedType;
+
+    public Specializer(final Map<String, Parameters> builtins) {
+        this.builtins = builtins;
+    }
+
+    private Class<?> typeOf(final Expression expression) {
+        currentType = null;
+        expression.accept(this);
+        var type = currentType;
+        currentType = null;
+        return type;
+    }
+
+    private static Class<?> classOf(final Type type) {
+        if (!(type instanceof SimpleType simpleType)) {
+            return null;
+        }
+        return switch (simpleType.type()) {
+            case Int -> Integer.class;
+            case Double -> Double.class;
+            case String -> String.class;
+            case Template -> IndexTree.class;
+            case Phrase -> MusicTree.class;
+            case null, default -> null;
+        };
+    }
+
+    private void specialize(final OperationRegistry registry, final Expression node, final Expression left,
+                            final Expression right) {
+        var leftType = typeOf(left);
+        var rightType = typeOf(right);
+        var cache = caches.get(node);
+        if (leftType != null && rightType != null && registry.specialize(cache, leftType, rightType)) {
+            currentType = registry.returnType(leftType, rightType);
+            return;
+        }
+        currentType = null;
+    }
+
+    private void visitAssigment(final Expression value) {
+        typeOf(value);
+    }
+
+    /**
+     * @param firstArgument class of value passed through pipe, only used for inline calls
+     */
+    private void proveCall(final Interpretable call, final String name, final Class<?> firstArgument,
+                           final List<Class<?>> arguments) {
+        var parameters = builtins.get(name);
+        if (parameters == null) {
+            return;
+        }
+        var expected = parameters.parameters().stream().map(Parameter::type).toList();
+        var provided = new LinkedList<>(arguments);
+        if (call instanceof InlineFuncCall) {
+            provided.addFirst(firstArgument);
+        }
+        if (expected.size() != provided.size()) {
+            return;
+        }
+        for (int i = 0; i < expected.size(); i++) {
+            var type = expected.get(i);
+            if (type instanceof InferenceType) {
+                continue;
+            }
+            var required = classOf(type);
+            if (required == null || required != provided.get(i)) {
+                return;
+            }
+        }
+        provenCalls.add(call);
+    }
+
+    private static Class<?> builtinReturnType(final String name) {
+        return switch (name) {
+            case "len", "rand", "argmin", "argmax" -> Integer.class;
+            default -> null;
+        };
+    }
+
+    //region Statement
+    @Override
+    public void visit(final Program program) {
+        program.statements().forEach(stmt -> stmt.accept(this));
+    }
+
+    @Override
+    public void visit(final Block block) {
+        current.enterScope();
+        block.statements().forEach(stmt -> stmt.accept(this));
+        current.leaveScope();
+    }
+
+    @Override
+    public void visit(final Declaration declaration) {
+        var type = declaration.value() == null ? null : typeOf(declaration.value());
+        current.declare(declaration.name(), type);
+    }
+
+    @Override
+    public void visit(final IfStatement ifStatement) {
+        if (ifStatement.condition() != null) {
+            typeOf(ifStatement.condition());
+        }
+        ifStatement.instructions().accept(this);
+        if (ifStatement.otherwise() != null) {
+            ifStatement.otherwise().accept(this);
+        }
+    }
+
+    @Override
+    public void visit(final ForStatement forStatement) {
+        var iterable = forStatement.iterable();
+        typeOf(iterable);
+        current.enterScope();
+        current.declare(forStatement.declaration().name(), iterable instanceof RangeExpression ? Integer.class : null);
+        forStatement.instructions().accept(this);
+        current.leaveScope();
+    }
+
+    @Override
+    public void visit(final ReturnStatement returnStatement) {
+        if (returnStatement.value() != null) {
+            typeOf(returnStatement.value());
+        }
+    }
+
+    @Override
+    public void visit(final AssigmentStatement assigmentStatement) {
+        visitAssigment(assigmentStatement.value());
+    }
+
+    @Override
+    public void visit(final DivAssignStatement divAssignStatement) {
+        visitAssigment(divAssignStatement.value());
+    }
+
+    @Override
+    public void visit(final MinusAssignStatement minusAssignStatement) {
+        visitAssigment(minusAssignStatement.value());
+    }
+
+    @Override
+    public void visit(final ModuloAssignStatement moduloAssignStatement) {
+        visitAssigment(moduloAssignStatement.value());
+    }
+
+    @Override
+    public void visit(final MulAssignStatement mulAssignStatement) {
+        visitAssigment(mulAssignStatement.value());
+    }
+
+    @Override
+    public void visit(final ParalerAssignStatement paralerAssignStatement) {
+        visitAssigment(paralerAssignStatement.value());
+    }
+
+    @Override
+    public void visit(final PlusAssignStatement plusAssignStatement) {
+        visitAssigment(plusAssignStatement.value());
+    }
+
+    @Override
+    public void visit(final PowAssignStatement powAssignStatement) {
+        visitAssigment(powAssignStatement.value());
+    }
+
+    @Override
+    public void visit(final SequenceAssignStatement sequenceAssignStatement) {
+        visitAssigment(sequenceAssignStatement.value());
+    }
+    //endregion
+
+    //region Expression
+    @Override
+    public void visit(final LambdaExpression lambdaExpression) {
+        current = new Environment(current);
+        current.enterScope();
+        lambdaExpression.parameters().parameters()
+                .forEach(parameter -> current.declare(parameter.name(), classOf(parameter.type())));
+        lambdaExpression.instructions().accept(this);
+        current = current.enclosing;
+        currentType = LambdaClousure.class;
+    }
+
+    @Override
+    public void visit(final VariableReference variableReference) {
+        currentType = current.lookup(variableReference.name());
+    }
+
+    @Override
+    public void visit(final FunctionCall functionCall) {
+        var arguments = functionCall.arguments().stream().<Class<?>>map(this::typeOf).toList();
+        proveCall(functionCall, functionCall.name(), null, arguments);
+        currentType = builtins.containsKey(functionCall.name()) ? builtinReturnType(functionCall.name()) : null;
+    }
+
+    @Override
+    public void visit(final InlineFuncCall inlineFuncCall) {
+        var piped = pipedType;
+        var arguments = inlineFuncCall.arguments().stream().<Class<?>>map(this::typeOf).toList();
+        proveCall(inlineFuncCall, inlineFuncCall.name(), piped, arguments);
+        currentType = builtins.containsKey(inlineFuncCall.name()) ? builtinReturnType(inlineFuncCall.name()) : null;
+    }
+
+    @Override
+    public void visit(final LambdaCall lambdaCall) {
+        typeOf(lambdaCall.call());
+        lambdaCall.arguments().forEach(this::typeOf);
+        currentType = null;
+    }
+
+    @Override
+    public void visit(final PipeExpression pipeExpression) {
+        pipedType = typeOf(pipeExpression.left());
+        pipeExpression.right().accept(this);
+        pipedType = null;
+    }
+
+    @Override
+    public void visit(final ArrayExpression arrayExpression) {
+        arrayExpression.items().forEach(this::typeOf);
+        currentType = null;
+    }
+
+    @Override
+    public void visit(final ListComprehension listComprehension) {
+        var iterable = listComprehension.iterable();
+        typeOf(iterable);
+        current.enterScope();
+        current.declare(listComprehension.tempName().name(), iterable instanceof RangeExpression ? Integer.class : null);
+        typeOf(listComprehension.mapper());
+        current.leaveScope();
+        currentType = null;
+    }
+
+    @Override
+    public void visit(final RangeExpression rangeExpression) {
+        typeOf(rangeExpression.start());
+        typeOf(rangeExpression.end());
+        currentType = null;
+    }
+
+    @Override
+    public void visit(final ModifierExpression modifierExpression) {
+        typeOf(modifierExpression.modified());
+        modifierExpression.modifier().modifiers().forEach(item -> typeOf(item.expression()));
+        currentType = null;
+    }
+
+    @Override
+    public void visit(final ConvolutionExpression convolutionExpression) {
+        typeOf(convolutionExpression.left());
+        typeOf(convolutionExpression.right());
+        currentType = MusicTree.class;
+    }
+
+    @Override
+    public void visit(final NoteExpression noteExpression) {
+        if (noteExpression.octave() != null) {
+            typeOf(noteExpression.octave());
+        }
+        currentType = Note.class;
+    }
+
+    @Override
+    public void visit(final CastExpresion castExpresion) {
+        typeOf(castExpresion.value());
+        currentType = classOf(castExpresion.type());
+    }
+
+    @Override
+    public void visit(final SequenceExpression sequenceExpression) {
+        specialize(Operations.SEQUENCE, sequenceExpression, sequenceExpression.left(), sequenceExpression.right());
+    }
+
+    @Override
+    public void visit(final ParallerExpression parallerExpression) {
+        specialize(Operations.PARALLER, parallerExpression, parallerExpression.left(), parallerExpression.right());
+    }
+
+    @Override
+    public void visit(final AddExpression addExpression) {
+        specialize(Operations.ADD, addExpression, addExpression.left(), addExpression.right());
+    }
+
+    @Override
+    public void visit(final MulExpression mulExpression) {
+        specialize(Operations.MUL, mulExpression, mulExpression.left(), mulExpression.right());
+    }
+
+    @Override
+    public void visit(final DivExpression divExpression) {
+        specialize(Operations.DIV, divExpression, divExpression.left(), divExpression.right());
+    }
+
+    @Override
+    public void visit(final MinusExpression minusExpression) {
+        specialize(Operations.MINUS, minusExpression, minusExpression.left(), minusExpression.right());
+    }
+
+    @Override
+    public void visit(final ModuloExpression moduloExpression) {
+        specialize(Operations.MODULO, moduloExpression, moduloExpression.left(), moduloExpression.right());
+    }
+
+    @Override
+    public void visit(final PowExpression powExpression) {
+        specialize(Operations.POW, powExpression, powExpression.left(), powExpression.right());
+    }
+
+    @Override
+    public void visit(final MinusUnaryExpression minusUnaryExpression) {
+        var type = typeOf(minusUnaryExpression.value());
+        currentType = type == Integer.class || type == Double.class ? type : null;
+    }
+
+    @Override
+    public void visit(final PlusUnaryExpression plusUnaryExpression) {
+        var type = typeOf(plusUnaryExpression.value());
+        currentType = type == Integer.class || type == Double.class ? type : null;
+    }
+
+    @Override
+    public void visit(final AndExpression andExpression) {
+        specialize(Operations.AND, andExpression, andExpression.left(), andExpression.right());
+    }
+
+    @Override
+    public void visit(final OrExpression orExpression) {
+        specialize(Operations.OR, orExpression, orExpression.left(), orExpression.right());
+    }
+
+    @Override
+    public void visit(final EqExpression eqExpression) {
+        specialize(Operations.EQ, eqExpression, eqExpression.left(), eqExpression.right());
+    }
+
+    @Override
+    public void visit(final NotEqExpression notEqExpression) {
+        specialize(Operations.NOT_EQ, notEqExpression, notEqExpression.left(), notEqExpression.right());
+    }
+
+    @Override
+    public void visit(final GreaterEqExpression greaterEqExpression) {
+        specialize(Operations.GREATER_EQ, greaterEqExpression, greaterEqExpression.left(), greaterEqExpression.right());
+    }
+
+    @Override
+    public void visit(final GreaterExpression greaterExpression) {
+        specialize(Operations.GREATER, greaterExpression, greaterExpression.left(), greaterExpression.right());
+    }
+
+    @Override
+    public void visit(final LessEqExpression lessEqExpression) {
+        specialize(Operations.LESS_EQ, lessEqExpression, lessEqExpression.left(), lessEqExpression.right());
+    }
+
+    @Override
+    public void visit(final LessExpression lessExpression) {
+        specialize(Operations.LESS, lessExpression, lessExpression.left(), lessExpression.right());
+    }
+
+    @Override
+    public void visit(final NegateExpression negateExpression) {
+        typeOf(negateExpression.expression());
+        currentType = Boolean.class;
+    }
+    //endregion
+
+    //region Literal
+    @Override
+    public void visit(final IntLiteral intLiteral) {
+        currentType = Integer.class;
+    }
+
+    @Override
+    public void visit(final FloatLiteral floatLiteral) {
+        currentType = Double.class;
+    }
+
+    @Override
+    public void visit(final BoolLiteral boolLiteral) {
+        currentType = Boolean.class;
+    }
+
+    @Override
+    public void visit(final StringLiter stringLiter) {
+        currentType = String.class;
+    }
+    //endregion
+
+    //region Type
+    @Override
+    public void visit(final SimpleType simpleType) {
+    }
+
+    @Override
+    public void visit(final LambdaType lambdaType) {
+    }
+
+    @Override
+    public void visit(final InferenceType inferenceType) {
+    }
+
+    @Override
+    public void visit(final ArrayType arrayType) {
+    }
+    //endregion
+
+    /**
+     * Proven classes of variables visible in a frame, null when class of the variable is not known. Lambdas see the
+     * environment they were defined in.
+     */
+    private static final class Environment {
+        private final Environment enclosing;
+        private final LinkedList<Map<String, Class<?>>> scopes = new LinkedList<>();
+
+        private Environment(final Environment enclosing) {
+            this.enclosing = enclosing;
+            enterScope();
+        }
+
+        private Class<?> lookup(final String name) {
+            for (var scope : scopes) {
+                if (scope.containsKey(name)) {
+                    return scope.get(name);
+                }
+            }
+            return enclosing == null ? null : enclosing.lookup(name);
+        }
+
+        private void declare(final String name, final Class<?> type) {
+            scopes.peek().put(name, type);
+        }
+
+        private void enterScope() {
+            scopes.push(new HashMap<>());
+        }
+
+        private void leaveScope() {
+            scopes.pop();
+        }
+    }
+}
@@ -41,38 +41,35 @@ public class TypeChecker implements Visitor {
     private Variant<TypeCheck> currentValue;
     private final ContextManager manager;
     private final boolean returned = false;
-    private static final Map<String, OperationRegistry> REGISTRY = Map.ofEntries(
-            Map.entry(SequenceExpression.class.getSimpleName(), new OperationRegistry()
-                    .register(IntType.class, IntType.class, (a, b) -> new TemplateType(), TypeCheck.class)
-                    .register(IntType.class, TemplateType.class, (a, b) -> new TemplateType(), TypeCheck.class)
-                    .register(TemplateType.class, IntType.class, (a, b) -> new TemplateType(), TypeCheck.class)
-                    .register(TemplateType.class, TemplateType.class, (a, b) -> new TemplateType(), TypeCheck.class)
-
-                    .register(NoteType.class, NoteType.class, (a, b) -> new PhraseType(), TypeCheck.class)
-                    .register(NoteType.class, PhraseType.class, (a, b) -> new PhraseType(), TypeCheck.class)
-                    .register(PhraseType.class, NoteType.class, (a, b) -> new PhraseType(), TypeCheck.class)
-                    .register(PhraseType.class, PhraseType.class, (a, b) -> new PhraseType(), TypeCheck.class)
-            ),
-            Map.entry(ParallerExpression.class.getSimpleName(), new OperationRegistry()
-                    .register(IntType.class, IntType.class, (a, b) -> new TemplateType(), TypeCheck.class)
-                    .register(IntType.class, TemplateType.class, (a, b) -> new TemplateType(), TypeCheck.class)
-                    .register(TemplateType.class, IntType.class, (a, b) -> new TemplateType(), TypeCheck.class)
-                    .register(TemplateType.class, TemplateType.class, (a, b) -> new TemplateType(), TypeCheck.class)
-                    .register(NoteType.class, NoteType.class, (a, b) -> new PhraseType(), TypeCheck.class)
-                    .register(NoteType.class, PhraseType.class, (a, b) -> new PhraseType(), TypeCheck.class)
-                    .register(PhraseType.class, NoteType.class, (a, b) -> new PhraseType(), TypeCheck.class)
-                    .register(PhraseType.class, PhraseType.class, (a, b) -> new PhraseType(), TypeCheck.class)
-            ),
-            Map.entry(ConvolutionExpression.class.getSimpleName(), new OperationRegistry()
-                    .register(TemplateType.class, com.declarative.music.interpreter.type.ArrayType.class, (a, b) -> {
-                        if (b.getType() instanceof NoteType) {
-                            return new PhraseType();
-                        }
-                        throw new UnsupportedOperationException("Unsupported array type for convolution");
-                    }, TypeCheck.class)
-                    .register(TemplateType.class, NoteType.class, (a, b) -> new PhraseType(), TypeCheck.class)
-            )
-    );
+    private static final OperationRegistry SEQUENCE = new OperationRegistry(SequenceExpression.class.getSimpleName())
+            .register(IntType.class, IntType.class, (a, b) -> new TemplateType(), TypeCheck.class)
+            .register(IntType.class, TemplateType.class, (a, b) -> new TemplateType(), TypeCheck.class)
+            .register(TemplateType.class, IntType.class, (a, b) -> new TemplateType(), TypeCheck.class)
+            .register(TemplateType.class, TemplateType.class, (a, b) -> new TemplateType(), TypeCheck.class)
+
+            .register(NoteType.class, NoteType.class, (a, b) -> new PhraseType(), TypeCheck.class)
+            .register(NoteType.class, PhraseType.class, (a, b) -> new PhraseType(), TypeCheck.class)
+            .register(PhraseType.class, NoteType.class, (a, b) -> new PhraseType(), TypeCheck.class)
+            .register(PhraseType.class, PhraseType.class, (a, b) -> new PhraseType(), TypeCheck.class);
+
+    private static final OperationRegistry PARALLER = new OperationRegistry(ParallerExpression.class.getSimpleName())
+            .register(IntType.class, IntType.class, (a, b) -> new TemplateType(), TypeCheck.class)
+            .register(IntType.class, TemplateType.class, (a, b) -> new TemplateType(), TypeCheck.class)
+            .register(TemplateType.class, IntType.class, (a, b) -> new TemplateType(), TypeCheck.class)
+            .register(TemplateType.class, TemplateType.class, (a, b) -> new TemplateType(), TypeCheck.class)
+            .register(NoteType.class, NoteType.class, (a, b) -> new PhraseType(), TypeCheck.class)
+            .register(NoteType.class, PhraseType.class, (a, b) -> new PhraseType(), TypeCheck.class)
+            .register(PhraseType.class, NoteType.class, (a, b) -> new PhraseType(), TypeCheck.class)
+            .register(PhraseType.class, PhraseType.class, (a, b) -> new PhraseType(), TypeCheck.class);
+
+    private static final OperationRegistry CONVOLUTION = new OperationRegistry(ConvolutionExpression.class.getSimpleName())
+            .register(TemplateType.class, com.declarative.music.interpreter.type.ArrayType.class, (a, b) -> {
+                if (b.getType() instanceof NoteType) {
+                    return new PhraseType();
+                }
+                throw new UnsupportedOperationException("Unsupported array type for convolution");
+            }, TypeCheck.class)
+            .register(TemplateType.class, NoteType.class, (a, b) -> new PhraseType(), TypeCheck.class);
 
     record BuiltInFunction(Parameters parameters, Type returnType) {
     }
@@ -120,6 +117,24 @@ public class TypeChecker implements Visitor {
         builtinFunctions.put("panic", new BuiltInFunction(new Parameters(List.of(
                 new Parameter(new com.declarative.music.parser.production.type.InferenceType(null), "array")
         )), new SimpleType(Types.Void, null)));
+        builtinFunctions.put("open", new BuiltInFunction(new Parameters(List.of(
+                new Parameter(new SimpleType(Types.String, null), "fileName"),
+                new Parameter(new SimpleType(Types.Int, null), "track")
+        )), new SimpleType(Types.Phrase, null)));
+        builtinFunctions.put("exportWav", new BuiltInFunction(new Parameters(List.of(
+                new Parameter(new com.declarative.music.parser.production.type.InferenceType(null), "song"),
+                new Parameter(new SimpleType(Types.String, null), "fileName")
+        )), new SimpleType(Types.Void, null)));
+        for (var name : List.of("sum", "min", "max", "sort")) {
+            builtinFunctions.put(name, new BuiltInFunction(new Parameters(List.of(
+                    new Parameter(new com.declarative.music.parser.production.type.InferenceType(null), "array")
+            )), new com.declarative.music.parser.production.type.InferenceType(null)));
+        }
+        for (var name : List.of("argmin", "argmax")) {
+            builtinFunctions.put(name, new BuiltInFunction(new Parameters(List.of(
+                    new Parameter(new com.declarative.music.parser.production.type.InferenceType(null), "array")
+            )), new SimpleType(Types.Int, null)));
+        }
     }
 
     private Variant<TypeCheck> moveCurrentValue() {
@@ -359,6 +374,7 @@ public class TypeChecker implements Visitor {
 
     @Override
     public void visit(ListComprehension listComprehension) {
+        currentValue = new Variant<>(new ArrayType(new InferenceType()), TypeCheck.class);
     }
 
     @Override
@@ -387,8 +403,7 @@ public class TypeChecker implements Visitor {
         convolutionExpression.left().accept(this);
         var left = moveCurrentValue();
         convolutionExpression.right().accept(this);
-        var value = REGISTRY.get(ConvolutionExpression.class.getSimpleName())
-                .apply(ConvolutionExpression.class.getSimpleName(), left, currentValue);
+        var value = CONVOLUTION.apply(left, currentValue);
         currentValue = (Variant<TypeCheck>) value;
     }
 
@@ -463,8 +478,7 @@ public class TypeChecker implements Visitor {
         if (!currentValue.value().isCompatible(left.value())) {
             throw new RuntimeException("SEMANTIC ERROR different types on left and right of binary operator %s".formatted(sequenceExpression.left().position()));
         }
-        currentValue = (Variant<TypeCheck>) REGISTRY.get(sequenceExpression.getClass().getSimpleName())
-                .apply(sequenceExpression.getClass().getSimpleName(), left, currentValue);
+        currentValue = (Variant<TypeCheck>) SEQUENCE.apply(left, currentValue);
     }
 
     @Override
@@ -0,0 +1,44 @@
+package com.declarative.music.interpreter.bytecode;
+
+import com.declarative.music.interpreter.values.VariableReference;
+import com.declarative.music.parser.production.ForStatement;
+import com.declarative.music.parser.production.expression.lambda.LambdaExpression;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+
+/**
+ * Compiles lambdas and for loops to JVM bytecode the first time they are executed. Units which cannot be compiled are
+ * remembered, so the interpreter falls back to walking the tree without retrying the compilation.
+ */
+public class BytecodeBackend {
+    private final Map<Object, Optional<CompiledUnit>> units = new IdentityHashMap<>();
+
+    /**
+     * @param resolver finds variables visible inside the lambda, null when there is none, used when the lambda is compiled
+     */
+    public Optional<CompiledUnit> compile(final LambdaExpression expression,
+                                          final Function<String, VariableReference<?>> resolver) {
+        return units.computeIfAbsent(expression, key -> tryCompile(() -> BytecodeCompiler.compile(expression, resolver)));
+    }
+
+    /**
+     * @param resolver finds variables visible at the loop, null when there is none, used when the loop is compiled
+     */
+    public Optional<CompiledUnit> compile(final ForStatement statement,
+                                          final Function<String, VariableReference<?>> resolver) {
+        return units.computeIfAbsent(statement, key -> tryCompile(() -> BytecodeCompiler.compile(statement, resolver)));
+    }
+
+    private static Optional<CompiledUnit> tryCompile(final Supplier<CompiledUnit> compilation) {
+        try {
+            return Optional.of(compilation.get());
+        } catch (UnsupportedOperationException e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,1038 @@
+package com.declarative.music.interpreter.bytecode;
+
+import com.declarative.music.interpreter.Builtins;
+import com.declarative.music.interpreter.Interpretable;
+import com.declarative.music.interpreter.Visitor;
+import com.declarative.music.interpreter.values.DoubleArray;
+import com.declarative.music.interpreter.values.IntArray;
+import com.declarative.music.interpreter.values.VariableReference;
+import com.declarative.music.parser.production.AssigmentStatement;
+import com.declarative.music.parser.production.Block;
+import com.declarative.music.parser.production.Declaration;
+import com.declarative.music.parser.production.ForStatement;
+import com.declarative.music.parser.production.IfStatement;
+import com.declarative.music.parser.production.Parameters;
+import com.declarative.music.parser.production.Program;
+import com.declarative.music.parser.production.ReturnStatement;
+import com.declarative.music.parser.production.Statement;
+import com.declarative.music.parser.production.assign.AssignStmt;
+import com.declarative.music.parser.production.assign.DivAssignStatement;
+import com.declarative.music.parser.production.assign.MinusAssignStatement;
+import com.declarative.music.parser.production.assign.ModuloAssignStatement;
+import com.declarative.music.parser.production.assign.MulAssignStatement;
+import com.declarative.music.parser.production.assign.ParalerAssignStatement;
+import com.declarative.music.parser.production.assign.PlusAssignStatement;
+import com.declarative.music.parser.production.assign.PowAssignStatement;
+import com.declarative.music.parser.production.assign.SequenceAssignStatement;
+import com.declarative.music.parser.production.expression.CastExpresion;
+import com.declarative.music.parser.production.expression.Expression;
+import com.declarative.music.parser.production.expression.arithmetic.AddExpression;
+import com.declarative.music.parser.production.expression.arithmetic.DivExpression;
+import com.declarative.music.parser.production.expression.arithmetic.MinusExpression;
+import com.declarative.music.parser.production.expression.arithmetic.MinusUnaryExpression;
+import com.declarative.music.parser.production.expression.arithmetic.ModuloExpression;
+import com.declarative.music.parser.production.expression.arithmetic.MulExpression;
+import com.declarative.music.parser.production.expression.arithmetic.PlusUnaryExpression;
+import com.declarative.music.parser.production.expression.arithmetic.PowExpression;
+import com.declarative.music.parser.production.expression.array.ArrayExpression;
+import com.declarative.music.parser.production.expression.array.ListComprehension;
+import com.declarative.music.parser.production.expression.array.RangeExpression;
+import com.declarative.music.parser.production.expression.lambda.FunctionCall;
+import com.declarative.music.parser.production.expression.lambda.LambdaCall;
+import com.declarative.music.parser.production.expression.lambda.LambdaExpression;
+import com.declarative.music.parser.production.expression.modifier.ModifierExpression;
+import com.declarative.music.parser.production.expression.music.ConvolutionExpression;
+import com.declarative.music.parser.production.expression.music.NoteExpression;
+import com.declarative.music.parser.production.expression.music.ParallerExpression;
+import com.declarative.music.parser.production.expression.music.SequenceExpression;
+import com.declarative.music.parser.production.expression.pipe.InlineFuncCall;
+import com.declarative.music.parser.production.expression.pipe.PipeExpression;
+import com.declarative.music.parser.production.expression.relation.AndExpression;
+import com.declarative.music.parser.production.expression.relation.EqExpression;
+import com.declarative.music.parser.production.expression.relation.GreaterEqExpression;
+import com.declarative.music.parser.production.expression.relation.GreaterExpression;
+import com.declarative.music.parser.production.expression.relation.LessEqExpression;
+import com.declarative.music.parser.production.expression.relation.LessExpression;
+import com.declarative.music.parser.production.expression.relation.NegateExpression;
+import com.declarative.music.parser.production.expression.relation.NotEqExpression;
+import com.declarative.music.parser.production.expression.relation.OrExpression;
+import com.declarative.music.parser.production.literal.BoolLiteral;
+import com.declarative.music.parser.production.literal.FloatLiteral;
+import com.declarative.music.parser.production.literal.IntLiteral;
+import com.declarative.music.parser.production.literal.StringLiter;
+import com.declarative.music.parser.production.type.ArrayType;
+import com.declarative.music.parser.production.type.InferenceType;
+import com.declarative.music.parser.production.type.LambdaType;
+import com.declarative.music.parser.production.type.SimpleType;
+import com.declarative.music.parser.production.type.Type;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static com.declarative.music.interpreter.bytecode.CodeBuilder.*;
+
+
+/**
+ * Translates body of a lambda or a for loop into a hidden class implementing {@link CompiledCode}. Only Int, Double
+ * and Bool values, and arrays of Int and Double values, are kept in JVM locals, every other construct makes the unit
+ * unsupported and it is left to the interpreter. Variables declared outside of the unit are read and written through
+ * their references, so the compiled code shares them with the interpreter.
+ */
+class BytecodeCompiler implements Visitor {
+    private static final String CLASS_NAME = "com/declarative/music/interpreter/bytecode/CompiledUnitCode";
+    private static final String OBJECT = "java/lang/Object";
+    private static final String VARIANT = "com/declarative/music/interpreter/values/Variant";
+    private static final String REFERENCE = "com/declarative/music/interpreter/values/VariableReference";
+    private static final String BUILTINS = "com/declarative/music/interpreter/Builtins";
+    private static final String RUN_DESCRIPTOR = "([L%s;[L%s;)L%s;".formatted(VARIANT, REFERENCE, OBJECT);
+    private static final int THIS = 0;
+    private static final int ARGUMENTS = 1;
+    private static final int CELLS = 2;
+    private static final Set<String> VALUE_BUILTINS = Set.of("rand");
+    private static final Set<String> ARRAY_BUILTINS = Set.of("len", "at", "sum", "min", "max", "argmin", "argmax", "sort");
+    private static final Set<String> VOID_BUILTINS = Set.of("print", "panic", "export", "exportWav");
+
+    enum Kind {
+        INT(Integer.class, "java/lang/Integer", "intValue", "I", 1, ILOAD, ISTORE),
+        DOUBLE(Double.class, "java/lang/Double", "doubleValue", "D", 2, DLOAD, DSTORE),
+        BOOL(Boolean.class, "java/lang/Boolean", "booleanValue", "Z", 1, ILOAD, ISTORE),
+        INT_ARRAY(IntArray.class, "Int", INT),
+        DOUBLE_ARRAY(DoubleArray.class, "Double", DOUBLE);
+
+        private final Class<?> type;
+        private final String box;
+        private final String unbox;
+        private final String descriptor;
+        private final int slots;
+        private final int load;
+        private final int store;
+        private final Kind element;
+        private final String add;
+
+        Kind(final Class<?> type, final String box, final String unbox, final String descriptor, final int slots,
+             final int load, final int store) {
+            this.type = type;
+            this.box = box;
+            this.unbox = unbox;
+            this.descriptor = descriptor;
+            this.slots = slots;
+            this.load = load;
+            this.store = store;
+            this.element = null;
+            this.add = null;
+        }
+
+        /**
+         * Arrays are kept as references, {@code unbox} reads and {@code add} appends a primitive element.
+         */
+        Kind(final Class<?> type, final String elementName, final Kind element) {
+            this.type = type;
+            this.box = type.getName().replace('.', '/');
+            this.unbox = "get" + elementName;
+            this.descriptor = "L%s;".formatted(box);
+            this.slots = 1;
+            this.load = ALOAD;
+            this.store = ASTORE;
+            this.element = element;
+            this.add = "add" + elementName;
+        }
+
+        boolean isArray() {
+            return element != null;
+        }
+
+        Class<?> type() {
+            return type;
+        }
+
+        static Kind of(final Class<?> type) {
+            for (var kind : values()) {
+                if (kind.type == type) {
+                    return kind;
+                }
+            }
+            return null;
+        }
+    }
+
+    private enum Storage {
+        LOCAL, ARGUMENT, CELL
+    }
+
+    private record Variable(Kind kind, Storage storage, int index) {
+    }
+
+    /**
+     * Slots of the loop counter and of the value at which the loop ends.
+     */
+    private record Loop(int counter, int end) {
+    }
+
+    private final ClassWriter classWriter = new ClassWriter(CLASS_NAME, OBJECT, CompiledCode.class.getName().replace('.', '/'));
+    private final CodeBuilder code = new CodeBuilder(CELLS + 1);
+    private final Function<String, VariableReference<?>> resolver;
+    private final Map<String, Parameters> builtins = Builtins.parameters();
+    private final LinkedList<Map<String, Variable>> scopes = new LinkedList<>();
+    private final Map<String, Variable> free = new LinkedHashMap<>();
+    private final boolean lambda;
+    private Kind current;
+
+    /**
+     * @param resolver finds variables visible at the place where the unit is executed, null when there is none
+     * @param lambda   unit is a lambda body, so it may return
+     */
+    private BytecodeCompiler(final Function<String, VariableReference<?>> resolver, final boolean lambda) {
+        this.resolver = resolver;
+        this.lambda = lambda;
+    }
+
+    /**
+     * @throws UnsupportedOperationException when the lambda uses constructs not supported by the compiler
+     */
+    static CompiledUnit compile(final LambdaExpression expression, final Function<String, VariableReference<?>> resolver) {
+        var compiler = new BytecodeCompiler(resolver, true);
+        compiler.scopes.push(new HashMap<>());
+        var parameters = expression.parameters().parameters();
+        for (int i = 0; i < parameters.size(); i++) {
+            var parameter = parameters.get(i);
+            var kind = kindOf(parameter.type());
+            if (kind == null || compiler.scopes.peek().containsKey(parameter.name())) {
+                throw unsupported(expression);
+            }
+            compiler.scopes.peek().put(parameter.name(), new Variable(kind, Storage.ARGUMENT, i));
+        }
+        expression.instructions().accept(compiler);
+        return compiler.finish();
+    }
+
+    /**
+     * @throws UnsupportedOperationException when the loop uses constructs not supported by the compiler
+     */
+    static CompiledUnit compile(final ForStatement statement, final Function<String, VariableReference<?>> resolver) {
+        var compiler = new BytecodeCompiler(resolver, false);
+        statement.accept(compiler);
+        return compiler.finish();
+    }
+
+    private CompiledUnit finish() {
+        code.op(ACONST_NULL, 1).op(ARETURN, -1);
+        var constructor = new CodeBuilder(THIS + 1);
+        constructor.local(ALOAD, 1, THIS)
+                .op(INVOKESPECIAL, -1, classWriter.methodRef(OBJECT, "<init>", "()V"))
+                .op(RETURN, 0);
+        classWriter.addMethod(ClassWriter.ACC_PUBLIC, "<init>", "()V", constructor);
+        classWriter.addMethod(ClassWriter.ACC_PUBLIC, "run", RUN_DESCRIPTOR, code);
+
+        var names = new String[free.size()];
+        var types = new Class<?>[free.size()];
+        free.forEach((name, variable) -> {
+            names[variable.index()] = name;
+            types[variable.index()] = variable.kind().type();
+        });
+        try {
+            var lookup = MethodHandles.lookup().defineHiddenClass(classWriter.toByteArray(), true);
+            var instance = (CompiledCode) lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class)).invoke();
+            return new CompiledUnit(instance, names, types);
+        } catch (Throwable e) {
+            throw new IllegalStateException("Generated class is not valid", e);
+        }
+    }
+
+    //region Variables
+    private Variable resolve(final Interpretable node, final String name) {
+        for (var scope : scopes) {
+            var variable = scope.get(name);
+            if (variable != null) {
+                return variable;
+            }
+        }
+        var variable = free.get(name);
+        if (variable != null) {
+            return variable;
+        }
+        var kind = Optional.ofNullable(resolver.apply(name))
+                .map(reference -> reference.getValue() == null ? null : Kind.of(reference.getValue().getClass()))
+                .orElseThrow(() -> unsupported(node));
+        variable = new Variable(kind, Storage.CELL, free.size());
+        free.put(name, variable);
+        return variable;
+    }
+
+    private void declare(final Interpretable node, final String name, final Kind kind) {
+        if (scopes.peek().containsKey(name)) {
+            throw unsupported(node);
+        }
+        var variable = new Variable(kind, Storage.LOCAL, code.allocate(kind.slots));
+        code.local(kind.store, -kind.slots, variable.index());
+        scopes.peek().put(name, variable);
+    }
+
+    /**
+     * The interpreter keeps the reference of a variable initialized with another variable, so both names share one
+     * storage and writes through either of them are seen by the other.
+     */
+    private void alias(final Interpretable node, final String name, final Variable variable) {
+        if (scopes.peek().containsKey(name)) {
+            throw unsupported(node);
+        }
+        scopes.peek().put(name, variable);
+    }
+
+    private void load(final Variable variable) {
+        switch (variable.storage()) {
+            case LOCAL -> code.local(variable.kind().load, variable.kind().slots, variable.index());
+            case ARGUMENT -> {
+                loadElement(ARGUMENTS, variable.index());
+                code.op(INVOKEVIRTUAL, 0, classWriter.methodRef(VARIANT, "value", "()L%s;".formatted(OBJECT)));
+                unbox(variable.kind());
+            }
+            case CELL -> {
+                loadElement(CELLS, variable.index());
+                code.op(INVOKEVIRTUAL, 0, classWriter.methodRef(REFERENCE, "getValue", "()L%s;".formatted(OBJECT)));
+                unbox(variable.kind());
+            }
+        }
+    }
+
+    /**
+     * Stores the value computed by {@code value}, for references the value is computed after the reference is pushed.
+     */
+    private void store(final Interpretable node, final Variable variable, final Runnable value) {
+        switch (variable.storage()) {
+            case LOCAL -> {
+                value.run();
+                code.local(variable.kind().store, -variable.kind().slots, variable.index());
+            }
+            case CELL -> {
+                loadElement(CELLS, variable.index());
+                value.run();
+                box(variable.kind());
+                code.op(INVOKEVIRTUAL, -2, classWriter.methodRef(REFERENCE, "setValue", "(L%s;)V".formatted(OBJECT)));
+            }
+            case ARGUMENT -> throw unsupported(node);
+        }
+    }
+
+    private void loadElement(final int array, final int index) {
+        code.local(ALOAD, 1, array);
+        code.pushInt(index, classWriter);
+        code.op(AALOAD, -1);
+    }
+
+    private void box(final Kind kind) {
+        if (kind.isArray()) {
+            return;
+        }
+        code.op(INVOKESTATIC, 1 - kind.slots,
+                classWriter.methodRef(kind.box, "valueOf", "(%s)L%s;".formatted(kind.descriptor, kind.box)));
+    }
+
+    private void unbox(final Kind kind) {
+        code.op(CHECKCAST, 0, classWriter.classRef(kind.box));
+        if (kind.isArray()) {
+            return;
+        }
+        code.op(INVOKEVIRTUAL, kind.slots - 1, classWriter.methodRef(kind.box, kind.unbox, "()" + kind.descriptor));
+    }
+    //endregion
+
+    //region Helpers
+    private static UnsupportedOperationException unsupported(final Interpretable node) {
+        return new UnsupportedOperationException("Cannot compile " + node.getClass().getSimpleName());
+    }
+
+    private static Kind kindOf(final Type type) {
+        if (!(type instanceof SimpleType simpleType)) {
+            return null;
+        }
+        return switch (simpleType.type()) {
+            case Int -> Kind.INT;
+            case Double -> Kind.DOUBLE;
+            case null, default -> null;
+        };
+    }
+
+    private Kind expression(final Expression expression) {
+        current = null;
+        expression.accept(this);
+        if (current == null) {
+            throw unsupported(expression);
+        }
+        var kind = current;
+        current = null;
+        return kind;
+    }
+
+    private Kind scalar(final Expression expression) {
+        var kind = expression(expression);
+        if (kind.isArray()) {
+            throw unsupported(expression);
+        }
+        return kind;
+    }
+
+    private void expression(final Expression expression, final Kind required) {
+        if (expression(expression) != required) {
+            throw unsupported(expression);
+        }
+    }
+
+    private void statement(final Statement statement) {
+        if (statement instanceof FunctionCall call) {
+            call(call, call.name(), null, call.arguments(), true);
+            return;
+        }
+        if (statement instanceof PipeExpression pipe) {
+            call(pipe, pipe.right().name(), pipe.left(), pipe.right().arguments(), true);
+            return;
+        }
+        if (statement instanceof Expression) {
+            throw unsupported(statement);
+        }
+        statement.accept(this);
+    }
+
+    /**
+     * Calls builtin function through {@link Builtins#call}, result is unboxed or dropped depending on the function.
+     */
+    private void call(final Interpretable node, final String name, final Expression piped,
+                      final List<Expression> arguments, final boolean dropResult) {
+        var parameters = builtins.get(name);
+        var values = new ArrayList<Expression>();
+        if (piped != null) {
+            values.add(piped);
+        }
+        values.addAll(arguments);
+        if (!dropResult && ARRAY_BUILTINS.contains(name)) {
+            arrayCall(node, name, values);
+            return;
+        }
+        if (parameters == null || !(dropResult ? VOID_BUILTINS : VALUE_BUILTINS).contains(name)) {
+            throw unsupported(node);
+        }
+        if (values.size() != parameters.parameters().size()) {
+            throw unsupported(node);
+        }
+        code.op(LDC_W, 1, classWriter.string(name));
+        code.pushInt(values.size(), classWriter);
+        code.op(ANEWARRAY, 0, classWriter.classRef(OBJECT));
+        for (int i = 0; i < values.size(); i++) {
+            var type = parameters.parameters().get(i).type();
+            code.op(DUP, 1);
+            code.pushInt(i, classWriter);
+            var kind = expression(values.get(i));
+            if (!(type instanceof InferenceType) && kindOf(type) != kind) {
+                throw unsupported(node);
+            }
+            box(kind);
+            code.op(AASTORE, -3);
+        }
+        code.op(INVOKESTATIC, -1, classWriter.methodRef(BUILTINS, "call", "(L%s;[L%s;)L%s;".formatted("java/lang/String", OBJECT, OBJECT)));
+        if (dropResult) {
+            code.op(POP, -1);
+            return;
+        }
+        unbox(Kind.INT);
+        current = Kind.INT;
+    }
+
+    /**
+     * Calls methods of Int and Double arrays directly, without wrapping elements in variants.
+     */
+    private void arrayCall(final Interpretable node, final String name, final List<Expression> values) {
+        if (values.size() != (name.equals("at") ? 2 : 1)) {
+            throw unsupported(node);
+        }
+        var array = expression(values.get(0));
+        if (!array.isArray()) {
+            throw unsupported(node);
+        }
+        var element = array.element;
+        switch (name) {
+            case "len" -> {
+                code.op(INVOKEVIRTUAL, 0, classWriter.methodRef(array.box, "size", "()I"));
+                current = Kind.INT;
+            }
+            case "at" -> {
+                expression(values.get(1), Kind.INT);
+                code.op(INVOKEVIRTUAL, element.slots - 2, classWriter.methodRef(array.box, array.unbox, "(I)" + element.descriptor));
+                current = element;
+            }
+            case "argmin", "argmax" -> {
+                code.op(INVOKEVIRTUAL, 0, classWriter.methodRef(array.box, name, "()I"));
+                current = Kind.INT;
+            }
+            case "sort" -> {
+                code.op(INVOKEVIRTUAL, 0, classWriter.methodRef(array.box, "sorted", "()" + array.descriptor));
+                current = array;
+            }
+            default -> {
+                code.op(INVOKEVIRTUAL, element.slots - 1, classWriter.methodRef(array.box, name, "()" + element.descriptor));
+                current = element;
+            }
+        }
+    }
+
+    /**
+     * Emits a loop over a range or an Int or Double array, {@code body} is emitted inside the loop with the element on
+     * the stack.
+     *
+     * @param start emitted before the first iteration, when the counter and its end are set
+     */
+    private void loop(final Expression iterable, final Consumer<Loop> start, final Consumer<Kind> body) {
+        var counter = code.allocate(1);
+        var end = code.allocate(1);
+        var array = -1;
+        Kind element;
+        if (iterable instanceof RangeExpression range) {
+            expression(range.start(), Kind.INT);
+            code.local(ISTORE, -1, counter);
+            expression(range.end(), Kind.INT);
+            code.local(ISTORE, -1, end);
+            element = Kind.INT;
+        } else {
+            var kind = expression(iterable);
+            if (!kind.isArray()) {
+                throw unsupported(iterable);
+            }
+            array = code.allocate(1);
+            code.local(ASTORE, -1, array)
+                    .op(ICONST_0, 1)
+                    .local(ISTORE, -1, counter)
+                    .local(ALOAD, 1, array)
+                    .op(INVOKEVIRTUAL, 0, classWriter.methodRef(kind.box, "size", "()I"))
+                    .local(ISTORE, -1, end);
+            element = kind.element;
+        }
+        if (start != null) {
+            start.accept(new Loop(counter, end));
+        }
+        var loop = new Label();
+        var exit = new Label();
+        code.mark(loop)
+                .local(ILOAD, 1, counter)
+                .local(ILOAD, 1, end)
+                .jump(IF_ICMPGE, -2, exit);
+        if (array < 0) {
+            code.local(ILOAD, 1, counter);
+        } else {
+            var kind = arrayOf(element);
+            code.local(ALOAD, 1, array)
+                    .local(ILOAD, 1, counter)
+                    .op(INVOKEVIRTUAL, element.slots - 2, classWriter.methodRef(kind.box, kind.unbox, "(I)" + element.descriptor));
+        }
+        body.accept(element);
+        code.increment(counter, 1)
+                .jump(GOTO, 0, loop)
+                .mark(exit);
+    }
+
+    private void arithmetic(final Expression left, final Expression right, final int intOpcode, final int doubleOpcode) {
+        var kind = scalar(left);
+        expression(right, kind);
+        switch (kind) {
+            case INT -> code.op(intOpcode, -1);
+            case DOUBLE -> code.op(doubleOpcode, -2);
+            default -> throw unsupported(right);
+        }
+        current = kind;
+    }
+
+    private void power(final Supplier<Kind> left, final Expression right) {
+        var kind = left.get();
+        if (kind == Kind.INT) {
+            code.op(I2D, 1);
+        }
+        expression(right, kind);
+        if (kind == Kind.INT) {
+            code.op(I2D, 1);
+        }
+        if (kind == Kind.BOOL || kind.isArray()) {
+            throw unsupported(right);
+        }
+        code.op(INVOKESTATIC, -2, classWriter.methodRef("java/lang/Math", "pow", "(DD)D"));
+        if (kind == Kind.INT) {
+            code.op(D2I, -1);
+        }
+        current = kind;
+    }
+
+    /**
+     * Pushes result of comparison, {@code intJump} is taken when the comparison is false for ints and {@code doubleJump}
+     * after {@code doubleCompare} instruction for doubles.
+     */
+    private void comparison(final Expression left, final Expression right, final boolean allowBool,
+                            final int intJump, final int doubleCompare, final int doubleJump) {
+        var kind = scalar(left);
+        expression(right, kind);
+        var otherwise = new Label();
+        var end = new Label();
+        switch (kind) {
+            case DOUBLE -> {
+                if (doubleCompare == 0) {
+                    code.op(INVOKESTATIC, -3, classWriter.methodRef("java/lang/Double", "compare", "(DD)I"));
+                } else {
+                    code.op(doubleCompare, -3);
+                }
+                code.jump(doubleJump, -1, otherwise);
+            }
+            case BOOL -> {
+                if (!allowBool) {
+                    throw unsupported(right);
+                }
+                code.jump(intJump, -2, otherwise);
+            }
+            case INT -> code.jump(intJump, -2, otherwise);
+        }
+        code.op(ICONST_1, 1).jump(GOTO, 0, end);
+        code.resetStack(code.stack() - 1);
+        code.mark(otherwise).op(ICONST_0, 1).mark(end);
+        current = Kind.BOOL;
+    }
+
+    private void logical(final Expression left, final Expression right, final int opcode) {
+        expression(left, Kind.BOOL);
+        expression(right, Kind.BOOL);
+        code.op(opcode, -1);
+        current = Kind.BOOL;
+    }
+
+    private void compoundAssign(final AssignStmt assignStmt, final int intOpcode, final int doubleOpcode) {
+        var variable = resolve(assignStmt, assignStmt.identifier());
+        store(assignStmt, variable, () -> {
+            load(variable);
+            expression(assignStmt.value(), variable.kind());
+            switch (variable.kind()) {
+                case INT -> code.op(intOpcode, -1);
+                case DOUBLE -> code.op(doubleOpcode, -2);
+                default -> throw unsupported(assignStmt);
+            }
+        });
+    }
+    //endregion
+
+    //region Statement
+    @Override
+    public void visit(final Program program) {
+        throw unsupported(program);
+    }
+
+    @Override
+    public void visit(final Block block) {
+        scopes.push(new HashMap<>());
+        block.statements().forEach(this::statement);
+        scopes.pop();
+    }
+
+    @Override
+    public void visit(final Declaration declaration) {
+        if (declaration.value() == null) {
+            throw unsupported(declaration);
+        }
+        if (declaration.value() instanceof com.declarative.music.parser.production.expression.VariableReference reference) {
+            alias(declaration, declaration.name(), resolve(reference, reference.name()));
+            return;
+        }
+        declare(declaration, declaration.name(), expression(declaration.value()));
+    }
+
+    @Override
+    public void visit(final AssigmentStatement assigmentStatement) {
+        var variable = resolve(assigmentStatement, assigmentStatement.identifier());
+        store(assigmentStatement, variable, () -> expression(assigmentStatement.value(), variable.kind()));
+    }
+
+    @Override
+    public void visit(final IfStatement ifStatement) {
+        if (ifStatement.condition() == null) {
+            ifStatement.instructions().accept(this);
+            return;
+        }
+        expression(ifStatement.condition(), Kind.BOOL);
+        var otherwise = new Label();
+        var end = new Label();
+        code.jump(IFEQ, -1, otherwise);
+        ifStatement.instructions().accept(this);
+        code.jump(GOTO, 0, end);
+        code.mark(otherwise);
+        if (ifStatement.otherwise() != null) {
+            ifStatement.otherwise().accept(this);
+        }
+        code.mark(end);
+    }
+
+    @Override
+    public void visit(final ForStatement forStatement) {
+        var declaration = forStatement.declaration();
+        loop(forStatement.iterable(), null, element -> {
+            if (kindOf(declaration.type()) != element) {
+                throw unsupported(declaration);
+            }
+            scopes.push(new HashMap<>());
+            declare(declaration, declaration.name(), element);
+            forStatement.instructions().accept(this);
+            scopes.pop();
+        });
+    }
+
+    @Override
+    public void visit(final ReturnStatement returnStatement) {
+        if (!lambda) {
+            throw unsupported(returnStatement);
+        }
+        if (returnStatement.value() instanceof com.declarative.music.parser.production.expression.VariableReference reference) {
+            var variable = resolve(reference, reference.name());
+            switch (variable.storage()) {
+                case ARGUMENT -> loadElement(ARGUMENTS, variable.index());
+                case CELL -> loadElement(CELLS, variable.index());
+                case LOCAL -> {
+                    if (variable.kind().isArray()) {
+                        throw unsupported(returnStatement);
+                    }
+                    load(variable);
+                    box(variable.kind());
+                }
+            }
+        } else {
+            box(scalar(returnStatement.value()));
+        }
+        code.op(ARETURN, -1);
+    }
+
+    @Override
+    public void visit(final PlusAssignStatement plusAssignStatement) {
+        compoundAssign(plusAssignStatement, IADD, DADD);
+    }
+
+    @Override
+    public void visit(final MinusAssignStatement minusAssignStatement) {
+        compoundAssign(minusAssignStatement, ISUB, DSUB);
+    }
+
+    @Override
+    public void visit(final MulAssignStatement mulAssignStatement) {
+        compoundAssign(mulAssignStatement, IMUL, DMUL);
+    }
+
+    @Override
+    public void visit(final DivAssignStatement divAssignStatement) {
+        compoundAssign(divAssignStatement, IDIV, DDIV);
+    }
+
+    @Override
+    public void visit(final ModuloAssignStatement moduloAssignStatement) {
+        compoundAssign(moduloAssignStatement, IREM, DREM);
+    }
+
+    @Override
+    public void visit(final PowAssignStatement powAssignStatement) {
+        var variable = resolve(powAssignStatement, powAssignStatement.identifier());
+        store(powAssignStatement, variable, () -> {
+            power(() -> {
+                load(variable);
+                return variable.kind();
+            }, powAssignStatement.value());
+            current = null;
+        });
+    }
+
+    @Override
+    public void visit(final SequenceAssignStatement sequenceAssignStatement) {
+        throw unsupported(sequenceAssignStatement);
+    }
+
+    @Override
+    public void visit(final ParalerAssignStatement paralerAssignStatement) {
+        throw unsupported(paralerAssignStatement);
+    }
+    //endregion
+
+    //region Expression
+    @Override
+    public void visit(final IntLiteral intLiteral) {
+        code.pushInt(intLiteral.value(), classWriter);
+        current = Kind.INT;
+    }
+
+    @Override
+    public void visit(final FloatLiteral floatLiteral) {
+        code.op(LDC2_W, 2, classWriter.doubleConstant(floatLiteral.value()));
+        current = Kind.DOUBLE;
+    }
+
+    @Override
+    public void visit(final BoolLiteral boolLiteral) {
+        code.op(boolLiteral.value() ? ICONST_1 : ICONST_0, 1);
+        current = Kind.BOOL;
+    }
+
+    @Override
+    public void visit(final com.declarative.music.parser.production.expression.VariableReference variableReference) {
+        var variable = resolve(variableReference, variableReference.name());
+        load(variable);
+        current = variable.kind();
+    }
+
+    @Override
+    public void visit(final AddExpression addExpression) {
+        arithmetic(addExpression.left(), addExpression.right(), IADD, DADD);
+    }
+
+    @Override
+    public void visit(final MinusExpression minusExpression) {
+        arithmetic(minusExpression.left(), minusExpression.right(), ISUB, DSUB);
+    }
+
+    @Override
+    public void visit(final MulExpression mulExpression) {
+        arithmetic(mulExpression.left(), mulExpression.right(), IMUL, DMUL);
+    }
+
+    @Override
+    public void visit(final DivExpression divExpression) {
+        arithmetic(divExpression.left(), divExpression.right(), IDIV, DDIV);
+    }
+
+    @Override
+    public void visit(final ModuloExpression moduloExpression) {
+        arithmetic(moduloExpression.left(), moduloExpression.right(), IREM, DREM);
+    }
+
+    @Override
+    public void visit(final PowExpression powExpression) {
+        power(() -> expression(powExpression.left()), powExpression.right());
+    }
+
+    @Override
+    public void visit(final MinusUnaryExpression minusUnaryExpression) {
+        var kind = scalar(minusUnaryExpression.value());
+        switch (kind) {
+            case INT -> code.op(INEG, 0);
+            case DOUBLE -> code.op(DNEG, 0);
+            default -> throw unsupported(minusUnaryExpression);
+        }
+        current = kind;
+    }
+
+    @Override
+    public void visit(final PlusUnaryExpression plusUnaryExpression) {
+        var kind = scalar(plusUnaryExpression.value());
+        if (kind == Kind.BOOL) {
+            throw unsupported(plusUnaryExpression);
+        }
+        current = kind;
+    }
+
+    @Override
+    public void visit(final NegateExpression negateExpression) {
+        expression(negateExpression.expression(), Kind.BOOL);
+        code.op(ICONST_1, 1).op(IXOR, -1);
+        current = Kind.BOOL;
+    }
+
+    @Override
+    public void visit(final EqExpression eqExpression) {
+        comparison(eqExpression.left(), eqExpression.right(), true, IF_ICMPNE, 0, IFNE);
+    }
+
+    @Override
+    public void visit(final NotEqExpression notEqExpression) {
+        comparison(notEqExpression.left(), notEqExpression.right(), true, IF_ICMPEQ, 0, IFEQ);
+    }
+
+    @Override
+    public void visit(final GreaterExpression greaterExpression) {
+        comparison(greaterExpression.left(), greaterExpression.right(), false, IF_ICMPLE, DCMPL, IFLE);
+    }
+
+    @Override
+    public void visit(final GreaterEqExpression greaterEqExpression) {
+        comparison(greaterEqExpression.left(), greaterEqExpression.right(), false, IF_ICMPLT, DCMPL, IFLT);
+    }
+
+    @Override
+    public void visit(final LessExpression lessExpression) {
+        comparison(lessExpression.left(), lessExpression.right(), false, IF_ICMPGE, DCMPG, IFGE);
+    }
+
+    @Override
+    public void visit(final LessEqExpression lessEqExpression) {
+        comparison(lessEqExpression.left(), lessEqExpression.right(), false, IF_ICMPGT, DCMPG, IFGT);
+    }
+
+    @Override
+    public void visit(final AndExpression andExpression) {
+        logical(andExpression.left(), andExpression.right(), IAND);
+    }
+
+    @Override
+    public void visit(final OrExpression orExpression) {
+        logical(orExpression.left(), orExpression.right(), IOR);
+    }
+
+    @Override
+    public void visit(final CastExpresion castExpresion) {
+        var kind = scalar(castExpresion.value());
+        var target = kindOf(castExpresion.type());
+        if (target == null || kind == Kind.BOOL) {
+            throw unsupported(castExpresion);
+        }
+        if (kind == Kind.INT && target == Kind.DOUBLE) {
+            code.op(I2D, 1);
+        } else if (kind == Kind.DOUBLE && target == Kind.INT) {
+            code.op(D2I, -1);
+        }
+        current = target;
+    }
+
+    @Override
+    public void visit(final FunctionCall functionCall) {
+        call(functionCall, functionCall.name(), null, functionCall.arguments(), false);
+    }
+
+    @Override
+    public void visit(final PipeExpression pipeExpression) {
+        var call = pipeExpression.right();
+        call(pipeExpression, call.name(), pipeExpression.left(), call.arguments(), false);
+    }
+
+    @Override
+    public void visit(final InlineFuncCall inlineFuncCall) {
+        throw unsupported(inlineFuncCall);
+    }
+
+    @Override
+    public void visit(final LambdaCall lambdaCall) {
+        throw unsupported(lambdaCall);
+    }
+
+    @Override
+    public void visit(final LambdaExpression lambdaExpression) {
+        throw unsupported(lambdaExpression);
+    }
+
+    @Override
+    public void visit(final StringLiter stringLiter) {
+        throw unsupported(stringLiter);
+    }
+
+    @Override
+    public void visit(final ArrayExpression arrayExpression) {
+        throw unsupported(arrayExpression);
+    }
+
+    /**
+     * Collects Int or Double results into a primitive array. Class of the array is known only after the mapper is
+     * compiled, so the array is created in a block emitted after the loop, jumped to before the first iteration.
+     */
+    @Override
+    public void visit(final ListComprehension listComprehension) {
+        var result = code.allocate(1);
+        var allocate = new Label();
+        var resume = new Label();
+        var loop = new Loop[1];
+        var mapped = new Kind[1];
+        loop(listComprehension.iterable(), slots -> {
+            loop[0] = slots;
+            code.jump(GOTO, 0, allocate).mark(resume);
+        }, element -> {
+            scopes.push(new HashMap<>());
+            declare(listComprehension, listComprehension.tempName().name(), element);
+            var value = code.allocate(2);
+            mapped[0] = scalar(listComprehension.mapper());
+            if (mapped[0] == Kind.BOOL) {
+                throw unsupported(listComprehension.mapper());
+            }
+            code.local(mapped[0].store, -mapped[0].slots, value);
+            var array = arrayOf(mapped[0]);
+            code.local(ALOAD, 1, result)
+                    .local(mapped[0].load, mapped[0].slots, value)
+                    .op(INVOKEVIRTUAL, -1 - mapped[0].slots,
+                            classWriter.methodRef(array.box, array.add, "(%s)V".formatted(mapped[0].descriptor)));
+            scopes.pop();
+        });
+        var array = arrayOf(mapped[0]);
+        var done = new Label();
+        code.jump(GOTO, 0, done)
+                .mark(allocate)
+                .op(NEW, 1, classWriter.classRef(array.box))
+                .op(DUP, 1)
+                .local(ILOAD, 1, loop[0].end())
+                .local(ILOAD, 1, loop[0].counter())
+                .op(ISUB, -1)
+                .op(INVOKESPECIAL, -2, classWriter.methodRef(array.box, "<init>", "(I)V"))
+                .local(ASTORE, -1, result)
+                .jump(GOTO, 0, resume)
+                .mark(done)
+                .local(ALOAD, 1, result);
+        current = array;
+    }
+
+    private static Kind arrayOf(final Kind element) {
+        return element == Kind.INT ? Kind.INT_ARRAY : Kind.DOUBLE_ARRAY;
+    }
+
+    @Override
+    public void visit(final RangeExpression rangeExpression) {
+        throw unsupported(rangeExpression);
+    }
+
+    @Override
+    public void visit(final ModifierExpression modifierExpression) {
+        throw unsupported(modifierExpression);
+    }
+
+    @Override
+    public void visit(final ConvolutionExpression convolutionExpression) {
+        throw unsupported(convolutionExpression);
+    }
+
+    @Override
+    public void visit(final NoteExpression noteExpression) {
+        throw unsupported(noteExpression);
+    }
+
+    @Override
+    public void visit(final SequenceExpression sequenceExpression) {
+        throw unsupported(sequenceExpression);
+    }
+
+    @Override
+    public void visit(final ParallerExpression parallerExpression) {
+        throw unsupported(parallerExpression);
+    }
+    //endregion
+
+    //region Type
+    @Override
+    public void visit(final SimpleType simpleType) {
+        throw unsupported(simpleType);
+    }
+
+    @Override
+    public void visit(final LambdaType lambdaType) {
+        throw unsupported(lambdaType);
+    }
+
+    @Override
+    public void visit(final InferenceType inferenceType) {
+        throw unsupported(inferenceType);
+    }
+
+    @Override
+    public void visit(final ArrayType arrayType) {
+        throw unsupported(arrayType);
+    }
+    //endregion
+}
@@ -0,0 +1,212 @@
+package com.declarative.music.interpreter.bytecode;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Emits bytecode of a single method, keeping track of stack depth, local variable slots and jumps to labels.
+ */
+class CodeBuilder {
+    static final int ACONST_NULL = 0x01;
+    static final int ICONST_0 = 0x03;
+    static final int ICONST_1 = 0x04;
+    static final int BIPUSH = 0x10;
+    static final int SIPUSH = 0x11;
+    static final int LDC_W = 0x13;
+    static final int LDC2_W = 0x14;
+    static final int ILOAD = 0x15;
+    static final int DLOAD = 0x18;
+    static final int ALOAD = 0x19;
+    static final int ISTORE = 0x36;
+    static final int DSTORE = 0x39;
+    static final int ASTORE = 0x3A;
+    static final int AALOAD = 0x32;
+    static final int POP = 0x57;
+    static final int DUP = 0x59;
+    static final int IADD = 0x60;
+    static final int DADD = 0x63;
+    static final int ISUB = 0x64;
+    static final int DSUB = 0x67;
+    static final int IMUL = 0x68;
+    static final int DMUL = 0x6B;
+    static final int IDIV = 0x6C;
+    static final int DDIV = 0x6F;
+    static final int IREM = 0x70;
+    static final int DREM = 0x73;
+    static final int INEG = 0x74;
+    static final int DNEG = 0x77;
+    static final int IAND = 0x7E;
+    static final int IOR = 0x80;
+    static final int IXOR = 0x82;
+    static final int IINC = 0x84;
+    static final int I2D = 0x87;
+    static final int D2I = 0x8E;
+    static final int DCMPL = 0x97;
+    static final int DCMPG = 0x98;
+    static final int IFEQ = 0x99;
+    static final int IFNE = 0x9A;
+    static final int IFLT = 0x9B;
+    static final int IFGE = 0x9C;
+    static final int IFGT = 0x9D;
+    static final int IFLE = 0x9E;
+    static final int IF_ICMPEQ = 0x9F;
+    static final int IF_ICMPNE = 0xA0;
+    static final int IF_ICMPLT = 0xA1;
+    static final int IF_ICMPGE = 0xA2;
+    static final int IF_ICMPGT = 0xA3;
+    static final int IF_ICMPLE = 0xA4;
+    static final int GOTO = 0xA7;
+    static final int ARETURN = 0xB0;
+    static final int RETURN = 0xB1;
+    static final int INVOKEVIRTUAL = 0xB6;
+    static final int INVOKESPECIAL = 0xB7;
+    static final int INVOKESTATIC = 0xB8;
+    static final int INVOKEINTERFACE = 0xB9;
+    static final int NEW = 0xBB;
+    static final int ANEWARRAY = 0xBD;
+    static final int AASTORE = 0x53;
+    static final int CHECKCAST = 0xC0;
+
+    private static final int MAX_JUMP = Short.MAX_VALUE;
+
+    private final ByteArrayOutputStream code = new ByteArrayOutputStream();
+    private final List<Integer> jumpSources = new ArrayList<>();
+    private final List<Label> jumpTargets = new ArrayList<>();
+    private int stack;
+    private int maxStack;
+    private int locals;
+
+    static final class Label {
+        private int offset = -1;
+    }
+
+    CodeBuilder(final int parameterSlots) {
+        locals = parameterSlots;
+    }
+
+    int allocate(final int slots) {
+        var slot = locals;
+        locals += slots;
+        return slot;
+    }
+
+    int maxStack() {
+        return maxStack;
+    }
+
+    int maxLocals() {
+        return locals;
+    }
+
+    /**
+     * @param stackChange difference of stack size caused by the instruction
+     */
+    CodeBuilder op(final int opcode, final int stackChange) {
+        code.write(opcode);
+        adjust(stackChange);
+        return this;
+    }
+
+    CodeBuilder op(final int opcode, final int stackChange, final int operand) {
+        code.write(opcode);
+        writeShort(operand);
+        adjust(stackChange);
+        return this;
+    }
+
+    CodeBuilder local(final int opcode, final int stackChange, final int slot) {
+        if (slot > 0xFF) {
+            throw new UnsupportedOperationException("Too many local variables");
+        }
+        code.write(opcode);
+        code.write(slot);
+        adjust(stackChange);
+        return this;
+    }
+
+    CodeBuilder increment(final int slot, final int value) {
+        if (slot > 0xFF || value < Byte.MIN_VALUE || value > Byte.MAX_VALUE) {
+            throw new UnsupportedOperationException("Unsupported increment");
+        }
+        code.write(IINC);
+        code.write(slot);
+        code.write(value);
+        return this;
+    }
+
+    CodeBuilder pushInt(final int value, final ClassWriter classWriter) {
+        if (value >= -1 && value <= 5) {
+            return op(ICONST_0 + value, 1);
+        }
+        if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+            code.write(BIPUSH);
+            code.write(value);
+            adjust(1);
+            return this;
+        }
+        if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+            return op(SIPUSH, 1, value);
+        }
+        return op(LDC_W, 1, classWriter.integer(value));
+    }
+
+    CodeBuilder invokeInterface(final int methodRef, final int argumentSlots, final int stackChange) {
+        code.write(INVOKEINTERFACE);
+        writeShort(methodRef);
+        code.write(argumentSlots + 1);
+        code.write(0);
+        adjust(stackChange);
+        return this;
+    }
+
+    CodeBuilder jump(final int opcode, final int stackChange, final Label target) {
+        jumpSources.add(code.size());
+        jumpTargets.add(target);
+        code.write(opcode);
+        writeShort(0);
+        adjust(stackChange);
+        return this;
+    }
+
+    CodeBuilder mark(final Label label) {
+        label.offset = code.size();
+        return this;
+    }
+
+    /**
+     * Stack size is tracked linearly, code after unconditional jump continues with the size given here.
+     */
+    void resetStack(final int size) {
+        stack = size;
+    }
+
+    int stack() {
+        return stack;
+    }
+
+    byte[] toByteArray() {
+        var bytes = code.toByteArray();
+        if (bytes.length > MAX_JUMP) {
+            throw new UnsupportedOperationException("Method too large");
+        }
+        for (int i = 0; i < jumpSources.size(); i++) {
+            var source = jumpSources.get(i);
+            var offset = jumpTargets.get(i).offset - source;
+            bytes[source + 1] = (byte) (offset >> 8);
+            bytes[source + 2] = (byte) offset;
+        }
+        return bytes;
+    }
+
+    private void writeShort(final int value) {
+        code.write(value >> 8);
+        code.write(value);
+    }
+
+    private void adjust(final int stackChange) {
+        stack += stackChange;
+        maxStack = Math.max(maxStack, stack);
+    }
+}
@@ -0,0 +1,18 @@
+package com.declarative.music.interpreter.bytecode;
+
+import com.declarative.music.interpreter.values.VariableReference;
+import com.declarative.music.interpreter.values.Variant;
+
+
+/**
+ * Code generated by {@link BytecodeCompiler}, implemented by hidden classes.
+ */
+public interface CompiledCode {
+    /**
+     * @param arguments arguments of the compiled lambda, read through the variant so references stay shared
+     * @param cells     variables declared outside of the compiled code, in order of {@link CompiledUnit#freeNames()}
+     * @return returned value: a {@link Variant} or {@link VariableReference} when a variable is returned as is,
+     * a plain value otherwise, null when code did not return anything
+     */
+    Object run(Variant<?>[] arguments, VariableReference<?>[] cells);
+}
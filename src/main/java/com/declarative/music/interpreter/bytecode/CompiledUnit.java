@@ -0,0 +1,33 @@
+package com.declarative.music.interpreter.bytecode;
+
+import com.declarative.music.interpreter.values.VariableReference;
+
+import java.util.function.Function;
+
+
+/**
+ * Compiled code together with variables it reads from the enclosing context.
+ *
+ * @param freeNames names of variables declared outside of the compiled code
+ * @param freeTypes classes of values the code was compiled for
+ */
+public record CompiledUnit(CompiledCode code, String[] freeNames, Class<?>[] freeTypes) {
+
+    /**
+     * Finds variables used by the code in current context.
+     *
+     * @return references in order of {@link #freeNames()} or null when any of them holds value of a different class than
+     * the code was compiled for
+     */
+    public VariableReference<?>[] bind(final Function<String, VariableReference<?>> resolver) {
+        var cells = new VariableReference<?>[freeNames.length];
+        for (int i = 0; i < freeNames.length; i++) {
+            var reference = resolver.apply(freeNames[i]);
+            if (reference == null || reference.getValue() == null || reference.getValue().getClass() != freeTypes[i]) {
+                return null;
+            }
+            cells[i] = reference;
+        }
+        return cells;
+    }
+}
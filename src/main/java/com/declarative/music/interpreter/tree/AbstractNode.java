@@ -1,26 +1,73 @@
 package com.declarative.music.interpreter.tree;
 
 import com.declarative.music.interpreter.tree.modifier.ModifierVisitor;
-import lombok.RequiredArgsConstructor;
 
 import java.util.List;
 
 
-@RequiredArgsConstructor
 public abstract class AbstractNode<T> implements Node<T> {
-    public final List<Node<T>> nodes;
+    public final PersistentList<Node<T>> nodes;
     private ModifierVisitor<T> modifier;
+    private AbstractNode<T> modified;
+    private int modifiedSize;
+
+    /**
+     * Children are kept in a list packing note leaves, see {@link NotePacking}.
+     */
+    protected AbstractNode(final List<Node<T>> nodes) {
+        this.nodes = nodes instanceof PersistentList<Node<T>> list && list.packing() == NotePacking.<T>forNodes()
+                ? list
+                : new PersistentList<>(NotePacking.forNodes(), nodes);
+    }
+
+    /**
+     * Creates node sharing children with another one, modifier is kept as is without passing it to the children.
+     */
+    protected AbstractNode(final PersistentList<Node<T>> nodes, final ModifierVisitor<T> modifier) {
+        this.nodes = nodes;
+        this.modifier = modifier;
+    }
 
     @Override
     public ModifierVisitor<T> modifier() {
         return modifier;
     }
 
+    /**
+     * Returns view of the node with modifier applied, built once and rebuilt only after the modifier is set again or
+     * a child is added.
+     */
+    @SuppressWarnings("unchecked")
+    protected <N extends AbstractNode<T>> N cachedModified() {
+        if (modified == null || modifiedSize != nodes.size()) {
+            modified = (AbstractNode<T>) accept(modifier);
+            modifiedSize = nodes.size();
+        }
+        return (N) modified;
+    }
+
+    /**
+     * Leaves are changed by their parents, packed ones are copies which have to be stored back.
+     */
     @Override
     public void setModifier(ModifierVisitor<T> visitor) {
-        this.modifier = visitor;
-        for (var node : nodes) {
-            node.setModifier(modifier);
-        }
+        Traversal.walk(this, new TreeVisitor<>() {
+            @Override
+            public void visit(final SimpleNode<T> node) {
+            }
+
+            @Override
+            public void enter(final Node<T> node) {
+                var inner = (AbstractNode<T>) node;
+                inner.modifier = visitor;
+                inner.modified = null;
+                for (int i = 0; i < inner.nodes.size(); i++) {
+                    if (inner.nodes.get(i) instanceof SimpleNode<T> leaf) {
+                        leaf.setModifier(visitor);
+                        inner.nodes.set(i, leaf);
+                    }
+                }
+            }
+        });
     }
 }
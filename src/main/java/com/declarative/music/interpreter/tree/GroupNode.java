@@ -2,7 +2,6 @@ package com.declarative.music.interpreter.tree;
 
 import com.declarative.music.interpreter.tree.modifier.ModifierVisitor;
 
-import java.util.ArrayList;
 import java.util.List;
 
 
@@ -12,7 +11,25 @@ public class GroupNode<T> extends AbstractNode<T> {
     }
 
     public GroupNode() {
-        super(new ArrayList<>());
+        super(List.of());
+    }
+
+    private GroupNode(final PersistentList<Node<T>> nodes, final ModifierVisitor<T> modifier) {
+        super(nodes, modifier);
+    }
+
+    /**
+     * @return node with the child added at the end, sharing other children with this node which stays unchanged
+     */
+    public GroupNode<T> appended(final Node<T> child) {
+        return new GroupNode<>(nodes.appended(child), modifier());
+    }
+
+    /**
+     * @return node with the children added at the end, sharing other children with this node which stays unchanged
+     */
+    public GroupNode<T> appendedAll(final List<Node<T>> children) {
+        return new GroupNode<>(nodes.appendedAll(children), modifier());
     }
 
     @Override
@@ -25,15 +42,11 @@ public class GroupNode<T> extends AbstractNode<T> {
         if (modifier() == null) {
             return this;
         }
-        return this.accept(modifier());
+        return cachedModified();
     }
 
     @Override
     public GroupNode<T> accept(ModifierVisitor<T> visitor) {
-        var newNode = new GroupNode<T>();
-        for (var child : nodes) {
-            newNode.nodes.add(child.accept(visitor));
-        }
-        return newNode;
+        return (GroupNode<T>) Traversal.map(this, child -> child.accept(visitor));
     }
 }
@@ -0,0 +1,103 @@
+package com.declarative.music.interpreter.tree;
+
+import com.declarative.music.interpreter.tree.modifier.NoteModifier;
+import com.declarative.music.interpreter.values.music.Note;
+import com.declarative.music.interpreter.values.music.Pitch;
+import com.declarative.music.interpreter.values.music.Rythm;
+
+
+/**
+ * Packs note leaves of {@link AbstractNode} children into one long, so a phrase keeps no leaf, note or modifier object
+ * for each note. From the lowest bit the code holds a marker bit, pitch, duration and octave of the note, then a flag
+ * of a {@link NoteModifier} followed by its pitch, rythm and octave. Enums take 4 bits and octaves 16, 0 stands for a
+ * missing value. Leaves of other values, of subclasses or with other modifiers are kept as objects.
+ */
+final class NotePacking implements Packing<Node<?>> {
+    private static final NotePacking INSTANCE = new NotePacking();
+    private static final Pitch[] PITCHES = Pitch.values();
+    private static final Rythm[] RYTHMS = Rythm.values();
+    private static final int ENUM_BITS = 4;
+    private static final int OCTAVE_BITS = 16;
+    private static final int OCTAVE_BIAS = 1 << OCTAVE_BITS - 1;
+    private static final long PACKED = 1;
+    private static final int NOTE_SHIFT = 1;
+    private static final int MODIFIER_FLAG_SHIFT = NOTE_SHIFT + 2 * ENUM_BITS + OCTAVE_BITS;
+    private static final long HAS_MODIFIER = 1L << MODIFIER_FLAG_SHIFT;
+    private static final int MODIFIER_SHIFT = MODIFIER_FLAG_SHIFT + 1;
+
+    private NotePacking() {
+    }
+
+    /**
+     * @return packing of children of nodes with any leaf values, only leaves holding notes are packed
+     */
+    @SuppressWarnings("unchecked")
+    static <T> Packing<Node<T>> forNodes() {
+        return (Packing<Node<T>>) (Packing<?>) INSTANCE;
+    }
+
+    @Override
+    public long pack(final Node<?> node) {
+        if (node.getClass() != SimpleNode.class || !(((SimpleNode<?>) node).getValue() instanceof Note note)) {
+            return 0;
+        }
+        var noteCode = fields(note.getPitch(), note.getDuration(), note.getOctave());
+        var modifier = node.modifier();
+        if (noteCode < 0 || modifier != null && modifier.getClass() != NoteModifier.class) {
+            return 0;
+        }
+        if (modifier == null) {
+            return PACKED | noteCode << NOTE_SHIFT;
+        }
+        var noteModifier = (NoteModifier) modifier;
+        var modifierCode = fields(noteModifier.getPitch(), noteModifier.getRythm(), noteModifier.getOctave());
+        if (modifierCode < 0) {
+            return 0;
+        }
+        return PACKED | noteCode << NOTE_SHIFT | HAS_MODIFIER | modifierCode << MODIFIER_SHIFT;
+    }
+
+    @Override
+    public Node<?> unpack(final long code) {
+        var leaf = new SimpleNode<>(Note.of(pitch(code >>> NOTE_SHIFT), octave(code >>> NOTE_SHIFT),
+                rythm(code >>> NOTE_SHIFT)));
+        if ((code & HAS_MODIFIER) != 0) {
+            leaf.setModifier(NoteModifier.builder()
+                    .withPitch(pitch(code >>> MODIFIER_SHIFT))
+                    .withRythm(rythm(code >>> MODIFIER_SHIFT))
+                    .withOctave(octave(code >>> MODIFIER_SHIFT))
+                    .build());
+        }
+        return leaf;
+    }
+
+    /**
+     * @return pitch, rythm and octave packed from the lowest bit, -1 when the octave does not fit
+     */
+    private static long fields(final Pitch pitch, final Rythm rythm, final Integer octave) {
+        if (octave != null && (octave <= -OCTAVE_BIAS || octave >= OCTAVE_BIAS)) {
+            return -1;
+        }
+        var octaveCode = octave == null ? 0 : octave + OCTAVE_BIAS;
+        return code(pitch) | code(rythm) << ENUM_BITS | (long) octaveCode << 2 * ENUM_BITS;
+    }
+
+    private static long code(final Enum<?> value) {
+        return value == null ? 0 : value.ordinal() + 1;
+    }
+
+    private static Pitch pitch(final long fields) {
+        var code = (int) (fields & (1 << ENUM_BITS) - 1);
+        return code == 0 ? null : PITCHES[code - 1];
+    }
+
+    private static Rythm rythm(final long fields) {
+        var code = (int) (fields >>> ENUM_BITS & (1 << ENUM_BITS) - 1);
+        return code == 0 ? null : RYTHMS[code - 1];
+    }
+
+    private static Integer octave(final long fields) {
+        var code = (int) (fields >>> 2 * ENUM_BITS & (1 << OCTAVE_BITS) - 1);
+        return code == 0 ? null : code - OCTAVE_BIAS;
+    }
+}
@@ -0,0 +1,14 @@
+package com.declarative.music.interpreter.tree;
+
+/**
+ * Encoding of list elements as primitive codes, so a {@link PersistentList} keeps no object for elements it packed.
+ * Unpacked elements are new objects equal to the packed ones, so packing suits only values without identity.
+ */
+public interface Packing<E> {
+    /**
+     * @return code of the element, 0 when the element cannot be packed
+     */
+    long pack(E element);
+
+    E unpack(long code);
+}
@@ -0,0 +1,165 @@
+package com.declarative.music.interpreter.tree;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+
+/**
+ * Children of a node. Versions created by {@link #appended} share one buffer, so appending to the latest version takes
+ * amortized O(1) time and earlier versions stay unchanged. Appending to an older version copies it first.
+ * <p>
+ * {@link #add} changes the list in place, it is meant for nodes which are still being built and not shared yet.
+ * <p>
+ * List created with a {@link Packing} stores elements it can pack as codes in a primitive column instead of objects.
+ */
+public final class PersistentList<E> extends AbstractList<E> implements RandomAccess {
+    private static final int INITIAL_CAPACITY = 4;
+
+    private static final class Buffer {
+        private final Object[] elements;
+        /**
+         * Codes of packed elements, 0 where the element is kept in {@link #elements}. Created with the first packed one.
+         */
+        private long[] codes;
+        /**
+         * Number of elements used by the longest version, slots after it may be taken by the next append.
+         */
+        private int claimed;
+
+        private Buffer(final int capacity) {
+            elements = new Object[capacity];
+        }
+    }
+
+    private final Packing<E> packing;
+    private Buffer buffer;
+    private int size;
+
+    public PersistentList() {
+        this(new Buffer(INITIAL_CAPACITY), 0, null);
+    }
+
+    public PersistentList(final Packing<E> packing) {
+        this(new Buffer(INITIAL_CAPACITY), 0, packing);
+    }
+
+    public PersistentList(final Collection<? extends E> elements) {
+        this();
+        for (var element : elements) {
+            add(element);
+        }
+    }
+
+    public PersistentList(final Packing<E> packing, final Collection<? extends E> elements) {
+        this(packing);
+        for (var element : elements) {
+            add(element);
+        }
+    }
+
+    private PersistentList(final Buffer buffer, final int size, final Packing<E> packing) {
+        this.buffer = buffer;
+        this.size = size;
+        this.packing = packing;
+    }
+
+    /**
+     * @return packed elements are new objects on every call
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(final int index) {
+        Objects.checkIndex(index, size);
+        if (buffer.codes != null && buffer.codes[index] != 0) {
+            return packing.unpack(buffer.codes[index]);
+        }
+        return (E) buffer.elements[index];
+    }
+
+    /**
+     * Replaces the element in place, versions sharing it see the change like they see changes of the element itself.
+     */
+    @Override
+    public E set(final int index, final E element) {
+        var previous = get(index);
+        store(buffer, index, element);
+        return previous;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return new version with the element at the end, this version is not changed
+     */
+    public PersistentList<E> appended(final E element) {
+        var target = claim(1);
+        store(target, size, element);
+        return new PersistentList<>(target, size + 1, packing);
+    }
+
+    /**
+     * @return new version with the elements at the end, this version is not changed
+     */
+    public PersistentList<E> appendedAll(final Collection<? extends E> elements) {
+        var target = claim(elements.size());
+        var index = size;
+        for (var element : elements) {
+            store(target, index++, element);
+        }
+        return new PersistentList<>(target, index, packing);
+    }
+
+    @Override
+    public boolean add(final E element) {
+        buffer = claim(1);
+        store(buffer, size++, element);
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public void add(final int index, final E element) {
+        if (index != size) {
+            throw new UnsupportedOperationException("Elements can only be added at the end");
+        }
+        add(element);
+    }
+
+    Packing<E> packing() {
+        return packing;
+    }
+
+    private void store(final Buffer target, final int index, final E element) {
+        var code = packing == null || element == null ? 0 : packing.pack(element);
+        if (code != 0 && target.codes == null) {
+            target.codes = new long[target.elements.length];
+        }
+        if (target.codes != null) {
+            target.codes[index] = code;
+        }
+        target.elements[index] = code == 0 ? element : null;
+    }
+
+    /**
+     * Reserves space for elements following this version, in the shared buffer when no other version took it already.
+     */
+    private Buffer claim(final int count) {
+        if (buffer.claimed == size && size + count <= buffer.elements.length) {
+            buffer.claimed += count;
+            return buffer;
+        }
+        var copy = new Buffer(Math.max(INITIAL_CAPACITY, Math.max(size * 2, size + count)));
+        System.arraycopy(buffer.elements, 0, copy.elements, 0, size);
+        if (buffer.codes != null) {
+            copy.codes = Arrays.copyOf(buffer.codes, copy.elements.length);
+        }
+        copy.claimed = size + count;
+        return copy;
+    }
+}
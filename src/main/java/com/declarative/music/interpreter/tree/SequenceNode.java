@@ -2,7 +2,6 @@ package com.declarative.music.interpreter.tree;
 
 import com.declarative.music.interpreter.tree.modifier.ModifierVisitor;
 
-import java.util.ArrayList;
 import java.util.List;
 
 
@@ -13,7 +12,25 @@ public class SequenceNode<T> extends AbstractNode<T> {
     }
 
     public SequenceNode() {
-        super(new ArrayList<>());
+        super(List.of());
+    }
+
+    private SequenceNode(final PersistentList<Node<T>> nodes, final ModifierVisitor<T> modifier) {
+        super(nodes, modifier);
+    }
+
+    /**
+     * @return node with the child added at the end, sharing other children with this node which stays unchanged
+     */
+    public SequenceNode<T> appended(final Node<T> child) {
+        return new SequenceNode<>(nodes.appended(child), modifier());
+    }
+
+    /**
+     * @return node with the children added at the end, sharing other children with this node which stays unchanged
+     */
+    public SequenceNode<T> appendedAll(final List<Node<T>> children) {
+        return new SequenceNode<>(nodes.appendedAll(children), modifier());
     }
 
     @Override
@@ -26,15 +43,11 @@ public class SequenceNode<T> extends AbstractNode<T> {
         if (modifier() == null) {
             return this;
         }
-        return this.accept(modifier());
+        return cachedModified();
     }
 
     @Override
     public SequenceNode<T> accept(ModifierVisitor<T> visitor) {
-        var newNode = new SequenceNode<T>();
-        for (var child : nodes) {
-            newNode.nodes.add(child.accept(visitor));
-        }
-        return newNode;
+        return (SequenceNode<T>) Traversal.map(this, child -> child.accept(visitor));
     }
 }
@@ -12,6 +12,7 @@ public class SimpleNode<T> implements Node<T> {
     protected final T value;
     //TODO abstract
     private ModifierVisitor<T> modifier;
+    private SimpleNode<T> modified;
 
     public SimpleNode(T value) {
         this.value = value;
@@ -30,6 +31,7 @@ public class SimpleNode<T> implements Node<T> {
     @Override
     public void setModifier(ModifierVisitor<T> visitor) {
         this.modifier = visitor;
+        this.modified = null;
     }
 
     @Override
@@ -37,7 +39,10 @@ public class SimpleNode<T> implements Node<T> {
         if (modifier == null) {
             return this;
         }
-        return this.accept(modifier);
+        if (modified == null) {
+            modified = this.accept(modifier);
+        }
+        return modified;
     }
 
     @Override
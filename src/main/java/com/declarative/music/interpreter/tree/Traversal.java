@@ -0,0 +1,112 @@
+package com.declarative.music.interpreter.tree;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+
+/**
+ * Depth first tree walks using an explicit stack, so depth of a tree is limited by the heap instead of the call stack.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class Traversal {
+    private static final class Frame<T> {
+        private final Node<T> node;
+        private final List<Node<T>> children;
+        private int next;
+
+        private Frame(final Node<T> node) {
+            this.node = node;
+            this.children = node.getChildren();
+        }
+    }
+
+    public static <T> void walk(final Node<T> root, final TreeVisitor<T> visitor) {
+        if (root instanceof SimpleNode<T> leaf) {
+            visitor.visit(leaf);
+            return;
+        }
+        final var stack = new ArrayDeque<Frame<T>>();
+        enter(root, visitor, stack);
+        while (!stack.isEmpty()) {
+            var frame = stack.peek();
+            if (frame.next == frame.children.size()) {
+                stack.pop();
+                visitor.leave(frame.node);
+                continue;
+            }
+            var child = frame.children.get(frame.next++);
+            if (child instanceof SimpleNode<T> leaf) {
+                visitor.visit(leaf);
+            } else {
+                enter(child, visitor, stack);
+            }
+        }
+    }
+
+    /**
+     * Builds result bottom-up: leaves are mapped on their own, inner nodes from the results of their children.
+     */
+    public static <T, R> R fold(final Node<T> root,
+                                final Function<SimpleNode<T>, R> leafMapper,
+                                final BiFunction<Node<T>, PersistentList<R>, R> innerMapper) {
+        final var results = new ArrayDeque<PersistentList<R>>();
+        final var result = new ArrayList<R>(1);
+        walk(root, new TreeVisitor<>() {
+            @Override
+            public void visit(final SimpleNode<T> node) {
+                add(leafMapper.apply(node));
+            }
+
+            @Override
+            public void enter(final Node<T> node) {
+                results.push(new PersistentList<>());
+            }
+
+            @Override
+            public void leave(final Node<T> node) {
+                add(innerMapper.apply(node, results.pop()));
+            }
+
+            private void add(final R value) {
+                if (results.isEmpty()) {
+                    result.add(value);
+                } else {
+                    results.peek().add(value);
+                }
+            }
+        });
+        return result.get(0);
+    }
+
+    /**
+     * Copies the tree structure, leaves are replaced with the mapped ones.
+     */
+    public static <T, R> Node<R> map(final Node<T> root, final Function<SimpleNode<T>, SimpleNode<R>> leafMapper) {
+        return Traversal.<T, Node<R>>fold(root, leafMapper::apply, Traversal::rebuild);
+    }
+
+    private static <T, R> Node<R> rebuild(final Node<T> node, final PersistentList<Node<R>> children) {
+        if (node instanceof SequenceNode<T>) {
+            return new SequenceNode<>(children);
+        }
+        return new GroupNode<>(children);
+    }
+
+    private static <T> void enter(final Node<T> node, final TreeVisitor<T> visitor, final ArrayDeque<Frame<T>> stack) {
+        if (!(node instanceof GroupNode<T>) && !(node instanceof SequenceNode<T>)) {
+            throw new UnsupportedOperationException("Unknown node during traversal");
+        }
+        visitor.enter(node);
+        if (visitor.descend(node)) {
+            stack.push(new Frame<>(node));
+        } else {
+            visitor.leave(node);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.declarative.music.interpreter.tree;
 
 import com.declarative.music.interpreter.tree.modifier.ModifierVisitor;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 
@@ -12,6 +13,10 @@ import java.util.function.Function;
 public class TreeNode<T, V extends TreeNode<T, V>> implements Node<T> {
     private Node<T> root;
     private ModifierVisitor<T> modifier;
+    @Getter(AccessLevel.NONE)
+    private TreeNode<T, V> modified;
+    @Getter(AccessLevel.NONE)
+    private Node<T> modifiedRoot;
 
     private V self() {
         return (V) this;
@@ -28,7 +33,7 @@ public class TreeNode<T, V extends TreeNode<T, V>> implements Node<T> {
             return self();
         }
         if (root instanceof GroupNode<T> groupRoot) {
-            groupRoot.nodes.add(nodeValue);
+            root = groupRoot.appended(nodeValue);
             return self();
         }
         if (root instanceof SequenceNode<T> || root instanceof SimpleNode<T>) {
@@ -70,9 +75,9 @@ public class TreeNode<T, V extends TreeNode<T, V>> implements Node<T> {
         }
         if (root instanceof SequenceNode<T> rootNode) {
             if (nodeValue instanceof SequenceNode<T>) {
-                rootNode.nodes.addAll(nodeValue.getChildren());
+                root = rootNode.appendedAll(nodeValue.getChildren());
             } else {
-                rootNode.nodes.add(nodeValue);
+                root = rootNode.appended(nodeValue);
             }
             return self();
         }
@@ -80,29 +85,7 @@ public class TreeNode<T, V extends TreeNode<T, V>> implements Node<T> {
     }
 
     public <R> Node<R> map(Function<SimpleNode<T>, SimpleNode<R>> leafMapper) {
-        return traverseNode(root, leafMapper);
-    }
-
-    private <R> Node<R> traverseNode(Node<T> node, Function<SimpleNode<T>, SimpleNode<R>> leafMapper) {
-        if (node instanceof SimpleNode<T> simpleNode) {
-            return leafMapper.apply(simpleNode);
-        }
-        if (node instanceof SequenceNode<T> sequenceNode) {
-            var sequence = new SequenceNode<R>();
-            for (var child : sequenceNode.getChildren()) {
-                sequence.nodes.add(traverseNode(child, leafMapper));
-            }
-            return sequence;
-        }
-        if (node instanceof GroupNode<T> groupNode) {
-            var group = new GroupNode<R>();
-            for (var child : groupNode.getChildren()) {
-                group.nodes.add(traverseNode(child, leafMapper));
-            }
-            return group;
-        }
-        throw new UnsupportedOperationException("Unknown node during traversal");
-
+        return Traversal.map(root, leafMapper);
     }
 
     public V appendToSequence(T value) {
@@ -120,18 +103,30 @@ public class TreeNode<T, V extends TreeNode<T, V>> implements Node<T> {
         return modifier;
     }
 
+    /**
+     * Nodes may be shared with other trees, so modifier is set on a copy of them.
+     */
     @Override
     public void setModifier(ModifierVisitor<T> visitor) {
         this.modifier = visitor;
+        this.modified = null;
+        root = Traversal.map(root, node -> new SimpleNode<>(node.getValue()));
         root.setModifier(visitor);
     }
 
+    /**
+     * Modified view is built once and rebuilt only after the modifier is set again or the tree is appended to.
+     */
     @Override
     public TreeNode<T, V> getModified() {
         if (modifier() == null) {
             return this;
         }
-        return this.accept(modifier());
+        if (modified == null || modifiedRoot != root) {
+            modified = this.accept(modifier());
+            modifiedRoot = root;
+        }
+        return modified;
     }
 
     @Override
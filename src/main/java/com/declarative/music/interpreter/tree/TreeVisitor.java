@@ -0,0 +1,23 @@
+package com.declarative.music.interpreter.tree;
+
+/**
+ * Callbacks of {@link Traversal#walk}, inner nodes are entered before and left after all of their children.
+ */
+public interface TreeVisitor<T> {
+    void visit(SimpleNode<T> node);
+
+    default void enter(Node<T> node) {
+    }
+
+    default void leave(Node<T> node) {
+    }
+
+    /**
+     * Called after entering the node.
+     *
+     * @return false to skip children of the node, it is then left right away
+     */
+    default boolean descend(Node<T> node) {
+        return true;
+    }
+}
@@ -20,7 +20,7 @@ public class NoteModifier implements ModifierVisitor<Note> {
     @Override
     public SimpleNode<Note> visit(SimpleNode<Note> node) {
         var note = node.getValue();
-        var newNote = new Note(
+        var newNote = Note.of(
                 note.getPitch() == null ? pitch : note.getPitch(),
                 note.getOctave() == null ? octave : note.getOctave(),
                 note.getDuration() == null ? rythm : note.getDuration()
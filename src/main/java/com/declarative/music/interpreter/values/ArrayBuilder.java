@@ -0,0 +1,49 @@
+package com.declarative.music.interpreter.values;
+
+import java.util.List;
+
+
+/**
+ * Collects elements of an array literal or a comprehension. Int and Double values are stored as primitives in
+ * {@link IntArray} or {@link DoubleArray}, chosen by the type of the first element, other values and references to
+ * variables in {@link ArrayValue}. Elements are moved to an {@link ArrayValue} when a later one has a different type.
+ */
+public final class ArrayBuilder {
+    private final int capacity;
+    private List<Variant<?>> elements;
+    private Class<?> elementType;
+
+    /**
+     * @param capacity expected number of elements
+     */
+    public ArrayBuilder(final int capacity) {
+        this.capacity = capacity;
+    }
+
+    public void add(final Variant<?> element) {
+        var type = element.type();
+        if (elements == null) {
+            elementType = type;
+            elements = create(type, capacity);
+        } else if (type != elementType && !(elements instanceof ArrayValue)) {
+            var generic = new ArrayValue(Math.max(capacity, elements.size() + 1));
+            generic.addAll(elements);
+            elements = generic;
+        }
+        elements.add(element);
+    }
+
+    public List<Variant<?>> build() {
+        return elements == null ? new ArrayValue(0) : elements;
+    }
+
+    private static List<Variant<?>> create(final Class<?> type, final int capacity) {
+        if (type == Integer.class) {
+            return new IntArray(capacity);
+        }
+        if (type == Double.class) {
+            return new DoubleArray(capacity);
+        }
+        return new ArrayValue(capacity);
+    }
+}
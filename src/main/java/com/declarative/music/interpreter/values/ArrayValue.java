@@ -0,0 +1,58 @@
+package com.declarative.music.interpreter.values;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+
+/**
+ * Elements of an array in one backing array, read by index in constant time. Appending doubles the backing array when
+ * it is full, so building an array element by element takes amortized constant time per element.
+ */
+public final class ArrayValue extends AbstractList<Variant<?>> implements RandomAccess {
+    private static final int INITIAL_CAPACITY = 8;
+
+    private Variant<?>[] elements;
+    private int size;
+
+    public ArrayValue() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * @param capacity expected number of elements, the array grows past it when needed
+     */
+    public ArrayValue(final int capacity) {
+        elements = new Variant<?>[Math.max(1, capacity)];
+    }
+
+    @Override
+    public Variant<?> get(final int index) {
+        Objects.checkIndex(index, size);
+        return elements[index];
+    }
+
+    @Override
+    public Variant<?> set(final int index, final Variant<?> element) {
+        Objects.checkIndex(index, size);
+        var previous = elements[index];
+        elements[index] = element;
+        return previous;
+    }
+
+    @Override
+    public boolean add(final Variant<?> element) {
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, size * 2);
+        }
+        elements[size++] = element;
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,137 @@
+package com.declarative.music.interpreter.values;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+
+/**
+ * Array of Double values kept in a {@code double[]}. Elements are wrapped in {@link Variant} only when read through the
+ * {@link java.util.List} interface, {@link #getDouble} and {@link #addDouble} work on the primitives.
+ */
+public final class DoubleArray extends AbstractList<Variant<?>> implements RandomAccess {
+    /**
+     * Arrays with at least that many elements are sorted in parallel.
+     */
+    private static final int PARALLEL_SORT_THRESHOLD = 1 << 13;
+
+    private double[] elements;
+    private int size;
+
+    public DoubleArray(final int capacity) {
+        elements = new double[Math.max(1, capacity)];
+    }
+
+    private DoubleArray(final double[] elements) {
+        this.elements = elements.length == 0 ? new double[1] : elements;
+        this.size = elements.length;
+    }
+
+    public double getDouble(final int index) {
+        Objects.checkIndex(index, size);
+        return elements[index];
+    }
+
+    public void addDouble(final double element) {
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, size * 2);
+        }
+        elements[size++] = element;
+        modCount++;
+    }
+
+    public double sum() {
+        double sum = 0;
+        for (var index = 0; index < size; index++) {
+            sum += elements[index];
+        }
+        return sum;
+    }
+
+    public double min() {
+        return elements[indexOfMin("min")];
+    }
+
+    public double max() {
+        return elements[indexOfMax("max")];
+    }
+
+    /**
+     * @return index of the first smallest element
+     */
+    public int argmin() {
+        return indexOfMin("argmin");
+    }
+
+    /**
+     * @return index of the first largest element
+     */
+    public int argmax() {
+        return indexOfMax("argmax");
+    }
+
+    /**
+     * @return new array with the elements in ascending order
+     */
+    public DoubleArray sorted() {
+        var sorted = Arrays.copyOf(elements, size);
+        if (size >= PARALLEL_SORT_THRESHOLD) {
+            Arrays.parallelSort(sorted);
+        } else {
+            Arrays.sort(sorted);
+        }
+        return new DoubleArray(sorted);
+    }
+
+    private int indexOfMin(final String function) {
+        requireElements(function);
+        var found = 0;
+        for (var index = 1; index < size; index++) {
+            if (elements[index] < elements[found]) {
+                found = index;
+            }
+        }
+        return found;
+    }
+
+    private int indexOfMax(final String function) {
+        requireElements(function);
+        var found = 0;
+        for (var index = 1; index < size; index++) {
+            if (elements[index] > elements[found]) {
+                found = index;
+            }
+        }
+        return found;
+    }
+
+    private void requireElements(final String function) {
+        if (size == 0) {
+            throw new IllegalArgumentException("INTERPRETATION ERROR %s of empty array".formatted(function));
+        }
+    }
+
+    @Override
+    public Variant<?> get(final int index) {
+        return new Variant<>(getDouble(index), Double.class);
+    }
+
+    @Override
+    public Variant<?> set(final int index, final Variant<?> element) {
+        var previous = get(index);
+        elements[index] = element.castTo(Double.class);
+        return previous;
+    }
+
+    @Override
+    public boolean add(final Variant<?> element) {
+        addDouble(element.castTo(Double.class));
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
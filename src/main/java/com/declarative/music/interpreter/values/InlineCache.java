@@ -0,0 +1,32 @@
+package com.declarative.music.interpreter.values;
+
+
+/**
+ * Operation resolved for the operand types last seen by a single AST node. Caches are kept by interpreters next to the
+ * AST, keyed by node identity.
+ */
+public final class InlineCache {
+    private Entry entry;
+
+    /**
+     * @param proven operand types were proven before execution and do not have to be compared
+     */
+    record Entry(OperationRegistry registry, Class<?> leftType, Class<?> rightType,
+                 OperationRegistry.Operation operation, boolean proven) {
+    }
+
+    Entry entry() {
+        return entry;
+    }
+
+    /**
+     * @return true when the node was bound to an operation before execution
+     */
+    public boolean isSpecialized() {
+        return entry != null && entry.proven();
+    }
+
+    void update(final Entry entry) {
+        this.entry = entry;
+    }
+}
@@ -0,0 +1,137 @@
+package com.declarative.music.interpreter.values;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+
+/**
+ * Array of Int values kept in an {@code int[]}. Elements are wrapped in {@link Variant} only when read through the
+ * {@link java.util.List} interface, {@link #getInt} and {@link #addInt} work on the primitives.
+ */
+public final class IntArray extends AbstractList<Variant<?>> implements RandomAccess {
+    /**
+     * Arrays with at least that many elements are sorted in parallel.
+     */
+    private static final int PARALLEL_SORT_THRESHOLD = 1 << 13;
+
+    private int[] elements;
+    private int size;
+
+    public IntArray(final int capacity) {
+        elements = new int[Math.max(1, capacity)];
+    }
+
+    private IntArray(final int[] elements) {
+        this.elements = elements.length == 0 ? new int[1] : elements;
+        this.size = elements.length;
+    }
+
+    public int getInt(final int index) {
+        Objects.checkIndex(index, size);
+        return elements[index];
+    }
+
+    public void addInt(final int element) {
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, size * 2);
+        }
+        elements[size++] = element;
+        modCount++;
+    }
+
+    public int sum() {
+        int sum = 0;
+        for (var index = 0; index < size; index++) {
+            sum += elements[index];
+        }
+        return sum;
+    }
+
+    public int min() {
+        return elements[indexOfMin("min")];
+    }
+
+    public int max() {
+        return elements[indexOfMax("max")];
+    }
+
+    /**
+     * @return index of the first smallest element
+     */
+    public int argmin() {
+        return indexOfMin("argmin");
+    }
+
+    /**
+     * @return index of the first largest element
+     */
+    public int argmax() {
+        return indexOfMax("argmax");
+    }
+
+    /**
+     * @return new array with the elements in ascending order
+     */
+    public IntArray sorted() {
+        var sorted = Arrays.copyOf(elements, size);
+        if (size >= PARALLEL_SORT_THRESHOLD) {
+            Arrays.parallelSort(sorted);
+        } else {
+            Arrays.sort(sorted);
+        }
+        return new IntArray(sorted);
+    }
+
+    private int indexOfMin(final String function) {
+        requireElements(function);
+        var found = 0;
+        for (var index = 1; index < size; index++) {
+            if (elements[index] < elements[found]) {
+                found = index;
+            }
+        }
+        return found;
+    }
+
+    private int indexOfMax(final String function) {
+        requireElements(function);
+        var found = 0;
+        for (var index = 1; index < size; index++) {
+            if (elements[index] > elements[found]) {
+                found = index;
+            }
+        }
+        return found;
+    }
+
+    private void requireElements(final String function) {
+        if (size == 0) {
+            throw new IllegalArgumentException("INTERPRETATION ERROR %s of empty array".formatted(function));
+        }
+    }
+
+    @Override
+    public Variant<?> get(final int index) {
+        return new Variant<>(getInt(index), Integer.class);
+    }
+
+    @Override
+    public Variant<?> set(final int index, final Variant<?> element) {
+        var previous = get(index);
+        elements[index] = element.castTo(Integer.class);
+        return previous;
+    }
+
+    @Override
+    public boolean add(final Variant<?> element) {
+        addInt(element.castTo(Integer.class));
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
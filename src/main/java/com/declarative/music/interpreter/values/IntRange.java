@@ -0,0 +1,57 @@
+package com.declarative.music.interpreter.values;
+
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+
+/**
+ * Integers from start, inclusive, to end, exclusive. Elements are created when they are read, so the range takes
+ * constant memory whatever its length.
+ */
+public final class IntRange extends AbstractList<Variant<?>> implements RandomAccess {
+    private final int start;
+    private final int size;
+
+    public IntRange(final int start, final int end) {
+        var size = Math.max(0, (long) end - start);
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("INTERPRETATION ERROR range %d->%d is too long".formatted(start, end));
+        }
+        this.start = start;
+        this.size = (int) size;
+    }
+
+    @Override
+    public Variant<?> get(final int index) {
+        Objects.checkIndex(index, size);
+        return new Variant<>(start + index, Integer.class);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<Variant<?>> iterator() {
+        return new Iterator<>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public Variant<?> next() {
+                if (next == size) {
+                    throw new NoSuchElementException();
+                }
+                return new Variant<>(start + next++, Integer.class);
+            }
+        };
+    }
+}
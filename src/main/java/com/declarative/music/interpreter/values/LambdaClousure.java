@@ -1,9 +1,16 @@
 package com.declarative.music.interpreter.values;
 
-import com.declarative.music.interpreter.Frame;
 import com.declarative.music.parser.production.expression.lambda.LambdaExpression;
 
 
-public record LambdaClousure(LambdaExpression expression, Frame frame)
+/**
+ * @param captureNames names of free variables used by the lambda
+ * @param captures     variables shared with the frame the lambda was created in, indexed like {@code captureNames}
+ */
+public record LambdaClousure(LambdaExpression expression, String[] captureNames, VariableReference<?>[] captures)
 {
+    public LambdaClousure(final LambdaExpression expression)
+    {
+        this(expression, new String[0], new VariableReference<?>[0]);
+    }
 }
@@ -1,31 +1,118 @@
 package com.declarative.music.interpreter.values;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 import java.util.function.BiFunction;
 
 
+/**
+ * Binary operation implementations indexed by {@link TypeTag} of both operands.
+ */
 public class OperationRegistry {
-    private final Map<String, BiFunction<Variant<?>, Variant<?>, Variant<?>>> registry = new HashMap<>();
+    private static final Operation[] EMPTY_ROW = new Operation[0];
+
+    private final String name;
+    private Operation[][] table = new Operation[0][];
+
+    record Operation(BiFunction<Variant<?>, Variant<?>, Variant<?>> function, Class<?> returnType) {
+    }
+
+    public OperationRegistry(final String name) {
+        this.name = name;
+    }
+
+    public OperationRegistry() {
+        this(null);
+    }
 
     public <T, U, R> OperationRegistry register(Class<T> leftType, Class<U> rightType, BiFunction<T, U, R> operation, Class<R> returnType) {
-        String key = generateKey(leftType, rightType);
-        registry.put(key, (l, r) -> new Variant<>(operation.apply((T) l.value(), (U) r.value()), returnType));
+        var left = TypeTag.of(leftType);
+        var right = TypeTag.of(rightType);
+        if (left >= table.length) {
+            var grown = Arrays.copyOf(table, left + 1);
+            Arrays.fill(grown, table.length, grown.length, EMPTY_ROW);
+            table = grown;
+        }
+        if (right >= table[left].length) {
+            table[left] = Arrays.copyOf(table[left], right + 1);
+        }
+        table[left][right] = new Operation(
+                (l, r) -> new Variant<>(operation.apply((T) l.value(), (U) r.value()), returnType), returnType);
         return this;
     }
 
-
     public Variant<?> apply(String operation, Variant<?> left, Variant<?> right) {
-        String key = generateKey(left.valueType(), right.valueType() == Class.class ? right.castTo(Class.class) : right.valueType());
-        BiFunction<Variant<?>, Variant<?>, Variant<?>> operationFunc = registry.get(key);
-        if (operationFunc != null) {
-            return operationFunc.apply(left, right);
+        var found = find(left.valueType(), operandType(right));
+        if (found == null) {
+            throw unsupported(operation, left, right);
         }
-        throw new IllegalStateException(
-                "INTERPRETATION ERROR Unsupported types: " + left.valueType().getSimpleName() + " " + right.valueType().getSimpleName() + " for operation: " + operation);
+        return found.function().apply(left, right);
     }
 
-    private String generateKey(Class<?> leftType, Class<?> rightType) {
-        return leftType.getName() + "," + rightType.getName();
+    public Variant<?> apply(Variant<?> left, Variant<?> right) {
+        return apply(name, left, right);
+    }
+
+    /**
+     * Same as {@link #apply(Variant, Variant)} but skips the table lookup when the node sees the same operand types
+     * as the last time, and skips checking operand types at all when the node was {@link #specialize specialized}.
+     */
+    public Variant<?> apply(InlineCache cache, Variant<?> left, Variant<?> right) {
+        var entry = cache.entry();
+        if (entry != null && entry.registry() == this && entry.proven()) {
+            return entry.operation().function().apply(left, right);
+        }
+        var leftType = left.valueType();
+        var rightType = operandType(right);
+        if (entry != null && entry.registry() == this && entry.leftType() == leftType && entry.rightType() == rightType) {
+            return entry.operation().function().apply(left, right);
+        }
+        var found = find(leftType, rightType);
+        if (found == null) {
+            throw unsupported(name, left, right);
+        }
+        cache.update(new InlineCache.Entry(this, leftType, rightType, found, false));
+        return found.function().apply(left, right);
+    }
+
+    /**
+     * @return type of the result for given operand types or null when operation is not supported
+     */
+    public Class<?> returnType(Class<?> leftType, Class<?> rightType) {
+        var found = find(leftType, rightType);
+        return found == null ? null : found.returnType();
+    }
+
+    /**
+     * Binds the node to the implementation for operand types that were proven before execution, so it is applied
+     * without looking at the operands.
+     *
+     * @return false when operation is not supported for given types
+     */
+    public boolean specialize(InlineCache cache, Class<?> leftType, Class<?> rightType) {
+        var found = find(leftType, rightType);
+        if (found == null) {
+            return false;
+        }
+        cache.update(new InlineCache.Entry(this, leftType, rightType, found, true));
+        return true;
+    }
+
+    private Operation find(Class<?> leftType, Class<?> rightType) {
+        var left = TypeTag.of(leftType);
+        if (left >= table.length) {
+            return null;
+        }
+        var row = table[left];
+        var right = TypeTag.of(rightType);
+        return right < row.length ? row[right] : null;
+    }
+
+    private static Class<?> operandType(Variant<?> right) {
+        return right.valueType() == Class.class ? right.castTo(Class.class) : right.valueType();
+    }
+
+    private static IllegalStateException unsupported(String operation, Variant<?> left, Variant<?> right) {
+        return new IllegalStateException(
+                "INTERPRETATION ERROR Unsupported types: " + left.valueType().getSimpleName() + " " + right.valueType().getSimpleName() + " for operation: " + operation);
     }
 }
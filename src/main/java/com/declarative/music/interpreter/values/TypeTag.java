@@ -0,0 +1,24 @@
+package com.declarative.music.interpreter.values;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * Small integer assigned to every type on first use, used to index {@link OperationRegistry} tables.
+ */
+public final class TypeTag {
+    private static final AtomicInteger NEXT = new AtomicInteger();
+    private static final ClassValue<Integer> TAGS = new ClassValue<>() {
+        @Override
+        protected Integer computeValue(final Class<?> type) {
+            return NEXT.getAndIncrement();
+        }
+    };
+
+    private TypeTag() {
+    }
+
+    public static int of(Class<?> type) {
+        return TAGS.get(type);
+    }
+}
@@ -1,10 +1,11 @@
 package com.declarative.music.interpreter.values.music;
 
 import com.declarative.music.interpreter.tree.Node;
-import com.declarative.music.interpreter.tree.SimpleNode;
 import com.declarative.music.interpreter.tree.TreeNode;
 
 public class MusicTree extends TreeNode<Note, MusicTree> {
+    private MusicTree modified;
+
     public MusicTree(Node<Note> root) {
         super(root);
     }
@@ -13,14 +14,15 @@ public class MusicTree extends TreeNode<Note, MusicTree> {
 
     }
 
-    public MusicTree copy() {
-        var newRoot = super.map((node) -> new SimpleNode<>(node.getValue()));
-        return new MusicTree(newRoot);
-    }
-
     @Override
     public MusicTree getModified() {
         var tree = super.getModified();
-        return new MusicTree(tree.getRoot());
+        if (tree == this) {
+            return this;
+        }
+        if (modified == null || modified.getRoot() != tree.getRoot()) {
+            modified = new MusicTree(tree.getRoot());
+        }
+        return modified;
     }
 }
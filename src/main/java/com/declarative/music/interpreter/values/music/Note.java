@@ -2,16 +2,54 @@ package com.declarative.music.interpreter.values.music;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
-import lombok.Data;
-import lombok.EqualsAndHashCode;
+import lombok.Value;
 
 
-@Data
+/**
+ * Immutable note, notes created by {@link #of} with octave from {@link #MIN_OCTAVE} to {@link #MAX_OCTAVE} are shared
+ * between all trees using them.
+ */
+@Value
 @Builder
-@EqualsAndHashCode
 @AllArgsConstructor
 public class Note {
-    private Pitch pitch;
-    private Integer octave;
-    private Rythm duration;
+    public static final int MIN_OCTAVE = -1;
+    public static final int MAX_OCTAVE = 13;
+    private static final int FIELD_BITS = 4;
+    private static final int NOT_SHARED = -1;
+    private static final Note[] SHARED = new Note[1 << 3 * FIELD_BITS];
+
+    Pitch pitch;
+    Integer octave;
+    Rythm duration;
+
+    /**
+     * @return shared instance when the octave is in the shared range, new one otherwise
+     */
+    public static Note of(final Pitch pitch, final Integer octave, final Rythm duration) {
+        var index = sharedIndex(pitch, octave, duration);
+        if (index == NOT_SHARED) {
+            return new Note(pitch, octave, duration);
+        }
+        var note = SHARED[index];
+        if (note == null) {
+            note = new Note(pitch, octave, duration);
+            SHARED[index] = note;
+        }
+        return note;
+    }
+
+    /**
+     * @return index in {@link #SHARED} made of 4 bits for each of pitch, octave and duration where 0 stands for a
+     * missing value, or -1 when the octave is out of the shared range
+     */
+    private static int sharedIndex(final Pitch pitch, final Integer octave, final Rythm duration) {
+        if (octave != null && (octave < MIN_OCTAVE || octave > MAX_OCTAVE)) {
+            return NOT_SHARED;
+        }
+        var pitchCode = pitch == null ? 0 : pitch.ordinal() + 1;
+        var octaveCode = octave == null ? 0 : octave - MIN_OCTAVE + 1;
+        var durationCode = duration == null ? 0 : duration.ordinal() + 1;
+        return (pitchCode << 2 * FIELD_BITS) | (octaveCode << FIELD_BITS) | durationCode;
+    }
 }
@@ -1,7 +1,6 @@
 package com.declarative.music.interpreter.values.template;
 
 import com.declarative.music.interpreter.tree.Node;
-import com.declarative.music.interpreter.tree.SimpleNode;
 import com.declarative.music.interpreter.tree.TreeNode;
 
 public class IndexTree extends TreeNode<Integer, IndexTree> {
@@ -12,9 +11,4 @@ public class IndexTree extends TreeNode<Integer, IndexTree> {
     public IndexTree() {
 
     }
-
-    public IndexTree copy() {
-        var newRoot = super.map((node) -> new SimpleNode<>(node.getValue()));
-        return new IndexTree(newRoot);
-    }
 }
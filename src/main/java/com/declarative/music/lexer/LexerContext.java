@@ -1,6 +1,7 @@
 package com.declarative.music.lexer;
 
 import com.declarative.music.lexer.state.LexerState;
+import com.declarative.music.lexer.state.LexerStates;
 import com.declarative.music.lexer.token.Position;
 
 import java.io.IOException;
@@ -13,4 +14,9 @@ public interface LexerContext {
     int getNextStreamChar() throws IOException;
 
     Position getCurrentPosition();
+
+    /**
+     * @return states to move to, the same instances for the whole input
+     */
+    LexerStates getStates();
 }
@@ -1,21 +1,50 @@
 package com.declarative.music.lexer;
 
-import com.declarative.music.lexer.state.IdleState;
 import com.declarative.music.lexer.state.LexerState;
+import com.declarative.music.lexer.state.LexerStates;
 import com.declarative.music.lexer.token.Position;
 import com.declarative.music.lexer.token.Token;
+import com.declarative.music.lexer.token.TokenBuffer;
+import com.declarative.music.lexer.token.TokenType;
 
 import java.io.IOException;
 import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.file.Path;
 
 public class LexerImpl implements LexerContext, Lexer {
     private final LexerStreamReader reader;
+    private final LexerStates states = new LexerStates(this);
     private int nextStreamChar = -1;
     private LexerState currentState;
 
     public LexerImpl(final Reader reader) {
-        this.reader = new LexerStreamReader(reader);
-        currentState = new IdleState(this);
+        this(new LexerStreamReader(reader));
+    }
+
+    /**
+     * Lexes the whole source held in memory, without copying it.
+     */
+    public LexerImpl(final CharBuffer source) {
+        this(new LexerStreamReader(source));
+    }
+
+    /**
+     * Lexes part of a bigger source, positions of tokens are given as in the whole source.
+     *
+     * @param start position of the character before the part
+     */
+    public LexerImpl(final CharBuffer source, final Position start) {
+        this(new LexerStreamReader(source, start));
+    }
+
+    public LexerImpl(final Path path) throws IOException {
+        this(LexerStreamReader.load(path));
+    }
+
+    private LexerImpl(final LexerStreamReader reader) {
+        this.reader = reader;
+        currentState = states.idle();
     }
 
     public Token getNextToken() throws IOException {
@@ -26,6 +55,19 @@ public class LexerImpl implements LexerContext, Lexer {
         return nextToken;
     }
 
+    /**
+     * Reads all remaining tokens, up to and including {@link TokenType#T_EOF}, into a compact buffer.
+     */
+    public TokenBuffer tokenize() throws IOException {
+        final var buffer = new TokenBuffer(reader.getLines());
+        Token token;
+        do {
+            token = getNextToken();
+            buffer.add(token);
+        } while (token.type() != TokenType.T_EOF);
+        return buffer;
+    }
+
 
     @Override
     public void stateTransition(final LexerState newState) {
@@ -47,4 +89,9 @@ public class LexerImpl implements LexerContext, Lexer {
     public Position getCurrentPosition() {
         return reader.getCurrentPosition();
     }
+
+    @Override
+    public LexerStates getStates() {
+        return states;
+    }
 }
@@ -1,21 +1,80 @@
 package com.declarative.music.lexer;
 
+import com.declarative.music.lexer.token.LineIndex;
 import com.declarative.music.lexer.token.Position;
-import lombok.RequiredArgsConstructor;
 
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 
-@RequiredArgsConstructor
+import static java.nio.file.StandardOpenOption.READ;
+
+
+/**
+ * Serves characters of the source from a {@code char[]} by index. Whole source given as {@link CharBuffer} is read in
+ * place, a {@link Reader} is read in bulk into the buffer whenever it is exhausted.
+ */
 public class LexerStreamReader implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 13;
+
     private final Reader reader;
+    private final char[] buffer;
+    private int position;
+    private int limit;
     int prevChar = -2;
     boolean skipFeed = false;
-    private int currentLine = 0;
-    private int currentLineChar = -1;
+    private int currentLine;
+    private int currentLineChar;
+    private int offset = -1;
+    private final LineIndex lines;
+
+    public LexerStreamReader(final Reader reader) {
+        this.reader = reader;
+        this.buffer = new char[BUFFER_SIZE];
+        this.currentLineChar = -1;
+        this.lines = new LineIndex();
+    }
+
+    public LexerStreamReader(final CharBuffer source) {
+        this(source, new Position(0, -1));
+    }
+
+    /**
+     * Reads part of a bigger source, positions are given as in the whole source.
+     *
+     * @param start position of the character before the part, as returned by {@link #getCurrentPosition()} after it
+     */
+    public LexerStreamReader(final CharBuffer source, final Position start) {
+        this.reader = null;
+        this.currentLine = start.line();
+        this.currentLineChar = start.characterNumber();
+        this.lines = new LineIndex(start);
+        if (source.hasArray()) {
+            this.buffer = source.array();
+            this.position = source.arrayOffset() + source.position();
+            this.limit = source.arrayOffset() + source.limit();
+        } else {
+            this.buffer = new char[source.remaining()];
+            source.duplicate().get(buffer);
+            this.limit = buffer.length;
+        }
+    }
+
+    /**
+     * Maps the file and decodes it as UTF-8 in one pass.
+     */
+    public static CharBuffer load(final Path path) throws IOException {
+        try (var channel = FileChannel.open(path, READ)) {
+            return StandardCharsets.UTF_8.decode(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
 
     private void increaseLine() {
+        lines.lineBreak(offset);
         ++currentLine;
         currentLineChar = -1;
     }
@@ -24,19 +83,41 @@ public class LexerStreamReader implements Closeable {
         return new Position(currentLine, currentLineChar);
     }
 
+    /**
+     * @return line breaks read so far
+     */
+    public LineIndex getLines() {
+        return lines;
+    }
+
+    /**
+     * @return index in {@link #buffer} of the character after the last one read
+     */
+    int index() {
+        return position;
+    }
+
+    /**
+     * @return characters of {@link #buffer} from {@code start} to {@code end}, without copying them
+     */
+    CharBuffer slice(final int start, final int end) {
+        return CharBuffer.wrap(buffer, start, end - start);
+    }
+
     public int read() throws IOException {
         if (prevChar == -1) {
             return -1;
         }
         ++currentLineChar;
+        ++offset;
         if (skipFeed) {
             skipFeed = false;
             return prevChar;
         }
-        int currentChar = reader.read();
+        int currentChar = next();
         if (currentChar == (int) '\r') {
             increaseLine();
-            currentChar = reader.read();
+            currentChar = next();
             if (currentChar != (int) '\n') {
                 prevChar = currentChar;
                 skipFeed = true;
@@ -52,8 +133,33 @@ public class LexerStreamReader implements Closeable {
         return currentChar;
     }
 
+    private int next() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position++];
+    }
+
+    private boolean fill() throws IOException {
+        if (reader == null) {
+            return false;
+        }
+        int read;
+        do {
+            read = reader.read(buffer, 0, buffer.length);
+        } while (read == 0);
+        if (read < 0) {
+            return false;
+        }
+        position = 0;
+        limit = read;
+        return true;
+    }
+
     @Override
     public void close() throws IOException {
-        reader.close();
+        if (reader != null) {
+            reader.close();
+        }
     }
 }
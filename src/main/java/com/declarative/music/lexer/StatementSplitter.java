@@ -0,0 +1,92 @@
+package com.declarative.music.lexer;
+
+import com.declarative.music.lexer.terminals.CharacterClasses;
+import com.declarative.music.lexer.token.Position;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Splits the source after semicolons ending top-level statements, skipping strings, comments and everything inside
+ * of brackets. Parts are at least of the given size, except the last one, and can be lexed and parsed separately.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class StatementSplitter {
+
+    /**
+     * @param source start of the part, as given to {@link LexerImpl#LexerImpl(CharBuffer, Position)}
+     */
+    public record SourcePart(CharBuffer source, Position start) {
+    }
+
+    public static List<SourcePart> split(final CharBuffer source, final int partSize) throws IOException {
+        final var reader = new LexerStreamReader(source);
+        final var parts = new ArrayList<SourcePart>();
+        var partStart = reader.index();
+        var start = reader.getCurrentPosition();
+        var depth = 0;
+        var hasCode = false;
+        var c = reader.read();
+        while (c != -1) {
+            switch (c) {
+                case '"' -> skipString(reader);
+                case '/' -> {
+                    c = reader.read();
+                    if (c != '/') {
+                        hasCode = true;
+                        continue;
+                    }
+                    skipLine(reader);
+                    c = reader.read();
+                    continue;
+                }
+                case '(', '[', '{' -> depth++;
+                case ')', ']', '}' -> depth = Math.max(0, depth - 1);
+                case ';' -> {
+                    if (depth == 0 && reader.index() - partStart >= partSize) {
+                        parts.add(new SourcePart(reader.slice(partStart, reader.index()), start));
+                        partStart = reader.index();
+                        start = reader.getCurrentPosition();
+                        hasCode = false;
+                        c = reader.read();
+                        continue;
+                    }
+                }
+                default -> {
+                }
+            }
+            hasCode |= !CharacterClasses.isWhitespace(c);
+            c = reader.read();
+        }
+        if (hasCode || parts.isEmpty()) {
+            parts.add(new SourcePart(reader.slice(partStart, reader.index()), start));
+        } else {
+            final var last = parts.remove(parts.size() - 1);
+            final var lastStart = last.source().position();
+            parts.add(new SourcePart(reader.slice(lastStart, reader.index()), last.start()));
+        }
+        return parts;
+    }
+
+    private static void skipString(final LexerStreamReader reader) throws IOException {
+        var c = reader.read();
+        while (c != -1 && c != '"') {
+            if (c == '\\') {
+                reader.read();
+            }
+            c = reader.read();
+        }
+    }
+
+    private static void skipLine(final LexerStreamReader reader) throws IOException {
+        var c = reader.read();
+        while (c != -1 && c != '\n') {
+            c = reader.read();
+        }
+    }
+}
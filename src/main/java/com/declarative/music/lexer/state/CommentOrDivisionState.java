@@ -19,10 +19,10 @@ public class CommentOrDivisionState extends LexerState {
         final var currentChar = lexerContext.getNextStreamChar();
         if ((char) currentChar == '/') {
             lexerContext.getNextStreamChar();
-            lexerContext.stateTransition(new CommentState(lexerContext));
+            lexerContext.stateTransition(states().comment());
             return null;
         }
-        lexerContext.stateTransition(new IdleState(lexerContext));
+        lexerContext.stateTransition(states().idle());
         if ((char) currentChar == '=') {
             lexerContext.getNextStreamChar();
             return new Token(TokenType.T_OPERATOR, startPosition, OperatorEnum.O_DIVIDE_ASSIGN);
@@ -7,17 +7,16 @@ import com.declarative.music.lexer.token.TokenType;
 import java.io.IOException;
 
 public class CommentState extends LexerState {
-    private final StringBuilder stringBuilder;
-
     public CommentState(final LexerContext lexerContext) {
         super(lexerContext);
-        stringBuilder = new StringBuilder();
     }
 
 
     @Override
     public Token processNext() throws IOException {
         final var startPosition = lexerContext.getCurrentPosition();
+        final var stringBuilder = states().tokenBuilder();
+        stringBuilder.setLength(0);
         var currentChar = lexerContext.getCurrentStreamChar();
         var readChar = (char) currentChar;
         while (currentChar != -1 && readChar != '\n') {
@@ -25,7 +24,7 @@ public class CommentState extends LexerState {
             currentChar = lexerContext.getNextStreamChar();
             readChar = (char) currentChar;
         }
-        lexerContext.stateTransition(new IdleState(lexerContext));
+        lexerContext.stateTransition(states().idle());
         return new Token(TokenType.T_COMMENT, startPosition, stringBuilder.toString());
     }
 
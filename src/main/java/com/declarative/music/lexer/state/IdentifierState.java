@@ -2,6 +2,7 @@ package com.declarative.music.lexer.state;
 
 import com.declarative.music.lexer.LexerContext;
 import com.declarative.music.lexer.expection.MaximalIdentifierLengthException;
+import com.declarative.music.lexer.terminals.CharacterClasses;
 import com.declarative.music.lexer.terminals.KeywordsMap;
 import com.declarative.music.lexer.token.Position;
 import com.declarative.music.lexer.token.Token;
@@ -9,38 +10,39 @@ import com.declarative.music.lexer.token.TokenType;
 
 import java.io.IOException;
 
+/**
+ * Continues the token gathered by the previous state, pitch and rythm states hand over tokens that turn out to be
+ * identifiers.
+ */
 public class IdentifierState extends LexerState {
     private static final int MAX_IDENTIFIER_LEN = 256;
-    private final StringBuilder tokenBuilder;
 
     public IdentifierState(final LexerContext lexerContext) {
         super(lexerContext);
-        tokenBuilder = new StringBuilder();
-    }
-
-    public IdentifierState(final LexerContext lexerContext, final StringBuilder stringBuilder) {
-        super(lexerContext);
-        tokenBuilder = stringBuilder;
     }
 
 
     @Override
     public Token processNext() throws IOException {
+        final var tokenBuilder = states().tokenBuilder();
         var currentChar = lexerContext.getCurrentStreamChar();
-        while (currentChar != -1 && (Character.isLetterOrDigit(currentChar) || currentChar == (int) '_')) {
+        while (currentChar != -1 && (CharacterClasses.isLetterOrDigit(currentChar) || currentChar == (int) '_')) {
             tokenBuilder.append((char) currentChar);
             currentChar = lexerContext.getNextStreamChar();
             if (tokenBuilder.length() > MAX_IDENTIFIER_LEN) {
                 throw new MaximalIdentifierLengthException(lexerContext.getCurrentPosition());
             }
         }
-        lexerContext.stateTransition(new IdleState(lexerContext));
+        lexerContext.stateTransition(states().idle());
         final var endPosition = lexerContext.getCurrentPosition();
         final var startPosition = new Position(endPosition.line(), endPosition.characterNumber() - tokenBuilder.length());
         final var lexem = tokenBuilder.toString();
-        return KeywordsMap.getKeywordType(lexem)
-                .map(keywordType -> new Token(keywordType, startPosition, null))
-                .orElse(new Token(TokenType.T_IDENTIFIER, startPosition, lexem));
+        tokenBuilder.setLength(0);
+        final var keywordType = KeywordsMap.getKeywordType(lexem);
+        if (keywordType != null) {
+            return new Token(keywordType, startPosition, null);
+        }
+        return new Token(TokenType.T_IDENTIFIER, startPosition, lexem);
     }
 
 }
@@ -1,6 +1,7 @@
 package com.declarative.music.lexer.state;
 
 import com.declarative.music.lexer.LexerContext;
+import com.declarative.music.lexer.terminals.CharacterClasses;
 import com.declarative.music.lexer.token.Token;
 import com.declarative.music.lexer.token.TokenType;
 
@@ -19,17 +20,17 @@ public class IdleState extends LexerState {
         if (lexerContext.getCurrentStreamChar() == -1) {
             return new Token(TokenType.T_EOF, lexerContext.getCurrentPosition(), null);
         }
-        final var currentStreamChar = (char) lexerContext.getCurrentStreamChar();
-        if (Character.isDigit(currentStreamChar)) {
-            lexerContext.stateTransition(new NumberState(lexerContext));
+        final var currentStreamChar = lexerContext.getCurrentStreamChar();
+        if (CharacterClasses.isDigit(currentStreamChar)) {
+            lexerContext.stateTransition(states().number());
         } else if (currentStreamChar == '"') {
-            lexerContext.stateTransition(new StringState(lexerContext));
+            lexerContext.stateTransition(states().string());
         } else if (currentStreamChar == '/') {
-            lexerContext.stateTransition(new CommentOrDivisionState(lexerContext));
-        } else if (Character.isLetter(currentStreamChar)) {
-            lexerContext.stateTransition(new NoteOrIdentifierState(lexerContext));
+            lexerContext.stateTransition(states().commentOrDivision());
+        } else if (CharacterClasses.isLetter(currentStreamChar)) {
+            lexerContext.stateTransition(states().noteOrIdentifier());
         } else {
-            lexerContext.stateTransition(new OperatorOrUnknownState(lexerContext));
+            lexerContext.stateTransition(states().operatorOrUnknown());
         }
         return null;
     }
@@ -39,7 +40,7 @@ public class IdleState extends LexerState {
             lexerContext.getNextStreamChar();
         }
         while (lexerContext.getCurrentStreamChar() != -1) {
-            if (!Character.isWhitespace((char) lexerContext.getCurrentStreamChar())) {
+            if (!CharacterClasses.isWhitespace(lexerContext.getCurrentStreamChar())) {
                 return;
             }
             lexerContext.getNextStreamChar();
@@ -11,4 +11,8 @@ public abstract class LexerState {
     protected final LexerContext lexerContext;
 
     public abstract Token processNext() throws IOException;
+
+    protected LexerStates states() {
+        return lexerContext.getStates();
+    }
 }
@@ -0,0 +1,79 @@
+package com.declarative.music.lexer.state;
+
+import com.declarative.music.lexer.LexerContext;
+
+
+/**
+ * One instance of every state of a lexer, states move between them instead of creating new ones for every token.
+ * Characters of the current token are gathered in one builder shared by the states.
+ */
+public final class LexerStates {
+    private final IdleState idle;
+    private final NumberState number;
+    private final StringState string;
+    private final CommentOrDivisionState commentOrDivision;
+    private final CommentState comment;
+    private final NoteOrIdentifierState noteOrIdentifier;
+    private final PitchState pitch;
+    private final RythmState rythm;
+    private final IdentifierState identifier;
+    private final OperatorOrUnknownState operatorOrUnknown;
+    private final StringBuilder tokenBuilder = new StringBuilder();
+
+    public LexerStates(final LexerContext lexerContext) {
+        idle = new IdleState(lexerContext);
+        number = new NumberState(lexerContext);
+        string = new StringState(lexerContext);
+        commentOrDivision = new CommentOrDivisionState(lexerContext);
+        comment = new CommentState(lexerContext);
+        noteOrIdentifier = new NoteOrIdentifierState(lexerContext);
+        pitch = new PitchState(lexerContext);
+        rythm = new RythmState(lexerContext);
+        identifier = new IdentifierState(lexerContext);
+        operatorOrUnknown = new OperatorOrUnknownState(lexerContext);
+    }
+
+    public IdleState idle() {
+        return idle;
+    }
+
+    public NumberState number() {
+        return number;
+    }
+
+    public StringState string() {
+        return string;
+    }
+
+    public CommentOrDivisionState commentOrDivision() {
+        return commentOrDivision;
+    }
+
+    public CommentState comment() {
+        return comment;
+    }
+
+    public NoteOrIdentifierState noteOrIdentifier() {
+        return noteOrIdentifier;
+    }
+
+    public PitchState pitch() {
+        return pitch;
+    }
+
+    public RythmState rythm() {
+        return rythm;
+    }
+
+    public IdentifierState identifier() {
+        return identifier;
+    }
+
+    public OperatorOrUnknownState operatorOrUnknown() {
+        return operatorOrUnknown;
+    }
+
+    StringBuilder tokenBuilder() {
+        return tokenBuilder;
+    }
+}
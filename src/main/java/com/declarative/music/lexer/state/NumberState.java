@@ -1,13 +1,17 @@
 package com.declarative.music.lexer.state;
 
 import com.declarative.music.lexer.LexerContext;
+import com.declarative.music.lexer.terminals.CharacterClasses;
 import com.declarative.music.lexer.token.Token;
 import com.declarative.music.lexer.token.TokenType;
 
 import java.io.IOException;
 
 public class NumberState extends LexerState {
-
+    /**
+     * Number of digits read by the last {@link #parseNumber}.
+     */
+    private int parsedLength;
 
     public NumberState(final LexerContext lexerContext) {
         super(lexerContext);
@@ -16,30 +20,27 @@ public class NumberState extends LexerState {
     @Override
     public Token processNext() throws IOException {
         final var startPosition = lexerContext.getCurrentPosition();
-        final int decimals = parseNumber(lexerContext.getCurrentStreamChar()).value;
-        lexerContext.stateTransition(new IdleState(lexerContext));
+        final int decimals = parseNumber(lexerContext.getCurrentStreamChar());
+        lexerContext.stateTransition(states().idle());
 
         if (lexerContext.getCurrentStreamChar() != '.') {
             return new Token(TokenType.T_INT_NUMBER, startPosition, decimals);
         }
         final var firstFractional = lexerContext.getNextStreamChar();
         final var fractional = parseNumber(firstFractional);
-        final double value = decimals + fractional.value / Math.pow(10, fractional.length);
+        final double value = decimals + fractional / Math.pow(10, parsedLength);
         return new Token(TokenType.T_FLOATING_NUMBER, startPosition, value);
     }
 
-    private ParsedNumber parseNumber(int currentChar) throws IOException {
+    private int parseNumber(int currentChar) throws IOException {
         int number = 0;
-        int parsedLen = 0;
-        while (currentChar != -1 && Character.isDigit(currentChar)) {
+        parsedLength = 0;
+        while (currentChar != -1 && CharacterClasses.isDigit(currentChar)) {
 
-            number = Math.addExact(Math.multiplyExact(number, 10), Character.digit((char) currentChar, 10));
+            number = Math.addExact(Math.multiplyExact(number, 10), CharacterClasses.digit(currentChar));
             currentChar = lexerContext.getNextStreamChar();
-            parsedLen++;
+            parsedLength++;
         }
-        return new ParsedNumber(number, parsedLen);
-    }
-
-    private record ParsedNumber(int value, int length) {
+        return number;
     }
 }
@@ -4,18 +4,16 @@ import com.declarative.music.lexer.LexerContext;
 import com.declarative.music.lexer.expection.UnknownTokenTypeException;
 import com.declarative.music.lexer.terminals.OperatorMap;
 import com.declarative.music.lexer.terminals.PunctuationMap;
-import com.declarative.music.lexer.token.Position;
 import com.declarative.music.lexer.token.Token;
 import com.declarative.music.lexer.token.TokenType;
-import lombok.SneakyThrows;
 
 import java.io.IOException;
-import java.util.Optional;
-import java.util.Set;
 
 
+/**
+ * Takes the longest operator starting at the current character, operators have at most two characters.
+ */
 public class OperatorOrUnknownState extends LexerState {
-    private Position startPosition;
 
     public OperatorOrUnknownState(final LexerContext lexerContext) {
         super(lexerContext);
@@ -23,50 +21,26 @@ public class OperatorOrUnknownState extends LexerState {
 
     @Override
     public Token processNext() throws IOException {
-        startPosition = lexerContext.getCurrentPosition();
-        final var operator = tryBuildPunctuation()
-                .or(() -> tryBuildOperator('>', Set.of('=', '>')))
-                .or(() -> tryBuildOperator('<', Set.of('|', '=')))
-                .or(() -> tryBuildOperator('-', Set.of('>', '=')))
-                .or(() -> tryBuildOperator('=', Set.of('=')))
-                .or(() -> tryBuildOperator('&', Set.of('&', '=')))
-                .or(() -> tryBuildOperator('|', Set.of('>', '|', '=')))
-                .or(() -> tryBuildOperator('*', Set.of('=')))
-                .or(() -> tryBuildOperator('^', Set.of('=')))
-                .or(() -> tryBuildOperator('%', Set.of('=')))
-                .or(() -> tryBuildOperator('!', Set.of('=')))
-                .or(() -> tryBuildOperator('/', Set.of('=')))
-                .or(() -> tryBuildOperator('+', Set.of('=')));
-        lexerContext.stateTransition(new IdleState(lexerContext));
-        return operator.orElseThrow(() -> new UnknownTokenTypeException(lexerContext.getCurrentPosition()));
-    }
-
-    private Optional<Token> tryBuildPunctuation() throws IOException {
-        final var currentChar = (char) lexerContext.getCurrentStreamChar();
-        final var result = PunctuationMap.getPunctuation(currentChar)
-                .map(punctuation -> new Token(punctuation, startPosition, null));
-        if (result.isPresent()) {
+        final var startPosition = lexerContext.getCurrentPosition();
+        final var first = lexerContext.getCurrentStreamChar();
+        lexerContext.stateTransition(states().idle());
+        final var punctuation = PunctuationMap.getPunctuation(first);
+        if (punctuation != null) {
             lexerContext.getNextStreamChar();
-
+            return new Token(punctuation, startPosition, null);
         }
-        return result;
-    }
-
-    @SneakyThrows
-    private Optional<Token> tryBuildOperator(final char first, final Set<Character> lasts) {
-        final var currentChar = (char) lexerContext.getCurrentStreamChar();
-        if (currentChar == first) {
-            final var nextChar = (char) lexerContext.getNextStreamChar();
-            String value = String.valueOf(currentChar);
-            if (lasts.contains(nextChar)) {
-                lexerContext.getNextStreamChar();
-                value += nextChar;
-            }
-            return Optional.of(new Token(TokenType.T_OPERATOR,
-                    startPosition,
-                    OperatorMap.getOperator(value).orElseThrow(() -> new UnknownTokenTypeException(lexerContext.getCurrentPosition()))));
+        if (!OperatorMap.isOperatorFirst(first)) {
+            throw new UnknownTokenTypeException(lexerContext.getCurrentPosition());
         }
-        return Optional.empty();
+        var operator = OperatorMap.getOperator(first, lexerContext.getNextStreamChar());
+        if (operator != null) {
+            lexerContext.getNextStreamChar();
+        } else {
+            operator = OperatorMap.getOperator(first);
+        }
+        if (operator == null) {
+            throw new UnknownTokenTypeException(lexerContext.getCurrentPosition());
+        }
+        return new Token(TokenType.T_OPERATOR, startPosition, operator);
     }
-
 }
@@ -1,32 +1,32 @@
 package com.declarative.music.lexer.state;
 
 import com.declarative.music.lexer.LexerContext;
+import com.declarative.music.lexer.terminals.CharacterClasses;
 import com.declarative.music.lexer.token.Token;
 import com.declarative.music.lexer.token.TokenType;
 
 import java.io.IOException;
 
 public class RythmState extends LexerState {
-    private final StringBuilder tokenBuilder;
-
     public RythmState(final LexerContext lexerContext) {
         super(lexerContext);
-        this.tokenBuilder = new StringBuilder();
     }
 
     @Override
     public Token processNext() throws IOException {
         final var currentChar = (char) lexerContext.getCurrentStreamChar();
         final var startPosition = lexerContext.getCurrentPosition();
+        final var tokenBuilder = states().tokenBuilder();
+        tokenBuilder.setLength(0);
         tokenBuilder.append(currentChar);
         var nextChar = lexerContext.getNextStreamChar();
         var readChar = (char) nextChar;
         if (currentChar == 'd' && readChar != 'l') {
-            if (Character.isLetterOrDigit(readChar)) {
+            if (CharacterClasses.isLetterOrDigit(readChar)) {
                 tokenBuilder.append(readChar);
                 lexerContext.getNextStreamChar();
             }
-            lexerContext.stateTransition(new IdentifierState(lexerContext, tokenBuilder));
+            lexerContext.stateTransition(states().identifier());
             return null;
         }
         if (currentChar == 'd') {
@@ -41,19 +41,19 @@ public class RythmState extends LexerState {
             if (readChar == 'd' || readChar == 't') {
                 tokenBuilder.append(readChar);
                 readChar = (char) lexerContext.getNextStreamChar();
-                if (!Character.isLetterOrDigit(readChar)) {
-                    lexerContext.stateTransition(new IdleState(lexerContext));
+                if (!CharacterClasses.isLetterOrDigit(readChar)) {
+                    lexerContext.stateTransition(states().idle());
                     return new Token(TokenType.T_RHYTHM, startPosition, tokenBuilder.toString());
                 }
             }
-            lexerContext.stateTransition(new IdentifierState(lexerContext, tokenBuilder));
+            lexerContext.stateTransition(states().identifier());
             return null;
         }
-        if (nextChar == -1 || !Character.isLetterOrDigit(readChar)) {
-            lexerContext.stateTransition(new IdleState(lexerContext));
+        if (nextChar == -1 || !CharacterClasses.isLetterOrDigit(readChar)) {
+            lexerContext.stateTransition(states().idle());
             return new Token(TokenType.T_RHYTHM, startPosition, tokenBuilder.toString());
         }
-        lexerContext.stateTransition(new IdentifierState(lexerContext, tokenBuilder));
+        lexerContext.stateTransition(states().identifier());
         return null;
     }
 }
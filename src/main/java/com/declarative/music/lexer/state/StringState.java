@@ -7,11 +7,8 @@ import com.declarative.music.lexer.token.TokenType;
 import java.io.IOException;
 
 public class StringState extends LexerState {
-    private final StringBuilder stringBuilder;
-
     public StringState(final LexerContext lexerContext) {
         super(lexerContext);
-        stringBuilder = new StringBuilder();
     }
 
 
@@ -19,6 +16,8 @@ public class StringState extends LexerState {
     public Token processNext() throws IOException {
         assert lexerContext.getCurrentStreamChar() == '"';
         final var currentPosition = lexerContext.getCurrentPosition();
+        final var stringBuilder = states().tokenBuilder();
+        stringBuilder.setLength(0);
         var currentChar = lexerContext.getNextStreamChar();
         var readChar = (char) currentChar;
         var escape = false;
@@ -42,7 +41,7 @@ public class StringState extends LexerState {
         if (currentChar != -1) {
             lexerContext.getNextStreamChar();
         }
-        lexerContext.stateTransition(new IdleState(lexerContext));
+        lexerContext.stateTransition(states().idle());
         return new Token(TokenType.T_STRING, currentPosition, stringBuilder.toString());
     }
 
@@ -0,0 +1,73 @@
+package com.declarative.music.lexer.terminals;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+
+/**
+ * Classifies characters with one lookup in a table of ASCII characters, other characters are classified by
+ * {@link Character}. Classes of ASCII characters are taken from {@link Character} too, so both ways agree.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class CharacterClasses {
+    private static final int ASCII = 128;
+    private static final byte DIGIT = 1;
+    private static final byte LETTER = 1 << 1;
+    private static final byte WHITESPACE = 1 << 2;
+    private static final byte PITCH_FIRST = 1 << 3;
+    private static final byte RYTHM_FIRST = 1 << 4;
+    private static final byte[] CLASSES = new byte[ASCII];
+
+    static {
+        for (var c = 0; c < ASCII; c++) {
+            var classes = 0;
+            if (Character.isDigit(c)) {
+                classes |= DIGIT;
+            }
+            if (Character.isLetter(c)) {
+                classes |= LETTER;
+            }
+            if (Character.isWhitespace(c)) {
+                classes |= WHITESPACE;
+            }
+            CLASSES[c] = (byte) classes;
+        }
+        for (var c : "ABCDEFG".toCharArray()) {
+            CLASSES[c] |= PITCH_FIRST;
+        }
+        for (var c : "dlwqesth".toCharArray()) {
+            CLASSES[c] |= RYTHM_FIRST;
+        }
+    }
+
+    public static boolean isDigit(final int c) {
+        return c >= 0 && c < ASCII ? (CLASSES[c] & DIGIT) != 0 : Character.isDigit((char) c);
+    }
+
+    public static boolean isLetter(final int c) {
+        return c >= 0 && c < ASCII ? (CLASSES[c] & LETTER) != 0 : Character.isLetter((char) c);
+    }
+
+    public static boolean isLetterOrDigit(final int c) {
+        return c >= 0 && c < ASCII ? (CLASSES[c] & (DIGIT | LETTER)) != 0 : Character.isLetterOrDigit((char) c);
+    }
+
+    public static boolean isWhitespace(final int c) {
+        return c >= 0 && c < ASCII ? (CLASSES[c] & WHITESPACE) != 0 : Character.isWhitespace((char) c);
+    }
+
+    /**
+     * @return value of a character for which {@link #isDigit} holds
+     */
+    public static int digit(final int c) {
+        return c < ASCII ? c - '0' : Character.digit((char) c, 10);
+    }
+
+    public static boolean isPitchFirst(final int c) {
+        return c >= 0 && c < ASCII && (CLASSES[c] & PITCH_FIRST) != 0;
+    }
+
+    public static boolean isRythmFirst(final int c) {
+        return c >= 0 && c < ASCII && (CLASSES[c] & RYTHM_FIRST) != 0;
+    }
+}
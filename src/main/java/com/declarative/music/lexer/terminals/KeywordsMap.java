@@ -5,7 +5,6 @@ import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 
 import java.util.Map;
-import java.util.Optional;
 
 
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
@@ -24,7 +23,10 @@ public final class KeywordsMap {
             Map.entry("false", TokenType.T_FALSE)
     );
 
-    public static Optional<TokenType> getKeywordType(final String token) {
-        return Optional.ofNullable(tokensMapping.get(token));
+    /**
+     * @return type of the keyword or null when the token is not one
+     */
+    public static TokenType getKeywordType(final String token) {
+        return tokensMapping.get(token);
     }
 }
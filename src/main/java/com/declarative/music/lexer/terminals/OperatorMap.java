@@ -4,9 +4,11 @@ import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 
 import java.util.Map;
-import java.util.Optional;
 
 
+/**
+ * Operators are looked up by their characters in tables built from the operator map, without building strings.
+ */
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class OperatorMap {
     private static final Map<String, OperatorEnum> operators = Map.ofEntries(
@@ -40,7 +42,37 @@ public class OperatorMap {
             Map.entry("!", OperatorEnum.O_NEGATE),
             Map.entry("+=", OperatorEnum.O_PLUS_ASSIGN));
 
-    public static Optional<OperatorEnum> getOperator(final String operator) {
-        return Optional.ofNullable(operators.get(operator));
+    private static final int ASCII = 128;
+    private static final OperatorEnum[] singleOperators = new OperatorEnum[ASCII];
+    private static final OperatorEnum[] doubleOperators = new OperatorEnum[ASCII * ASCII];
+    private static final boolean[] operatorFirsts = new boolean[ASCII];
+
+    static {
+        operators.forEach((operator, value) -> {
+            if (operator.length() == 1) {
+                singleOperators[operator.charAt(0)] = value;
+            } else {
+                doubleOperators[operator.charAt(0) * ASCII + operator.charAt(1)] = value;
+            }
+            operatorFirsts[operator.charAt(0)] = true;
+        });
+    }
+
+    public static boolean isOperatorFirst(final int first) {
+        return first >= 0 && first < ASCII && operatorFirsts[first];
+    }
+
+    /**
+     * @return operator of one character or null when there is none
+     */
+    public static OperatorEnum getOperator(final int first) {
+        return first >= 0 && first < ASCII ? singleOperators[first] : null;
+    }
+
+    /**
+     * @return operator of two characters or null when there is none
+     */
+    public static OperatorEnum getOperator(final int first, final int second) {
+        return isOperatorFirst(first) && second >= 0 && second < ASCII ? doubleOperators[first * ASCII + second] : null;
     }
 }
@@ -5,7 +5,6 @@ import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 
 import java.util.Map;
-import java.util.Optional;
 
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public final class PunctuationMap {
@@ -20,7 +19,16 @@ public final class PunctuationMap {
             ',', TokenType.T_COMMA
     );
 
-    public static Optional<TokenType> getPunctuation(final char currentChar) {
-        return Optional.ofNullable(punctuationMap.get(currentChar));
+    private static final TokenType[] punctuations = new TokenType[128];
+
+    static {
+        punctuationMap.forEach((character, type) -> punctuations[character] = type);
+    }
+
+    /**
+     * @return punctuation or null when the character is not one
+     */
+    public static TokenType getPunctuation(final int currentChar) {
+        return currentChar >= 0 && currentChar < punctuations.length ? punctuations[currentChar] : null;
     }
 }
@@ -0,0 +1,48 @@
+package com.declarative.music.lexer.token;
+
+import java.util.Arrays;
+
+
+/**
+ * Offsets of line breaks in the source, counted in characters read by the lexer. Positions are computed from offsets
+ * on demand, so they need not be kept for every token.
+ */
+public final class LineIndex {
+    private final int firstLine;
+    private int[] lineBreaks;
+    private int lines = 1;
+
+    public LineIndex() {
+        this(new Position(0, -1));
+    }
+
+    /**
+     * @param start position of the character before the source, the first character of the source follows it
+     */
+    public LineIndex(final Position start) {
+        firstLine = start.line();
+        lineBreaks = new int[]{-start.characterNumber() - 2};
+    }
+
+    /**
+     * @param offset offset of the character which ends the current line, it is the first one of the next line
+     */
+    public void lineBreak(final int offset) {
+        if (lines == lineBreaks.length) {
+            lineBreaks = Arrays.copyOf(lineBreaks, lines * 2);
+        }
+        lineBreaks[lines++] = offset;
+    }
+
+    public int offset(final Position position) {
+        return lineBreaks[position.line() - firstLine] + 1 + position.characterNumber();
+    }
+
+    public Position position(final int offset) {
+        var line = Arrays.binarySearch(lineBreaks, 0, lines, offset);
+        if (line < 0) {
+            line = -line - 2;
+        }
+        return new Position(firstLine + line, offset - lineBreaks[line] - 1);
+    }
+}
@@ -0,0 +1,37 @@
+package com.declarative.music.lexer.token;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+
+/**
+ * Keeps one instance of every distinct symbol and gives it an index, in order of interning.
+ */
+public final class SymbolTable {
+    private final Map<String, Integer> indexes = new HashMap<>();
+    private String[] symbols = new String[64];
+
+    public int intern(final String symbol) {
+        final var index = indexes.get(symbol);
+        if (index != null) {
+            return index;
+        }
+        final var size = indexes.size();
+        if (size == symbols.length) {
+            symbols = Arrays.copyOf(symbols, size * 2);
+        }
+        symbols[size] = symbol;
+        indexes.put(symbol, size);
+        return size;
+    }
+
+    public String symbol(final int index) {
+        return symbols[Objects.checkIndex(index, size())];
+    }
+
+    public int size() {
+        return indexes.size();
+    }
+}
@@ -0,0 +1,119 @@
+package com.declarative.music.lexer.token;
+
+import com.declarative.music.lexer.Lexer;
+import com.declarative.music.lexer.terminals.OperatorEnum;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+
+/**
+ * Tokens of the whole source in parallel arrays of type, offset and value. Identifiers, strings, pitches, rhythms and
+ * comments are interned in a {@link SymbolTable}, values of operators are their ordinals, integers are kept as they are
+ * and floating numbers are indexes into a table of doubles. Positions are computed from offsets by {@link LineIndex}.
+ * <p>
+ * {@link #lexer()} serves the tokens back as {@link Token} records, so the buffer can be parsed like any lexer.
+ */
+public final class TokenBuffer {
+    private static final TokenType[] TYPES = TokenType.values();
+    private static final OperatorEnum[] OPERATORS = OperatorEnum.values();
+    private static final int NO_VALUE = -1;
+
+    private final LineIndex lines;
+    private final SymbolTable symbols = new SymbolTable();
+    private int[] types = new int[256];
+    private int[] offsets = new int[256];
+    private int[] values = new int[256];
+    private double[] doubles = new double[16];
+    private int doublesSize;
+    private int size;
+
+    /**
+     * @param lines line breaks of the source, they may still be added while tokens are added
+     */
+    public TokenBuffer(final LineIndex lines) {
+        this.lines = lines;
+    }
+
+    public void add(final Token token) {
+        if (size == types.length) {
+            types = Arrays.copyOf(types, size * 2);
+            offsets = Arrays.copyOf(offsets, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        types[size] = token.type().ordinal();
+        offsets[size] = lines.offset(token.position());
+        values[size] = switch (token.type()) {
+            case T_INT_NUMBER -> (int) token.value();
+            case T_FLOATING_NUMBER -> addDouble((double) token.value());
+            case T_OPERATOR -> ((OperatorEnum) token.value()).ordinal();
+            case T_IDENTIFIER, T_STRING, T_PITCH, T_RHYTHM, T_COMMENT -> symbols.intern((String) token.value());
+            default -> NO_VALUE;
+        };
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public TokenType type(final int index) {
+        return TYPES[types[Objects.checkIndex(index, size)]];
+    }
+
+    /**
+     * @return number of characters read by the lexer before the token
+     */
+    public int offset(final int index) {
+        return offsets[Objects.checkIndex(index, size)];
+    }
+
+    public Position position(final int index) {
+        return lines.position(offset(index));
+    }
+
+    public Object value(final int index) {
+        final var value = values[Objects.checkIndex(index, size)];
+        return switch (type(index)) {
+            case T_INT_NUMBER -> value;
+            case T_FLOATING_NUMBER -> doubles[value];
+            case T_OPERATOR -> OPERATORS[value];
+            case T_IDENTIFIER, T_STRING, T_PITCH, T_RHYTHM, T_COMMENT -> symbols.symbol(value);
+            default -> null;
+        };
+    }
+
+    public Token token(final int index) {
+        return new Token(type(index), position(index), value(index));
+    }
+
+    public SymbolTable getSymbols() {
+        return symbols;
+    }
+
+    /**
+     * @return lexer serving the tokens in order, the last token is served again once all were served
+     */
+    public Lexer lexer() {
+        return new Lexer() {
+            private int next;
+
+            @Override
+            public Token getNextToken() {
+                final var token = token(next);
+                if (next < size - 1) {
+                    next++;
+                }
+                return token;
+            }
+        };
+    }
+
+    private int addDouble(final double value) {
+        if (doublesSize == doubles.length) {
+            doubles = Arrays.copyOf(doubles, doublesSize * 2);
+        }
+        doubles[doublesSize] = value;
+        return doublesSize++;
+    }
+}
@@ -0,0 +1,266 @@
+package com.declarative.music.midi;
+
+import com.declarative.music.interpreter.tree.GroupNode;
+import com.declarative.music.interpreter.tree.Node;
+import com.declarative.music.interpreter.tree.SequenceNode;
+import com.declarative.music.interpreter.tree.SimpleNode;
+import com.declarative.music.interpreter.values.music.MusicTree;
+import com.declarative.music.interpreter.values.music.Note;
+import com.declarative.music.interpreter.values.music.Pitch;
+import com.declarative.music.interpreter.values.music.Rythm;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.nio.file.StandardOpenOption.READ;
+
+
+/**
+ * Reads notes of Standard MIDI File straight from the memory mapped file. Opening the file only finds where the track
+ * chunks are, a track is parsed when it is read.
+ * <p>
+ * Notes starting at the same tick are read as a group and the groups form a sequence. Duration of a note is the
+ * closest {@link Rythm} to its length, pauses between notes are skipped.
+ */
+public class MidiFileReader implements Closeable {
+    private static final int HEADER = 0x4D546864;
+    private static final int TRACK = 0x4D54726B;
+    private static final int CHUNK_HEADER_SIZE = 8;
+    private static final int NOTE_OFF = 0x80;
+    private static final int NOTE_ON = 0x90;
+    private static final int META = 0xFF;
+    private static final int SYSTEM_EXCLUSIVE = 0xF0;
+    private static final int ESCAPE = 0xF7;
+    private static final int KEYS = 128;
+    private static final int CHANNELS = 16;
+    private static final Pitch[] PITCHES = Pitch.values();
+    private static final Rythm[] RYTHMS = Rythm.values();
+    /**
+     * Lengths of {@link #RYTHMS} in quarter notes.
+     */
+    private static final double[] QUARTERS = {16, 8, 4, 2, 1, 0.5, 0.25, 0.125};
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int ticksPerQuarterNote;
+    private final int[] trackOffsets;
+
+    public MidiFileReader(final Path path) throws IOException {
+        channel = FileChannel.open(path, READ);
+        try {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < CHUNK_HEADER_SIZE || buffer.getInt(0) != HEADER) {
+                throw new IOException("Not a MIDI file: " + path);
+            }
+            var headerLength = buffer.getInt(4);
+            var division = buffer.getShort(CHUNK_HEADER_SIZE + 4);
+            if (division <= 0) {
+                throw new IOException("Only files with ticks per quarter note are supported: " + path);
+            }
+            ticksPerQuarterNote = division;
+            trackOffsets = findTracks(CHUNK_HEADER_SIZE + headerLength, buffer.getShort(CHUNK_HEADER_SIZE + 2) & 0xFFFF);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public int tracks() {
+        return trackOffsets.length;
+    }
+
+    public MusicTree readTrack(final int track) throws IOException {
+        if (track < 0 || track >= trackOffsets.length) {
+            throw new IllegalArgumentException("There is no track %d, file has %d tracks".formatted(track, trackOffsets.length));
+        }
+        var offset = trackOffsets[track];
+        return new TrackParser(offset + CHUNK_HEADER_SIZE, offset + CHUNK_HEADER_SIZE + buffer.getInt(offset + 4)).parse();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private int[] findTracks(final int start, final int count) throws IOException {
+        var offsets = new int[count];
+        var found = 0;
+        var offset = start;
+        while (found < count && offset + CHUNK_HEADER_SIZE <= buffer.limit()) {
+            var length = buffer.getInt(offset + 4);
+            if (length < 0 || offset + CHUNK_HEADER_SIZE + length > buffer.limit()) {
+                throw new IOException("Chunk exceeds end of file at " + offset);
+            }
+            if (buffer.getInt(offset) == TRACK) {
+                offsets[found++] = offset;
+            }
+            offset += CHUNK_HEADER_SIZE + length;
+        }
+        return Arrays.copyOf(offsets, found);
+    }
+
+    private static Node<Note> chord(final List<Node<Note>> notes) {
+        return notes.size() == 1 ? notes.get(0) : new GroupNode<>(notes);
+    }
+
+    private static Rythm closestRythm(final double quarters) {
+        var closest = 0;
+        for (var index = 1; index < QUARTERS.length; index++) {
+            if (Math.abs(Math.log(quarters / QUARTERS[index])) < Math.abs(Math.log(quarters / QUARTERS[closest]))) {
+                closest = index;
+            }
+        }
+        return RYTHMS[closest];
+    }
+
+    private final class TrackParser {
+        private final int end;
+        private int position;
+        /**
+         * First and last of the notes still sounding, for every channel and key. Notes with the same key are ended in
+         * order they were started.
+         */
+        private final int[] firstSounding = new int[CHANNELS * KEYS];
+        private final int[] lastSounding = new int[CHANNELS * KEYS];
+        /**
+         * Start tick in upper 32 bits and index of the note in the lower ones, in order of the start of notes.
+         */
+        private long[] notes = new long[64];
+        private int[] keys = new int[64];
+        private int[] lengths = new int[64];
+        private int[] nextSounding = new int[64];
+        private int size;
+
+        private TrackParser(final int start, final int end) {
+            this.position = start;
+            this.end = end;
+            Arrays.fill(firstSounding, -1);
+            Arrays.fill(lastSounding, -1);
+        }
+
+        private MusicTree parse() throws IOException {
+            long tick = 0;
+            var runningStatus = -1;
+            while (position < end) {
+                tick += readVariableLength();
+                var status = buffer.get(position) & 0xFF;
+                if (status < NOTE_OFF) {
+                    if (runningStatus < 0) {
+                        throw new IOException("Missing status of event at " + position);
+                    }
+                    status = runningStatus;
+                } else {
+                    position++;
+                }
+                if (status == META) {
+                    position++;
+                    skip(readVariableLength());
+                    runningStatus = -1;
+                } else if (status == SYSTEM_EXCLUSIVE || status == ESCAPE) {
+                    skip(readVariableLength());
+                    runningStatus = -1;
+                } else {
+                    runningStatus = status;
+                    channelMessage(tick, status);
+                }
+            }
+            return buildTree();
+        }
+
+        private void channelMessage(final long tick, final int status) throws IOException {
+            var command = status & 0xF0;
+            if (command == 0xC0 || command == 0xD0) {
+                skip(1);
+                return;
+            }
+            if (end - position < 2) {
+                throw new IOException("Track ends inside of an event");
+            }
+            var key = buffer.get(position++) & 0x7F;
+            var velocity = buffer.get(position++) & 0x7F;
+            var slot = (status & 0x0F) * KEYS + key;
+            if (command == NOTE_ON && velocity > 0) {
+                start(slot, key, tick);
+            } else if ((command == NOTE_OFF || command == NOTE_ON) && firstSounding[slot] >= 0) {
+                var note = firstSounding[slot];
+                lengths[note] = (int) Math.max(1, Math.min(Integer.MAX_VALUE, tick - (notes[note] >>> Integer.SIZE)));
+                firstSounding[slot] = nextSounding[note];
+                if (firstSounding[slot] < 0) {
+                    lastSounding[slot] = -1;
+                }
+            }
+        }
+
+        private void start(final int slot, final int key, final long tick) {
+            if (size == notes.length) {
+                notes = Arrays.copyOf(notes, size * 2);
+                keys = Arrays.copyOf(keys, size * 2);
+                lengths = Arrays.copyOf(lengths, size * 2);
+                nextSounding = Arrays.copyOf(nextSounding, size * 2);
+            }
+            notes[size] = tick << Integer.SIZE | size;
+            keys[size] = key;
+            lengths[size] = 0;
+            nextSounding[size] = -1;
+            if (lastSounding[slot] >= 0) {
+                nextSounding[lastSounding[slot]] = size;
+            } else {
+                firstSounding[slot] = size;
+            }
+            lastSounding[slot] = size++;
+        }
+
+        private MusicTree buildTree() {
+            var ordered = RadixSort.sortByUpperInt(Arrays.copyOf(notes, size));
+            var chords = new ArrayList<Node<Note>>();
+            var chord = new ArrayList<Node<Note>>();
+            var chordStart = -1L;
+            for (var index = 0; index < size; index++) {
+                var note = (int) ordered[index];
+                if (lengths[note] == 0) {
+                    continue;
+                }
+                if (!chord.isEmpty() && ordered[index] >>> Integer.SIZE != chordStart) {
+                    chords.add(chord(chord));
+                    chord = new ArrayList<>();
+                }
+                chordStart = ordered[index] >>> Integer.SIZE;
+                var key = keys[note];
+                chord.add(new SimpleNode<>(Note.of(PITCHES[key % PITCHES.length], key / PITCHES.length - 1,
+                        closestRythm((double) lengths[note] / ticksPerQuarterNote))));
+            }
+            if (!chord.isEmpty()) {
+                chords.add(chord(chord));
+            }
+            return new MusicTree(chords.size() == 1 ? chords.get(0) : new SequenceNode<>(chords));
+        }
+
+        private long readVariableLength() throws IOException {
+            long value = 0;
+            for (var count = 0; count < 4; count++) {
+                if (position >= end) {
+                    throw new IOException("Track ends inside of an event");
+                }
+                var next = buffer.get(position++);
+                value = value << 7 | next & 0x7F;
+                if (next >= 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Variable length quantity is too long at " + position);
+        }
+
+        private void skip(final long bytes) throws IOException {
+            if (bytes > end - position) {
+                throw new IOException("Event exceeds end of track at " + position);
+            }
+            position += (int) bytes;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.declarative.music.midi;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+
+/**
+ * Writes Standard MIDI File of type 1 straight to a file, event by event. Tracks are encoded by {@link TrackEncoder},
+ * so output is the same as written by {@code MidiSystem.write}.
+ */
+public class MidiFileWriter implements Closeable {
+    static final int HEADER_SIZE = 14;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final byte[] HEADER = "MThd".getBytes(StandardCharsets.US_ASCII);
+    private static final int HEADER_LENGTH = 6;
+    private static final int FILE_TYPE = 1;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private StreamingEncoder track;
+
+    public MidiFileWriter(final Path path, final int tracks, final int ticksPerQuarterNote) throws IOException {
+        channel = FileChannel.open(path, CREATE, WRITE, TRUNCATE_EXISTING);
+        putHeader(buffer, tracks, ticksPerQuarterNote);
+    }
+
+    /**
+     * Puts header chunk of the file, it has to be followed by the given number of track chunks.
+     */
+    static ByteBuffer putHeader(final ByteBuffer buffer, final int tracks, final int ticksPerQuarterNote) {
+        return buffer.put(HEADER)
+                .putInt(HEADER_LENGTH)
+                .putShort((short) FILE_TYPE)
+                .putShort((short) tracks)
+                .putShort((short) ticksPerQuarterNote);
+    }
+
+    public void startTrack() throws IOException {
+        checkTrackEnded();
+        track = new StreamingEncoder();
+        track.start();
+    }
+
+    /**
+     * Writes channel message, program change and channel pressure messages take only the first data byte.
+     */
+    public void shortMessage(final long tick, final int status, final int data1, final int data2) throws IOException {
+        currentTrack().shortMessage(tick, status, data1, data2);
+    }
+
+    public void metaMessage(final long tick, final int type, final byte[] data) throws IOException {
+        currentTrack().metaMessage(tick, type, data);
+    }
+
+    /**
+     * Writes end of track and the track length.
+     */
+    public void endTrack() throws IOException {
+        currentTrack().end();
+        track = null;
+    }
+
+    /**
+     * Writes track chunk encoded earlier by {@link TrackEncoder}.
+     */
+    void writeTrack(final byte[] chunk) throws IOException {
+        checkTrackEnded();
+        flush();
+        var bytes = ByteBuffer.wrap(chunk);
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private StreamingEncoder currentTrack() {
+        if (track == null) {
+            throw new IllegalStateException("Track was not started");
+        }
+        return track;
+    }
+
+    private void checkTrackEnded() {
+        if (track != null) {
+            throw new IllegalStateException("Previous track was not ended");
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Encodes into the buffer of the writer, flushing it to the file when full.
+     */
+    private final class StreamingEncoder extends TrackEncoder {
+        private StreamingEncoder() {
+            super(MidiFileWriter.this.buffer);
+        }
+
+        @Override
+        protected long position() throws IOException {
+            return channel.position() + buffer.position();
+        }
+
+        @Override
+        protected void ensureCapacity(final int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        @Override
+        protected void writeLength(final long position, final int length) throws IOException {
+            flush();
+            channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, length), position);
+        }
+    }
+}
@@ -4,6 +4,8 @@ import com.declarative.music.interpreter.tree.GroupNode;
 import com.declarative.music.interpreter.tree.Node;
 import com.declarative.music.interpreter.tree.SequenceNode;
 import com.declarative.music.interpreter.tree.SimpleNode;
+import com.declarative.music.interpreter.tree.Traversal;
+import com.declarative.music.interpreter.tree.TreeVisitor;
 import com.declarative.music.interpreter.values.music.MusicTree;
 import com.declarative.music.interpreter.values.music.Note;
 import com.declarative.music.interpreter.values.music.Rythm;
@@ -11,42 +13,292 @@ import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
-import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
 
 
+/**
+ * Maps notes of a tree to packed events: stamp in upper 32 bits, midi pitch in bits 8-15 and ordinal of the duration
+ * in the lowest 8 bits.
+ */
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class MidiMapper {
-    public static Map<Integer, List<Note>> mapToEventStamps(MusicTree musicTree) {
-        TreeMap<Integer, List<Note>> orderedMap = new TreeMap<>();
-        traverseTree(musicTree.getRoot(), orderedMap, 0);
-        return orderedMap;
+    private static final Rythm[] RYTHMS = Rythm.values();
+    private static final int MAX_PITCH = 127;
+    private static final int INITIAL_CAPACITY = 64;
+    /**
+     * Trees with at most that many notes are mapped on the calling thread.
+     */
+    private static final int PARALLEL_THRESHOLD = 1 << 14;
+    /**
+     * Limits nesting of forked tasks, joining a task may run it on the stack of the joining one.
+     */
+    private static final int MAX_FORK_DEPTH = 8;
+    /**
+     * Children of a group are forked only while the pool does not have that many queued tasks already.
+     */
+    private static final int MAX_SURPLUS_TASKS = 2;
+
+    /**
+     * Big trees are mapped in parallel in the common pool.
+     *
+     * @return events sorted by stamps, events with the same stamp are in order of the tree
+     */
+    public static long[] mapToEventStamps(MusicTree musicTree) {
+        if (hasMoreNotes(musicTree.getRoot(), PARALLEL_THRESHOLD)) {
+            return mapToEventStamps(musicTree, ForkJoinPool.commonPool());
+        }
+        var stamper = new Stamper(0, MAX_FORK_DEPTH);
+        Traversal.walk(musicTree.getRoot(), stamper);
+        return stamper.segments().get(0);
+    }
+
+    /**
+     * Maps children of groups in separate tasks, they start at the same stamp and do not depend on each other. Every
+     * task sorts its own events and the sorted parts are merged.
+     *
+     * @return events sorted by stamps, events with the same stamp are in order of the tree
+     */
+    public static long[] mapToEventStamps(MusicTree musicTree, ForkJoinPool pool) {
+        var stamped = pool.invoke(new StampTask(musicTree.getRoot(), 0, 0));
+        return merge(stamped.segments());
+    }
+
+    public static int stamp(final long event) {
+        return (int) (event >>> Integer.SIZE);
+    }
+
+    public static int pitch(final long event) {
+        return (int) (event >>> Byte.SIZE) & 0xFF;
+    }
+
+    public static Rythm duration(final long event) {
+        return RYTHMS[(int) event & 0xFF];
+    }
+
+    private static int getPitch(final Note note) {
+        var pitch = 12 * (note.getOctave() + 1) + note.getPitch().ordinal();
+        if (pitch < 0 || pitch > MAX_PITCH) {
+            throw new IllegalArgumentException("Note %s is outside of midi range".formatted(note));
+        }
+        return pitch;
+    }
+
+    private static boolean hasMoreNotes(final Node<Note> root, final int limit) {
+        var count = new int[1];
+        Traversal.walk(root, new TreeVisitor<>() {
+            @Override
+            public void visit(final SimpleNode<Note> node) {
+                count[0]++;
+            }
+
+            @Override
+            public boolean descend(final Node<Note> node) {
+                return count[0] <= limit;
+            }
+        });
+        return count[0] > limit;
+    }
+
+    /**
+     * Merges sorted parts, events with equal stamps are taken from the earlier part first.
+     */
+    private static long[] merge(final List<long[]> segments) {
+        if (segments.size() == 1) {
+            return segments.get(0);
+        }
+        var result = new long[segments.stream().mapToInt(segment -> segment.length).sum()];
+        var positions = new int[segments.size()];
+        var heap = new int[segments.size()];
+        var heapSize = 0;
+        for (var segment = 0; segment < segments.size(); segment++) {
+            if (segments.get(segment).length > 0) {
+                heap[heapSize++] = segment;
+            }
+        }
+        for (var i = heapSize / 2 - 1; i >= 0; i--) {
+            siftDown(heap, heapSize, i, segments, positions);
+        }
+        for (var index = 0; heapSize > 0; index++) {
+            var segment = heap[0];
+            result[index] = segments.get(segment)[positions[segment]++];
+            if (positions[segment] == segments.get(segment).length) {
+                heap[0] = heap[--heapSize];
+            }
+            siftDown(heap, heapSize, 0, segments, positions);
+        }
+        return result;
+    }
+
+    private static void siftDown(final int[] heap, final int size, int index, final List<long[]> segments,
+                                 final int[] positions) {
+        while (true) {
+            var smallest = index;
+            for (var child = 2 * index + 1; child <= 2 * index + 2 && child < size; child++) {
+                if (isBefore(heap[child], heap[smallest], segments, positions)) {
+                    smallest = child;
+                }
+            }
+            if (smallest == index) {
+                return;
+            }
+            var swap = heap[index];
+            heap[index] = heap[smallest];
+            heap[smallest] = swap;
+            index = smallest;
+        }
+    }
+
+    private static boolean isBefore(final int segment, final int other, final List<long[]> segments,
+                                    final int[] positions) {
+        var stamp = segments.get(segment)[positions[segment]] >>> Integer.SIZE;
+        var otherStamp = segments.get(other)[positions[other]] >>> Integer.SIZE;
+        return stamp < otherStamp || stamp == otherStamp && segment < other;
+    }
+
+    private record Stamped(int duration, List<long[]> segments) {
     }
 
-    private static int traverseTree(Node<Note> node, TreeMap<Integer, List<Note>> map, int startTime) {
-        if (node instanceof final SimpleNode<Note> noteNode) {
-            var note = noteNode.getModified().getValue();
-            map.computeIfAbsent(startTime, k -> new ArrayList<>()).add(note);
-            return Rythm.values().length - note.getDuration().ordinal() + 1;
+    @SuppressWarnings("serial")
+    private static final class StampTask extends RecursiveTask<Stamped> {
+        private final Node<Note> node;
+        private final int start;
+        private final int forkDepth;
+
+        private StampTask(final Node<Note> node, final int start, final int forkDepth) {
+            this.node = node;
+            this.start = start;
+            this.forkDepth = forkDepth;
+        }
+
+        @Override
+        protected Stamped compute() {
+            var stamper = new Stamper(start, forkDepth);
+            Traversal.walk(node, stamper);
+            return new Stamped(stamper.duration, stamper.segments());
+        }
+    }
+
+    /**
+     * Stamps the notes walking the tree, start time of a child depends on its parent and duration of a node on its
+     * children, so open nodes keep both on stacks. Events are kept in sorted parts following the order of the tree,
+     * part of a forked child ends the current one.
+     */
+    private static final class Stamper implements TreeVisitor<Note> {
+        private final int baseStart;
+        private final int forkDepth;
+        private final List<long[]> segments = new ArrayList<>();
+        private Events events = new Events();
+        private int[] starts = new int[INITIAL_CAPACITY];
+        private int[] durations = new int[INITIAL_CAPACITY];
+        private boolean[] sequences = new boolean[INITIAL_CAPACITY];
+        private int depth;
+        private int duration;
+
+        private Stamper(final int baseStart, final int forkDepth) {
+            this.baseStart = baseStart;
+            this.forkDepth = forkDepth;
+        }
+
+        @Override
+        public void visit(final SimpleNode<Note> node) {
+            var note = node.getModified().getValue();
+            events.add((long) start() << Integer.SIZE | getPitch(note) << Byte.SIZE | note.getDuration().ordinal());
+            ended(RYTHMS.length - note.getDuration().ordinal() + 1);
+        }
+
+        @Override
+        public void enter(final Node<Note> node) {
+            var start = start();
+            if (depth == starts.length) {
+                starts = Arrays.copyOf(starts, depth * 2);
+                durations = Arrays.copyOf(durations, depth * 2);
+                sequences = Arrays.copyOf(sequences, depth * 2);
+            }
+            starts[depth] = start;
+            sequences[depth] = node instanceof SequenceNode<Note>;
+            durations[depth] = sequences[depth] ? start : 0;
+            depth++;
+        }
+
+        @Override
+        public boolean descend(final Node<Note> node) {
+            if (!(node instanceof GroupNode<Note>) || node.getChildren().size() < 2 || forkDepth >= MAX_FORK_DEPTH
+                    || ForkJoinTask.getSurplusQueuedTaskCount() > MAX_SURPLUS_TASKS) {
+                return true;
+            }
+            var tasks = new ArrayList<StampTask>();
+            for (var child : node.getChildren()) {
+                tasks.add(new StampTask(child, starts[depth - 1], forkDepth + 1));
+            }
+            ForkJoinTask.invokeAll(tasks);
+            endSegment();
+            for (var task : tasks) {
+                var stamped = task.join();
+                durations[depth - 1] = Math.max(durations[depth - 1], stamped.duration());
+                segments.addAll(stamped.segments());
+            }
+            return false;
+        }
+
+        @Override
+        public void leave(final Node<Note> node) {
+            depth--;
+            ended(durations[depth]);
         }
-        if (node instanceof GroupNode<Note>) {
-            int maxDur = 0;
-            for (Node<Note> sibling : node.getChildren()) {
-                var dur = traverseTree(sibling, map, startTime);
-                maxDur = Math.max(dur, maxDur);
+
+        private List<long[]> segments() {
+            endSegment();
+            if (segments.isEmpty()) {
+                segments.add(new long[0]);
             }
-            return maxDur;
+            return segments;
         }
-        if (node instanceof SequenceNode<Note>) {
-            var time = startTime;
-            for (Node<Note> child : node.getChildren()) {
-                var duration = traverseTree(child, map, time);
-                time += duration;
+
+        private void endSegment() {
+            if (events.size > 0) {
+                segments.add(RadixSort.sortByUpperInt(events.toArray()));
+                events = new Events();
             }
-            return time;
         }
 
-        throw new UnsupportedOperationException("Unspupported midi node");
+        private int start() {
+            if (depth == 0) {
+                return baseStart;
+            }
+            return sequences[depth - 1] ? durations[depth - 1] : starts[depth - 1];
+        }
+
+        /**
+         * Group lasts as long as its longest child, sequence ends at the time returned by its last child.
+         */
+        private void ended(final int duration) {
+            if (depth == 0) {
+                this.duration = duration;
+            } else if (sequences[depth - 1]) {
+                durations[depth - 1] += duration;
+            } else {
+                durations[depth - 1] = Math.max(durations[depth - 1], duration);
+            }
+        }
+    }
+
+    private static final class Events {
+        private long[] values = new long[INITIAL_CAPACITY];
+        private int size;
+
+        private void add(final long event) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = event;
+        }
+
+        private long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
     }
 }
@@ -1,66 +1,195 @@
 package com.declarative.music.midi;
 
 import com.declarative.music.interpreter.values.music.MusicTree;
+import com.declarative.music.interpreter.values.music.Rythm;
+import com.declarative.music.interpreter.values.music.Song;
 
 import javax.sound.midi.*;
-import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 
 public class MidiRenderer {
-    public static void renderAndSaveMidi(MusicTree musicTree, String path, int bpm, String instrument) throws InvalidMidiDataException, IOException {
-        var res = MidiMapper.mapToEventStamps(musicTree.getModified());
-        final int ticksPerQuarterNote = 480;
-        final Sequence sequence = new Sequence(Sequence.PPQ, ticksPerQuarterNote);
+    private static final int TICKS_PER_QUARTER_NOTE = 480;
+    private static final int TEMPO = 0x51;
+    private static final int VELOCITY = 100;
+    private static final long MAX_TICK = 0x0FFFFFFFL;
+    private static final int CHANNELS = 16;
+    private static final int PERCUSSION_CHANNEL = 9;
+
+    /**
+     * Writes the tree as MIDI file without building {@link Sequence}, events are streamed to the file in one pass.
+     */
+    public static void renderAndSaveMidi(MusicTree musicTree, String path, int bpm, String instrument) throws IOException {
+        var events = createEvents(musicTree);
+        try (var writer = new MidiFileWriter(Path.of(path), 2, TICKS_PER_QUARTER_NOTE)) {
+            writer.startTrack();
+            writer.metaMessage(0, TEMPO, tempo(bpm));
+            writer.endTrack();
+
+            writer.startTrack();
+            writer.shortMessage(0, ShortMessage.PROGRAM_CHANGE, getInstrument(instrument), 0);
+            for (var event : events) {
+                writer.shortMessage(event >>> Integer.SIZE, (int) event >> 16 & 0xFF, (int) event >> 8 & 0xFF, (int) event & 0xFF);
+            }
+            writer.endTrack();
+        }
+    }
+
+    /**
+     * Writes every song as separate track on its own channel, skipping the percussion channel. Tracks are encoded
+     * concurrently, each on a virtual thread, and written one after another. Tempo is taken from the first song.
+     */
+    public static void renderAndSaveMidi(List<Song> songs, String path) throws IOException {
+        if (songs.isEmpty() || songs.size() >= CHANNELS) {
+            throw new IllegalArgumentException("Number of songs has to be from 1 to %d".formatted(CHANNELS - 1));
+        }
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var tracks = new ArrayList<Future<byte[]>>();
+            for (var index = 0; index < songs.size(); index++) {
+                var song = songs.get(index);
+                var channel = index < PERCUSSION_CHANNEL ? index : index + 1;
+                tracks.add(executor.submit(() -> encodeTrack(song, channel)));
+            }
+            try (var writer = new MidiFileWriter(Path.of(path), songs.size() + 1, TICKS_PER_QUARTER_NOTE)) {
+                writer.startTrack();
+                writer.metaMessage(0, TEMPO, tempo(songs.get(0).getBPM()));
+                writer.endTrack();
+                for (var track : tracks) {
+                    writer.writeTrack(join(track));
+                }
+            }
+        }
+    }
+
+    /**
+     * @return whole MIDI file with the song on channel 0
+     */
+    static byte[] encodeFile(final Song song) throws IOException {
+        var tempoTrack = new TrackEncoder();
+        tempoTrack.start();
+        tempoTrack.metaMessage(0, TEMPO, tempo(song.getBPM()));
+        tempoTrack.end();
+        var tempoChunk = tempoTrack.toByteArray();
+        var noteChunk = encodeTrack(song, 0);
+        var file = ByteBuffer.allocate(MidiFileWriter.HEADER_SIZE + tempoChunk.length + noteChunk.length);
+        return MidiFileWriter.putHeader(file, 2, TICKS_PER_QUARTER_NOTE)
+                .put(tempoChunk)
+                .put(noteChunk)
+                .array();
+    }
+
+    private static byte[] encodeTrack(final Song song, final int channel) throws IOException {
+        var events = createEvents(song.getSong());
+        var encoder = new TrackEncoder();
+        encoder.start();
+        encoder.shortMessage(0, ShortMessage.PROGRAM_CHANGE | channel, getInstrument(song.getInstrument()), 0);
+        for (var event : events) {
+            encoder.shortMessage(event >>> Integer.SIZE, ((int) event >> 16 & 0xFF) | channel, (int) event >> 8 & 0xFF, (int) event & 0xFF);
+        }
+        encoder.end();
+        return encoder.toByteArray();
+    }
+
+    private static byte[] join(final Future<byte[]> track) throws IOException {
+        try {
+            return track.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while encoding tracks");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Builds sequence with the same events as the file written by {@link #renderAndSaveMidi}.
+     */
+    public static Sequence createSequence(MusicTree musicTree, int bpm, String instrument) throws InvalidMidiDataException {
+        final Sequence sequence = new Sequence(Sequence.PPQ, TICKS_PER_QUARTER_NOTE);
         final Track tempoTrack = sequence.createTrack();
-        final int microsecPerQuarter = 60000000 / bpm;
 
         final MetaMessage tempoMeta = new MetaMessage();
-        final byte[] bt = {(byte) (microsecPerQuarter >> 16), (byte) (microsecPerQuarter >> 8), (byte) (microsecPerQuarter)};
-        tempoMeta.setMessage(0x51, bt, 3);
+        final byte[] bt = tempo(bpm);
+        tempoMeta.setMessage(TEMPO, bt, 3);
         final MidiEvent tempoEvent = new MidiEvent(tempoMeta, 0);
         tempoTrack.add(tempoEvent);
         final var track = sequence.createTrack();
 
-        var instrumentId = switch (instrument) {
-            case "Guitar" -> 29;
-            case "DistortionGuitar" -> 30;
-            default -> 0;
-        };
         final ShortMessage programChange = new ShortMessage();
-        programChange.setMessage(ShortMessage.PROGRAM_CHANGE, 0, instrumentId, 0);
+        programChange.setMessage(ShortMessage.PROGRAM_CHANGE, 0, getInstrument(instrument), 0);
         track.add(new MidiEvent(programChange, 0));
 
+        for (var event : createEvents(musicTree)) {
+            final ShortMessage message = new ShortMessage();
+            message.setMessage((int) event >> 16 & 0xFF, (int) event >> 8 & 0xFF, (int) event & 0xFF);
+            track.add(new MidiEvent(message, event >>> Integer.SIZE));
+        }
+        return sequence;
+    }
+
+    /**
+     * Notes starting at the same stamp begin when all notes of earlier stamps ended.
+     *
+     * @return note on and note off events sorted by ticks, packed as tick in upper 32 bits and status and data bytes
+     * in the lowest 24 bits
+     */
+    private static long[] createEvents(MusicTree musicTree) {
+        var notes = MidiMapper.mapToEventStamps(musicTree.getModified());
+        var events = new long[2 * notes.length];
+
         long currentTick = 0;
         long maxTick = 0;
-        for (final var noteBlock : res.entrySet()) {
-            currentTick = maxTick;
-            for (var note : noteBlock.getValue()) {
-                var midiNote = MidiNote.from(note);
-                final var pitch = getPitch(midiNote);
-                final var ticks = getTicks(midiNote, ticksPerQuarterNote);
-
-                final ShortMessage noteOn = new ShortMessage();
-                noteOn.setMessage(ShortMessage.NOTE_ON, 0, pitch, 100);
-                var onEvent = new MidiEvent(noteOn, currentTick);
-                track.add(onEvent);
-
-                final ShortMessage noteOff = new ShortMessage();
-                noteOff.setMessage(ShortMessage.NOTE_OFF, 0, pitch, 0);
-                track.add(new MidiEvent(noteOff, currentTick + ticks));
-                maxTick = Math.max(maxTick, currentTick + ticks);
+        for (var i = 0; i < notes.length; i++) {
+            var note = notes[i];
+            if (i > 0 && MidiMapper.stamp(note) != MidiMapper.stamp(notes[i - 1])) {
+                currentTick = maxTick;
             }
+            final var pitch = MidiMapper.pitch(note);
+            final var ticks = getTicks(MidiMapper.duration(note), TICKS_PER_QUARTER_NOTE);
+
+            events[2 * i] = event(currentTick, ShortMessage.NOTE_ON, pitch, VELOCITY);
+            events[2 * i + 1] = event(currentTick + ticks, ShortMessage.NOTE_OFF, pitch, 0);
+            maxTick = Math.max(maxTick, currentTick + ticks);
         }
+        return RadixSort.sortByUpperInt(events);
+    }
+
+    private static long event(final long tick, final int status, final int data1, final int data2) {
+        if (tick > MAX_TICK) {
+            throw new IllegalArgumentException("Song is too long to be saved as midi");
+        }
+        return tick << Integer.SIZE | status << 16 | data1 << 8 | data2;
+    }
 
-        MidiSystem.write(sequence, 1, new File(path));
+    private static byte[] tempo(final int bpm) {
+        final int microsecPerQuarter = 60000000 / bpm;
+        return new byte[]{(byte) (microsecPerQuarter >> 16), (byte) (microsecPerQuarter >> 8), (byte) (microsecPerQuarter)};
     }
 
-    private static int getPitch(final MidiNote note) {
-        return 12 * (note.octave() + 1) + note.pitch().ordinal();
+    private static int getInstrument(final String instrument) {
+        return switch (instrument) {
+            case "Guitar" -> 29;
+            case "DistortionGuitar" -> 30;
+            default -> 0;
+        };
     }
 
-    private static int getTicks(final MidiNote note, final int quoter) {
-        return switch (note.duration()) {
+    private static int getTicks(final Rythm duration, final int quoter) {
+        return switch (duration) {
             case dl -> quoter * 16;
             case l -> quoter * 8;
             case w -> quoter * 4;
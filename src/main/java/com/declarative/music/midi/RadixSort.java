@@ -0,0 +1,52 @@
+package com.declarative.music.midi;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.util.Arrays;
+
+
+/**
+ * Stable LSD radix sort of packed events by their upper 32 bits, compared as unsigned. Passes in which all values fall
+ * into one bucket are skipped, so events with short times are sorted in one or two passes.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class RadixSort {
+    private static final int RADIX_BITS = 8;
+    private static final int BUCKETS = 1 << RADIX_BITS;
+    private static final int MASK = BUCKETS - 1;
+
+    /**
+     * @return sorted values, either the given array or a new one
+     */
+    static long[] sortByUpperInt(final long[] values) {
+        if (values.length < 2) {
+            return values;
+        }
+        var source = values;
+        var target = new long[values.length];
+        final var counts = new int[BUCKETS];
+        for (var shift = Integer.SIZE; shift < Long.SIZE; shift += RADIX_BITS) {
+            Arrays.fill(counts, 0);
+            for (var value : source) {
+                counts[(int) (value >>> shift) & MASK]++;
+            }
+            if (counts[(int) (source[0] >>> shift) & MASK] == source.length) {
+                continue;
+            }
+            var total = 0;
+            for (var bucket = 0; bucket < BUCKETS; bucket++) {
+                var count = counts[bucket];
+                counts[bucket] = total;
+                total += count;
+            }
+            for (var value : source) {
+                target[counts[(int) (value >>> shift) & MASK]++] = value;
+            }
+            var swap = source;
+            source = target;
+            target = swap;
+        }
+        return source;
+    }
+}
@@ -0,0 +1,116 @@
+package com.declarative.music.midi;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+
+/**
+ * Encodes one track chunk of Standard MIDI File the same way as {@code MidiSystem.write} does: delta times as variable
+ * length quantities, running status for channel messages and end of track at the tick of the last event. Events have
+ * to be given in order of their ticks.
+ * <p>
+ * Chunk is kept in a growing buffer, so tracks can be encoded independently and written later, see
+ * {@link MidiFileWriter#writeTrack}.
+ */
+class TrackEncoder {
+    private static final int INITIAL_CAPACITY = 1 << 12;
+    private static final byte[] TRACK = "MTrk".getBytes(StandardCharsets.US_ASCII);
+    private static final int META = 0xFF;
+    private static final int END_OF_TRACK = 0x2F;
+
+    protected ByteBuffer buffer;
+    private long lengthPosition;
+    private long lastTick;
+    private int runningStatus = -1;
+
+    TrackEncoder() {
+        this(ByteBuffer.allocate(INITIAL_CAPACITY));
+    }
+
+    protected TrackEncoder(final ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    void start() throws IOException {
+        ensureCapacity(TRACK.length + Integer.BYTES);
+        buffer.put(TRACK);
+        lengthPosition = position();
+        buffer.putInt(0);
+    }
+
+    /**
+     * Writes channel message, program change and channel pressure messages take only the first data byte.
+     */
+    void shortMessage(final long tick, final int status, final int data1, final int data2) throws IOException {
+        ensureCapacity(8);
+        putDeltaTime(tick);
+        if (status != runningStatus) {
+            runningStatus = status;
+            buffer.put((byte) status);
+        }
+        buffer.put((byte) data1);
+        if ((status & 0xF0) != 0xC0 && (status & 0xF0) != 0xD0) {
+            buffer.put((byte) data2);
+        }
+    }
+
+    void metaMessage(final long tick, final int type, final byte[] data) throws IOException {
+        ensureCapacity(16);
+        putDeltaTime(tick);
+        runningStatus = -1;
+        buffer.put((byte) META).put((byte) type);
+        putVariableLength(data.length);
+        for (var value : data) {
+            ensureCapacity(1);
+            buffer.put(value);
+        }
+    }
+
+    /**
+     * Writes end of track and the length of the chunk.
+     */
+    void end() throws IOException {
+        metaMessage(lastTick, END_OF_TRACK, new byte[0]);
+        writeLength(lengthPosition, (int) (position() - lengthPosition - Integer.BYTES));
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    /**
+     * @return position of the next byte in the output
+     */
+    protected long position() throws IOException {
+        return buffer.position();
+    }
+
+    protected void ensureCapacity(final int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            var grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+            buffer = grown.put(buffer.flip());
+        }
+    }
+
+    protected void writeLength(final long position, final int length) throws IOException {
+        buffer.putInt((int) position, length);
+    }
+
+    private void putDeltaTime(final long tick) {
+        if (tick < lastTick) {
+            throw new IllegalArgumentException("Events are not ordered by ticks");
+        }
+        putVariableLength(tick - lastTick);
+        lastTick = tick;
+    }
+
+    private void putVariableLength(final long value) {
+        var shift = 7 * Math.max(0, (63 - Long.numberOfLeadingZeros(value)) / 7);
+        for (; shift > 0; shift -= 7) {
+            buffer.put((byte) (value >> shift & 0x7F | 0x80));
+        }
+        buffer.put((byte) (value & 0x7F));
+    }
+}
@@ -0,0 +1,232 @@
+package com.declarative.music.midi;
+
+import com.declarative.music.interpreter.values.music.Song;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+
+/**
+ * Renders songs to WAV file with the software synthesizer of the JDK, without any audio device. Every song is encoded
+ * as MIDI file in memory and rendered offline by the synthesizer behind {@link AudioSystem#getAudioInputStream}.
+ * <p>
+ * Songs are rendered on separate threads, each reads its stream in blocks of fixed size and hands them over through a
+ * short queue. Blocks with the same samples of all tracks are mixed and written while the rest is still rendered, so
+ * only a few blocks of every track are in memory at once.
+ */
+public class WavRenderer {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int BLOCK_SIZE = 1 << 14;
+    private static final int QUEUED_BLOCKS = 4;
+    private static final short[] END = new short[0];
+    private static final int HEADER_SIZE = 44;
+    /**
+     * Sizes in the header are unsigned 32 bit numbers, the RIFF size counts the header without its first 8 bytes.
+     */
+    private static final long MAX_DATA_SIZE = 0xFFFFFFFFL - (HEADER_SIZE - 8);
+    private static final int FORMAT_CHUNK_SIZE = 16;
+    private static final short PCM = 1;
+    private static final int BITS_PER_SAMPLE = 16;
+
+    public static void renderAndSaveWav(List<Song> songs, String path) throws IOException {
+        if (songs.isEmpty()) {
+            throw new IllegalArgumentException("There is no song to render");
+        }
+        var tracks = new ArrayList<BlockingQueue<short[]>>();
+        var formats = new ArrayList<Future<AudioFormat>>();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (var song : songs) {
+                var blocks = new ArrayBlockingQueue<short[]>(QUEUED_BLOCKS);
+                tracks.add(blocks);
+                formats.add(executor.submit(() -> render(song, blocks)));
+            }
+            write(tracks, formats, Path.of(path), executor);
+        }
+    }
+
+    /**
+     * Puts blocks of samples to the queue, ended with {@link #END} also when rendering fails.
+     */
+    private static AudioFormat render(final Song song, final BlockingQueue<short[]> blocks)
+            throws IOException, InterruptedException {
+        try (var stream = open(song)) {
+            var format = stream.getFormat();
+            var order = format.isBigEndian() ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+            var bytes = new byte[BLOCK_SIZE];
+            int read;
+            while ((read = stream.readNBytes(bytes, 0, bytes.length)) > 0) {
+                var samples = new short[read / Short.BYTES];
+                ByteBuffer.wrap(bytes, 0, read).order(order).asShortBuffer().get(samples);
+                blocks.put(samples);
+            }
+            return format;
+        } finally {
+            blocks.put(END);
+        }
+    }
+
+    private static AudioInputStream open(final Song song) throws IOException {
+        try {
+            var stream = AudioSystem.getAudioInputStream(new ByteArrayInputStream(MidiRenderer.encodeFile(song)));
+            var format = stream.getFormat();
+            if (format.getEncoding() != AudioFormat.Encoding.PCM_SIGNED || format.getSampleSizeInBits() != BITS_PER_SAMPLE) {
+                stream.close();
+                throw new IOException("Unsupported synthesizer output: " + format);
+            }
+            return stream;
+        } catch (UnsupportedAudioFileException e) {
+            throw new IOException("Software synthesizer is not available", e);
+        }
+    }
+
+    /**
+     * Mixes tracks block by block while writing, sums out of the 16 bit range are clipped. The header is written last,
+     * when the size of the data is known.
+     */
+    private static void write(final List<BlockingQueue<short[]>> tracks, final List<Future<AudioFormat>> formats,
+                              final Path path, final ExecutorService executor) throws IOException {
+        var buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        var mixed = new int[BLOCK_SIZE / Short.BYTES];
+        var blocks = new short[tracks.size()][];
+        try (var channel = FileChannel.open(path, CREATE, WRITE, TRUNCATE_EXISTING)) {
+            channel.position(HEADER_SIZE);
+            long dataSize = 0;
+            var playing = tracks.size();
+            while (playing > 0) {
+                var length = 0;
+                for (var track = 0; track < tracks.size(); track++) {
+                    if (blocks[track] != END) {
+                        blocks[track] = take(tracks.get(track));
+                        playing -= blocks[track] == END ? 1 : 0;
+                        length = Math.max(length, blocks[track].length);
+                    }
+                }
+                dataSize += (long) length * Short.BYTES;
+                if (dataSize > MAX_DATA_SIZE) {
+                    throw new IOException("Rendered audio does not fit in WAV file, it holds at most %d bytes of samples"
+                            .formatted(MAX_DATA_SIZE));
+                }
+                mix(blocks, mixed, length);
+                for (var index = 0; index < length; index++) {
+                    if (buffer.remaining() < Short.BYTES) {
+                        flush(buffer, channel);
+                    }
+                    buffer.putShort((short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, mixed[index])));
+                }
+            }
+            flush(buffer, channel);
+            putHeader(buffer, format(formats), dataSize);
+            buffer.flip();
+            for (long position = 0; buffer.hasRemaining(); ) {
+                position += channel.write(buffer, position);
+            }
+        } catch (IOException | RuntimeException e) {
+            executor.shutdownNow();
+            throw e;
+        }
+    }
+
+    private static void mix(final short[][] blocks, final int[] mixed, final int length) {
+        Arrays.fill(mixed, 0, length, 0);
+        for (var block : blocks) {
+            for (var index = 0; index < block.length; index++) {
+                mixed[index] += block[index];
+            }
+        }
+    }
+
+    /**
+     * @return format of the tracks, all of them have to be rendered in the same one
+     */
+    private static AudioFormat format(final List<Future<AudioFormat>> formats) throws IOException {
+        var format = join(formats.get(0));
+        for (var other : formats) {
+            if (!join(other).matches(format)) {
+                throw new IOException("Tracks were rendered in different formats");
+            }
+        }
+        return format;
+    }
+
+    /**
+     * @param dataSize size of the samples in bytes
+     */
+    static void putHeader(final ByteBuffer buffer, final AudioFormat format, final long dataSize) throws IOException {
+        if (dataSize < 0 || dataSize > MAX_DATA_SIZE) {
+            throw new IOException("WAV file holds at most %d bytes of samples, got %d".formatted(MAX_DATA_SIZE, dataSize));
+        }
+        var channels = format.getChannels();
+        var sampleRate = (int) format.getSampleRate();
+        var blockAlign = channels * BITS_PER_SAMPLE / Byte.SIZE;
+        buffer.put("RIFF".getBytes(StandardCharsets.US_ASCII))
+                .putInt((int) (HEADER_SIZE - 8 + dataSize))
+                .put("WAVE".getBytes(StandardCharsets.US_ASCII))
+                .put("fmt ".getBytes(StandardCharsets.US_ASCII))
+                .putInt(FORMAT_CHUNK_SIZE)
+                .putShort(PCM)
+                .putShort((short) channels)
+                .putInt(sampleRate)
+                .putInt(sampleRate * blockAlign)
+                .putShort((short) blockAlign)
+                .putShort((short) BITS_PER_SAMPLE)
+                .put("data".getBytes(StandardCharsets.US_ASCII))
+                .putInt((int) dataSize);
+    }
+
+    private static void flush(final ByteBuffer buffer, final FileChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static short[] take(final BlockingQueue<short[]> blocks) throws IOException {
+        try {
+            return blocks.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while rendering tracks");
+        }
+    }
+
+    private static AudioFormat join(final Future<AudioFormat> track) throws IOException {
+        try {
+            return track.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while rendering tracks");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
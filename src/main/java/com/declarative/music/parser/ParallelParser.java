@@ -0,0 +1,94 @@
+package com.declarative.music.parser;
+
+import com.declarative.music.lexer.LexerImpl;
+import com.declarative.music.lexer.StatementSplitter;
+import com.declarative.music.parser.exception.ParsingException;
+import com.declarative.music.parser.production.Program;
+import com.declarative.music.parser.production.Statement;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+
+/**
+ * Splits the source into parts of whole top-level statements with {@link StatementSplitter}, then lexes and parses the
+ * parts concurrently in a pool. Statements of the parts are joined in order of the source, tokens of every part have
+ * positions as in the whole source. The first error in order of the source is thrown.
+ */
+public class ParallelParser {
+    private static final int PART_SIZE = 1 << 16;
+
+    private final CharBuffer source;
+    private final ForkJoinPool pool;
+    private final int partSize;
+
+    public ParallelParser(final CharBuffer source) {
+        this(source, ForkJoinPool.commonPool(), PART_SIZE);
+    }
+
+    /**
+     * @param partSize minimal number of characters parsed by one task
+     */
+    public ParallelParser(final CharBuffer source, final ForkJoinPool pool, final int partSize) {
+        this.source = source;
+        this.pool = pool;
+        this.partSize = partSize;
+    }
+
+    public Program parserProgram() throws IOException, ParsingException {
+        final var parts = StatementSplitter.split(source, partSize);
+        if (parts.size() == 1) {
+            return parse(parts.get(0));
+        }
+        final var tasks = new ArrayList<PartTask>();
+        for (var part : parts) {
+            final var task = new PartTask(part);
+            pool.execute(task);
+            tasks.add(task);
+        }
+        final List<Statement> statements = new ArrayList<>();
+        for (var task : tasks) {
+            statements.addAll(task.program().statements());
+        }
+        return new Program(statements);
+    }
+
+    private static Program parse(final StatementSplitter.SourcePart part) throws IOException, ParsingException {
+        return new Parser(new LexerImpl(part.source(), part.start())).parserProgram();
+    }
+
+    @SuppressWarnings("serial")
+    private static final class PartTask extends RecursiveTask<Program> {
+        private final StatementSplitter.SourcePart part;
+        private Exception failure;
+
+        private PartTask(final StatementSplitter.SourcePart part) {
+            this.part = part;
+        }
+
+        @Override
+        protected Program compute() {
+            try {
+                return parse(part);
+            } catch (IOException | ParsingException e) {
+                failure = e;
+                return null;
+            }
+        }
+
+        private Program program() throws IOException, ParsingException {
+            final var program = join();
+            if (failure instanceof ParsingException parsingException) {
+                throw parsingException;
+            }
+            if (failure instanceof IOException ioException) {
+                throw ioException;
+            }
+            return program;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.declarative.music.parser;
+
+import com.declarative.music.lexer.Lexer;
+import com.declarative.music.lexer.token.Token;
+import com.declarative.music.lexer.token.TokenType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.locks.LockSupport;
+
+
+/**
+ * Lexes on its own thread while the caller parses. Comments are filtered on the lexing thread and the remaining tokens
+ * are handed over through a {@link TokenRing}, a side which finds the ring full or empty spins for a while and then
+ * parks briefly. Error of the lexer is thrown to the caller after the tokens read before it.
+ */
+public class PipelinedLexer implements Lexer, Closeable {
+    private static final int CAPACITY = 1 << 12;
+    private static final int SPINS = 1 << 8;
+    private static final long PARK_NANOS = 20_000;
+
+    private final TokenRing ring;
+    private final Thread producer;
+    private volatile boolean finished;
+    private volatile boolean closed;
+    private Throwable failure;
+    private Token eof;
+
+    public PipelinedLexer(final Lexer lexer) {
+        this(lexer, CAPACITY);
+    }
+
+    PipelinedLexer(final Lexer lexer, final int capacity) {
+        ring = new TokenRing(capacity);
+        producer = Thread.ofPlatform()
+                .name("lexer")
+                .daemon()
+                .start(() -> produce(new FilteredLexer(lexer)));
+    }
+
+    @Override
+    public Token getNextToken() throws IOException {
+        if (eof != null) {
+            return eof;
+        }
+        for (var attempt = 0; ; attempt++) {
+            var token = ring.poll();
+            if (token == null && finished) {
+                token = ring.poll();
+                if (token == null) {
+                    throw failure();
+                }
+            }
+            if (token != null) {
+                if (token.type() == TokenType.T_EOF) {
+                    eof = token;
+                }
+                return token;
+            }
+            await(attempt);
+        }
+    }
+
+    /**
+     * Stops the lexing thread, tokens which were not read are dropped.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(producer);
+    }
+
+    private void produce(final Lexer lexer) {
+        try {
+            Token token;
+            do {
+                token = lexer.getNextToken();
+                for (var attempt = 0; !ring.offer(token); attempt++) {
+                    if (closed) {
+                        return;
+                    }
+                    await(attempt);
+                }
+            } while (token.type() != TokenType.T_EOF && !closed);
+        } catch (IOException | RuntimeException | Error e) {
+            failure = e;
+        } finally {
+            finished = true;
+        }
+    }
+
+    private IOException failure() {
+        if (failure instanceof IOException ioException) {
+            return ioException;
+        }
+        if (failure instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        if (failure instanceof Error error) {
+            throw error;
+        }
+        throw new IllegalStateException("Lexer stopped before the end of the source");
+    }
+
+    private static void await(final int attempt) {
+        if (attempt < SPINS) {
+            Thread.onSpinWait();
+        } else {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+    }
+}
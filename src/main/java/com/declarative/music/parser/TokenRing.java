@@ -0,0 +1,73 @@
+package com.declarative.music.parser;
+
+import com.declarative.music.lexer.token.Token;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Bounded queue of tokens for exactly one producer and one consumer thread, without locks. Each side owns its counter
+ * and publishes it with release semantics, the other side reads it with acquire semantics only when its cached copy
+ * says the ring is full or empty.
+ */
+final class TokenRing {
+    private final Token[] slots;
+    private final int mask;
+    /**
+     * Count of tokens taken, written only by the consumer.
+     */
+    private final AtomicLong head = new AtomicLong();
+    /**
+     * Count of tokens put, written only by the producer.
+     */
+    private final AtomicLong tail = new AtomicLong();
+    private long cachedHead;
+    private long cachedTail;
+
+    /**
+     * @param capacity rounded up to a power of two
+     */
+    TokenRing(final int capacity) {
+        final var size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        slots = new Token[size];
+        mask = size - 1;
+    }
+
+    /**
+     * Called only by the producer.
+     *
+     * @return false when the ring is full
+     */
+    boolean offer(final Token token) {
+        final var position = tail.getPlain();
+        if (position - cachedHead == slots.length) {
+            cachedHead = head.getAcquire();
+            if (position - cachedHead == slots.length) {
+                return false;
+            }
+        }
+        slots[(int) position & mask] = token;
+        tail.setRelease(position + 1);
+        return true;
+    }
+
+    /**
+     * Called only by the consumer.
+     *
+     * @return null when the ring is empty
+     */
+    Token poll() {
+        final var position = head.getPlain();
+        if (position == cachedTail) {
+            cachedTail = tail.getAcquire();
+            if (position == cachedTail) {
+                return null;
+            }
+        }
+        final var index = (int) position & mask;
+        final var token = slots[index];
+        slots[index] = null;
+        head.setRelease(position + 1);
+        return token;
+    }
+}
@@ -0,0 +1,76 @@
+package com.declarative.music.interpreter;
+
+import com.declarative.music.interpreter.values.Variant;
+import com.declarative.music.parser.production.Parameter;
+import com.declarative.music.parser.production.type.InferenceType;
+import com.declarative.music.parser.production.type.SimpleType;
+import com.declarative.music.parser.production.type.Types;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+
+class ArgumentsTest {
+    private static final List<Parameter> PARAMETERS = List.of(
+            new Parameter(new SimpleType(Types.Int, null), "a"),
+            new Parameter(new InferenceType(null), "b")
+    );
+
+    @Test
+    void shouldBindArgumentsInOrder() {
+        // given
+        var args = List.<Variant<?>>of(new Variant<>(1, Integer.class), new Variant<>("x", String.class));
+
+        // when
+        var arguments = Arguments.bind(PARAMETERS, args, Function.identity(), false);
+
+        // then
+        assertThat(arguments).containsExactly(
+                Map.entry("a", args.get(0)),
+                Map.entry("b", args.get(1))
+        );
+    }
+
+    @Test
+    void shouldBindPipedValueToFirstParameter() {
+        // given
+        var piped = new Variant<>(1, Integer.class);
+        var args = List.<Variant<?>>of(new Variant<>(2.0, Double.class));
+
+        // when
+        var arguments = Arguments.bindInline(piped, PARAMETERS, args, Function.identity(), false);
+
+        // then
+        assertThat(arguments).containsKeys("a", "b");
+        assertThat(arguments.get("a")).isSameAs(piped);
+    }
+
+    @Test
+    void shouldRejectArgumentOfOtherType() {
+        // given
+        var args = List.<Variant<?>>of(new Variant<>(1.0, Double.class), new Variant<>(1, Integer.class));
+
+        // when
+        // then
+        assertThatThrownBy(() -> Arguments.bind(PARAMETERS, args, Function.identity(), false))
+                .hasMessage("INTERPRETATION ERROR wrong argument type expected Integer got Double");
+    }
+
+    @Test
+    void shouldRejectWrongNumberOfArguments() {
+        // given
+        var args = List.<Variant<?>>of(new Variant<>(1, Integer.class));
+
+        // when
+        // then
+        assertThatThrownBy(() -> Arguments.bind(PARAMETERS, args, Function.identity(), false))
+                .hasMessage("INTERPRETATION ERROR wrong number of arguments expected 2 got 1");
+        assertThatThrownBy(() -> Arguments.bindInline(args.getFirst(), PARAMETERS, List.of(), Function.identity(), false))
+                .hasMessage("INTERPRETATION ERROR wrong number of arguments expected 2 got 1");
+    }
+}
@@ -0,0 +1,50 @@
+package com.declarative.music.interpreter;
+
+import com.declarative.music.interpreter.values.Variant;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+
+class BuiltinsTest {
+
+    @Test
+    void shouldCallWithPlainValues() {
+        // given
+        var array = List.of(new Variant<>(3, Integer.class), new Variant<>(7, Integer.class));
+
+        // when
+        var sum = Builtins.call("sum", new Object[]{array});
+        var element = Builtins.call("at", new Object[]{array, 1});
+
+        // then
+        assertThat(sum).isEqualTo(10);
+        assertThat(element).isEqualTo(7);
+    }
+
+    @Test
+    void shouldRejectArgumentWithoutValue() {
+        // given
+        var arguments = new Object[]{null};
+
+        // when
+        // then
+        assertThatThrownBy(() -> Builtins.call("print", arguments))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("INTERPRETATION ERROR print argument value has no value");
+    }
+
+    @Test
+    void shouldRejectArgumentOfOtherTypeThanDeclared() {
+        // given
+        var arguments = new Object[]{List.of(), "1"};
+
+        // when
+        // then
+        assertThatThrownBy(() -> Builtins.call("at", arguments))
+                .isInstanceOf(ClassCastException.class);
+    }
+}
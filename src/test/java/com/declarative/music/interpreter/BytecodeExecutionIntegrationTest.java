@@ -0,0 +1,14 @@
+package com.declarative.music.interpreter;
+
+import com.declarative.music.interpreter.bytecode.BytecodeBackend;
+
+
+/**
+ * Runs {@link ExecutionIntegrationTest} against {@link Executor} with lambdas and loops compiled to bytecode.
+ */
+class BytecodeExecutionIntegrationTest extends ExecutionIntegrationTest {
+    @Override
+    protected Interpreter createInterpreter() {
+        return new Executor(new ContextManager(), new BytecodeBackend());
+    }
+}
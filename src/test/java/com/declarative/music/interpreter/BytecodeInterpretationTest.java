@@ -0,0 +1,14 @@
+package com.declarative.music.interpreter;
+
+import com.declarative.music.interpreter.bytecode.BytecodeBackend;
+
+
+/**
+ * Runs {@link InterpretationTest} against {@link Executor} with lambdas and loops compiled to bytecode.
+ */
+class BytecodeInterpretationTest extends InterpretationTest {
+    @Override
+    protected Interpreter createInterpreter(final ContextManager manager) {
+        return new Executor(manager, new BytecodeBackend());
+    }
+}
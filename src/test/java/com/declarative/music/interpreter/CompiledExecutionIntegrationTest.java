@@ -0,0 +1,57 @@
+package com.declarative.music.interpreter;
+
+import com.declarative.music.lexer.LexerImpl;
+import com.declarative.music.lexer.token.Position;
+import com.declarative.music.parser.Parser;
+import com.declarative.music.parser.exception.ParsingException;
+import com.declarative.music.parser.production.Program;
+import com.declarative.music.parser.production.Statement;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+
+/**
+ * Runs {@link ExecutionIntegrationTest} against {@link CompiledExecutor}.
+ */
+class CompiledExecutionIntegrationTest extends ExecutionIntegrationTest {
+    @Override
+    protected Interpreter createInterpreter() {
+        return new CompiledExecutor();
+    }
+
+    @Test
+    void shouldRunStatementsBeforeOneFailingToCompile() throws ParsingException, IOException {
+        // given
+        final var code = """
+                Int a = 1;
+                a += 2;
+                """;
+        final var statements = new ArrayList<>(new Parser(new LexerImpl(new StringReader(code))).parserProgram().statements());
+        statements.add(new Statement() {
+            @Override
+            public void accept(final Visitor visitor) {
+                if (visitor instanceof ClosureCompiler) {
+                    throw new UnsupportedOperationException("INTERPRETATION ERROR");
+                }
+            }
+
+            @Override
+            public Position position() {
+                return new Position(3, 1);
+            }
+        });
+        var interpreter = createInterpreter();
+
+        // when
+        // then
+        assertThatThrownBy(() -> new Program(statements).accept(interpreter))
+                .isInstanceOf(UnsupportedOperationException.class);
+        assertThat(interpreter.getManager().getGlobalFrame().getValue("a").orElseThrow().getValue()).isEqualTo(3);
+    }
+}
@@ -0,0 +1,12 @@
+package com.declarative.music.interpreter;
+
+
+/**
+ * Runs {@link InterpretationTest} against {@link CompiledExecutor}.
+ */
+class CompiledInterpretationTest extends InterpretationTest {
+    @Override
+    protected Interpreter createInterpreter(final ContextManager manager) {
+        return new CompiledExecutor(manager);
+    }
+}
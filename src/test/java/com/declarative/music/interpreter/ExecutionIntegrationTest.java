@@ -2,6 +2,9 @@ package com.declarative.music.interpreter;
 
 import com.declarative.music.interpreter.tree.GroupNode;
 import com.declarative.music.interpreter.tree.SimpleNode;
+import com.declarative.music.interpreter.values.ArrayValue;
+import com.declarative.music.interpreter.values.DoubleArray;
+import com.declarative.music.interpreter.values.IntArray;
 import com.declarative.music.interpreter.values.Variant;
 import com.declarative.music.interpreter.values.template.IndexTree;
 import com.declarative.music.lexer.LexerImpl;
@@ -19,6 +22,10 @@ import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
 
 
 public class ExecutionIntegrationTest {
+    protected Interpreter createInterpreter() {
+        return new Executor();
+    }
+
     @Test
     void shouldCallFunction() throws ParsingException, IOException {
         // given
@@ -31,7 +38,7 @@ public class ExecutionIntegrationTest {
                 """;
         final var lexer = new LexerImpl(new StringReader(code));
         final var parser = new Parser(lexer);
-        var interpreter = new Executor();
+        var interpreter = createInterpreter();
 
         // when
         parser.parserProgram().accept(interpreter);
@@ -51,7 +58,7 @@ public class ExecutionIntegrationTest {
                 """;
         final var lexer = new LexerImpl(new StringReader(code));
         final var parser = new Parser(lexer);
-        var interpreter = new Executor();
+        var interpreter = createInterpreter();
 
         // when
         parser.parserProgram().accept(interpreter);
@@ -83,7 +90,7 @@ public class ExecutionIntegrationTest {
                 """;
         final var lexer = new LexerImpl(new StringReader(code));
         final var parser = new Parser(lexer);
-        var interpreter = new Executor();
+        var interpreter = createInterpreter();
 
         // when
         parser.parserProgram().accept(interpreter);
@@ -94,6 +101,67 @@ public class ExecutionIntegrationTest {
         Assertions.assertEquals(4, interpreter.getManager().getGlobalFrame().getValue("j").orElseThrow().getValue());
     }
 
+    @Test
+    void shouldExecuteElseBranch() throws ParsingException, IOException {
+        // given
+        final var code = """
+                Int a = 0;
+                Int b = 0;
+                for (Int i in 0->4) {
+                    if (i > 1) {
+                        a += i;
+                    } else if (i == 1) {
+                        b += 10;
+                    } else {
+                        b += 1;
+                    }
+                }
+                if (a > 100) {
+                    a = 0;
+                } else {
+                    b *= 2;
+                }
+                """;
+        final var lexer = new LexerImpl(new StringReader(code));
+        final var parser = new Parser(lexer);
+        var interpreter = createInterpreter();
+
+        // when
+        parser.parserProgram().accept(interpreter);
+
+        // then
+        Assertions.assertEquals(5, interpreter.getManager().getGlobalFrame().getValue("a").orElseThrow().getValue());
+        Assertions.assertEquals(22, interpreter.getManager().getGlobalFrame().getValue("b").orElseThrow().getValue());
+    }
+
+    @Test
+    void shouldAliasVariable_WhenDeclaredFromVariable() throws ParsingException, IOException {
+        // given
+        final var code = """
+                Int total = 0;
+                for (Int i in 1->4) {
+                    Int tt = total;
+                    tt += 10;
+                }
+                let f = with(Int n)->Int{
+                    Int a = n;
+                    a += 1;
+                    return n;
+                };
+                Int x = f(1);
+                """;
+        final var lexer = new LexerImpl(new StringReader(code));
+        final var parser = new Parser(lexer);
+        var interpreter = createInterpreter();
+
+        // when
+        parser.parserProgram().accept(interpreter);
+
+        // then
+        Assertions.assertEquals(30, interpreter.getManager().getGlobalFrame().getValue("total").orElseThrow().getValue());
+        Assertions.assertEquals(2, interpreter.getManager().getGlobalFrame().getValue("x").orElseThrow().getValue());
+    }
+
     @Test
     void shouldHandleVariableShadowing() throws ParsingException, IOException {
         // given
@@ -107,7 +175,7 @@ public class ExecutionIntegrationTest {
                 """;
         final var lexer = new LexerImpl(new StringReader(code));
         final var parser = new Parser(lexer);
-        var interpreter = new Executor();
+        var interpreter = createInterpreter();
 
         // when
         parser.parserProgram().accept(interpreter);
@@ -129,7 +197,7 @@ public class ExecutionIntegrationTest {
                 """;
         final var lexer = new LexerImpl(new StringReader(code));
         final var parser = new Parser(lexer);
-        var interpreter = new Executor();
+        var interpreter = createInterpreter();
 
         // when
         parser.parserProgram().accept(interpreter);
@@ -155,7 +223,7 @@ public class ExecutionIntegrationTest {
                 """;
         final var lexer = new LexerImpl(new StringReader(code));
         final var parser = new Parser(lexer);
-        var interpreter = new Executor();
+        var interpreter = createInterpreter();
 
         // when
         parser.parserProgram().accept(interpreter);
@@ -180,7 +248,7 @@ public class ExecutionIntegrationTest {
                 """;
         final var lexer = new LexerImpl(new StringReader(code));
         final var parser = new Parser(lexer);
-        var interpreter = new Executor();
+        var interpreter = createInterpreter();
 
         // when
         parser.parserProgram().accept(interpreter);
@@ -206,7 +274,7 @@ public class ExecutionIntegrationTest {
                 """;
         final var lexer = new LexerImpl(new StringReader(code));
         final var parser = new Parser(lexer);
-        var interpreter = new Executor();
+        var interpreter = createInterpreter();
 
         // when
         parser.parserProgram().accept(interpreter);
@@ -230,7 +298,7 @@ public class ExecutionIntegrationTest {
                 """;
         final var lexer = new LexerImpl(new StringReader(code));
         final var parser = new Parser(lexer);
-        var interpreter = new Executor();
+        var interpreter = createInterpreter();
 
         // when
         parser.parserProgram().accept(interpreter);
@@ -255,7 +323,7 @@ public class ExecutionIntegrationTest {
                 """;
         final var lexer = new LexerImpl(new StringReader(code));
         final var parser = new Parser(lexer);
-        var interpreter = new Executor();
+        var interpreter = createInterpreter();
         // when
         parser.parserProgram().accept(interpreter);
 
@@ -272,7 +340,7 @@ public class ExecutionIntegrationTest {
                 """;
         final var lexer = new LexerImpl(new StringReader(code));
         final var parser = new Parser(lexer);
-        var interpreter = new Executor();
+        var interpreter = createInterpreter();
         // when
         parser.parserProgram().accept(interpreter);
 
@@ -294,7 +362,7 @@ public class ExecutionIntegrationTest {
                 """;
         final var lexer = new LexerImpl(new StringReader(code));
         final var parser = new Parser(lexer);
-        var interpreter = new Executor();
+        var interpreter = createInterpreter();
 
         // when
         parser.parserProgram().accept(interpreter);
@@ -308,7 +376,7 @@ public class ExecutionIntegrationTest {
                 """;
         final var lexer = new LexerImpl(new StringReader(code));
         final var parser = new Parser(lexer);
-        var interpreter = new Executor();
+        var interpreter = createInterpreter();
 
         // when
         parser.parserProgram().accept(interpreter);
@@ -322,7 +390,7 @@ public class ExecutionIntegrationTest {
                 """;
         final var lexer = new LexerImpl(new StringReader(code));
         final var parser = new Parser(lexer);
-        var interpreter = new Executor();
+        var interpreter = createInterpreter();
 
         // when
         parser.parserProgram().accept(interpreter);
@@ -336,7 +404,7 @@ public class ExecutionIntegrationTest {
                 """;
         final var lexer = new LexerImpl(new StringReader(code));
         final var parser = new Parser(lexer);
-        var interpreter = new Executor();
+        var interpreter = createInterpreter();
 
         // when
         parser.parserProgram().accept(interpreter);
@@ -356,7 +424,7 @@ public class ExecutionIntegrationTest {
                 """;
         final var lexer = new LexerImpl(new StringReader(code));
         final var parser = new Parser(lexer);
-        var interpreter = new Executor();
+        var interpreter = createInterpreter();
 
         // when
         parser.parserProgram().accept(interpreter);
@@ -375,7 +443,7 @@ public class ExecutionIntegrationTest {
                 """;
         final var lexer = new LexerImpl(new StringReader(code));
         final var parser = new Parser(lexer);
-        var interpreter = new Executor();
+        var interpreter = createInterpreter();
 
         // when
         parser.parserProgram().accept(interpreter);
@@ -399,7 +467,7 @@ public class ExecutionIntegrationTest {
                 .appendToSequence(0);
         final var lexer = new LexerImpl(new StringReader(code));
         final var parser = new Parser(lexer);
-        var interpreter = new Executor();
+        var interpreter = createInterpreter();
 
         // when
         parser.parserProgram().accept(interpreter);
@@ -420,7 +488,7 @@ public class ExecutionIntegrationTest {
                 """;
         final var lexer = new LexerImpl(new StringReader(code));
         final var parser = new Parser(lexer);
-        var interpreter = new Executor();
+        var interpreter = createInterpreter();
 
         // when
         parser.parserProgram().accept(interpreter);
@@ -441,7 +509,7 @@ public class ExecutionIntegrationTest {
                 """;
         final var lexer = new LexerImpl(new StringReader(code));
         final var parser = new Parser(lexer);
-        var interpreter = new Executor();
+        var interpreter = createInterpreter();
 
         // when
         assertThatThrownBy(() -> parser.parserProgram().accept(interpreter))
@@ -463,7 +531,7 @@ public class ExecutionIntegrationTest {
                 """;
         final var lexer = new LexerImpl(new StringReader(code));
         final var parser = new Parser(lexer);
-        var interpreter = new Executor();
+        var interpreter = createInterpreter();
 
         // when
         parser.parserProgram().accept(interpreter);
@@ -490,9 +558,134 @@ public class ExecutionIntegrationTest {
                 """;
         final var lexer = new LexerImpl(new StringReader(code));
         final var parser = new Parser(lexer);
-        var interpreter = new Executor();
+        var interpreter = createInterpreter();
+
+        // when
+        parser.parserProgram().accept(interpreter);
+    }
+
+    @Test
+    void shouldResolveVariables_WhenRecursiveCallWithShadowing() throws ParsingException, IOException {
+        // given
+        final var code = """
+                Int a = 10;
+                let f = with(Int n)->Int{
+                    if(n == 0){
+                        return a;
+                    }
+                    let a = n;
+                    return a + f(n - 1);
+                };
+                Int d = f(3);
+                """;
+        final var lexer = new LexerImpl(new StringReader(code));
+        final var parser = new Parser(lexer);
+        var interpreter = createInterpreter();
 
         // when
         parser.parserProgram().accept(interpreter);
+
+        // then
+        Assertions.assertEquals(16, interpreter.getManager().getGlobalFrame().getValue("d").orElseThrow().getValue());
+        Assertions.assertEquals(10, interpreter.getManager().getGlobalFrame().getValue("a").orElseThrow().getValue());
+    }
+
+    @Test
+    void shouldUseRangeWithoutMaterializingIt() throws ParsingException, IOException {
+        // given
+        final var code = """
+                let range = 0->2000000000;
+                Int length = range |> len;
+                Int last = at(range, length - 1);
+                Int acc = 0;
+                for(Int i in 1->1001){
+                    acc = acc + i;
+                }
+                let arr = [x*2 <| x 0->3];
+                """;
+        final var lexer = new LexerImpl(new StringReader(code));
+        final var parser = new Parser(lexer);
+        var interpreter = createInterpreter();
+
+        // when
+        parser.parserProgram().accept(interpreter);
+
+        // then
+        var frame = interpreter.getManager().getGlobalFrame();
+        Assertions.assertEquals(2000000000, frame.getValue("length").orElseThrow().getValue());
+        Assertions.assertEquals(1999999999, frame.getValue("last").orElseThrow().getValue());
+        Assertions.assertEquals(500500, frame.getValue("acc").orElseThrow().getValue());
+        Assertions.assertEquals(List.of(
+                new Variant<>(0, Integer.class),
+                new Variant<>(2, Integer.class),
+                new Variant<>(4, Integer.class)
+        ), frame.getValue("arr").orElseThrow().getValue());
+    }
+
+    @Test
+    void shouldKeepNumericArraysAsPrimitives() throws ParsingException, IOException {
+        // given
+        final var code = """
+                Int a = 7;
+                let ints = [1, 2, 3];
+                let doubles = [x as Double / 2.0 <| x ints];
+                let mixed = [1, a];
+                Int second = at(ints, 1);
+                Double last = at(doubles, len(doubles) - 1);
+                """;
+        final var lexer = new LexerImpl(new StringReader(code));
+        final var parser = new Parser(lexer);
+        var interpreter = createInterpreter();
+
+        // when
+        parser.parserProgram().accept(interpreter);
+
+        // then
+        var frame = interpreter.getManager().getGlobalFrame();
+        assertThat(frame.getValue("ints").orElseThrow().getValue()).isInstanceOf(IntArray.class);
+        assertThat(frame.getValue("doubles").orElseThrow().getValue()).isInstanceOf(DoubleArray.class);
+        assertThat(frame.getValue("mixed").orElseThrow().getValue()).isInstanceOf(ArrayValue.class);
+        Assertions.assertEquals(2, frame.getValue("second").orElseThrow().getValue());
+        Assertions.assertEquals(1.5, frame.getValue("last").orElseThrow().getValue());
+        Assertions.assertEquals(List.of(
+                new Variant<>(0.5, Double.class),
+                new Variant<>(1.0, Double.class),
+                new Variant<>(1.5, Double.class)
+        ), frame.getValue("doubles").orElseThrow().getValue());
+    }
+
+    @Test
+    void shouldComputeNumericArrayFunctions() throws ParsingException, IOException {
+        // given
+        final var code = """
+                Int a = 9;
+                let scale = [4, 2, 7, 2];
+                let maxLen = [scale |> len, a] |> max;
+                let lowestNote = scale |> argmin;
+                let highestNote = argmax(scale);
+                let total = sum(scale) + min(scale);
+                let average = sum([0.5, 1.5, 4.0]) / 3.0;
+                let sorted = [(x as Double) * 1.5 <| x scale] |> sort;
+                """;
+        final var lexer = new LexerImpl(new StringReader(code));
+        final var parser = new Parser(lexer);
+        var interpreter = createInterpreter();
+
+        // when
+        parser.parserProgram().accept(interpreter);
+
+        // then
+        var frame = interpreter.getManager().getGlobalFrame();
+        Assertions.assertEquals(9, frame.getValue("maxLen").orElseThrow().getValue());
+        Assertions.assertEquals(1, frame.getValue("lowestNote").orElseThrow().getValue());
+        Assertions.assertEquals(2, frame.getValue("highestNote").orElseThrow().getValue());
+        Assertions.assertEquals(17, frame.getValue("total").orElseThrow().getValue());
+        Assertions.assertEquals(2.0, frame.getValue("average").orElseThrow().getValue());
+        Assertions.assertEquals(List.of(
+                new Variant<>(3.0, Double.class),
+                new Variant<>(3.0, Double.class),
+                new Variant<>(6.0, Double.class),
+                new Variant<>(10.5, Double.class)
+        ), frame.getValue("sorted").orElseThrow().getValue());
     }
 }
@@ -69,4 +69,24 @@ class FrameTest
         Assertions.assertFalse(tested.contains(varName));
         Assertions.assertEquals(tested.getValue("a").orElseThrow().getValue(), 1);
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldGetVariableBySlot_OnlyWhenNameMatches()
+    {
+        // given
+        tested.saveValue("a", new VariableReference<>(1));
+        tested.enterScope();
+        tested.saveValue("b", new VariableReference<>(2));
+
+        // when
+        var slotValue = tested.get(1, "b");
+        var wrongName = tested.get(1, "a");
+        tested.leaveScope();
+        var leftScope = tested.get(1, "b");
+
+        // then
+        Assertions.assertEquals(2, slotValue.getValue());
+        Assertions.assertNull(wrongName);
+        Assertions.assertNull(leftScope);
+    }
+}
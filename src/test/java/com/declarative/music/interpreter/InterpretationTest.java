@@ -40,7 +40,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 
 
 public class InterpretationTest {
-    private Executor tested;
+    private Interpreter tested;
     private static final Position POS = new Position(0, 0);
     private static final String VAR_NAME = "testVar";
 
@@ -74,9 +74,13 @@ public class InterpretationTest {
         );
     }
 
+    protected Interpreter createInterpreter(final ContextManager manager) {
+        return new Executor(manager);
+    }
+
     @BeforeEach
     void init() {
-        tested = new Executor();
+        tested = createInterpreter(new ContextManager());
     }
 
     //region Arithmetic Expression
@@ -349,7 +353,7 @@ public class InterpretationTest {
         var variableValue = 1;
         var newValue = 2;
         var frame = new Frame(new HashMap<>(Map.of(variableName, new VariableReference<Integer>(variableValue))));
-        tested = new Executor(new ContextManager(frame));
+        tested = createInterpreter(new ContextManager(frame));
         var stmt = new AssigmentStatement(variableName, new IntLiteral(newValue, POS), POS);
 
         // when
@@ -366,7 +370,7 @@ public class InterpretationTest {
         var variableValue = 1;
         var newValue = 2;
         var frame = new Frame(new HashMap<>(Map.of(variableName, new VariableReference<Integer>(variableValue))));
-        tested = new Executor(new ContextManager(frame));
+        tested = createInterpreter(new ContextManager(frame));
         var stmt = new IfStatement(
                 new EqExpression(new IntLiteral(1, POS), new IntLiteral(1, POS)),
                 new Block(List.of(new AssigmentStatement(variableName, new IntLiteral(newValue, POS), POS)), POS),
@@ -399,7 +403,7 @@ public class InterpretationTest {
         var variableValue = 1;
         var newValue = "a";
         var frame = new Frame(new HashMap<>(Map.of(variableName, new VariableReference<Integer>(variableValue))));
-        tested = new Executor(new ContextManager(frame));
+        tested = createInterpreter(new ContextManager(frame));
         var stmt = new AssigmentStatement(variableName, new StringLiter(newValue, POS), POS);
 
         // when
@@ -459,7 +463,7 @@ public class InterpretationTest {
                 new Block(List.of(new ReturnStatement(new com.declarative.music.parser.production.expression.VariableReference(variableName, POS), POS)),
                         POS),
                 POS
-        ), new Frame());
+        ));
         tested.getManager().insert("fun", new Variant<>(lambda, LambdaClousure.class));
         var stmt = new PipeExpression(new IntLiteral(1, POS), new InlineFuncCall("fun", List.of(), POS));
 
@@ -4,28 +4,89 @@ import com.declarative.music.lexer.LexerImpl;
 import com.declarative.music.parser.Parser;
 import com.declarative.music.parser.exception.ParsingException;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import javax.sound.midi.InvalidMidiDataException;
+import javax.sound.midi.MidiSystem;
 import java.io.IOException;
 import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
 
 
 public class MidiIOTest {
+    private static final String SONG = """
+            let a =[C, E, G]{dur=q, oct=4};
+            let temp = 0 & 1 |2 | 0 & 2 |0;
+            let temp2 = 2 & 0 & 1 | 0 | 2 | 0 |0;
+            let b = temp | temp & temp2 | temp & temp2;
+            let musicA = b>>a;
+            let musicB = b >>a |> transpose 2;
+            musicA | musicB |> song 125, "Guitar" |> export "%s";
+            """;
+
     @Test
     void shouldExportNotes() throws ParsingException, IOException {
         // given
-        final var code = """
-                let a =[C, E, G]{dur=q, oct=4};
-                let temp = 0 & 1 |2 | 0 & 2 |0;
-                let temp2 = 2 & 0 & 1 | 0 | 2 | 0 |0;
-                let b = temp | temp & temp2 | temp & temp2;
-                let musicA = b>>a;
-                let musicB = b >>a |> transpose 2;
-                musicA | musicB |> song 125, "Guitar" |> export "src/test/resources/song.mid";
-                """;
+        final var code = SONG.formatted("src/test/resources/song.mid");
         final var lexer = new LexerImpl(new StringReader(code));
         final var parser = new Parser(lexer);
         var interpreter = new Executor();
 
         parser.parserProgram().accept(interpreter);
     }
+
+    @Test
+    void shouldExportSameBytesAsMidiSystem(@TempDir final Path directory) throws ParsingException, IOException {
+        // given
+        final var file = directory.resolve("song.mid");
+        final var code = SONG.formatted(file.toString().replace("\\", "/"));
+        final var parser = new Parser(new LexerImpl(new StringReader(code)));
+
+        // when
+        parser.parserProgram().accept(new Executor());
+
+        // then
+        assertThat(Files.readAllBytes(file)).isEqualTo(Files.readAllBytes(Path.of("src/test/resources/song.mid")));
+    }
+
+    @Test
+    void shouldExportArrayOfSongsAsTracks(@TempDir final Path directory) throws ParsingException, IOException, InvalidMidiDataException {
+        // given
+        final var file = directory.resolve("tracks.mid");
+        final var code = """
+                let a = [C, E, G]{dur=q, oct=4};
+                let melody = 0 | 1 | 2;
+                let chords = 1 & 0 | 2;
+                let x = melody >> a |> song 120, "Guitar";
+                let y = chords >> a |> transpose -2 |> song 120, "Piano";
+                [x, y] |> export "%s";
+                """.formatted(file.toString().replace("\\", "/"));
+        final var parser = new Parser(new LexerImpl(new StringReader(code)));
+
+        // when
+        parser.parserProgram().accept(new Executor());
+
+        // then
+        assertThat(MidiSystem.getSequence(file.toFile()).getTracks()).hasSize(3);
+    }
+
+    @Test
+    void shouldOpenExportedTrack(@TempDir final Path directory) throws ParsingException, IOException {
+        // given
+        final var file = directory.resolve("song.mid");
+        final var code = """
+                let a = open("src/test/resources/song.mid", 1);
+                a |> song 125, "Guitar" |> export "%s";
+                """.formatted(file.toString().replace("\\", "/"));
+        final var parser = new Parser(new LexerImpl(new StringReader(code)));
+
+        // when
+        parser.parserProgram().accept(new Executor());
+
+        // then
+        assertThat(Files.readAllBytes(file)).isEqualTo(Files.readAllBytes(Path.of("src/test/resources/song.mid")));
+    }
 }
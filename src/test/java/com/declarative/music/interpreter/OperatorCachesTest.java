@@ -0,0 +1,64 @@
+package com.declarative.music.interpreter;
+
+import com.declarative.music.lexer.token.Position;
+import com.declarative.music.parser.production.expression.arithmetic.AddExpression;
+import com.declarative.music.parser.production.literal.IntLiteral;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+class OperatorCachesTest {
+
+    private static AddExpression add(final int value) {
+        return new AddExpression(new IntLiteral(value, new Position(0, 0)), new IntLiteral(1, new Position(0, 2)));
+    }
+
+    @Test
+    void shouldReturnSameCache_WhenSameNode() {
+        // given
+        var tested = new OperatorCaches();
+        var node = add(1);
+
+        // when
+        var cache = tested.get(node);
+
+        // then
+        assertThat(tested.get(node)).isSameAs(cache);
+    }
+
+    @Test
+    void shouldReturnDifferentCaches_WhenNodesEqual() {
+        // given
+        var tested = new OperatorCaches();
+        var first = add(1);
+        var second = add(1);
+
+        // when
+        var cache = tested.get(first);
+
+        // then
+        assertThat(first).isEqualTo(second);
+        assertThat(tested.get(second)).isNotSameAs(cache);
+        assertThat(tested.size()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldKeepCaches_WhenTableGrows() {
+        // given
+        var tested = new OperatorCaches();
+        var nodes = IntStream.range(0, 1000).mapToObj(OperatorCachesTest::add).toList();
+        var caches = nodes.stream().map(tested::get).toList();
+
+        // when
+        var found = nodes.stream().map(tested::get).toList();
+
+        // then
+        assertThat(tested.size()).isEqualTo(1000);
+        for (int i = 0; i < nodes.size(); i++) {
+            assertThat(found.get(i)).isSameAs(caches.get(i));
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.declarative.music.interpreter;
+
+import com.declarative.music.lexer.LexerImpl;
+import com.declarative.music.parser.Parser;
+import com.declarative.music.parser.exception.ParsingException;
+import com.declarative.music.parser.production.Declaration;
+import com.declarative.music.parser.production.ReturnStatement;
+import com.declarative.music.parser.production.expression.VariableReference;
+import com.declarative.music.parser.production.expression.arithmetic.AddExpression;
+import com.declarative.music.parser.production.expression.lambda.LambdaExpression;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+class ScopeResolverTest {
+
+    @Test
+    void shouldResolveLocalAndCapturedSlots() throws ParsingException, IOException {
+        // given
+        final var code = """
+                Int a = 1;
+                let f = with(Int b)->Int{
+                    return a + b;
+                };
+                """;
+        final var program = new Parser(new LexerImpl(new StringReader(code))).parserProgram();
+        var tested = new ScopeResolver();
+
+        // when
+        program.accept(tested);
+
+        // then
+        var lambda = (LambdaExpression) ((Declaration) program.statements().get(1)).value();
+        var returned = (ReturnStatement) lambda.instructions().statements().getFirst();
+        var add = (AddExpression) returned.value();
+        assertThat(tested.getSlots().get((VariableReference) add.left())).isEqualTo(new Slot(Slot.CAPTURE, 0));
+        assertThat(tested.getSlots().get((VariableReference) add.right())).isEqualTo(new Slot(Slot.LOCAL, 0));
+        assertThat(tested.getCaptures().get(lambda)).containsExactly(new Capture("a", new Slot(Slot.LOCAL, 0)));
+    }
+
+    @Test
+    void shouldNotResolve_WhenVariableDeclaredAfterLambda() throws ParsingException, IOException {
+        // given
+        final var code = """
+                let f = with()->Int{
+                    return a;
+                };
+                Int a = 1;
+                """;
+        final var program = new Parser(new LexerImpl(new StringReader(code))).parserProgram();
+        var tested = new ScopeResolver();
+
+        // when
+        program.accept(tested);
+
+        // then
+        var lambda = (LambdaExpression) ((Declaration) program.statements().getFirst()).value();
+        var returned = (ReturnStatement) lambda.instructions().statements().getFirst();
+        assertThat(tested.getSlots()).doesNotContainKey(returned.value());
+        assertThat(tested.getCaptures().get(lambda)).isEmpty();
+    }
+
+    @Test
+    void shouldCaptureThroughEnclosingLambda() throws ParsingException, IOException {
+        // given
+        final var code = """
+                Int a = 1;
+                Int b = 2;
+                let f = with()->Int{
+                    let g = with()->Int{
+                        return b;
+                    };
+                    return g();
+                };
+                """;
+        final var program = new Parser(new LexerImpl(new StringReader(code))).parserProgram();
+        var tested = new ScopeResolver();
+
+        // when
+        program.accept(tested);
+
+        // then
+        var outer = (LambdaExpression) ((Declaration) program.statements().get(2)).value();
+        var inner = (LambdaExpression) ((Declaration) outer.instructions().statements().getFirst()).value();
+        assertThat(tested.getCaptures().get(outer)).containsExactly(new Capture("b", new Slot(Slot.LOCAL, 1)));
+        assertThat(tested.getCaptures().get(inner)).containsExactly(new Capture("b", new Slot(Slot.CAPTURE, 0)));
+    }
+}
@@ -0,0 +1,83 @@
+package com.declarative.music.interpreter;
+
+import com.declarative.music.lexer.LexerImpl;
+import com.declarative.music.parser.Parser;
+import com.declarative.music.parser.exception.ParsingException;
+import com.declarative.music.parser.production.Declaration;
+import com.declarative.music.parser.production.Parameter;
+import com.declarative.music.parser.production.Parameters;
+import com.declarative.music.parser.production.expression.arithmetic.AddExpression;
+import com.declarative.music.parser.production.expression.lambda.FunctionCall;
+import com.declarative.music.parser.production.type.SimpleType;
+import com.declarative.music.parser.production.type.Types;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+class SpecializerTest {
+
+    @Test
+    void shouldSpecialize_WhenOperandTypesProven() throws ParsingException, IOException {
+        // given
+        final var code = """
+                Int a = 2;
+                Int b = a * 3 + 1;
+                """;
+        final var program = new Parser(new LexerImpl(new StringReader(code))).parserProgram();
+        var tested = new Specializer(Map.of());
+
+        // when
+        program.accept(tested);
+
+        // then
+        var add = (AddExpression) ((Declaration) program.statements().get(1)).value();
+        assertThat(tested.getCaches().get(add).isSpecialized()).isTrue();
+        assertThat(tested.getCaches().get(add.left()).isSpecialized()).isTrue();
+    }
+
+    @Test
+    void shouldNotSpecialize_WhenOperandTypeUnknown() throws ParsingException, IOException {
+        // given
+        final var code = """
+                let f = with()->Int{
+                    return 1;
+                };
+                Int a = f();
+                Int b = a + 1;
+                """;
+        final var program = new Parser(new LexerImpl(new StringReader(code))).parserProgram();
+        var tested = new Specializer(Map.of());
+
+        // when
+        program.accept(tested);
+
+        // then
+        var add = (AddExpression) ((Declaration) program.statements().get(2)).value();
+        assertThat(tested.getCaches().get(add).isSpecialized()).isFalse();
+    }
+
+    @Test
+    void shouldProveBuiltinCall_WhenArgumentTypesMatch() throws ParsingException, IOException {
+        // given
+        final var code = """
+                panic("a" + "b");
+                panic(1);
+                """;
+        final var program = new Parser(new LexerImpl(new StringReader(code))).parserProgram();
+        var tested = new Specializer(Map.of("panic", new Parameters(List.of(
+                new Parameter(new SimpleType(Types.String, null), "msg")
+        ))));
+
+        // when
+        program.accept(tested);
+
+        // then
+        assertThat(tested.getProvenCalls()).containsExactly((FunctionCall) program.statements().getFirst());
+    }
+}
@@ -0,0 +1,242 @@
+package com.declarative.music.interpreter.bytecode;
+
+import com.declarative.music.interpreter.ContextManager;
+import com.declarative.music.interpreter.Executor;
+import com.declarative.music.lexer.LexerImpl;
+import com.declarative.music.parser.Parser;
+import com.declarative.music.parser.exception.ParsingException;
+import com.declarative.music.parser.production.Declaration;
+import com.declarative.music.parser.production.ForStatement;
+import com.declarative.music.parser.production.Program;
+import com.declarative.music.parser.production.expression.lambda.LambdaExpression;
+import com.declarative.music.interpreter.values.IntArray;
+import com.declarative.music.interpreter.values.VariableReference;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+class BytecodeBackendTest {
+    private final BytecodeBackend tested = new BytecodeBackend();
+
+    private static Program parse(final String code) throws ParsingException, IOException {
+        return new Parser(new LexerImpl(new StringReader(code))).parserProgram();
+    }
+
+    private static Object globalValue(final ContextManager manager, final String name) {
+        return manager.getGlobalFrame().getValue(name).orElseThrow().getValue();
+    }
+
+    @Test
+    void shouldCompileLoopOverRange() throws ParsingException, IOException {
+        // given
+        var program = parse("""
+                Int sum = 0;
+                Double product = 1.0;
+                for (Int i in 0->10) {
+                    if (i % 2 == 0 && i != 4) {
+                        sum += i ^ 2;
+                    } else {
+                        product *= (i as Double) / 2.0;
+                    }
+                }
+                """);
+        var manager = new ContextManager();
+
+        // when
+        program.accept(new Executor(manager, tested));
+
+        // then
+        var loop = (ForStatement) program.statements().get(2);
+        assertThat(tested.compile(loop, name -> null)).isPresent();
+        assertThat(globalValue(manager, "sum")).isEqualTo(0 + 4 + 36 + 64);
+        assertThat(globalValue(manager, "product")).isEqualTo(0.5 * 1.5 * 2.0 * 2.5 * 3.5 * 4.5);
+    }
+
+    @Test
+    void shouldRunIfElseAsInterpreter() throws ParsingException, IOException {
+        // given
+        final var code = """
+                Int sum = 0;
+                Int count = 0;
+                for (Int i in 0->12) {
+                    if (i % 3 == 0) {
+                        sum += i;
+                    } else if (i % 3 == 1) {
+                        count += 1;
+                    } else {
+                        sum -= 1;
+                    }
+                }
+                """;
+        var interpreted = new ContextManager();
+        var compiled = new ContextManager();
+
+        // when
+        parse(code).accept(new Executor(interpreted));
+        var program = parse(code);
+        program.accept(new Executor(compiled, tested));
+
+        // then
+        var loop = (ForStatement) program.statements().get(2);
+        assertThat(tested.compile(loop, name -> null)).isPresent();
+        assertThat(globalValue(compiled, "sum")).isEqualTo(globalValue(interpreted, "sum")).isEqualTo(0 + 3 + 6 + 9 - 4);
+        assertThat(globalValue(compiled, "count")).isEqualTo(globalValue(interpreted, "count")).isEqualTo(4);
+    }
+
+    @Test
+    void shouldCompileLambdaReturningValue() throws ParsingException, IOException {
+        // given
+        var program = parse("""
+                Int offset = 3;
+                let f = with(Int a, Double b)->Int{
+                    Int result = 0;
+                    for (Int i in 0->a) {
+                        result += offset;
+                    }
+                    return result + a + (b as Int);
+                };
+                Int x = f(4, 2.5);
+                """);
+        var manager = new ContextManager();
+
+        // when
+        program.accept(new Executor(manager, tested));
+
+        // then
+        var lambda = (LambdaExpression) ((Declaration) program.statements().get(1)).value();
+        assertThat(tested.compile(lambda, name -> null)).isPresent();
+        assertThat(globalValue(manager, "x")).isEqualTo(4 + 4 * 3 + 2);
+    }
+
+    @Test
+    void shouldCompileLoopOverPrimitiveArrays() throws ParsingException, IOException {
+        // given
+        var program = parse("""
+                Int sum = 0;
+                Double total = 0.0;
+                Int count = 0;
+                let values = [x * 3 <| x 0->5];
+                for (Int i in 0->2) {
+                    let halves = [(v as Double) / 2.0 <| v values];
+                    for (Double half in halves) {
+                        total += half;
+                    }
+                    for (Int v in values) {
+                        sum += v;
+                    }
+                    count = len(halves) + at(values, 4) + at(halves, 1) as Int;
+                }
+                """);
+        var manager = new ContextManager();
+
+        // when
+        program.accept(new Executor(manager, tested));
+
+        // then
+        var loop = (ForStatement) program.statements().get(4);
+        assertThat(tested.compile(loop, name -> null)).isPresent();
+        assertThat(globalValue(manager, "values")).isInstanceOf(IntArray.class);
+        assertThat(globalValue(manager, "sum")).isEqualTo(2 * 30);
+        assertThat(globalValue(manager, "total")).isEqualTo(2 * 15.0);
+        assertThat(globalValue(manager, "count")).isEqualTo(5 + 12 + 1);
+    }
+
+    @Test
+    void shouldCompileNumericArrayFunctions() throws ParsingException, IOException {
+        // given
+        var program = parse("""
+                Int result = 0;
+                Double spread = 0.0;
+                let values = [5, 1, 4];
+                for (Int i in 0->3) {
+                    let scaled = [(v * i) as Double <| v values];
+                    spread += max(scaled) - min(scaled);
+                    result += sum(values) + argmin(values) * 10 + at(values |> sort, 2) * 100 + argmax(scaled);
+                }
+                """);
+        var manager = new ContextManager();
+
+        // when
+        program.accept(new Executor(manager, tested));
+
+        // then
+        var loop = (ForStatement) program.statements().get(3);
+        assertThat(tested.compile(loop, name -> null)).isPresent();
+        assertThat(globalValue(manager, "spread")).isEqualTo(0.0 + 4.0 + 8.0);
+        assertThat(globalValue(manager, "result")).isEqualTo(3 * (10 + 10 + 500) + 0 + 0 + 0);
+    }
+
+    @Test
+    void shouldLeaveUnsupportedLambdaToInterpreter() throws ParsingException, IOException {
+        // given
+        var program = parse("""
+                let f = with(String a)->Void{
+                    print(a);
+                };
+                """);
+        var lambda = (LambdaExpression) ((Declaration) program.statements().getFirst()).value();
+
+        // when
+        var unit = tested.compile(lambda, name -> null);
+
+        // then
+        assertThat(unit).isEmpty();
+    }
+
+    @Test
+    void shouldShareVariable_WhenDeclaredFromVariable() throws ParsingException, IOException {
+        // given
+        final var code = """
+                Int total = 0;
+                for (Int i in 1->4) {
+                    Int tt = total;
+                    tt += 10;
+                }
+                let f = with(Int n)->Int{
+                    Int a = n;
+                    a += 1;
+                    return n;
+                };
+                Int x = f(1);
+                """;
+        var interpreted = new ContextManager();
+        var compiled = new ContextManager();
+
+        // when
+        parse(code).accept(new Executor(interpreted));
+        var program = parse(code);
+        program.accept(new Executor(compiled, tested));
+
+        // then
+        var loop = (ForStatement) program.statements().get(1);
+        var lambda = (LambdaExpression) ((Declaration) program.statements().get(2)).value();
+        assertThat(tested.compile(loop, name -> null)).isPresent();
+        assertThat(tested.compile(lambda, name -> null)).isEmpty();
+        assertThat(globalValue(compiled, "total")).isEqualTo(globalValue(interpreted, "total")).isEqualTo(30);
+        assertThat(globalValue(compiled, "x")).isEqualTo(globalValue(interpreted, "x")).isEqualTo(2);
+    }
+
+    @Test
+    void shouldRejectCellsOfDifferentType() throws ParsingException, IOException {
+        // given
+        var program = parse("""
+                for (Int i in 0->3) {
+                    a += i;
+                }
+                """);
+        var loop = (ForStatement) program.statements().getFirst();
+        var cells = Map.of("a", new VariableReference<Object>(1));
+        var unit = tested.compile(loop, cells::get).orElseThrow();
+
+        // when
+        cells.get("a").setValue("text");
+
+        // then
+        assertThat(unit.bind(cells::get)).isNull();
+    }
+}
@@ -0,0 +1,86 @@
+package com.declarative.music.interpreter.bytecode;
+
+import com.declarative.music.interpreter.ContextManager;
+import com.declarative.music.interpreter.Executor;
+import com.declarative.music.lexer.LexerImpl;
+import com.declarative.music.parser.Parser;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+
+
+/**
+ * Compares {@link Executor} with and without {@link BytecodeBackend} on a numeric loop workload, or on scripts given
+ * as arguments. Output of the scripts is discarded, every script has to run to completion in both modes.
+ */
+public class BytecodeBenchmark {
+    private static final int WARMUP = 5;
+    private static final int MEASURED = 10;
+    private static final String WORKLOAD = """
+            let weight = with(Int a, Int b)->Double{
+                Double acc = 0.0;
+                for (Int k in 0->b) {
+                    if ((a + k) % 3 == 0) {
+                        acc += (k as Double) / 2.0;
+                    } else {
+                        acc -= 0.25;
+                    }
+                }
+                return acc;
+            };
+            Int sum = 0;
+            Double total = 0.0;
+            for (Int i in 0->300) {
+                for (Int j in 0->100) {
+                    if (i % 2 == 0 && j != 4) {
+                        sum += (i * j) % 7;
+                    } else if (j > 50) {
+                        sum -= 1;
+                    } else {
+                        sum += 2;
+                    }
+                }
+                total += weight(i, 20);
+            }
+            """;
+
+    public static void main(final String[] args) throws Exception {
+        var scripts = new LinkedHashMap<String, String>();
+        if (args.length == 0) {
+            scripts.put("numeric loops", WORKLOAD);
+        }
+        for (var file : args) {
+            scripts.put(file, Files.readString(Path.of(file)));
+        }
+        var out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            for (var script : scripts.entrySet()) {
+                out.printf("%s interpreted: %.3f ms/run%n", script.getKey(), measure(script.getValue(), false));
+                out.printf("%s bytecode:    %.3f ms/run%n", script.getKey(), measure(script.getValue(), true));
+            }
+        } finally {
+            System.setOut(out);
+        }
+    }
+
+    private static double measure(final String code, final boolean bytecode) throws Exception {
+        for (int i = 0; i < WARMUP; i++) {
+            run(code, bytecode);
+        }
+        var start = System.nanoTime();
+        for (int i = 0; i < MEASURED; i++) {
+            run(code, bytecode);
+        }
+        return (System.nanoTime() - start) / 1e6 / MEASURED;
+    }
+
+    private static void run(final String code, final boolean bytecode) throws Exception {
+        var program = new Parser(new LexerImpl(new StringReader(code))).parserProgram();
+        program.accept(new Executor(new ContextManager(), bytecode ? new BytecodeBackend() : null));
+    }
+}
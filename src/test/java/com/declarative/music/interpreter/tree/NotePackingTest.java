@@ -0,0 +1,85 @@
+package com.declarative.music.interpreter.tree;
+
+import com.declarative.music.interpreter.tree.modifier.NoteModifier;
+import com.declarative.music.interpreter.values.music.Note;
+import com.declarative.music.interpreter.values.music.Pitch;
+import com.declarative.music.interpreter.values.music.Rythm;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+class NotePackingTest {
+    private final Packing<Node<Note>> tested = NotePacking.forNodes();
+
+    @Test
+    void shouldUnpackEqualLeaf() {
+        // given
+        var leaf = new SimpleNode<>(Note.of(Pitch.F_SHARP, -3, Rythm.t));
+
+        // when
+        var code = tested.pack(leaf);
+
+        // then
+        assertThat(code).isNotZero();
+        assertThat(tested.unpack(code)).isEqualToComparingFieldByFieldRecursively(leaf);
+    }
+
+    @Test
+    void shouldUnpackModifier() {
+        // given
+        var leaf = new SimpleNode<>(Note.of(null, null, Rythm.dl));
+        leaf.setModifier(NoteModifier.builder().withPitch(Pitch.B).withOctave(300).build());
+
+        // when
+        var unpacked = tested.unpack(tested.pack(leaf));
+
+        // then
+        assertThat(unpacked.modifier()).isEqualTo(leaf.modifier());
+        assertThat(((SimpleNode<Note>) unpacked).getValue()).isSameAs(leaf.getValue());
+    }
+
+    @Test
+    void shouldNotPack_WhenOctaveDoesNotFit() {
+        // given
+        var leaf = new SimpleNode<>(Note.of(Pitch.C, 1 << 15, Rythm.q));
+        var modified = new SimpleNode<>(Note.of(Pitch.C, 4, Rythm.q));
+        modified.setModifier(NoteModifier.builder().withOctave(Integer.MIN_VALUE).build());
+
+        // when
+        // then
+        assertThat(tested.pack(leaf)).isZero();
+        assertThat(tested.pack(modified)).isZero();
+    }
+
+    @Test
+    void shouldNotPackOtherNodes() {
+        // given
+        var subclass = new SimpleNode<>(Note.of(Pitch.C, 4, Rythm.q)) {
+        };
+        var group = new GroupNode<Note>();
+
+        // when
+        // then
+        assertThat(tested.pack(subclass)).isZero();
+        assertThat(tested.pack(group)).isZero();
+        assertThat(NotePacking.<Integer>forNodes().pack(new SimpleNode<>(1))).isZero();
+    }
+
+    @Test
+    void shouldKeepModifier_WhenSetOnPackedLeaves() {
+        // given
+        var node = new SequenceNode<Note>();
+        node.nodes.add(new SimpleNode<>(Note.of(Pitch.C, null, Rythm.q)));
+        node.nodes.add(new SimpleNode<>(Note.of(Pitch.D, null, Rythm.q)));
+        var modifier = NoteModifier.builder().withOctave(5).build();
+
+        // when
+        node.setModifier(modifier);
+
+        // then
+        assertThat(node.getChildren()).allSatisfy(child -> assertThat(child.modifier()).isEqualTo(modifier));
+        assertThat(((SimpleNode<Note>) node.getModified().getChildren().get(1)).getValue())
+                .isSameAs(Note.of(Pitch.D, 5, Rythm.q));
+    }
+}
@@ -0,0 +1,107 @@
+package com.declarative.music.interpreter.tree;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+
+class PersistentListTest {
+    private static final Packing<Integer> NEGATIVE = new Packing<>() {
+        @Override
+        public long pack(final Integer element) {
+            return element < 0 ? -element : 0;
+        }
+
+        @Override
+        public Integer unpack(final long code) {
+            return (int) -code;
+        }
+    };
+
+    @Test
+    void shouldKeepPreviousVersions_WhenAppending() {
+        // given
+        var empty = new PersistentList<Integer>();
+
+        // when
+        var first = empty.appended(1);
+        var second = first.appended(2);
+        var third = second.appendedAll(List.of(3, 4));
+
+        // then
+        assertThat(empty).isEmpty();
+        assertThat(first).containsExactly(1);
+        assertThat(second).containsExactly(1, 2);
+        assertThat(third).containsExactly(1, 2, 3, 4);
+    }
+
+    @Test
+    void shouldCopy_WhenAppendingToOlderVersion() {
+        // given
+        var base = new PersistentList<>(List.of(1, 2));
+        var latest = base.appended(3);
+
+        // when
+        var branch = base.appended(4);
+
+        // then
+        assertThat(base).containsExactly(1, 2);
+        assertThat(latest).containsExactly(1, 2, 3);
+        assertThat(branch).containsExactly(1, 2, 4);
+    }
+
+    @Test
+    void shouldNotChangeAppendedVersions_WhenAddingInPlace() {
+        // given
+        var base = new PersistentList<>(List.of(1));
+        var appended = base.appended(2);
+
+        // when
+        base.add(3);
+
+        // then
+        assertThat(base).containsExactly(1, 3);
+        assertThat(appended).containsExactly(1, 2);
+    }
+
+    @Test
+    void shouldKeepPackedElements_WhenCopying() {
+        // given
+        var base = new PersistentList<>(NEGATIVE, List.of(1, -2, 3));
+        var latest = base.appended(-4);
+
+        // when
+        var branch = base.appendedAll(List.of(5, -6));
+
+        // then
+        assertThat(latest).containsExactly(1, -2, 3, -4);
+        assertThat(branch).containsExactly(1, -2, 3, 5, -6);
+    }
+
+    @Test
+    void shouldReplaceElement_WhenSetting() {
+        // given
+        var list = new PersistentList<>(NEGATIVE, List.of(-1, 2));
+
+        // when
+        var first = list.set(0, 3);
+        var second = list.set(1, -4);
+
+        // then
+        assertThat(first).isEqualTo(-1);
+        assertThat(second).isEqualTo(2);
+        assertThat(list).containsExactly(3, -4);
+    }
+
+    @Test
+    void shouldThrow_WhenInsertingInTheMiddle() {
+        // given
+        var list = new PersistentList<>(List.of(1, 2));
+
+        // when
+        assertThatThrownBy(() -> list.add(0, 3)).isInstanceOf(UnsupportedOperationException.class);
+    }
+}
@@ -0,0 +1,39 @@
+package com.declarative.music.interpreter.tree;
+
+import com.declarative.music.interpreter.Executor;
+import com.declarative.music.lexer.LexerImpl;
+import com.declarative.music.parser.Parser;
+
+import java.io.StringReader;
+
+
+/**
+ * Builds phrases note by note with {@code phrase |= note} and prints time per note, which should stay flat as the
+ * phrase grows to 100k notes.
+ */
+public class PhraseBuildingBenchmark {
+    private static final int[] SIZES = {12_500, 25_000, 50_000, 100_000};
+    private static final String SCRIPT = """
+            Phrase phrase = (C, 4) q as Phrase;
+            for (Int i in 1->%d) {
+                phrase |= (E, 4) q;
+            }
+            """;
+
+    public static void main(final String[] args) throws Exception {
+        for (int i = 0; i < 3; i++) {
+            run(SIZES[0]);
+        }
+        for (var size : SIZES) {
+            var time = run(size);
+            System.out.printf("%7d notes: %8.1f ms, %6.1f ns/note%n", size, time / 1e6, (double) time / size);
+        }
+    }
+
+    private static long run(final int size) throws Exception {
+        var program = new Parser(new LexerImpl(new StringReader(SCRIPT.formatted(size)))).parserProgram();
+        var start = System.nanoTime();
+        program.accept(new Executor());
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,126 @@
+package com.declarative.music.interpreter.tree;
+
+import com.declarative.music.interpreter.tree.modifier.NoteModifier;
+import com.declarative.music.interpreter.values.music.MusicTree;
+import com.declarative.music.interpreter.values.music.Note;
+import com.declarative.music.interpreter.values.music.Pitch;
+import com.declarative.music.interpreter.values.music.Rythm;
+import com.declarative.music.midi.MidiMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+class TraversalTest {
+    private static final int DEPTH = 1_000_000;
+
+    /**
+     * Every level is a sequence or group of a note and the next level.
+     */
+    private static Node<Note> deepTree(final Note note) {
+        Node<Note> node = new SimpleNode<>(note);
+        for (var level = 0; level < DEPTH; level++) {
+            var children = List.of(new SimpleNode<>(note), node);
+            node = level % 2 == 0 ? new SequenceNode<>(children) : new GroupNode<>(children);
+        }
+        return node;
+    }
+
+    private static int countLeaves(final Node<Note> root) {
+        var count = new int[1];
+        Traversal.walk(root, node -> count[0]++);
+        return count[0];
+    }
+
+    @Test
+    void shouldEnterAndLeaveInDepthFirstOrder() {
+        // given
+        var tree = new SequenceNode<Integer>(List.of(
+                new SimpleNode<>(1),
+                new GroupNode<>(List.of(new SimpleNode<>(2), new SimpleNode<>(3))),
+                new SimpleNode<>(4)
+        ));
+        var order = new StringBuilder();
+
+        // when
+        Traversal.walk(tree, new TreeVisitor<>() {
+            @Override
+            public void visit(final SimpleNode<Integer> node) {
+                order.append(node.getValue());
+            }
+
+            @Override
+            public void enter(final Node<Integer> node) {
+                order.append(node instanceof SequenceNode<Integer> ? "s(" : "g(");
+            }
+
+            @Override
+            public void leave(final Node<Integer> node) {
+                order.append(")");
+            }
+        });
+
+        // then
+        assertThat(order.toString()).isEqualTo("s(1g(23)4)");
+    }
+
+    @Test
+    void shouldFoldBottomUp() {
+        // given
+        var tree = new GroupNode<Integer>(List.of(
+                new SequenceNode<>(List.of(new SimpleNode<>(1), new SimpleNode<>(2))),
+                new SimpleNode<>(3)
+        ));
+
+        // when
+        var sum = Traversal.fold(tree, SimpleNode::getValue,
+                (node, children) -> children.stream().mapToInt(Integer::intValue).sum());
+
+        // then
+        assertThat(sum).isEqualTo(6);
+    }
+
+    @Test
+    void shouldModifyDeepTree() {
+        // given
+        var tree = new MusicTree(deepTree(new Note(Pitch.E, 4, null)));
+
+        // when
+        tree.setModifier(NoteModifier.builder().withPitch(Pitch.C).withRythm(Rythm.q).withOctave(4).build());
+        var modified = tree.getModified().getRoot();
+
+        // then
+        var durations = new int[Rythm.values().length];
+        Traversal.walk(modified, node -> durations[node.getValue().getDuration().ordinal()]++);
+        assertThat(durations[Rythm.q.ordinal()]).isEqualTo(DEPTH + 1);
+    }
+
+    @Test
+    void shouldMapDeepTree() {
+        // given
+        var tree = new MusicTree(deepTree(new Note(Pitch.E, 4, Rythm.q)));
+
+        // when
+        var mapped = tree.map(node -> new SimpleNode<>(node.getValue().getOctave()));
+
+        // then
+        var count = new int[1];
+        Traversal.walk(mapped, node -> count[0] += node.getValue());
+        assertThat(count[0]).isEqualTo(4 * (DEPTH + 1));
+    }
+
+    @Test
+    void shouldStampNotesOfDeepTree() {
+        // given
+        var tree = new MusicTree(deepTree(Note.of(Pitch.E, 4, Rythm.q)));
+
+        // when
+        var events = MidiMapper.mapToEventStamps(tree);
+
+        // then
+        assertThat(events).hasSize(DEPTH + 1);
+        assertThat(countLeaves(tree.getRoot())).isEqualTo(DEPTH + 1);
+    }
+}
@@ -1,5 +1,7 @@
 package com.declarative.music.interpreter.tree;
 
+import com.declarative.music.interpreter.tree.modifier.NoteModifier;
+import com.declarative.music.interpreter.values.music.MusicTree;
 import com.declarative.music.interpreter.values.music.Note;
 import com.declarative.music.interpreter.values.music.Pitch;
 import com.declarative.music.interpreter.values.music.Rythm;
@@ -9,7 +11,7 @@ import org.junit.jupiter.api.Test;
 
 import java.util.List;
 
-import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.Assertions.assertThat;
 
 
 class TreeTest {
@@ -239,4 +241,36 @@ class TreeTest {
         assertThat(tested.getRoot()).isEqualToComparingFieldByFieldRecursively(expectedRoot);
     }
 
-}
\ No newline at end of file
+    @Test
+    void shouldNotChangeOperands_WhenAppending() {
+        // given
+        tested.appendToSequence(1).appendToSequence(2);
+        var operand = tested.getRoot();
+
+        // when
+        var first = new IndexTree().appendToSequence(tested).appendToSequence(3);
+        var second = new IndexTree().appendToSequence(tested).appendToSequence(4);
+
+        // then
+        assertThat(operand.getChildren()).hasSize(2);
+        assertThat(((SimpleNode<Integer>) first.getRoot().getChildren().get(2)).getValue()).isEqualTo(3);
+        assertThat(((SimpleNode<Integer>) second.getRoot().getChildren().get(2)).getValue()).isEqualTo(4);
+        assertThat(first.getRoot().getChildren().getFirst()).isSameAs(second.getRoot().getChildren().getFirst());
+    }
+
+    @Test
+    void shouldNotChangeSharedNodes_WhenSettingModifier() {
+        // given
+        var note = new Note(Pitch.C, null, Rythm.q);
+        var tree = new MusicTree().appendToSequence(note).appendToSequence(note);
+        var shared = new MusicTree().appendToSequence(tree).appendToSequence(note);
+        var modifier = NoteModifier.builder().withOctave(5).build();
+
+        // when
+        shared.setModifier(modifier);
+
+        // then
+        assertThat(shared.getRoot().getChildren().getFirst().modifier()).isEqualTo(modifier);
+        assertThat(tree.getRoot().getChildren().getFirst().modifier()).isNull();
+    }
+}
@@ -68,4 +68,43 @@ class ModifierVisitorTest {
         var result = tree.getModified();
         assertThat(result.getRoot()).isEqualToComparingFieldByFieldRecursively(expectedTree.getRoot());
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldReuseModifiedView_WhenTreeNotChanged() {
+        // given
+        var tree = new MusicTree()
+                .appendToSequence(new Note(Pitch.E, 4, null))
+                .appendToSequence(new Note(Pitch.G, 4, null));
+        tree.setModifier(new NoteModifier(Pitch.C, Rythm.q, 4));
+
+        // when
+        var first = tree.getModified();
+        var second = tree.getModified();
+
+        // then
+        assertThat(second).isSameAs(first);
+        assertThat(second.getRoot()).isSameAs(first.getRoot());
+    }
+
+    @Test
+    void shouldRebuildModifiedView_WhenTreeChanged() {
+        // given
+        var tree = new MusicTree()
+                .appendToSequence(new Note(Pitch.E, 4, null))
+                .appendToSequence(new Note(Pitch.G, 4, null));
+        tree.setModifier(new NoteModifier(Pitch.C, Rythm.q, 4));
+        var before = tree.getModified();
+
+        // when
+        tree.appendToSequence(new Note(Pitch.A, 4, null));
+        var appended = tree.getModified();
+        tree.setModifier(new NoteModifier(Pitch.C, Rythm.h, 4));
+        var modified = tree.getModified();
+
+        // then
+        assertThat(appended).isNotSameAs(before);
+        Assertions.assertEquals(3, appended.getRoot().getChildren().size());
+        assertThat(modified).isNotSameAs(appended);
+        Assertions.assertEquals(Rythm.h, ((SimpleNode<Note>) modified.getRoot().getChildren().getFirst()).getValue().getDuration());
+    }
+}
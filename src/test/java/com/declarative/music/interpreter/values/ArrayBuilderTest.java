@@ -0,0 +1,61 @@
+package com.declarative.music.interpreter.values;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+class ArrayBuilderTest {
+    @Test
+    void shouldStoreIntsAsPrimitives() {
+        // given
+        var builder = new ArrayBuilder(1);
+
+        // when
+        for (var i = 0; i < 10; i++) {
+            builder.add(new Variant<>(i, Integer.class));
+        }
+
+        // then
+        var array = builder.build();
+        assertThat(array).isInstanceOf(IntArray.class).hasSize(10);
+        assertThat(((IntArray) array).getInt(9)).isEqualTo(9);
+        assertThat(array.get(3)).isEqualTo(new Variant<>(3, Integer.class));
+    }
+
+    @Test
+    void shouldStoreDoublesAsPrimitives() {
+        // given
+        var builder = new ArrayBuilder(2);
+
+        // when
+        builder.add(new Variant<>(0.5, Double.class));
+        builder.add(new Variant<>(1.5, Double.class));
+
+        // then
+        var array = builder.build();
+        assertThat(array).isInstanceOf(DoubleArray.class);
+        assertThat(((DoubleArray) array).getDouble(1)).isEqualTo(1.5);
+    }
+
+    @Test
+    void shouldMoveToGenericArray_WhenTypesDiffer() {
+        // given
+        var builder = new ArrayBuilder(2);
+        var reference = new Variant<>(new VariableReference<>(2), VariableReference.class);
+
+        // when
+        builder.add(new Variant<>(1, Integer.class));
+        builder.add(reference);
+
+        // then
+        assertThat(builder.build())
+                .isInstanceOf(ArrayValue.class)
+                .containsExactly(new Variant<>(1, Integer.class), reference);
+    }
+
+    @Test
+    void shouldBuildEmptyArray() {
+        assertThat(new ArrayBuilder(0).build()).isEmpty();
+    }
+}
@@ -0,0 +1,40 @@
+package com.declarative.music.interpreter.values;
+
+import com.declarative.music.interpreter.Executor;
+import com.declarative.music.lexer.LexerImpl;
+import com.declarative.music.parser.Parser;
+
+import java.io.StringReader;
+
+
+/**
+ * Reads every element of an array with {@code at} in a loop and prints time per read, which should stay flat as the
+ * array grows.
+ */
+public class ArrayIndexingBenchmark {
+    private static final int[] SIZES = {12_500, 25_000, 50_000, 100_000};
+    private static final String SCRIPT = """
+            Int sum = 0;
+            let array = [x * 2 <| x 0->%1$d];
+            for (Int i in 0->%1$d) {
+                sum = sum + at(array, i);
+            }
+            """;
+
+    public static void main(final String[] args) throws Exception {
+        for (int i = 0; i < 3; i++) {
+            run(SIZES[0]);
+        }
+        for (var size : SIZES) {
+            var time = run(size);
+            System.out.printf("%7d elements: %8.1f ms, %6.1f ns/element%n", size, time / 1e6, (double) time / size);
+        }
+    }
+
+    private static long run(final int size) throws Exception {
+        var program = new Parser(new LexerImpl(new StringReader(SCRIPT.formatted(size)))).parserProgram();
+        var start = System.nanoTime();
+        program.accept(new Executor());
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,67 @@
+package com.declarative.music.interpreter.values;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.RandomAccess;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+
+class ArrayValueTest {
+    @Test
+    void shouldGrowPastInitialCapacity() {
+        // given
+        var array = new ArrayValue(1);
+
+        // when
+        for (var i = 0; i < 100; i++) {
+            array.add(new Variant<>(i, Integer.class));
+        }
+
+        // then
+        assertThat(array).hasSize(100);
+        assertThat(array.get(0)).isEqualTo(new Variant<>(0, Integer.class));
+        assertThat(array.get(99)).isEqualTo(new Variant<>(99, Integer.class));
+        assertThat(array).isInstanceOf(RandomAccess.class);
+    }
+
+    @Test
+    void shouldBeEqualToListWithSameElements() {
+        // given
+        var array = new ArrayValue();
+
+        // when
+        array.add(new Variant<>("a", String.class));
+        array.add(new Variant<>(1, Integer.class));
+
+        // then
+        assertThat(array).isEqualTo(List.of(new Variant<>("a", String.class), new Variant<>(1, Integer.class)));
+    }
+
+    @Test
+    void shouldReplaceElement() {
+        // given
+        var array = new ArrayValue();
+        array.add(new Variant<>(1, Integer.class));
+
+        // when
+        var previous = array.set(0, new Variant<>(2, Integer.class));
+
+        // then
+        assertThat(previous).isEqualTo(new Variant<>(1, Integer.class));
+        assertThat(array).containsExactly(new Variant<>(2, Integer.class));
+    }
+
+    @Test
+    void shouldThrow_WhenIndexOutOfArray() {
+        // given
+        var array = new ArrayValue(16);
+        array.add(new Variant<>(1, Integer.class));
+
+        // when then
+        assertThatThrownBy(() -> array.get(1)).isInstanceOf(IndexOutOfBoundsException.class);
+        assertThatThrownBy(() -> array.get(-1)).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+}
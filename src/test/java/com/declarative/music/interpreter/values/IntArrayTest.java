@@ -0,0 +1,88 @@
+package com.declarative.music.interpreter.values;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+
+class IntArrayTest {
+    private static IntArray of(final int... values) {
+        var array = new IntArray(values.length);
+        for (var value : values) {
+            array.addInt(value);
+        }
+        return array;
+    }
+
+    @Test
+    void shouldReduceElements() {
+        // given
+        var array = of(4, -2, 7, -2, 7, 0);
+
+        // when then
+        assertThat(array.sum()).isEqualTo(14);
+        assertThat(array.min()).isEqualTo(-2);
+        assertThat(array.max()).isEqualTo(7);
+        assertThat(array.argmin()).isEqualTo(1);
+        assertThat(array.argmax()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldSortIntoNewArray() {
+        // given
+        var array = of(3, 1, 2);
+
+        // when
+        var sorted = array.sorted();
+
+        // then
+        assertThat(sorted).containsExactly(
+                new Variant<>(1, Integer.class),
+                new Variant<>(2, Integer.class),
+                new Variant<>(3, Integer.class)
+        );
+        assertThat(array.getInt(0)).isEqualTo(3);
+    }
+
+    @Test
+    void shouldSortLargeArray() {
+        // given
+        var random = new Random(7);
+        var array = new IntArray(100_000);
+        for (var i = 0; i < 100_000; i++) {
+            array.addInt(random.nextInt());
+        }
+
+        // when
+        var sorted = array.sorted();
+
+        // then
+        assertThat(sorted).hasSize(100_000);
+        for (var i = 1; i < sorted.size(); i++) {
+            assertThat(sorted.getInt(i - 1)).isLessThanOrEqualTo(sorted.getInt(i));
+        }
+        assertThat(sorted.sum()).isEqualTo(array.sum());
+    }
+
+    @Test
+    void shouldGrowSortedEmptyArray() {
+        // given
+        var sorted = new IntArray(0).sorted();
+
+        // when
+        sorted.addInt(5);
+
+        // then
+        assertThat(sorted).containsExactly(new Variant<>(5, Integer.class));
+    }
+
+    @Test
+    void shouldThrow_WhenSearchingEmptyArray() {
+        assertThatThrownBy(() -> new IntArray(4).max())
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("max of empty array");
+    }
+}
@@ -0,0 +1,64 @@
+package com.declarative.music.interpreter.values;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+
+class IntRangeTest {
+    @Test
+    void shouldContainIntegersFromStartToEnd() {
+        // given
+        var range = new IntRange(-2, 2);
+
+        // when
+        var values = new ArrayList<Variant<?>>(range);
+
+        // then
+        assertThat(values).containsExactly(
+                new Variant<>(-2, Integer.class),
+                new Variant<>(-1, Integer.class),
+                new Variant<>(0, Integer.class),
+                new Variant<>(1, Integer.class)
+        );
+        assertThat(range).isEqualTo(values);
+    }
+
+    @Test
+    void shouldBeEmpty_WhenEndBeforeStart() {
+        assertThat(new IntRange(5, 1)).isEmpty();
+    }
+
+    @Test
+    void shouldAccessElementsWithoutMaterializing() {
+        // given
+        var range = new IntRange(0, Integer.MAX_VALUE);
+
+        // when
+        var last = range.get(Integer.MAX_VALUE - 1);
+
+        // then
+        assertThat(range.size()).isEqualTo(Integer.MAX_VALUE);
+        assertThat(last).isEqualTo(new Variant<>(Integer.MAX_VALUE - 1, Integer.class));
+    }
+
+    @Test
+    void shouldThrow_WhenIndexOutOfRange() {
+        assertThatThrownBy(() -> new IntRange(0, 3).get(3)).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    void shouldThrow_WhenRangeTooLong() {
+        assertThatThrownBy(() -> new IntRange(Integer.MIN_VALUE, Integer.MAX_VALUE))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldPrintLikeList() {
+        assertThat(new IntRange(1, 4).toString()).isEqualTo(List.of(1, 2, 3).toString());
+    }
+}
@@ -60,4 +60,55 @@ class OperationRegistryTest
         Assertions.assertEquals(30, value.value());
     }
 
-}
\ No newline at end of file
+    @Test
+    void shouldApplyOperation_WhenCachedOperandTypesChange()
+    {
+        // given
+        var cache = new InlineCache();
+        registry.register(Integer.class, Integer.class, Integer::sum, Integer.class);
+        registry.register(String.class, String.class, String::concat, String.class);
+
+        // when
+        var first = registry.apply(cache, new Variant<>(1, Integer.class), new Variant<>(2, Integer.class));
+        var second = registry.apply(cache, new Variant<>("a", String.class), new Variant<>("b", String.class));
+        var third = registry.apply(cache, new Variant<>(3, Integer.class), new Variant<>(4, Integer.class));
+
+        // then
+        Assertions.assertEquals(3, first.value());
+        Assertions.assertEquals("ab", second.value());
+        Assertions.assertEquals(7, third.value());
+    }
+
+    @Test
+    void shouldNotShareCacheBetweenRegistries()
+    {
+        // given
+        var cache = new InlineCache();
+        var other = new OperationRegistry("sub").register(Integer.class, Integer.class, (a, b) -> a - b, Integer.class);
+        registry.register(Integer.class, Integer.class, Integer::sum, Integer.class);
+
+        // when
+        var sum = registry.apply(cache, new Variant<>(5, Integer.class), new Variant<>(2, Integer.class));
+        var difference = other.apply(cache, new Variant<>(5, Integer.class), new Variant<>(2, Integer.class));
+
+        // then
+        Assertions.assertEquals(7, sum.value());
+        Assertions.assertEquals(3, difference.value());
+    }
+
+    @Test
+    void shouldThrow_WhenTypesNotRegistered()
+    {
+        // given
+        registry = new OperationRegistry("add");
+        registry.register(Integer.class, Integer.class, Integer::sum, Integer.class);
+
+        // when
+        var exception = Assertions.assertThrows(IllegalStateException.class,
+            () -> registry.apply(new InlineCache(), new Variant<>(1, Integer.class), new Variant<>(1.0, Double.class)));
+
+        // then
+        Assertions.assertEquals("INTERPRETATION ERROR Unsupported types: Integer Double for operation: add", exception.getMessage());
+    }
+
+}
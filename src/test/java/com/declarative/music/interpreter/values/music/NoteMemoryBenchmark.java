@@ -0,0 +1,41 @@
+package com.declarative.music.interpreter.values.music;
+
+import com.declarative.music.interpreter.Executor;
+import com.declarative.music.lexer.LexerImpl;
+import com.declarative.music.parser.Parser;
+
+import java.io.StringReader;
+
+
+/**
+ * Prints heap retained by a phrase of one million notes built by a script.
+ */
+public class NoteMemoryBenchmark {
+    private static final int NOTES = 1_000_000;
+    private static final String SCRIPT = """
+            Phrase phrase = (C, 4) q as Phrase;
+            for (Int i in 1->%d) {
+                phrase |= (E, 4) q;
+            }
+            """;
+
+    public static void main(final String[] args) throws Exception {
+        var program = new Parser(new LexerImpl(new StringReader(SCRIPT.formatted(NOTES)))).parserProgram();
+        var before = usedMemory();
+        var executor = new Executor();
+        program.accept(executor);
+        var after = usedMemory();
+        var phrase = executor.getManager().getGlobalFrame().getValue("phrase").orElseThrow().getValue();
+        System.out.printf("%d notes: %.1f MB, %.1f bytes/note (%s)%n", NOTES, (after - before) / 1e6,
+                (double) (after - before) / NOTES, phrase.getClass().getSimpleName());
+    }
+
+    private static long usedMemory() throws InterruptedException {
+        var runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
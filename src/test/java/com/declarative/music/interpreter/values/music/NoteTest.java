@@ -0,0 +1,40 @@
+package com.declarative.music.interpreter.values.music;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+class NoteTest {
+
+    @Test
+    void shouldShareNotes_WhenOctaveInSharedRange() {
+        // given
+        var notes = new Note[]{
+                new Note(Pitch.B, Note.MAX_OCTAVE, Rythm.t),
+                new Note(Pitch.C, Note.MIN_OCTAVE, Rythm.dl),
+                new Note(null, null, null),
+                new Note(Pitch.F_SHARP, null, Rythm.e)
+        };
+
+        for (var note : notes) {
+            // when
+            var first = Note.of(note.getPitch(), note.getOctave(), note.getDuration());
+            var second = Note.of(note.getPitch(), note.getOctave(), note.getDuration());
+
+            // then
+            assertThat(first).isEqualTo(note);
+            assertThat(second).isSameAs(first);
+        }
+    }
+
+    @Test
+    void shouldCreateNewNote_WhenOctaveOutOfSharedRange() {
+        // when
+        var note = Note.of(Pitch.C, Note.MAX_OCTAVE + 1, Rythm.q);
+
+        // then
+        assertThat(note).isNotSameAs(Note.of(Pitch.C, Note.MAX_OCTAVE + 1, Rythm.q));
+        assertThat(note).isEqualTo(new Note(Pitch.C, Note.MAX_OCTAVE + 1, Rythm.q));
+    }
+}
@@ -0,0 +1,56 @@
+package com.declarative.music.lexer;
+
+import com.declarative.music.lexer.token.TokenType;
+
+import java.lang.management.ManagementFactory;
+import java.nio.CharBuffer;
+
+
+/**
+ * Lexes sources of growing size held in memory and prints tokens per second and bytes allocated per token, both should
+ * stay flat as the source grows.
+ */
+public class LexerBenchmark {
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private static final int[] REPEATS = {1_000, 4_000, 16_000, 64_000};
+    private static final String SOURCE = """
+            // scale played up and down
+            let scale = [C, D, E, F, G, A, B];
+            Int counter = 0;
+            Double tempo = 120.5;
+            let melody = lam(Int octave, Int repeats) -> Phrase {
+                Phrase phrase = (C#, octave) as q_d | (E, octave) as e >> (G, octave) as dl;
+                for (Int i in 0->repeats) {
+                    if (counter >= 10 && counter != 42 || !(counter <= 3)) {
+                        counter += i * 2 ^ 3 % 7;
+                    }
+                }
+                return phrase |> transpose "major";
+            };
+            """;
+
+    public static void main(final String[] args) throws Exception {
+        for (int i = 0; i < 5; i++) {
+            run(REPEATS[1]);
+        }
+        for (var repeats : REPEATS) {
+            run(repeats);
+        }
+    }
+
+    private static void run(final int repeats) throws Exception {
+        var source = CharBuffer.wrap(SOURCE.repeat(repeats));
+        var lexer = new LexerImpl(source);
+        var tokens = 0;
+        var allocated = THREADS.getCurrentThreadAllocatedBytes();
+        var start = System.nanoTime();
+        while (lexer.getNextToken().type() != TokenType.T_EOF) {
+            tokens++;
+        }
+        var time = System.nanoTime() - start;
+        allocated = THREADS.getCurrentThreadAllocatedBytes() - allocated;
+        System.out.printf("%9d tokens: %8.1f ms, %6.2f M tokens/s, %6.1f B/token%n", tokens, time / 1e6,
+                tokens * 1e3 / time, (double) allocated / tokens);
+    }
+}
@@ -3,11 +3,15 @@ package com.declarative.music.lexer;
 import com.declarative.music.lexer.token.Position;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 
 import java.io.IOException;
 import java.io.StringReader;
+import java.nio.CharBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 class LexerStreamReaderTest {
 
@@ -49,4 +53,46 @@ class LexerStreamReaderTest {
         Assertions.assertEquals(expectedEndPosition, tested.getCurrentPosition());
     }
 
-}
\ No newline at end of file
+    @ParameterizedTest
+    @ValueSource(strings = {"Hello\nWorld", "Hello\rWorld", "Hello\r\nWorld"})
+    void shouldHandleLineBreaks_WhenReadingCharBuffer(final String text) throws IOException {
+        // given
+        final var source = CharBuffer.allocate(text.length() + 2).put('#').put(text);
+        final var tested = new LexerStreamReader(source.flip().position(1));
+
+        // when
+        final var textBuilder = new StringBuilder();
+        int c = 0;
+        while ((c = tested.read()) != -1) {
+            textBuilder.append((char) c);
+        }
+
+        Assertions.assertEquals("Hello\nWorld", textBuilder.toString());
+        Assertions.assertEquals(new Position(1, "World".length()), tested.getCurrentPosition());
+    }
+
+    @Test
+    void shouldReadLongSourceInChunks(@TempDir final Path directory) throws IOException {
+        // given
+        final var line = "Int a = 1;\r\n";
+        final var expectedText = line.replace("\r\n", "\n").repeat(10_000);
+        final var file = Files.writeString(directory.resolve("long.hs"), line.repeat(10_000));
+
+        // when
+        final var fromReader = readAll(new LexerStreamReader(new StringReader(line.repeat(10_000))));
+        final var fromFile = readAll(new LexerStreamReader(LexerStreamReader.load(file)));
+
+        // then
+        Assertions.assertEquals(expectedText, fromReader);
+        Assertions.assertEquals(expectedText, fromFile);
+    }
+
+    private static String readAll(final LexerStreamReader reader) throws IOException {
+        final var textBuilder = new StringBuilder();
+        int c = 0;
+        while ((c = reader.read()) != -1) {
+            textBuilder.append((char) c);
+        }
+        return textBuilder.toString();
+    }
+}
@@ -0,0 +1,58 @@
+package com.declarative.music.lexer;
+
+import com.declarative.music.lexer.token.Position;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StatementSplitterTest {
+
+    @Test
+    void shouldSplitAfterTopLevelSemicolons() throws IOException {
+        // given
+        final var code = """
+                let a = "x;y"; // c;d
+                let f = with(Int a)->Int{ return a; };
+                b = f(1);""";
+
+        // when
+        final var parts = StatementSplitter.split(CharBuffer.wrap(code), 1);
+
+        // then
+        assertThat(parts).extracting(part -> part.source().toString()).containsExactly(
+                "let a = \"x;y\";",
+                " // c;d\nlet f = with(Int a)->Int{ return a; };",
+                "\nb = f(1);");
+        assertThat(parts).extracting(StatementSplitter.SourcePart::start).containsExactly(
+                new Position(0, -1), new Position(0, 13), new Position(1, 37));
+    }
+
+    @Test
+    void shouldJoinTrailingCommentsToLastPart() throws IOException {
+        // given
+        final var code = "a = 1;\r\nb = 2;\r\n// end\r\n";
+
+        // when
+        final var parts = StatementSplitter.split(CharBuffer.wrap(code), 1);
+
+        // then
+        assertThat(parts).extracting(part -> part.source().toString())
+                .containsExactly("a = 1;", "\r\nb = 2;\r\n// end\r\n");
+    }
+
+    @Test
+    void shouldKeepPartsOfMinimalSize() throws IOException {
+        // given
+        final var code = "a = 1; b = 2; c = 3; d = 4;";
+
+        // when
+        final var parts = StatementSplitter.split(CharBuffer.wrap(code), 10);
+
+        // then
+        assertThat(parts).extracting(part -> part.source().toString())
+                .containsExactly("a = 1; b = 2;", " c = 3; d = 4;");
+    }
+}
@@ -0,0 +1,77 @@
+package com.declarative.music.lexer;
+
+import com.declarative.music.lexer.token.Token;
+import com.declarative.music.lexer.token.TokenType;
+import com.declarative.music.lexer.utils.LexerUtils;
+import com.declarative.music.parser.Parser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBufferTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {"\n", "\r", "\r\n"})
+    void shouldKeepTokensOfLexer(final String lineBreak) throws IOException {
+        // given
+        final var code = String.join(lineBreak,
+                "let melody = (C#, 4) as q_d | (E, 4) as dl; // comment",
+                "",
+                "Double x = 10.25 * 2.0;",
+                "   String s = \"text\";",
+                "a |> b >> c <| d");
+        final var lexer = new LexerImpl(new StringReader(code));
+        final var expected = LexerUtils.getAllTokens(lexer);
+        expected.add(lexer.getNextToken());
+
+        // when
+        final var tested = new LexerImpl(new StringReader(code)).tokenize();
+
+        // then
+        final var tokens = new ArrayList<Token>();
+        for (var index = 0; index < tested.size(); index++) {
+            tokens.add(tested.token(index));
+        }
+        assertThat(tokens).containsExactlyElementsOf(expected);
+        assertThat(tokens.get(tokens.size() - 1).type()).isEqualTo(TokenType.T_EOF);
+    }
+
+    @Test
+    void shouldInternSymbols() throws IOException {
+        // given
+        final var code = "a = a + b; a = \"a\";";
+
+        // when
+        final var tested = new LexerImpl(new StringReader(code)).tokenize();
+
+        // then
+        assertThat(tested.getSymbols().size()).isEqualTo(2);
+        assertThat(tested.value(2)).isSameAs(tested.value(0));
+        assertThat(tested.value(8)).isSameAs(tested.value(0));
+    }
+
+    @Test
+    void shouldParseBufferedTokens() throws Exception {
+        // given
+        final var code = """
+                Int a = 10;
+                for (Int i in 0->a) {
+                    a += i;
+                }
+                let b = [x * 2 <| x 0->a];
+                """;
+        final var expected = new Parser(new LexerImpl(new StringReader(code))).parserProgram();
+
+        // when
+        final var program = new Parser(new LexerImpl(new StringReader(code)).tokenize().lexer()).parserProgram();
+
+        // then
+        assertThat(program).isEqualTo(expected);
+    }
+}
@@ -1,5 +1,6 @@
 package com.declarative.music.lexer.state;
 
+import com.declarative.music.lexer.expection.UnknownTokenTypeException;
 import com.declarative.music.lexer.terminals.OperatorEnum;
 import com.declarative.music.lexer.token.Position;
 import com.declarative.music.lexer.token.Token;
@@ -7,6 +8,9 @@ import com.declarative.music.lexer.token.TokenType;
 import com.declarative.music.lexer.utils.LexerContextMock;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
 
 import java.io.IOException;
 
@@ -53,4 +57,30 @@ class OperatorStateTest {
         // then
         Assertions.assertEquals(expectedToken, token);
     }
-}
\ No newline at end of file
+
+    @ParameterizedTest
+    @CsvSource({">>, O_DOUBLE_GR", "<|, O_LIST_COMPR", "|>, O_PIPE", "||, O_OR", "&&, O_AND", "->, O_ARROW",
+            "!x, O_NEGATE", "|a, O_SIM", "<-, O_LESS"})
+    void shouldTakeLongestOperator(final String code, final OperatorEnum expected) throws IOException {
+        // given
+        final var tested = new OperatorOrUnknownState(new LexerContextMock(code));
+        final var expectedToken = new Token(TokenType.T_OPERATOR, new Position(0, 0), expected);
+
+        // when
+        final var token = tested.processNext();
+
+        // then
+        Assertions.assertEquals(expectedToken, token);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"@", "/", "$="})
+    void shouldRejectUnknownCharacters(final String code) {
+        // given
+        final var tested = new OperatorOrUnknownState(new LexerContextMock(code));
+
+        // when
+        // then
+        Assertions.assertThrows(UnknownTokenTypeException.class, tested::processNext);
+    }
+}
@@ -2,11 +2,13 @@ package com.declarative.music.lexer.utils;
 
 import com.declarative.music.lexer.LexerContext;
 import com.declarative.music.lexer.state.LexerState;
+import com.declarative.music.lexer.state.LexerStates;
 import com.declarative.music.lexer.token.Position;
 
 public class LexerContextMock implements LexerContext {
     private final String code;
     private int idx = 0;
+    private final LexerStates states = new LexerStates(this);
     private LexerState currentState;
 
     public LexerContextMock(final String code) {
@@ -41,4 +43,9 @@ public class LexerContextMock implements LexerContext {
     public Position getCurrentPosition() {
         return new Position(0, idx);
     }
+
+    @Override
+    public LexerStates getStates() {
+        return states;
+    }
 }
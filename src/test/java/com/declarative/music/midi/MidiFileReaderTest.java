@@ -0,0 +1,95 @@
+package com.declarative.music.midi;
+
+import com.declarative.music.interpreter.tree.GroupNode;
+import com.declarative.music.interpreter.tree.SequenceNode;
+import com.declarative.music.interpreter.tree.SimpleNode;
+import com.declarative.music.interpreter.values.music.MusicTree;
+import com.declarative.music.interpreter.values.music.Note;
+import com.declarative.music.interpreter.values.music.Pitch;
+import com.declarative.music.interpreter.values.music.Rythm;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+
+class MidiFileReaderTest {
+    private static final Path SONG = Path.of("src/test/resources/song.mid");
+
+    @Test
+    void shouldReadNotesStartingTogetherAsGroups(@TempDir final Path directory) throws IOException {
+        // given
+        final var file = directory.resolve("song.mid");
+        final var tree = new MusicTree()
+                .appendToSequence(Note.of(Pitch.C, 4, Rythm.q))
+                .appendToSequence(new GroupNode<>(List.of(
+                        new SimpleNode<>(Note.of(Pitch.E, 4, Rythm.h)),
+                        new SimpleNode<>(Note.of(Pitch.G, 3, Rythm.e)))));
+        MidiRenderer.renderAndSaveMidi(tree, file.toString(), 120, "Piano");
+        final var expected = new SequenceNode<>(List.of(
+                new SimpleNode<>(Note.of(Pitch.C, 4, Rythm.q)),
+                new GroupNode<>(List.of(
+                        new SimpleNode<>(Note.of(Pitch.E, 4, Rythm.h)),
+                        new SimpleNode<>(Note.of(Pitch.G, 3, Rythm.e))))));
+
+        // when
+        MusicTree result;
+        try (var reader = new MidiFileReader(file)) {
+            result = reader.readTrack(1);
+        }
+
+        // then
+        assertThat(result.getRoot()).isEqualToComparingFieldByFieldRecursively(expected);
+    }
+
+    @Test
+    void shouldExportReadTrackToSameFile(@TempDir final Path directory) throws IOException {
+        // given
+        final var file = directory.resolve("song.mid");
+        MusicTree tree;
+        try (var reader = new MidiFileReader(SONG)) {
+            tree = reader.readTrack(1);
+        }
+
+        // when
+        MidiRenderer.renderAndSaveMidi(tree, file.toString(), 125, "Guitar");
+
+        // then
+        assertThat(Files.readAllBytes(file)).isEqualTo(Files.readAllBytes(SONG));
+    }
+
+    @Test
+    void shouldReadTrackWithoutNotesAsEmptySequence() throws IOException {
+        // given
+        try (var reader = new MidiFileReader(SONG)) {
+            // when
+            final var tree = reader.readTrack(0);
+
+            // then
+            assertThat(reader.tracks()).isEqualTo(2);
+            assertThat(tree.getRoot().getChildren()).isEmpty();
+        }
+    }
+
+    @Test
+    void shouldRejectMissingTrack() throws IOException {
+        try (var reader = new MidiFileReader(SONG)) {
+            assertThatThrownBy(() -> reader.readTrack(2)).isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Test
+    void shouldRejectFileWhichIsNotMidi(@TempDir final Path directory) throws IOException {
+        // given
+        final var file = Files.writeString(directory.resolve("song.mid"), "not a midi file");
+
+        // when then
+        assertThatThrownBy(() -> new MidiFileReader(file)).isInstanceOf(IOException.class);
+    }
+}
@@ -0,0 +1,67 @@
+package com.declarative.music.midi;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.sound.midi.InvalidMidiDataException;
+import javax.sound.midi.MetaMessage;
+import javax.sound.midi.MidiEvent;
+import javax.sound.midi.MidiSystem;
+import javax.sound.midi.Sequence;
+import javax.sound.midi.ShortMessage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+
+class MidiFileWriterTest {
+    @Test
+    void shouldWriteSameBytesAsMidiSystem(@TempDir final Path directory) throws IOException, InvalidMidiDataException {
+        // given
+        final var sequence = new Sequence(Sequence.PPQ, 96);
+        final var metaTrack = sequence.createTrack();
+        metaTrack.add(new MidiEvent(new MetaMessage(0x03, new byte[]{'a', 'b'}, 2), 0));
+        final var track = sequence.createTrack();
+        track.add(new MidiEvent(new ShortMessage(ShortMessage.PROGRAM_CHANGE, 0, 30, 0), 0));
+        for (var i = 0; i < 300; i++) {
+            track.add(new MidiEvent(new ShortMessage(ShortMessage.NOTE_ON, 0, 60 + i % 12, 100), i * 200L));
+            track.add(new MidiEvent(new ShortMessage(ShortMessage.NOTE_OFF, 0, 60 + i % 12, 0), i * 200L + 150));
+        }
+        final var expected = directory.resolve("expected.mid");
+        final var actual = directory.resolve("actual.mid");
+        MidiSystem.write(sequence, 1, expected.toFile());
+
+        // when
+        try (var writer = new MidiFileWriter(actual, 2, 96)) {
+            writer.startTrack();
+            writer.metaMessage(0, 0x03, new byte[]{'a', 'b'});
+            writer.endTrack();
+            writer.startTrack();
+            writer.shortMessage(0, ShortMessage.PROGRAM_CHANGE, 30, 0);
+            for (var i = 0; i < 300; i++) {
+                writer.shortMessage(i * 200L, ShortMessage.NOTE_ON, 60 + i % 12, 100);
+                writer.shortMessage(i * 200L + 150, ShortMessage.NOTE_OFF, 60 + i % 12, 0);
+            }
+            writer.endTrack();
+        }
+
+        // then
+        assertThat(Files.readAllBytes(actual)).isEqualTo(Files.readAllBytes(expected));
+    }
+
+    @Test
+    void shouldRejectEventsOutOfOrder(@TempDir final Path directory) throws IOException {
+        // given
+        try (var writer = new MidiFileWriter(directory.resolve("song.mid"), 1, 96)) {
+            writer.startTrack();
+            writer.shortMessage(100, ShortMessage.NOTE_ON, 60, 100);
+
+            // when then
+            assertThatThrownBy(() -> writer.shortMessage(50, ShortMessage.NOTE_OFF, 60, 0))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+}
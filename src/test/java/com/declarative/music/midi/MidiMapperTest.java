@@ -0,0 +1,83 @@
+package com.declarative.music.midi;
+
+import com.declarative.music.interpreter.tree.GroupNode;
+import com.declarative.music.interpreter.tree.Node;
+import com.declarative.music.interpreter.tree.SequenceNode;
+import com.declarative.music.interpreter.tree.SimpleNode;
+import com.declarative.music.interpreter.values.music.MusicTree;
+import com.declarative.music.interpreter.values.music.Note;
+import com.declarative.music.interpreter.values.music.Pitch;
+import com.declarative.music.interpreter.values.music.Rythm;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+class MidiMapperTest {
+    private static final Pitch[] PITCHES = Pitch.values();
+    private static final Rythm[] RYTHMS = Rythm.values();
+
+    private static Node<Note> randomTree(final Random random, final int depth) {
+        if (depth == 0 || random.nextInt(8) == 0) {
+            return new SimpleNode<>(Note.of(PITCHES[random.nextInt(PITCHES.length)], 3 + random.nextInt(3),
+                    RYTHMS[random.nextInt(RYTHMS.length)]));
+        }
+        var children = new ArrayList<Node<Note>>();
+        for (var i = 0; i < 1 + random.nextInt(6); i++) {
+            children.add(randomTree(random, depth - 1));
+        }
+        return random.nextBoolean() ? new SequenceNode<>(children) : new GroupNode<>(children);
+    }
+
+    @Test
+    void shouldStampNotesOfSequencesAndGroups() {
+        // given
+        var tree = new MusicTree(new SequenceNode<>(List.of(
+                new SimpleNode<>(Note.of(Pitch.C, 4, Rythm.q)),
+                new GroupNode<>(List.of(
+                        new SimpleNode<>(Note.of(Pitch.E, 4, Rythm.h)),
+                        new SimpleNode<>(Note.of(Pitch.G, 4, Rythm.q))
+                )),
+                new SimpleNode<>(Note.of(Pitch.C, 5, Rythm.w))
+        )));
+
+        // when
+        var events = MidiMapper.mapToEventStamps(tree);
+
+        // then
+        assertThat(Arrays.stream(events).mapToObj(MidiMapper::stamp)).containsExactly(0, 5, 5, 11);
+        assertThat(Arrays.stream(events).mapToObj(MidiMapper::pitch)).containsExactly(60, 64, 67, 72);
+        assertThat(Arrays.stream(events).mapToObj(MidiMapper::duration)).containsExactly(Rythm.q, Rythm.h, Rythm.q, Rythm.w);
+    }
+
+    @Test
+    void shouldMapInParallelSameAsSequentially() {
+        // given
+        var voices = new ArrayList<Node<Note>>();
+        var random = new Random(13);
+        for (var voice = 0; voice < 24; voice++) {
+            voices.add(randomTree(random, 5));
+        }
+        var tree = new MusicTree(new SequenceNode<>(List.of(new SimpleNode<>(Note.of(Pitch.A, 3, Rythm.e)),
+                new GroupNode<>(voices))));
+        var pool = new ForkJoinPool(4);
+
+        // when
+        var parallel = new long[0];
+        try {
+            parallel = MidiMapper.mapToEventStamps(tree, pool);
+        } finally {
+            pool.shutdown();
+        }
+
+        // then
+        assertThat(parallel.length).isGreaterThan(1000);
+        assertThat(parallel).containsExactly(MidiMapper.mapToEventStamps(tree));
+    }
+}
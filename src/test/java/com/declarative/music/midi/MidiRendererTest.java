@@ -0,0 +1,112 @@
+package com.declarative.music.midi;
+
+import com.declarative.music.interpreter.Operations;
+import com.declarative.music.interpreter.tree.modifier.NoteModifier;
+import com.declarative.music.interpreter.values.Variant;
+import com.declarative.music.interpreter.values.music.MusicTree;
+import com.declarative.music.interpreter.values.music.Note;
+import com.declarative.music.interpreter.values.music.Pitch;
+import com.declarative.music.interpreter.values.music.Rythm;
+import com.declarative.music.interpreter.values.music.Song;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.sound.midi.InvalidMidiDataException;
+import javax.sound.midi.MidiSystem;
+import javax.sound.midi.ShortMessage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+
+class MidiRendererTest {
+    private static MusicTree melody(final int octave) {
+        return new MusicTree()
+                .appendToSequence(Note.of(Pitch.C, octave, Rythm.q))
+                .appendToSequence(Note.of(Pitch.E, octave, Rythm.e))
+                .appendToGroup(Note.of(Pitch.G, octave, Rythm.h));
+    }
+
+    @Test
+    void shouldWriteSingleSongAsOneTrackFile(@TempDir final Path directory) throws IOException {
+        // given
+        final var single = directory.resolve("single.mid");
+        final var tracks = directory.resolve("tracks.mid");
+        MidiRenderer.renderAndSaveMidi(melody(4), single.toString(), 100, "Guitar");
+
+        // when
+        MidiRenderer.renderAndSaveMidi(List.of(new Song(melody(4), 100, "Guitar")), tracks.toString());
+
+        // then
+        assertThat(Files.readAllBytes(tracks)).isEqualTo(Files.readAllBytes(single));
+    }
+
+    @Test
+    void shouldWriteEverySongOnOwnChannel(@TempDir final Path directory) throws IOException, InvalidMidiDataException {
+        // given
+        final var file = directory.resolve("tracks.mid");
+        final var songs = new ArrayList<Song>();
+        for (var index = 0; index < 11; index++) {
+            songs.add(new Song(melody(2 + index % 5), 90, index % 2 == 0 ? "Guitar" : "Piano"));
+        }
+
+        // when
+        MidiRenderer.renderAndSaveMidi(songs, file.toString());
+
+        // then
+        final var sequence = MidiSystem.getSequence(file.toFile());
+        assertThat(sequence.getTracks()).hasSize(12);
+        final var channels = new ArrayList<Integer>();
+        for (var index = 1; index < sequence.getTracks().length; index++) {
+            final var track = sequence.getTracks()[index];
+            final var programChange = (ShortMessage) track.get(0).getMessage();
+            assertThat(programChange.getCommand()).isEqualTo(ShortMessage.PROGRAM_CHANGE);
+            assertThat(programChange.getData1()).isEqualTo(index % 2 == 1 ? 29 : 0);
+            channels.add(programChange.getChannel());
+            assertThat(((ShortMessage) track.get(1).getMessage()).getChannel()).isEqualTo(programChange.getChannel());
+        }
+        assertThat(channels).containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 8, 10, 11);
+    }
+
+    @Test
+    void shouldRejectMoreSongsThanChannels(@TempDir final Path directory) {
+        // given
+        final var songs = new ArrayList<Song>();
+        for (var index = 0; index < 16; index++) {
+            songs.add(new Song(melody(4), 90, "Piano"));
+        }
+
+        // when then
+        assertThatThrownBy(() -> MidiRenderer.renderAndSaveMidi(songs, directory.resolve("song.mid").toString()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldRenderModifiersOfOperands_WhenCombiningTrees(@TempDir final Path directory) throws IOException {
+        // given
+        final var modified = new MusicTree().appendToSequence(new Note(Pitch.C, null, null));
+        modified.setModifier(NoteModifier.builder().withOctave(5).withRythm(Rythm.q).build());
+        final var note = new Variant<>(Note.of(Pitch.E, 4, Rythm.h), Note.class);
+        final var expected = new MusicTree()
+                .appendToSequence(new MusicTree()
+                        .appendToSequence(Note.of(Pitch.C, 5, Rythm.q))
+                        .appendToSequence(Note.of(Pitch.E, 4, Rythm.h)))
+                .appendToGroup(Note.of(Pitch.E, 4, Rythm.h));
+        final var expectedFile = directory.resolve("expected.mid");
+        final var file = directory.resolve("combined.mid");
+        MidiRenderer.renderAndSaveMidi(expected, expectedFile.toString(), 100, "Piano");
+
+        // when
+        final var sequence = Operations.SEQUENCE.apply(new Variant<>(modified, MusicTree.class), note);
+        final var group = Operations.PARALLER.apply(sequence, note);
+        MidiRenderer.renderAndSaveMidi(group.castTo(MusicTree.class), file.toString(), 100, "Piano");
+
+        // then
+        assertThat(Files.readAllBytes(file)).isEqualTo(Files.readAllBytes(expectedFile));
+    }
+}
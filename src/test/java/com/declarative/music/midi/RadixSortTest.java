@@ -0,0 +1,45 @@
+package com.declarative.music.midi;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+class RadixSortTest {
+    @Test
+    void shouldSortStablyByUpperInt() {
+        // given
+        final var random = new Random(7);
+        final var values = new long[10_000];
+        for (var i = 0; i < values.length; i++) {
+            var time = i % 3 == 0 ? random.nextInt(100) : random.nextInt(Integer.MAX_VALUE);
+            values[i] = (long) time << Integer.SIZE | i;
+        }
+        final var expected = Arrays.stream(values).boxed()
+                .sorted(Comparator.comparingLong(value -> value >>> Integer.SIZE))
+                .mapToLong(Long::longValue)
+                .toArray();
+
+        // when
+        final var sorted = RadixSort.sortByUpperInt(values);
+
+        // then
+        assertThat(sorted).containsExactly(expected);
+    }
+
+    @Test
+    void shouldKeepOrderOfEqualKeys() {
+        // given
+        final var values = new long[]{5L << Integer.SIZE | 3, 1L << Integer.SIZE | 9, 5L << Integer.SIZE | 1, 1L << Integer.SIZE | 2};
+
+        // when
+        final var sorted = RadixSort.sortByUpperInt(values);
+
+        // then
+        assertThat(sorted).containsExactly(1L << Integer.SIZE | 9, 1L << Integer.SIZE | 2, 5L << Integer.SIZE | 3, 5L << Integer.SIZE | 1);
+    }
+}
@@ -0,0 +1,104 @@
+package com.declarative.music.midi;
+
+import com.declarative.music.interpreter.values.music.MusicTree;
+import com.declarative.music.interpreter.values.music.Note;
+import com.declarative.music.interpreter.values.music.Pitch;
+import com.declarative.music.interpreter.values.music.Rythm;
+import com.declarative.music.interpreter.values.music.Song;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+
+class WavRendererTest {
+    private static final int HEADER_SIZE = 44;
+
+    private static Song song() {
+        var tree = new MusicTree()
+                .appendToSequence(Note.of(Pitch.C, 4, Rythm.e))
+                .appendToSequence(Note.of(Pitch.G, 4, Rythm.e));
+        return new Song(tree, 240, "Piano");
+    }
+
+    private static short[] samples(final Path file) throws IOException, UnsupportedAudioFileException {
+        try (var stream = AudioSystem.getAudioInputStream(file.toFile())) {
+            var buffer = ByteBuffer.wrap(stream.readAllBytes()).order(ByteOrder.LITTLE_ENDIAN).asShortBuffer();
+            var samples = new short[buffer.remaining()];
+            buffer.get(samples);
+            return samples;
+        }
+    }
+
+    @Test
+    void shouldRenderSongToWav(@TempDir final Path directory) throws IOException, UnsupportedAudioFileException {
+        // given
+        var file = directory.resolve("song.wav");
+
+        // when
+        WavRenderer.renderAndSaveWav(List.of(song()), file.toString());
+
+        // then
+        var format = AudioSystem.getAudioFileFormat(file.toFile());
+        assertThat(format.getFormat().getEncoding()).isEqualTo(AudioFormat.Encoding.PCM_SIGNED);
+        assertThat(format.getFormat().getSampleSizeInBits()).isEqualTo(16);
+        assertThat(format.getByteLength()).isEqualTo(HEADER_SIZE + format.getFrameLength() * format.getFormat().getFrameSize());
+        assertThat(samples(file)).isNotEqualTo(new short[samples(file).length]);
+    }
+
+    @Test
+    void shouldMixTracks(@TempDir final Path directory) throws IOException, UnsupportedAudioFileException {
+        // given
+        var single = directory.resolve("single.wav");
+        var doubled = directory.resolve("doubled.wav");
+        WavRenderer.renderAndSaveWav(List.of(song()), single.toString());
+
+        // when
+        WavRenderer.renderAndSaveWav(List.of(song(), song()), doubled.toString());
+
+        // then
+        var expected = samples(single);
+        for (var index = 0; index < expected.length; index++) {
+            expected[index] = (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, 2 * expected[index]));
+        }
+        assertThat(samples(doubled)).isEqualTo(expected);
+    }
+
+    @Test
+    void shouldWriteSizesAboveSignedRangeAsUnsigned() throws IOException {
+        // given
+        var format = new AudioFormat(44100, 16, 2, true, false);
+        var buffer = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        var dataSize = 3L << 30;
+
+        // when
+        WavRenderer.putHeader(buffer, format, dataSize);
+
+        // then
+        assertThat(Integer.toUnsignedLong(buffer.getInt(4))).isEqualTo(HEADER_SIZE - 8 + dataSize);
+        assertThat(Integer.toUnsignedLong(buffer.getInt(HEADER_SIZE - 4))).isEqualTo(dataSize);
+    }
+
+    @Test
+    void shouldRejectDataAboveWavLimit() {
+        // given
+        var format = new AudioFormat(44100, 16, 2, true, false);
+        var buffer = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+        // when
+        // then
+        assertThatThrownBy(() -> WavRenderer.putHeader(buffer, format, 4L << 30))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("WAV file holds at most");
+    }
+}
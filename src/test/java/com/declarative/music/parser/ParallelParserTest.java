@@ -0,0 +1,64 @@
+package com.declarative.music.parser;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.io.StringReader;
+import java.nio.CharBuffer;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.declarative.music.lexer.LexerImpl;
+
+
+class ParallelParserTest
+{
+    private static final String CODE = """
+        Int a = 10; // first
+        let f = with(Int x)->Int{
+            return x * 2;
+        };
+        if (a > 5) {
+            a = f(a);
+        } else {
+            a = 0;
+        }
+        for (Int i in 0->a) {
+            print("i;" + i as String);
+        }
+        let b = [x * 2 <| x 0->a];
+        """;
+
+    @ParameterizedTest
+    @ValueSource(strings = {"\n", "\r\n"})
+    void shouldParseSameProgramAsParser(final String lineBreak) throws Exception
+    {
+        // given
+        final var code = CODE.repeat(20).replace("\n", lineBreak);
+        final var expected = new Parser(new LexerImpl(new StringReader(code))).parserProgram();
+
+        // when
+        final var program = new ParallelParser(CharBuffer.wrap(code), ForkJoinPool.commonPool(), 1).parserProgram();
+
+        // then
+        assertThat(program).isEqualTo(expected);
+    }
+
+    @Test
+    void shouldThrowFirstErrorWithPositionInWholeSource() throws Exception
+    {
+        // given
+        final var code = CODE + "Int c = ;\n" + CODE + "let = 1;\n";
+        final var expected = catchThrowable(() -> new Parser(new LexerImpl(new StringReader(code))).parserProgram());
+
+        // when
+        final var thrown = catchThrowable(
+            () -> new ParallelParser(CharBuffer.wrap(code), ForkJoinPool.commonPool(), 1).parserProgram());
+
+        // then
+        assertThat(thrown).isInstanceOf(expected.getClass()).hasMessage(expected.getMessage());
+    }
+}
@@ -0,0 +1,61 @@
+package com.declarative.music.parser;
+
+import java.nio.CharBuffer;
+import java.util.concurrent.ForkJoinPool;
+
+import com.declarative.music.lexer.LexerImpl;
+
+
+/**
+ * Parses generated programs of growing size on one thread and in parallel parts, and prints the time of both from the
+ * start of lexing to the parsed program.
+ */
+public class ParallelParsingBenchmark
+{
+    private static final int[] REPEATS = {2_000, 8_000, 32_000};
+    private static final String SOURCE = """
+        // counters of the phrase
+        Int counter = 0;
+        Double tempo = 120.5;
+        let melody = with(Int octave, Int repeats) -> Int {
+            for (Int i in 0->repeats) {
+                if (counter >= 10 && counter != 42 || counter <= 3) {
+                    counter += i * 2 ^ 3 % 7;
+                }
+            }
+            return counter;
+        };
+        let scale = [C, D, E, F, G, A, B];
+        """;
+
+    public static void main(final String[] args) throws Exception
+    {
+        for (int i = 0; i < 5; i++)
+        {
+            run(REPEATS[0], false);
+            run(REPEATS[0], true);
+        }
+        for (var repeats : REPEATS)
+        {
+            var sequential = run(repeats, false);
+            var parallel = run(repeats, true);
+            System.out.printf("%6d statements: sequential %8.1f ms, parallel %8.1f ms (%d threads)%n", repeats * 4,
+                sequential / 1e6, parallel / 1e6, ForkJoinPool.commonPool().getParallelism());
+        }
+    }
+
+    private static long run(final int repeats, final boolean parallel) throws Exception
+    {
+        var source = CharBuffer.wrap(SOURCE.repeat(repeats));
+        var start = System.nanoTime();
+        if (parallel)
+        {
+            new ParallelParser(source).parserProgram();
+        }
+        else
+        {
+            new Parser(new LexerImpl(source)).parserProgram();
+        }
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,95 @@
+package com.declarative.music.parser;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.declarative.music.lexer.Lexer;
+import com.declarative.music.lexer.LexerImpl;
+import com.declarative.music.lexer.expection.UnknownTokenTypeException;
+import com.declarative.music.lexer.token.Token;
+import com.declarative.music.lexer.token.TokenType;
+
+
+class PipelinedLexerTest
+{
+    private static final String STATEMENT = """
+        Int a = 10; // counter
+        a += 2 * (a - 1);
+        """;
+
+    @Test
+    void shouldServeTokensWithoutComments() throws IOException
+    {
+        // given
+        final var code = STATEMENT.repeat(100);
+        final var expected = readAll(new FilteredLexer(new LexerImpl(new StringReader(code))));
+
+        // when
+        final List<Token> tokens;
+        try (var tested = new PipelinedLexer(new LexerImpl(new StringReader(code)), 8))
+        {
+            tokens = readAll(tested);
+            tokens.add(tested.getNextToken());
+        }
+
+        // then
+        expected.add(expected.get(expected.size() - 1));
+        assertThat(tokens).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void shouldThrowErrorOfLexerAfterPrecedingTokens() throws IOException
+    {
+        // given
+        final var code = "a = 1; @";
+
+        // when
+        try (var tested = new PipelinedLexer(new LexerImpl(new StringReader(code)), 2))
+        {
+            for (var index = 0; index < 4; index++)
+            {
+                tested.getNextToken();
+            }
+
+            // then
+            assertThatThrownBy(tested::getNextToken).isInstanceOf(UnknownTokenTypeException.class);
+        }
+    }
+
+    @Test
+    void shouldParseSameProgram() throws Exception
+    {
+        // given
+        final var code = STATEMENT.repeat(50);
+        final var expected = new Parser(new LexerImpl(new StringReader(code))).parserProgram();
+
+        // when
+        try (var tested = new PipelinedLexer(new LexerImpl(new StringReader(code))))
+        {
+            final var program = new Parser(tested).parserProgram();
+
+            // then
+            assertThat(program).isEqualTo(expected);
+        }
+    }
+
+    private static List<Token> readAll(final Lexer lexer) throws IOException
+    {
+        final var tokens = new ArrayList<Token>();
+        Token token;
+        do
+        {
+            token = lexer.getNextToken();
+            tokens.add(token);
+        }
+        while (token.type() != TokenType.T_EOF);
+        return tokens;
+    }
+}